@@ -16,6 +16,8 @@ import org.aspectj.lang.annotation.Pointcut;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.CompletionStage;
+
 /**
  * Класс аспекта фиксации действия игроков.
  */
@@ -50,12 +52,23 @@ public class FixActionAspect {
 
 	/**
 	 * Добавляет удачное действие игрока.
+	 * Если метод вернул асинхронный результат, действие добавляется после его завершения
+	 * со статусом, зависящим от исхода.
 	 *
 	 * @param fixAction аннотация описывающая тип действия.
 	 * @param playerId  идентификатор игрока.
+	 * @param result    результат метода.
 	 */
-	@AfterReturning(value = "executedAnnotatedService(fixAction, playerId)", argNames = "fixAction,playerId")
-	public void addActionSuccess(final FixAction fixAction, final long playerId) {
+	@AfterReturning(value = "executedAnnotatedService(fixAction, playerId)", returning = "result",
+			argNames = "fixAction,playerId,result")
+	public void addActionSuccess(final FixAction fixAction, final long playerId, final Object result) {
+		if (result instanceof CompletionStage<?> completionStage) {
+			completionStage.whenComplete((value, exception) -> this.addAction(playerId, fixAction.actionType(),
+					(exception == null) ? ActionType.Status.SUCCESS : ActionType.Status.FAIL
+			));
+			return;
+		}
+
 		this.addAction(playerId, fixAction.actionType(), ActionType.Status.SUCCESS);
 	}
 
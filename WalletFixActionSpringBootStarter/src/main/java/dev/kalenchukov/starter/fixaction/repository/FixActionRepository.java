@@ -8,6 +8,8 @@ package dev.kalenchukov.starter.fixaction.repository;
 
 import dev.kalenchukov.starter.fixaction.entity.Action;
 
+import java.util.List;
+
 /**
  * Интерфейс для реализации класса хранилища действий.
  */
@@ -19,4 +21,12 @@ public interface FixActionRepository {
 	 * @return действие.
 	 */
 	Action save(Action action);
+
+	/**
+	 * Сохраняет действия одним пакетным запросом.
+	 *
+	 * @param actions действия.
+	 * @return действия в том же порядке.
+	 */
+	List<Action> saveAll(List<Action> actions);
 }
@@ -15,6 +15,9 @@ import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 /**
@@ -55,8 +58,8 @@ public class FixActionRepositoryImpl implements FixActionRepository {
 
 		MapSqlParameterSource mapSqlParameterSource = new MapSqlParameterSource();
 		mapSqlParameterSource.addValue("player_id", action.getPlayerId());
-		mapSqlParameterSource.addValue("type", action.getActionType().name());
-		mapSqlParameterSource.addValue("status", action.getActionTypeStatus().name());
+		mapSqlParameterSource.addValue("type", action.getActionType().getCode());
+		mapSqlParameterSource.addValue("status", action.getActionTypeStatus().getCode());
 
 		KeyHolder keyHolder = new GeneratedKeyHolder();
 		this.namedParameterJdbcTemplate.update(query, mapSqlParameterSource, keyHolder);
@@ -65,4 +68,52 @@ public class FixActionRepositoryImpl implements FixActionRepository {
 
 		return new Action(actionId, action.getPlayerId(), action.getActionType(), action.getActionTypeStatus());
 	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param actions {@inheritDoc}
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public List<Action> saveAll(final List<Action> actions) {
+		Objects.requireNonNull(actions);
+
+		if (actions.isEmpty()) {
+			return List.of();
+		}
+
+		String query = """
+				INSERT INTO actions (player_id, type, status)
+				VALUES (:player_id, :type, :status)
+				""";
+
+		MapSqlParameterSource[] mapSqlParameterSources = new MapSqlParameterSource[actions.size()];
+		for (int index = 0; index < actions.size(); index++) {
+			Action action = Objects.requireNonNull(actions.get(index));
+
+			mapSqlParameterSources[index] = new MapSqlParameterSource();
+			mapSqlParameterSources[index].addValue("player_id", action.getPlayerId());
+			mapSqlParameterSources[index].addValue("type", action.getActionType().getCode());
+			mapSqlParameterSources[index].addValue("status", action.getActionTypeStatus().getCode());
+		}
+
+		KeyHolder keyHolder = new GeneratedKeyHolder();
+		this.namedParameterJdbcTemplate.batchUpdate(query, mapSqlParameterSources, keyHolder,
+				new String[]{"action_id"}
+		);
+
+		List<Map<String, Object>> keys = keyHolder.getKeyList();
+		List<Action> savedActions = new ArrayList<>(actions.size());
+		for (int index = 0; index < actions.size(); index++) {
+			Action action = actions.get(index);
+			long actionId = ((Number) keys.get(index).get("action_id")).longValue();
+
+			savedActions.add(new Action(actionId, action.getPlayerId(), action.getActionType(),
+					action.getActionTypeStatus()
+			));
+		}
+
+		return savedActions;
+	}
 }
@@ -9,6 +9,8 @@ package dev.kalenchukov.starter.fixaction.service;
 import dev.kalenchukov.starter.fixaction.entity.Action;
 import dev.kalenchukov.starter.fixaction.types.ActionType;
 
+import java.util.List;
+
 /**
  * Интерфейс для реализации класса сервиса действий.
  */
@@ -22,4 +24,13 @@ public interface FixActionService {
 	 * @return действие.
 	 */
 	Action add(long playerId, ActionType actionType, ActionType.Status actionTypeStatus);
+
+	/**
+	 * Добавляет действия одной записью в хранилище.
+	 * Используется, когда один запрос игрока состоит из нескольких действий.
+	 *
+	 * @param actions действия.
+	 * @return действия.
+	 */
+	List<Action> addAll(List<Action> actions);
 }
@@ -13,6 +13,7 @@ import dev.kalenchukov.starter.fixaction.types.ActionType;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
 import java.util.Objects;
 
 /**
@@ -51,4 +52,23 @@ public class FixActionServiceImpl implements FixActionService {
 
 		return this.fixActionRepository.save(new Action(0L, playerId, actionType, actionTypeStatus));
 	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param actions {@inheritDoc}
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public List<Action> addAll(final List<Action> actions) {
+		Objects.requireNonNull(actions);
+
+		for (Action action : actions) {
+			Objects.requireNonNull(action);
+			Objects.requireNonNull(action.getActionType());
+			Objects.requireNonNull(action.getActionTypeStatus());
+		}
+
+		return this.fixActionRepository.saveAll(actions);
+	}
 }
@@ -13,32 +13,113 @@ public enum ActionType {
 	/**
 	 * Создание счёта.
 	 */
-	CREATE_ACCOUNT,
+	CREATE_ACCOUNT((short) 1),
+
+	/**
+	 * Получение счёта.
+	 */
+	ACCOUNT((short) 2),
 
 	/**
 	 * Пополнение счёта.
 	 */
-	CREDIT_ACCOUNT,
+	CREDIT_ACCOUNT((short) 3),
 
 	/**
 	 * Списание со счёта.
 	 */
-	DEBIT_ACCOUNT,
+	DEBIT_ACCOUNT((short) 4),
+
+	/**
+	 * Перевод между счетами.
+	 */
+	TRANSFER_ACCOUNT((short) 5),
+
+	/**
+	 * Сверка счёта с журналом операций.
+	 */
+	AUDIT_ACCOUNT((short) 6),
 
 	/**
 	 * Получение операции по счёту.
 	 */
-	OPERATION_ACCOUNT,
+	OPERATION_ACCOUNT((short) 7),
 
 	/**
 	 * Получение списка операций по счёту.
 	 */
-	OPERATIONS_ACCOUNT,
+	OPERATIONS_ACCOUNT((short) 8),
+
+	/**
+	 * Выгрузка истории операций по счёту.
+	 */
+	EXPORT_OPERATIONS_ACCOUNT((short) 9),
+
+	/**
+	 * Получение итогов операций по счёту за период.
+	 */
+	SUMMARY_OPERATIONS_ACCOUNT((short) 10),
 
 	/**
 	 * Получение списка действий игрока.
 	 */
-	ACTIONS;
+	ACTIONS((short) 11);
+
+	/**
+	 * Типы действий по кодам.
+	 */
+	private static final ActionType[] BY_CODE;
+
+	static {
+		int maxCode = 0;
+		for (ActionType value : values()) {
+			maxCode = Math.max(maxCode, value.code);
+		}
+
+		BY_CODE = new ActionType[maxCode + 1];
+		for (ActionType value : values()) {
+			BY_CODE[value.code] = value;
+		}
+	}
+
+	/**
+	 * Код типа действия в базе данных.
+	 * Код не зависит от порядка объявления и не изменяется.
+	 */
+	private final short code;
+
+	/**
+	 * Конструирует тип действия.
+	 *
+	 * @param code код типа действия в базе данных.
+	 */
+	ActionType(final short code) {
+		this.code = code;
+	}
+
+	/**
+	 * Возвращает код типа действия в базе данных.
+	 *
+	 * @return код типа действия.
+	 */
+	public short getCode() {
+		return this.code;
+	}
+
+	/**
+	 * Возвращает тип действия по коду.
+	 *
+	 * @param code код типа действия в базе данных.
+	 * @return тип действия.
+	 * @throws IllegalArgumentException если типа действия с таким кодом нет.
+	 */
+	public static ActionType fromCode(final int code) {
+		if (code < 0 || code >= BY_CODE.length || BY_CODE[code] == null) {
+			throw new IllegalArgumentException("Неизвестный код типа действия: " + code);
+		}
+
+		return BY_CODE[code];
+	}
 
 	/**
 	 * Перечисление типов статусов действий.
@@ -47,11 +128,67 @@ public enum ActionType {
 		/**
 		 * Успешно.
 		 */
-		SUCCESS,
+		SUCCESS((short) 1),
 
 		/**
 		 * Неудача.
 		 */
-		FAIL;
+		FAIL((short) 2);
+
+		/**
+		 * Статусы действий по кодам.
+		 */
+		private static final Status[] BY_CODE;
+
+		static {
+			int maxCode = 0;
+			for (Status value : values()) {
+				maxCode = Math.max(maxCode, value.code);
+			}
+
+			BY_CODE = new Status[maxCode + 1];
+			for (Status value : values()) {
+				BY_CODE[value.code] = value;
+			}
+		}
+
+		/**
+		 * Код статуса действия в базе данных.
+		 * Код не зависит от порядка объявления и не изменяется.
+		 */
+		private final short code;
+
+		/**
+		 * Конструирует статус действия.
+		 *
+		 * @param code код статуса действия в базе данных.
+		 */
+		Status(final short code) {
+			this.code = code;
+		}
+
+		/**
+		 * Возвращает код статуса действия в базе данных.
+		 *
+		 * @return код статуса действия.
+		 */
+		public short getCode() {
+			return this.code;
+		}
+
+		/**
+		 * Возвращает статус действия по коду.
+		 *
+		 * @param code код статуса действия в базе данных.
+		 * @return статус действия.
+		 * @throws IllegalArgumentException если статуса действия с таким кодом нет.
+		 */
+		public static Status fromCode(final int code) {
+			if (code < 0 || code >= BY_CODE.length || BY_CODE[code] == null) {
+				throw new IllegalArgumentException("Неизвестный код статуса действия: " + code);
+			}
+
+			return BY_CODE[code];
+		}
 	}
 }
@@ -16,6 +16,8 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.mockito.Mockito.*;
@@ -70,4 +72,46 @@ public class FixActionServiceImplTest {
 			});
 		}
 	}
+
+	@Nested
+	public class AddAll {
+		@DisplayName("Проверка с корректными данными.")
+		@Test
+		public void addAllValid() {
+			List<Action> actions = List.of(
+					new Action(0L, 36L, ActionType.CREDIT_ACCOUNT, ActionType.Status.SUCCESS),
+					new Action(0L, 36L, ActionType.DEBIT_ACCOUNT, ActionType.Status.FAIL)
+			);
+			List<Action> savedActions = List.of(mock(Action.class), mock(Action.class));
+			when(fixActionRepository.saveAll(actions)).thenReturn(savedActions);
+			FixActionService fixActionService = new FixActionServiceImpl(fixActionRepository);
+
+			List<Action> actualActions = fixActionService.addAll(actions);
+
+			assertThat(actualActions).isEqualTo(savedActions);
+			verify(fixActionRepository, only()).saveAll(actions);
+		}
+
+		@DisplayName("Проверка с null в качестве действий.")
+		@Test
+		public void addAllWithNull() {
+			FixActionService fixActionService = new FixActionServiceImpl(fixActionRepository);
+
+			assertThatExceptionOfType(NullPointerException.class).isThrownBy(() -> {
+				fixActionService.addAll(null);
+			});
+		}
+
+		@DisplayName("Проверка с null в качестве статуса действия.")
+		@Test
+		public void addAllWithNullActionTypeStatus() {
+			List<Action> actions = List.of(new Action(0L, 36L, ActionType.CREDIT_ACCOUNT, null));
+			FixActionService fixActionService = new FixActionServiceImpl(fixActionRepository);
+
+			assertThatExceptionOfType(NullPointerException.class).isThrownBy(() -> {
+				fixActionService.addAll(actions);
+			});
+			verifyNoInteractions(fixActionRepository);
+		}
+	}
 }
\ No newline at end of file
@@ -8,11 +8,13 @@ package dev.kalenchukov.wallet;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Класс запуска приложения.
  */
 @SpringBootApplication
+@EnableScheduling
 public class WalletApplication {
 	/**
 	 * Метод запуска.
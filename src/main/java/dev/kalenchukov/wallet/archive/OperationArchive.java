@@ -0,0 +1,102 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.archive;
+
+import dev.kalenchukov.wallet.entity.Operation;
+
+import java.time.Instant;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Интерфейс для реализации класса архива операций.
+ * Архив хранит операции месяцев, удалённых из таблицы операций, по одному сегменту на месяц.
+ */
+public interface OperationArchive {
+	/**
+	 * Возвращает месяцы сегментов архива.
+	 *
+	 * @return месяцы сегментов в порядке возрастания.
+	 */
+	List<YearMonth> find();
+
+	/**
+	 * Записывает сегмент архива месяца.
+	 * Существующий сегмент месяца заменяется после записи нового сегмента на диск.
+	 *
+	 * @param month  месяц.
+	 * @param source источник, передающий операции месяца и время их создания в порядке возрастания
+	 *               идентификаторов счетов, затем игроков, затем операций.
+	 * @return идентификаторы счетов записанных операций.
+	 */
+	Set<Long> write(YearMonth month, Consumer<BiConsumer<Operation, Instant>> source);
+
+	/**
+	 * Возвращает наибольший идентификатор операции в архиве.
+	 *
+	 * @return идентификатор операции или {@code 0}, если архив пуст.
+	 */
+	long findMaxOperationId();
+
+	/**
+	 * Возвращает операцию счёта игрока из архива.
+	 *
+	 * @param playerId    идентификатор игрока.
+	 * @param accountId   идентификатор счёта.
+	 * @param operationId идентификатор операции.
+	 * @return операция.
+	 */
+	Optional<Operation> findById(long playerId, long accountId, long operationId);
+
+	/**
+	 * Возвращает операции счёта игрока из архива в порядке убывания идентификаторов.
+	 *
+	 * @param playerId  идентификатор игрока.
+	 * @param accountId идентификатор счёта.
+	 * @return операции.
+	 */
+	List<Operation> find(long playerId, long accountId);
+
+	/**
+	 * Возвращает операции счёта игрока из архива с идентификаторами меньше заданного
+	 * в порядке убывания идентификаторов.
+	 *
+	 * @param playerId          идентификатор игрока.
+	 * @param accountId         идентификатор счёта.
+	 * @param beforeOperationId идентификатор операции, до которой выполняется поиск.
+	 * @param limit             максимальное количество операций.
+	 * @return операции.
+	 */
+	List<Operation> findBefore(long playerId, long accountId, long beforeOperationId, int limit);
+
+	/**
+	 * Возвращает операции счёта игрока из архива с идентификаторами больше заданного
+	 * в порядке возрастания идентификаторов.
+	 *
+	 * @param playerId         идентификатор игрока.
+	 * @param accountId        идентификатор счёта.
+	 * @param afterOperationId идентификатор операции, после которой выполняется поиск.
+	 * @param limit            максимальное количество операций.
+	 * @return операции.
+	 */
+	List<Operation> findAfter(long playerId, long accountId, long afterOperationId, int limit);
+
+	/**
+	 * Передаёт операции счёта игрока из архива за период в порядке возрастания идентификаторов.
+	 *
+	 * @param playerId  идентификатор игрока.
+	 * @param accountId идентификатор счёта.
+	 * @param from      начало периода включительно или {@code null}, если период не ограничен снизу.
+	 * @param to        конец периода исключительно или {@code null}, если период не ограничен сверху.
+	 * @param consumer  получатель операций.
+	 */
+	void export(long playerId, long accountId, Instant from, Instant to, Consumer<Operation> consumer);
+}
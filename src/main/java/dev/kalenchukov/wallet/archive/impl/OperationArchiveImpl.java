@@ -0,0 +1,1037 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.archive.impl;
+
+import dev.kalenchukov.wallet.archive.OperationArchive;
+import dev.kalenchukov.wallet.entity.Operation;
+import dev.kalenchukov.wallet.type.OperationType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Класс архива операций в локальных файлах.
+ * Сегмент месяца хранит операции по столбцам отдельно для каждой пары счёта и игрока:
+ * идентификаторы и время создания записываются разностями с предыдущим значением,
+ * типы заменяются кодами словаря сегмента, суммы записываются целыми числами в общем масштабе блока.
+ * Все числа столбцов записываются в кодировке переменной длины.
+ * Заголовок сегмента содержит наименьшие и наибольшие идентификаторы и время создания операций,
+ * поэтому сегменты вне искомого интервала не читаются. Каталог блоков упорядочен по счетам и игрокам
+ * и просматривается двоичным поиском прямо в отображении файла в память.
+ */
+@Component
+public class OperationArchiveImpl implements OperationArchive {
+	/**
+	 * Признак файла сегмента.
+	 */
+	private static final int MAGIC = 0x57415243;
+
+	/**
+	 * Версия формата сегмента.
+	 */
+	private static final int VERSION = 1;
+
+	/**
+	 * Размер заголовка сегмента в байтах.
+	 */
+	private static final int HEADER_SIZE = 72;
+
+	/**
+	 * Размер записи каталога блоков в байтах.
+	 */
+	private static final int ENTRY_SIZE = 32;
+
+	/**
+	 * Расширение файлов сегментов.
+	 */
+	private static final String SEGMENT_EXTENSION = ".archive";
+
+	/**
+	 * Расширение временных файлов сегментов.
+	 */
+	private static final String TEMPORARY_EXTENSION = ".tmp";
+
+	/**
+	 * Каталог архива.
+	 */
+	private final Path directory;
+
+	/**
+	 * Сегменты архива по месяцам.
+	 * Заменяется целиком при записи сегмента.
+	 * Равен {@code null}, если каталог архива ещё не просмотрен.
+	 */
+	private volatile NavigableMap<YearMonth, Segment> segments;
+
+	/**
+	 * Конструирует архив операций.
+	 * Каталог архива просматривается при первом обращении и создаётся при первой записи.
+	 *
+	 * @param directory каталог архива.
+	 */
+	@Autowired
+	public OperationArchiveImpl(@Value("${operation-archive.directory}") final String directory) {
+		Objects.requireNonNull(directory);
+
+		this.directory = Path.of(directory);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public List<YearMonth> find() {
+		return new ArrayList<>(this.getSegments().keySet());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * Сегмент записывается во временный файл, сбрасывается на диск и переименовывается,
+	 * поэтому при сбое записи прежний сегмент месяца остаётся без изменений.
+	 *
+	 * @param month  {@inheritDoc}
+	 * @param source {@inheritDoc}
+	 * @return {@inheritDoc}
+	 * @throws IllegalArgumentException если операции переданы не по порядку
+	 *                                  или сумма операции не помещается в архив.
+	 * @throws UncheckedIOException     если запись в файл завершилась ошибкой.
+	 */
+	@Override
+	public synchronized Set<Long> write(final YearMonth month,
+										final Consumer<BiConsumer<Operation, Instant>> source) {
+		Objects.requireNonNull(month);
+		Objects.requireNonNull(source);
+
+		NavigableMap<YearMonth, Segment> segments = this.getSegments();
+		Path path = this.directory.resolve(month + SEGMENT_EXTENSION);
+		Path temporary = this.directory.resolve(month + SEGMENT_EXTENSION + TEMPORARY_EXTENSION);
+
+		SegmentWriter writer;
+		try {
+			Files.createDirectories(this.directory);
+
+			try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+					StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+				writer = new SegmentWriter(channel);
+				source.accept(writer::add);
+				writer.finish();
+				channel.force(true);
+			}
+
+			Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException exception) {
+			throw new UncheckedIOException(exception);
+		}
+
+		NavigableMap<YearMonth, Segment> updatedSegments = new TreeMap<>(segments);
+		updatedSegments.put(month, open(path));
+		this.segments = updatedSegments;
+
+		return writer.accountIds;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public long findMaxOperationId() {
+		long maxOperationId = 0L;
+		for (Segment segment : this.getSegments().values()) {
+			maxOperationId = Math.max(maxOperationId, segment.maxOperationId());
+		}
+
+		return maxOperationId;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param playerId    {@inheritDoc}
+	 * @param accountId   {@inheritDoc}
+	 * @param operationId {@inheritDoc}
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public Optional<Operation> findById(final long playerId, final long accountId, final long operationId) {
+		List<Operation> operations = new ArrayList<>(1);
+		this.scan(playerId, accountId, operationId - 1L, operationId + 1L, Long.MIN_VALUE, Long.MAX_VALUE,
+				false, operations::add
+		);
+
+		return operations.stream().findFirst();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param playerId  {@inheritDoc}
+	 * @param accountId {@inheritDoc}
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public List<Operation> find(final long playerId, final long accountId) {
+		List<Operation> operations = new ArrayList<>();
+		this.scan(playerId, accountId, Long.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE, Long.MAX_VALUE,
+				true, operations::add
+		);
+
+		return operations;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param playerId          {@inheritDoc}
+	 * @param accountId         {@inheritDoc}
+	 * @param beforeOperationId {@inheritDoc}
+	 * @param limit             {@inheritDoc}
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public List<Operation> findBefore(final long playerId, final long accountId, final long beforeOperationId,
+									  final int limit) {
+		List<Operation> operations = new ArrayList<>();
+		if (limit > 0) {
+			this.scan(playerId, accountId, Long.MIN_VALUE, beforeOperationId, Long.MIN_VALUE, Long.MAX_VALUE,
+					true, operation -> operations.add(operation) && operations.size() < limit
+			);
+		}
+
+		return operations;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param playerId         {@inheritDoc}
+	 * @param accountId        {@inheritDoc}
+	 * @param afterOperationId {@inheritDoc}
+	 * @param limit            {@inheritDoc}
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public List<Operation> findAfter(final long playerId, final long accountId, final long afterOperationId,
+									 final int limit) {
+		List<Operation> operations = new ArrayList<>();
+		if (limit > 0) {
+			this.scan(playerId, accountId, afterOperationId, Long.MAX_VALUE, Long.MIN_VALUE, Long.MAX_VALUE,
+					false, operation -> operations.add(operation) && operations.size() < limit
+			);
+		}
+
+		return operations;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param playerId  {@inheritDoc}
+	 * @param accountId {@inheritDoc}
+	 * @param from      {@inheritDoc}
+	 * @param to        {@inheritDoc}
+	 * @param consumer  {@inheritDoc}
+	 */
+	@Override
+	public void export(final long playerId, final long accountId, final Instant from, final Instant to,
+					   final Consumer<Operation> consumer) {
+		Objects.requireNonNull(consumer);
+
+		this.scan(playerId, accountId, Long.MIN_VALUE, Long.MAX_VALUE,
+				from == null ? Long.MIN_VALUE : toMicros(from),
+				to == null ? Long.MAX_VALUE : toMicros(to),
+				false, operation -> {
+					consumer.accept(operation);
+					return true;
+				}
+		);
+	}
+
+	/**
+	 * Передаёт операции счёта игрока в порядке возрастания или убывания идентификаторов,
+	 * пока получатель не вернёт {@code false}.
+	 * Сегменты открываются по мере продвижения по идентификаторам, поэтому одновременно в памяти
+	 * находятся только блоки сегментов с пересекающимися интервалами идентификаторов.
+	 *
+	 * @param playerId          идентификатор игрока.
+	 * @param accountId         идентификатор счёта.
+	 * @param afterOperationId  идентификатор операции, после которой выполняется поиск.
+	 * @param beforeOperationId идентификатор операции, до которой выполняется поиск.
+	 * @param fromCreatedAt     начало периода создания операций в микросекундах включительно.
+	 * @param toCreatedAt       конец периода создания операций в микросекундах исключительно.
+	 * @param descending        признак порядка убывания идентификаторов.
+	 * @param consumer          получатель операций.
+	 */
+	private void scan(final long playerId, final long accountId, final long afterOperationId,
+					  final long beforeOperationId, final long fromCreatedAt, final long toCreatedAt,
+					  final boolean descending, final Predicate<Operation> consumer) {
+		List<Segment> candidates = new ArrayList<>();
+		for (Segment segment : this.getSegments().values()) {
+			if (segment.maxOperationId() > afterOperationId && segment.minOperationId() < beforeOperationId
+					&& segment.maxCreatedAt() >= fromCreatedAt && segment.minCreatedAt() < toCreatedAt) {
+				candidates.add(segment);
+			}
+		}
+
+		candidates.sort(descending
+				? Comparator.comparingLong(Segment::maxOperationId).reversed()
+				: Comparator.comparingLong(Segment::minOperationId)
+		);
+
+		Comparator<Cursor> order = Comparator.comparingLong(Cursor::operationId);
+		PriorityQueue<Cursor> cursors = new PriorityQueue<>(descending ? order.reversed() : order);
+
+		int next = 0;
+		while (true) {
+			while (next < candidates.size() && (cursors.isEmpty() || (descending
+					? candidates.get(next).maxOperationId() >= cursors.peek().operationId()
+					: candidates.get(next).minOperationId() <= cursors.peek().operationId()))) {
+				Cursor cursor = Cursor.open(candidates.get(next), playerId, accountId, afterOperationId,
+						beforeOperationId, descending
+				);
+				if (cursor != null) {
+					cursors.add(cursor);
+				}
+
+				next++;
+			}
+
+			Cursor cursor = cursors.poll();
+			if (cursor == null) {
+				return;
+			}
+
+			long createdAt = cursor.createdAt();
+			if (createdAt >= fromCreatedAt && createdAt < toCreatedAt
+					&& !consumer.test(cursor.operation(playerId, accountId))) {
+				return;
+			}
+
+			if (cursor.advance()) {
+				cursors.add(cursor);
+			}
+		}
+	}
+
+	/**
+	 * Возвращает сегменты архива, при первом обращении просматривая каталог архива.
+	 *
+	 * @return сегменты архива по месяцам.
+	 * @throws IllegalStateException если файл сегмента повреждён.
+	 * @throws UncheckedIOException  если чтение каталога завершилось ошибкой.
+	 */
+	private NavigableMap<YearMonth, Segment> getSegments() {
+		NavigableMap<YearMonth, Segment> segments = this.segments;
+		if (segments != null) {
+			return segments;
+		}
+
+		synchronized (this) {
+			if (this.segments == null) {
+				NavigableMap<YearMonth, Segment> loadedSegments = new TreeMap<>();
+
+				if (Files.isDirectory(this.directory)) {
+					try (Stream<Path> paths = Files.list(this.directory)) {
+						for (Path path : paths.toList()) {
+							String name = path.getFileName().toString();
+							if (!name.endsWith(SEGMENT_EXTENSION)) {
+								continue;
+							}
+
+							try {
+								YearMonth month = YearMonth.parse(
+										name.substring(0, name.length() - SEGMENT_EXTENSION.length())
+								);
+								loadedSegments.put(month, open(path));
+							} catch (DateTimeParseException exception) {
+								// Файл положен в каталог архива вручную и не обслуживается.
+							}
+						}
+					} catch (IOException exception) {
+						throw new UncheckedIOException(exception);
+					}
+				}
+
+				this.segments = loadedSegments;
+			}
+
+			return this.segments;
+		}
+	}
+
+	/**
+	 * Отображает файл сегмента в память и читает его заголовок и словарь типов.
+	 *
+	 * @param path путь к файлу сегмента.
+	 * @return сегмент.
+	 * @throws IllegalStateException если файл сегмента повреждён.
+	 * @throws UncheckedIOException  если чтение файла завершилось ошибкой.
+	 */
+	private static Segment open(final Path path) {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+				throw new IllegalStateException("Сегмент архива повреждён: " + path);
+			}
+
+			ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+			if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+				throw new IllegalStateException("Сегмент архива повреждён: " + path);
+			}
+
+			int dictionaryOffset = (int) buffer.getLong(48);
+			int directoryOffset = (int) buffer.getLong(56);
+			int entryCount = buffer.getInt(64);
+			if (directoryOffset < dictionaryOffset || (long) directoryOffset + (long) entryCount * ENTRY_SIZE != size) {
+				throw new IllegalStateException("Сегмент архива повреждён: " + path);
+			}
+
+			ByteBuffer dictionary = buffer.slice(dictionaryOffset, directoryOffset - dictionaryOffset);
+			OperationType[] types = new OperationType[Byte.toUnsignedInt(dictionary.get())];
+			for (int code = 0; code < types.length; code++) {
+				byte[] name = new byte[Byte.toUnsignedInt(dictionary.get())];
+				dictionary.get(name);
+				types[code] = OperationType.valueOf(new String(name, StandardCharsets.US_ASCII));
+			}
+
+			return new Segment(buffer, buffer.getLong(16), buffer.getLong(24), buffer.getLong(32),
+					buffer.getLong(40), types, directoryOffset, entryCount
+			);
+		} catch (IOException exception) {
+			throw new UncheckedIOException(exception);
+		}
+	}
+
+	/**
+	 * Переводит время в количество микросекунд с начала эпохи, округляя вверх.
+	 * Время создания операций хранится с точностью до микросекунды.
+	 *
+	 * @param instant время.
+	 * @return количество микросекунд.
+	 */
+	private static long toMicros(final Instant instant) {
+		long micros = Math.multiplyExact(instant.getEpochSecond(), 1_000_000L);
+
+		return Math.addExact(micros, (instant.getNano() + 999L) / 1_000L);
+	}
+
+	/**
+	 * Записывает число в кодировке переменной длины.
+	 *
+	 * @param output получатель байтов.
+	 * @param value  число без знака.
+	 */
+	private static void writeVarLong(final ByteArrayOutputStream output, final long value) {
+		long remaining = value;
+		while ((remaining & ~0x7FL) != 0) {
+			output.write((int) (remaining & 0x7F) | 0x80);
+			remaining >>>= 7;
+		}
+
+		output.write((int) remaining);
+	}
+
+	/**
+	 * Читает число в кодировке переменной длины.
+	 *
+	 * @param buffer источник байтов.
+	 * @return число без знака.
+	 */
+	private static long readVarLong(final ByteBuffer buffer) {
+		long value = 0L;
+		for (int shift = 0; ; shift += 7) {
+			byte part = buffer.get();
+			value |= (long) (part & 0x7F) << shift;
+
+			if (part >= 0) {
+				return value;
+			}
+		}
+	}
+
+	/**
+	 * Кодирует число со знаком в число без знака так, что числа с малым модулем остаются малыми.
+	 *
+	 * @param value число со знаком.
+	 * @return число без знака.
+	 */
+	private static long zigzag(final long value) {
+		return (value << 1) ^ (value >> 63);
+	}
+
+	/**
+	 * Декодирует число, закодированное {@link #zigzag(long)}.
+	 *
+	 * @param value число без знака.
+	 * @return число со знаком.
+	 */
+	private static long unzigzag(final long value) {
+		return (value >>> 1) ^ -(value & 1L);
+	}
+
+	/**
+	 * Сегмент архива, отображённый в память.
+	 * Буфер читается только по абсолютным позициям, поэтому сегмент используется потоками совместно.
+	 *
+	 * @param buffer          отображение файла сегмента.
+	 * @param minOperationId  наименьший идентификатор операции.
+	 * @param maxOperationId  наибольший идентификатор операции.
+	 * @param minCreatedAt    наименьшее время создания операции в микросекундах.
+	 * @param maxCreatedAt    наибольшее время создания операции в микросекундах.
+	 * @param types           типы операций по кодам словаря.
+	 * @param directoryOffset позиция каталога блоков.
+	 * @param entryCount      количество блоков.
+	 */
+	private record Segment(ByteBuffer buffer, long minOperationId, long maxOperationId, long minCreatedAt,
+						   long maxCreatedAt, OperationType[] types, int directoryOffset, int entryCount) {
+		/**
+		 * Ищет блок счёта и игрока в каталоге блоков.
+		 *
+		 * @param accountId идентификатор счёта.
+		 * @param playerId  идентификатор игрока.
+		 * @return позиция записи каталога или {@code -1}, если блок не найден.
+		 */
+		private int findEntry(final long accountId, final long playerId) {
+			int low = 0;
+			int high = this.entryCount - 1;
+
+			while (low <= high) {
+				int middle = (low + high) >>> 1;
+				int position = this.directoryOffset + middle * ENTRY_SIZE;
+
+				int compare = Long.compare(this.buffer.getLong(position), accountId);
+				if (compare == 0) {
+					compare = Long.compare(this.buffer.getLong(position + Long.BYTES), playerId);
+				}
+
+				if (compare < 0) {
+					low = middle + 1;
+				} else if (compare > 0) {
+					high = middle - 1;
+				} else {
+					return position;
+				}
+			}
+
+			return -1;
+		}
+	}
+
+	/**
+	 * Курсор по операциям блока.
+	 * Блок декодируется целиком при открытии курсора.
+	 */
+	private static final class Cursor {
+		/**
+		 * Типы операций по кодам словаря.
+		 */
+		private final OperationType[] types;
+
+		/**
+		 * Идентификаторы операций.
+		 */
+		private final long[] operationIds;
+
+		/**
+		 * Время создания операций в микросекундах.
+		 */
+		private final long[] createdAts;
+
+		/**
+		 * Коды типов операций.
+		 */
+		private final byte[] typeCodes;
+
+		/**
+		 * Суммы операций в масштабе блока.
+		 */
+		private final long[] amounts;
+
+		/**
+		 * Масштаб сумм блока.
+		 */
+		private final int scale;
+
+		/**
+		 * Позиция после последней операции курсора в направлении движения.
+		 */
+		private final int end;
+
+		/**
+		 * Шаг движения курсора.
+		 */
+		private final int step;
+
+		/**
+		 * Текущая позиция.
+		 */
+		private int index;
+
+		/**
+		 * Конструирует курсор.
+		 *
+		 * @param types        типы операций по кодам словаря.
+		 * @param operationIds идентификаторы операций.
+		 * @param createdAts   время создания операций в микросекундах.
+		 * @param typeCodes    коды типов операций.
+		 * @param amounts      суммы операций в масштабе блока.
+		 * @param scale        масштаб сумм блока.
+		 * @param index        начальная позиция.
+		 * @param end          позиция после последней операции курсора в направлении движения.
+		 * @param step         шаг движения курсора.
+		 */
+		private Cursor(final OperationType[] types, final long[] operationIds, final long[] createdAts,
+					   final byte[] typeCodes, final long[] amounts, final int scale, final int index,
+					   final int end, final int step) {
+			this.types = types;
+			this.operationIds = operationIds;
+			this.createdAts = createdAts;
+			this.typeCodes = typeCodes;
+			this.amounts = amounts;
+			this.scale = scale;
+			this.index = index;
+			this.end = end;
+			this.step = step;
+		}
+
+		/**
+		 * Декодирует блок счёта и игрока сегмента и открывает курсор по операциям
+		 * с идентификаторами в заданном интервале.
+		 *
+		 * @param segment           сегмент.
+		 * @param playerId          идентификатор игрока.
+		 * @param accountId         идентификатор счёта.
+		 * @param afterOperationId  идентификатор операции, после которой выполняется поиск.
+		 * @param beforeOperationId идентификатор операции, до которой выполняется поиск.
+		 * @param descending        признак порядка убывания идентификаторов.
+		 * @return курсор или {@code null}, если операций в интервале нет.
+		 */
+		private static Cursor open(final Segment segment, final long playerId, final long accountId,
+								   final long afterOperationId, final long beforeOperationId,
+								   final boolean descending) {
+			int entry = segment.findEntry(accountId, playerId);
+			if (entry < 0) {
+				return null;
+			}
+
+			ByteBuffer segmentBuffer = segment.buffer();
+			int count = segmentBuffer.getInt(entry + Long.BYTES * 3);
+			ByteBuffer block = segmentBuffer.slice((int) segmentBuffer.getLong(entry + Long.BYTES * 2),
+					segmentBuffer.getInt(entry + Long.BYTES * 3 + Integer.BYTES)
+			);
+
+			int scale = block.get();
+
+			long[] operationIds = new long[count];
+			long operationId = 0L;
+			for (int index = 0; index < count; index++) {
+				operationId += readVarLong(block);
+				operationIds[index] = operationId;
+			}
+
+			long[] createdAts = new long[count];
+			long createdAt = 0L;
+			for (int index = 0; index < count; index++) {
+				createdAt += unzigzag(readVarLong(block));
+				createdAts[index] = createdAt;
+			}
+
+			byte[] typeCodes = new byte[count];
+			block.get(typeCodes);
+
+			long[] amounts = new long[count];
+			for (int index = 0; index < count; index++) {
+				amounts[index] = unzigzag(readVarLong(block));
+			}
+
+			int from = Arrays.binarySearch(operationIds, afterOperationId);
+			from = from < 0 ? -from - 1 : from + 1;
+			int to = Arrays.binarySearch(operationIds, beforeOperationId);
+			to = to < 0 ? -to - 1 : to;
+
+			if (from >= to) {
+				return null;
+			}
+
+			return descending
+					? new Cursor(segment.types(), operationIds, createdAts, typeCodes, amounts, scale, to - 1,
+					from - 1, -1)
+					: new Cursor(segment.types(), operationIds, createdAts, typeCodes, amounts, scale, from,
+					to, 1);
+		}
+
+		/**
+		 * Возвращает идентификатор текущей операции.
+		 *
+		 * @return идентификатор операции.
+		 */
+		private long operationId() {
+			return this.operationIds[this.index];
+		}
+
+		/**
+		 * Возвращает время создания текущей операции.
+		 *
+		 * @return время создания в микросекундах.
+		 */
+		private long createdAt() {
+			return this.createdAts[this.index];
+		}
+
+		/**
+		 * Возвращает текущую операцию.
+		 *
+		 * @param playerId  идентификатор игрока.
+		 * @param accountId идентификатор счёта.
+		 * @return операция.
+		 */
+		private Operation operation(final long playerId, final long accountId) {
+			return new Operation(this.operationIds[this.index], playerId, accountId,
+					this.types[Byte.toUnsignedInt(this.typeCodes[this.index])],
+					BigDecimal.valueOf(this.amounts[this.index], this.scale)
+			);
+		}
+
+		/**
+		 * Переходит к следующей операции.
+		 *
+		 * @return {@code true}, если операции курсора не закончились.
+		 */
+		private boolean advance() {
+			this.index += this.step;
+
+			return this.index != this.end;
+		}
+	}
+
+	/**
+	 * Запись сегмента архива.
+	 * Операции пары счёта и игрока накапливаются в памяти и записываются блоком при смене пары.
+	 * Заголовок записывается последним, поэтому не дописанный сегмент не проходит проверку признака файла.
+	 */
+	private static final class SegmentWriter {
+		/**
+		 * Файл сегмента.
+		 */
+		private final FileChannel channel;
+
+		/**
+		 * Поток записи блоков.
+		 */
+		private final DataOutputStream output;
+
+		/**
+		 * Каталог блоков.
+		 */
+		private final ByteArrayOutputStream directory;
+
+		/**
+		 * Коды типов операций словаря.
+		 */
+		private final Map<OperationType, Integer> dictionary;
+
+		/**
+		 * Идентификаторы счетов записанных операций.
+		 */
+		private final Set<Long> accountIds;
+
+		/**
+		 * Идентификаторы операций текущего блока.
+		 */
+		private long[] operationIds;
+
+		/**
+		 * Время создания операций текущего блока в микросекундах.
+		 */
+		private long[] createdAts;
+
+		/**
+		 * Коды типов операций текущего блока.
+		 */
+		private byte[] typeCodes;
+
+		/**
+		 * Суммы операций текущего блока.
+		 */
+		private BigDecimal[] amounts;
+
+		/**
+		 * Количество операций текущего блока.
+		 */
+		private int count;
+
+		/**
+		 * Идентификатор счёта текущего блока.
+		 */
+		private long accountId;
+
+		/**
+		 * Идентификатор игрока текущего блока.
+		 */
+		private long playerId;
+
+		/**
+		 * Позиция следующего блока.
+		 */
+		private long position;
+
+		/**
+		 * Количество блоков.
+		 */
+		private int entryCount;
+
+		/**
+		 * Количество операций.
+		 */
+		private long operationCount;
+
+		/**
+		 * Наименьший идентификатор операции.
+		 */
+		private long minOperationId;
+
+		/**
+		 * Наибольший идентификатор операции.
+		 */
+		private long maxOperationId;
+
+		/**
+		 * Наименьшее время создания операции в микросекундах.
+		 */
+		private long minCreatedAt;
+
+		/**
+		 * Наибольшее время создания операции в микросекундах.
+		 */
+		private long maxCreatedAt;
+
+		/**
+		 * Конструирует запись сегмента.
+		 *
+		 * @param channel файл сегмента.
+		 * @throws IOException если запись в файл завершилась ошибкой.
+		 */
+		private SegmentWriter(final FileChannel channel) throws IOException {
+			channel.position(HEADER_SIZE);
+
+			this.channel = channel;
+			this.output = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+			this.directory = new ByteArrayOutputStream();
+			this.dictionary = new EnumMap<>(OperationType.class);
+			this.accountIds = new HashSet<>();
+			this.operationIds = new long[16];
+			this.createdAts = new long[16];
+			this.typeCodes = new byte[16];
+			this.amounts = new BigDecimal[16];
+			this.position = HEADER_SIZE;
+			this.minOperationId = Long.MAX_VALUE;
+			this.maxOperationId = Long.MIN_VALUE;
+			this.minCreatedAt = Long.MAX_VALUE;
+			this.maxCreatedAt = Long.MIN_VALUE;
+		}
+
+		/**
+		 * Добавляет операцию в текущий блок.
+		 *
+		 * @param operation операция.
+		 * @param createdAt время создания операции.
+		 * @throws IllegalArgumentException если операции переданы не по порядку.
+		 * @throws UncheckedIOException     если запись в файл завершилась ошибкой.
+		 */
+		private void add(final Operation operation, final Instant createdAt) {
+			Objects.requireNonNull(operation);
+			Objects.requireNonNull(createdAt);
+
+			if (this.count > 0 && (operation.getAccountId() != this.accountId
+					|| operation.getPlayerId() != this.playerId)) {
+				int compare = Long.compare(operation.getAccountId(), this.accountId);
+				if (compare == 0) {
+					compare = Long.compare(operation.getPlayerId(), this.playerId);
+				}
+
+				if (compare < 0) {
+					throw new IllegalArgumentException("Операции переданы не по порядку.");
+				}
+
+				this.flush();
+			}
+
+			if (this.count > 0 && operation.getOperationId() <= this.operationIds[this.count - 1]) {
+				throw new IllegalArgumentException("Операции переданы не по порядку.");
+			}
+
+			if (this.count == this.operationIds.length) {
+				int capacity = this.count * 2;
+				this.operationIds = Arrays.copyOf(this.operationIds, capacity);
+				this.createdAts = Arrays.copyOf(this.createdAts, capacity);
+				this.typeCodes = Arrays.copyOf(this.typeCodes, capacity);
+				this.amounts = Arrays.copyOf(this.amounts, capacity);
+			}
+
+			long micros = toMicros(createdAt);
+			this.accountId = operation.getAccountId();
+			this.playerId = operation.getPlayerId();
+			this.operationIds[this.count] = operation.getOperationId();
+			this.createdAts[this.count] = micros;
+			this.typeCodes[this.count] = this.dictionary.computeIfAbsent(operation.getOperationType(),
+					type -> this.dictionary.size()).byteValue();
+			this.amounts[this.count] = operation.getAmount();
+			this.count++;
+			this.operationCount++;
+
+			this.minOperationId = Math.min(this.minOperationId, operation.getOperationId());
+			this.maxOperationId = Math.max(this.maxOperationId, operation.getOperationId());
+			this.minCreatedAt = Math.min(this.minCreatedAt, micros);
+			this.maxCreatedAt = Math.max(this.maxCreatedAt, micros);
+		}
+
+		/**
+		 * Записывает последний блок, словарь типов, каталог блоков и заголовок сегмента.
+		 *
+		 * @throws IOException если запись в файл завершилась ошибкой.
+		 */
+		private void finish() throws IOException {
+			if (this.count > 0) {
+				this.flush();
+			}
+
+			OperationType[] types = new OperationType[this.dictionary.size()];
+			this.dictionary.forEach((type, code) -> types[code] = type);
+
+			ByteArrayOutputStream dictionary = new ByteArrayOutputStream();
+			dictionary.write(types.length);
+			for (OperationType type : types) {
+				byte[] name = type.name().getBytes(StandardCharsets.US_ASCII);
+				dictionary.write(name.length);
+				dictionary.write(name);
+			}
+
+			long dictionaryOffset = this.position;
+			long directoryOffset = dictionaryOffset + dictionary.size();
+			dictionary.writeTo(this.output);
+			this.directory.writeTo(this.output);
+			this.output.flush();
+
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			header.putInt(MAGIC);
+			header.putInt(VERSION);
+			header.putLong(this.operationCount);
+			header.putLong(this.minOperationId);
+			header.putLong(this.maxOperationId);
+			header.putLong(this.minCreatedAt);
+			header.putLong(this.maxCreatedAt);
+			header.putLong(dictionaryOffset);
+			header.putLong(directoryOffset);
+			header.putInt(this.entryCount);
+			header.putInt(0);
+			header.flip();
+
+			while (header.hasRemaining()) {
+				this.channel.write(header, header.position());
+			}
+		}
+
+		/**
+		 * Записывает текущий блок и добавляет его в каталог блоков.
+		 *
+		 * @throws IllegalArgumentException если сумма операции не помещается в архив.
+		 * @throws UncheckedIOException     если запись в файл завершилась ошибкой.
+		 */
+		private void flush() {
+			int scale = 0;
+			for (int index = 0; index < this.count; index++) {
+				scale = Math.max(scale, this.amounts[index].scale());
+			}
+
+			if (scale > Byte.MAX_VALUE) {
+				throw new IllegalArgumentException("Сумма операции не помещается в архив.");
+			}
+
+			ByteArrayOutputStream operationIds = new ByteArrayOutputStream();
+			ByteArrayOutputStream createdAts = new ByteArrayOutputStream();
+			ByteArrayOutputStream amounts = new ByteArrayOutputStream();
+			long previousOperationId = 0L;
+			long previousCreatedAt = 0L;
+			for (int index = 0; index < this.count; index++) {
+				writeVarLong(operationIds, this.operationIds[index] - previousOperationId);
+				writeVarLong(createdAts, zigzag(this.createdAts[index] - previousCreatedAt));
+				previousOperationId = this.operationIds[index];
+				previousCreatedAt = this.createdAts[index];
+
+				try {
+					writeVarLong(amounts, zigzag(
+							this.amounts[index].setScale(scale).unscaledValue().longValueExact()
+					));
+				} catch (ArithmeticException exception) {
+					throw new IllegalArgumentException("Сумма операции не помещается в архив.", exception);
+				}
+			}
+
+			int length = 1 + operationIds.size() + createdAts.size() + this.count + amounts.size();
+
+			try {
+				this.output.writeByte(scale);
+				operationIds.writeTo(this.output);
+				createdAts.writeTo(this.output);
+				this.output.write(this.typeCodes, 0, this.count);
+				amounts.writeTo(this.output);
+
+				DataOutputStream entry = new DataOutputStream(this.directory);
+				entry.writeLong(this.accountId);
+				entry.writeLong(this.playerId);
+				entry.writeLong(this.position);
+				entry.writeInt(this.count);
+				entry.writeInt(length);
+			} catch (IOException exception) {
+				throw new UncheckedIOException(exception);
+			}
+
+			this.accountIds.add(this.accountId);
+			this.position += length;
+			this.entryCount++;
+			this.count = 0;
+		}
+	}
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.cache;
+
+import dev.kalenchukov.wallet.entity.Account;
+
+/**
+ * Интерфейс для реализации класса кэша счетов.
+ */
+public interface AccountCache {
+	/**
+	 * Возвращает счёт.
+	 *
+	 * @param accountId идентификатор счёта.
+	 * @return счёт или {@code null}, если счёт отсутствует в кэше.
+	 */
+	Account get(long accountId);
+
+	/**
+	 * Записывает счёт.
+	 *
+	 * @param account счёт.
+	 */
+	void put(Account account);
+
+	/**
+	 * Удаляет счёт.
+	 *
+	 * @param accountId идентификатор счёта.
+	 */
+	void remove(long accountId);
+}
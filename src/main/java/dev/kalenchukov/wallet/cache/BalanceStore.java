@@ -0,0 +1,37 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.cache;
+
+import dev.kalenchukov.wallet.entity.Account;
+
+/**
+ * Интерфейс для реализации класса хранилища сумм счетов вне кучи.
+ */
+public interface BalanceStore {
+	/**
+	 * Возвращает счёт.
+	 *
+	 * @param accountId идентификатор счёта.
+	 * @return счёт или {@code null}, если счёт отсутствует в хранилище.
+	 */
+	Account get(long accountId);
+
+	/**
+	 * Записывает счёт.
+	 * Счёт, который не помещается в хранилище, удаляется из него.
+	 *
+	 * @param account счёт.
+	 */
+	void put(Account account);
+
+	/**
+	 * Удаляет счёт.
+	 *
+	 * @param accountId идентификатор счёта.
+	 */
+	void remove(long accountId);
+}
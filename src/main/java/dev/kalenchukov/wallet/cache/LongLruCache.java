@@ -0,0 +1,484 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Класс ограниченного кэша с ключами типа {@code long}.
+ * Кэш разделён на сегменты, каждый сегмент вытесняет давно не использованные записи
+ * и хранит ключи и связи записей в массивах примитивов без упаковки ключей.
+ * Записи устаревают по истечении времени жизни с момента последней записи.
+ * Публикует счётчики попаданий, промахов и вытеснений.
+ *
+ * @param <V> тип значений.
+ */
+public class LongLruCache<V> {
+	/**
+	 * Максимальное количество сегментов.
+	 */
+	private static final int MAX_SEGMENTS = 16;
+
+	/**
+	 * Минимальное количество записей в сегменте.
+	 */
+	private static final int MIN_SEGMENT_SIZE = 64;
+
+	/**
+	 * Множитель для перемешивания ключей.
+	 */
+	private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+	/**
+	 * Сегменты.
+	 */
+	private final Segment<V>[] segments;
+
+	/**
+	 * Количество бит в номере сегмента.
+	 */
+	private final int segmentBits;
+
+	/**
+	 * Время жизни записи в наносекундах.
+	 * Равно нулю, если записи не устаревают.
+	 */
+	private final long ttl;
+
+	/**
+	 * Попадания.
+	 */
+	private final Counter hits;
+
+	/**
+	 * Промахи.
+	 */
+	private final Counter misses;
+
+	/**
+	 * Вытеснения.
+	 */
+	private final Counter evictions;
+
+	/**
+	 * Конструирует кэш.
+	 *
+	 * @param name          наименование кэша.
+	 * @param maximumSize   максимальное количество записей.
+	 * @param ttl           время жизни записи в миллисекундах или {@code 0}, если записи не устаревают.
+	 * @param meterRegistry реестр метрик.
+	 * @throws IllegalArgumentException если максимальное количество записей меньше единицы
+	 *                                  или время жизни отрицательное.
+	 */
+	public LongLruCache(final String name, final int maximumSize, final long ttl, final MeterRegistry meterRegistry) {
+		Objects.requireNonNull(name);
+		Objects.requireNonNull(meterRegistry);
+
+		if (maximumSize < 1) {
+			throw new IllegalArgumentException("Максимальное количество записей кэша должно быть больше нуля.");
+		}
+
+		if (ttl < 0) {
+			throw new IllegalArgumentException("Время жизни записи кэша не может быть отрицательным.");
+		}
+
+		int segmentCount = Math.max(1, Math.min(MAX_SEGMENTS, Integer.highestOneBit(maximumSize / MIN_SEGMENT_SIZE)));
+		this.segmentBits = Integer.numberOfTrailingZeros(segmentCount);
+		this.segments = newSegments(segmentCount);
+		for (int segment = 0; segment < segmentCount; segment++) {
+			int capacity = maximumSize / segmentCount + ((segment < maximumSize % segmentCount) ? 1 : 0);
+			this.segments[segment] = new Segment<>(capacity);
+		}
+
+		this.ttl = TimeUnit.MILLISECONDS.toNanos(ttl);
+		this.hits = Counter.builder("cache.gets")
+				.description("Количество попаданий в кэш")
+				.tag("cache", name)
+				.tag("result", "hit")
+				.register(meterRegistry);
+		this.misses = Counter.builder("cache.gets")
+				.description("Количество промахов кэша")
+				.tag("cache", name)
+				.tag("result", "miss")
+				.register(meterRegistry);
+		this.evictions = Counter.builder("cache.evictions")
+				.description("Количество вытеснений из кэша")
+				.tag("cache", name)
+				.register(meterRegistry);
+		Gauge.builder("cache.size", this, LongLruCache::size)
+				.description("Количество записей в кэше")
+				.tag("cache", name)
+				.register(meterRegistry);
+	}
+
+	/**
+	 * Возвращает значение по ключу.
+	 *
+	 * @param key ключ.
+	 * @return значение или {@code null}, если значение отсутствует или устарело.
+	 */
+	public V get(final long key) {
+		V value = this.segment(key).get(key, System.nanoTime());
+
+		if (value == null) {
+			this.misses.increment();
+		} else {
+			this.hits.increment();
+		}
+
+		return value;
+	}
+
+	/**
+	 * Записывает значение по ключу.
+	 *
+	 * @param key   ключ.
+	 * @param value значение.
+	 */
+	public void put(final long key, final V value) {
+		Objects.requireNonNull(value);
+
+		long expireAt = (this.ttl == 0) ? Long.MAX_VALUE : System.nanoTime() + this.ttl;
+		if (this.segment(key).put(key, value, expireAt)) {
+			this.evictions.increment();
+		}
+	}
+
+	/**
+	 * Удаляет значение по ключу.
+	 *
+	 * @param key ключ.
+	 */
+	public void remove(final long key) {
+		this.segment(key).remove(key);
+	}
+
+	/**
+	 * Возвращает количество записей.
+	 *
+	 * @return количество записей.
+	 */
+	public int size() {
+		int size = 0;
+		for (Segment<V> segment : this.segments) {
+			size += segment.size();
+		}
+
+		return size;
+	}
+
+	/**
+	 * Возвращает сегмент ключа.
+	 *
+	 * @param key ключ.
+	 * @return сегмент.
+	 */
+	private Segment<V> segment(final long key) {
+		if (this.segmentBits == 0) {
+			return this.segments[0];
+		}
+
+		return this.segments[(int) ((key * HASH_MULTIPLIER) >>> (Long.SIZE - this.segmentBits))];
+	}
+
+	/**
+	 * Создаёт массив сегментов.
+	 *
+	 * @param length количество сегментов.
+	 * @param <V>    тип значений.
+	 * @return массив сегментов.
+	 */
+	@SuppressWarnings("unchecked")
+	private static <V> Segment<V>[] newSegments(final int length) {
+		return (Segment<V>[]) new Segment<?>[length];
+	}
+
+	/**
+	 * Класс сегмента кэша.
+	 * Записи хранятся в массивах фиксированного размера, индекс записи связывает массивы между собой.
+	 * Цепочки корзин и список давности использования построены на индексах записей.
+	 *
+	 * @param <V> тип значений.
+	 */
+	private static final class Segment<V> {
+		/**
+		 * Признак отсутствия записи.
+		 */
+		private static final int NONE = -1;
+
+		/**
+		 * Первые записи корзин.
+		 */
+		private final int[] buckets;
+
+		/**
+		 * Следующие записи в корзине.
+		 */
+		private final int[] bucketNext;
+
+		/**
+		 * Ключи записей.
+		 */
+		private final long[] keys;
+
+		/**
+		 * Значения записей.
+		 */
+		private final Object[] values;
+
+		/**
+		 * Моменты устаревания записей.
+		 */
+		private final long[] expireAts;
+
+		/**
+		 * Предыдущие записи в списке давности использования.
+		 */
+		private final int[] prev;
+
+		/**
+		 * Следующие записи в списке давности использования.
+		 * Для свободных записей указывает на следующую свободную запись.
+		 */
+		private final int[] next;
+
+		/**
+		 * Последняя использованная запись.
+		 */
+		private int head = NONE;
+
+		/**
+		 * Давно не использованная запись.
+		 */
+		private int tail = NONE;
+
+		/**
+		 * Первая свободная запись.
+		 */
+		private int free;
+
+		/**
+		 * Количество записей.
+		 */
+		private int size;
+
+		/**
+		 * Конструирует сегмент.
+		 *
+		 * @param capacity максимальное количество записей.
+		 */
+		private Segment(final int capacity) {
+			this.buckets = new int[Integer.highestOneBit(Math.max(1, capacity * 2 - 1)) << 1];
+			Arrays.fill(this.buckets, NONE);
+			this.bucketNext = new int[capacity];
+			this.keys = new long[capacity];
+			this.values = new Object[capacity];
+			this.expireAts = new long[capacity];
+			this.prev = new int[capacity];
+			this.next = new int[capacity];
+
+			for (int index = 0; index < capacity; index++) {
+				this.next[index] = (index + 1 < capacity) ? index + 1 : NONE;
+			}
+			this.free = (capacity > 0) ? 0 : NONE;
+		}
+
+		/**
+		 * Возвращает значение по ключу.
+		 *
+		 * @param key ключ.
+		 * @param now текущий момент.
+		 * @return значение или {@code null}.
+		 */
+		@SuppressWarnings("unchecked")
+		private synchronized V get(final long key, final long now) {
+			int index = this.find(key);
+			if (index == NONE) {
+				return null;
+			}
+
+			if (this.expireAts[index] - now <= 0) {
+				this.delete(index);
+				return null;
+			}
+
+			this.moveToHead(index);
+
+			return (V) this.values[index];
+		}
+
+		/**
+		 * Записывает значение по ключу.
+		 *
+		 * @param key      ключ.
+		 * @param value    значение.
+		 * @param expireAt момент устаревания.
+		 * @return {@code true} если для записи была вытеснена другая запись, иначе {@code false}.
+		 */
+		private synchronized boolean put(final long key, final V value, final long expireAt) {
+			int index = this.find(key);
+			if (index != NONE) {
+				this.values[index] = value;
+				this.expireAts[index] = expireAt;
+				this.moveToHead(index);
+				return false;
+			}
+
+			boolean evicted = false;
+			if (this.free == NONE) {
+				if (this.tail == NONE) {
+					return false;
+				}
+
+				this.delete(this.tail);
+				evicted = true;
+			}
+
+			index = this.free;
+			this.free = this.next[index];
+
+			int bucket = this.bucket(key);
+			this.keys[index] = key;
+			this.values[index] = value;
+			this.expireAts[index] = expireAt;
+			this.bucketNext[index] = this.buckets[bucket];
+			this.buckets[bucket] = index;
+			this.linkHead(index);
+			this.size++;
+
+			return evicted;
+		}
+
+		/**
+		 * Удаляет значение по ключу.
+		 *
+		 * @param key ключ.
+		 */
+		private synchronized void remove(final long key) {
+			int index = this.find(key);
+			if (index != NONE) {
+				this.delete(index);
+			}
+		}
+
+		/**
+		 * Возвращает количество записей.
+		 *
+		 * @return количество записей.
+		 */
+		private synchronized int size() {
+			return this.size;
+		}
+
+		/**
+		 * Ищет запись по ключу.
+		 *
+		 * @param key ключ.
+		 * @return индекс записи или {@link #NONE}.
+		 */
+		private int find(final long key) {
+			int index = this.buckets[this.bucket(key)];
+			while (index != NONE && this.keys[index] != key) {
+				index = this.bucketNext[index];
+			}
+
+			return index;
+		}
+
+		/**
+		 * Удаляет запись и возвращает её в список свободных записей.
+		 *
+		 * @param index индекс записи.
+		 */
+		private void delete(final int index) {
+			int bucket = this.bucket(this.keys[index]);
+			if (this.buckets[bucket] == index) {
+				this.buckets[bucket] = this.bucketNext[index];
+			} else {
+				int current = this.buckets[bucket];
+				while (this.bucketNext[current] != index) {
+					current = this.bucketNext[current];
+				}
+				this.bucketNext[current] = this.bucketNext[index];
+			}
+
+			this.unlink(index);
+			this.values[index] = null;
+			this.next[index] = this.free;
+			this.free = index;
+			this.size--;
+		}
+
+		/**
+		 * Перемещает запись в начало списка давности использования.
+		 *
+		 * @param index индекс записи.
+		 */
+		private void moveToHead(final int index) {
+			if (this.head != index) {
+				this.unlink(index);
+				this.linkHead(index);
+			}
+		}
+
+		/**
+		 * Добавляет запись в начало списка давности использования.
+		 *
+		 * @param index индекс записи.
+		 */
+		private void linkHead(final int index) {
+			this.prev[index] = NONE;
+			this.next[index] = this.head;
+			if (this.head != NONE) {
+				this.prev[this.head] = index;
+			}
+			this.head = index;
+			if (this.tail == NONE) {
+				this.tail = index;
+			}
+		}
+
+		/**
+		 * Исключает запись из списка давности использования.
+		 *
+		 * @param index индекс записи.
+		 */
+		private void unlink(final int index) {
+			int prevIndex = this.prev[index];
+			int nextIndex = this.next[index];
+
+			if (prevIndex == NONE) {
+				this.head = nextIndex;
+			} else {
+				this.next[prevIndex] = nextIndex;
+			}
+
+			if (nextIndex == NONE) {
+				this.tail = prevIndex;
+			} else {
+				this.prev[nextIndex] = prevIndex;
+			}
+		}
+
+		/**
+		 * Возвращает корзину ключа.
+		 *
+		 * @param key ключ.
+		 * @return номер корзины.
+		 */
+		private int bucket(final long key) {
+			long hash = key * HASH_MULTIPLIER;
+			return (int) (hash ^ (hash >>> 32)) & (this.buckets.length - 1);
+		}
+	}
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.cache;
+
+import dev.kalenchukov.wallet.entity.Operation;
+
+/**
+ * Интерфейс для реализации класса кэша операций в формате JSON.
+ */
+public interface OperationJsonCache {
+	/**
+	 * Возвращает операцию в формате JSON.
+	 * Возвращённый массив общий для всех запросов и не должен изменяться.
+	 *
+	 * @param playerId    идентификатор игрока.
+	 * @param accountId   идентификатор счёта.
+	 * @param operationId идентификатор операции.
+	 * @return операция в кодировке UTF-8 или {@code null}, если операция отсутствует в кэше
+	 * или относится к другому счёту или игроку.
+	 */
+	byte[] get(long playerId, long accountId, long operationId);
+
+	/**
+	 * Записывает операцию.
+	 *
+	 * @param operation операция.
+	 * @return операция в формате JSON в кодировке UTF-8.
+	 */
+	byte[] put(Operation operation);
+}
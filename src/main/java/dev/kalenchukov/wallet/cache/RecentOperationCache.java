@@ -0,0 +1,67 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.cache;
+
+import dev.kalenchukov.wallet.entity.Operation;
+
+import java.util.List;
+
+/**
+ * Интерфейс для реализации класса кэша последних операций счетов.
+ */
+public interface RecentOperationCache {
+	/**
+	 * Возвращает количество последних операций, хранимых для счёта.
+	 *
+	 * @return количество операций.
+	 */
+	int getCapacity();
+
+	/**
+	 * Возвращает последние операции счёта, начиная с новых.
+	 *
+	 * @param playerId  идентификатор игрока.
+	 * @param accountId идентификатор счёта.
+	 * @param limit     максимальное количество операций.
+	 * @return операции или {@code null}, если операции счёта отсутствуют в кэше.
+	 */
+	List<Operation> find(long playerId, long accountId, int limit);
+
+	/**
+	 * Возвращает версию операций счёта.
+	 * Версия меняется при каждом добавлении и удалении операций счёта.
+	 *
+	 * @param accountId идентификатор счёта.
+	 * @return версия.
+	 */
+	long getVersion(long accountId);
+
+	/**
+	 * Записывает последние операции счёта, загруженные из хранилища.
+	 * Операции не записываются, если версия операций счёта изменилась после начала загрузки.
+	 *
+	 * @param playerId   идентификатор игрока.
+	 * @param accountId  идентификатор счёта.
+	 * @param version    версия операций счёта до начала загрузки.
+	 * @param operations операции, начиная с новых.
+	 */
+	void fill(long playerId, long accountId, long version, List<Operation> operations);
+
+	/**
+	 * Добавляет операцию.
+	 *
+	 * @param operation операция.
+	 */
+	void add(Operation operation);
+
+	/**
+	 * Удаляет операции счёта.
+	 *
+	 * @param accountId идентификатор счёта.
+	 */
+	void remove(long accountId);
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.cache.impl;
+
+import dev.kalenchukov.wallet.cache.AccountCache;
+import dev.kalenchukov.wallet.cache.BalanceStore;
+import dev.kalenchukov.wallet.cache.LongLruCache;
+import dev.kalenchukov.wallet.entity.Account;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+
+/**
+ * Класс кэша счетов.
+ * Хранит копии счетов, чтобы изменения возвращённых счетов не попадали в кэш.
+ * Вытесненные счета читаются из хранилища сумм вне кучи, пока не истекло время жизни их записи,
+ * общее для кэша и хранилища.
+ * Кэш предполагает единственный экземпляр приложения, изменяющий суммы счетов:
+ * изменения других экземпляров и изменения в базе данных в обход приложения
+ * становятся видны только по истечении времени жизни записи.
+ */
+@Component
+public class AccountCacheImpl implements AccountCache {
+	/**
+	 * Кэш счетов.
+	 */
+	private final LongLruCache<Account> accounts;
+
+	/**
+	 * Хранилище сумм счетов вне кучи.
+	 */
+	private final BalanceStore balanceStore;
+
+	/**
+	 * Конструирует кэш счетов.
+	 *
+	 * @param maximumSize   максимальное количество счетов.
+	 * @param ttl           время жизни счёта в миллисекундах.
+	 * @param meterRegistry реестр метрик.
+	 * @param balanceStore  хранилище сумм счетов вне кучи.
+	 */
+	@Autowired
+	public AccountCacheImpl(@Value("${account-cache.maximum-size}") final int maximumSize,
+							@Value("${account-cache.ttl}") final long ttl,
+							final MeterRegistry meterRegistry,
+							final BalanceStore balanceStore) {
+		Objects.requireNonNull(balanceStore);
+
+		this.accounts = new LongLruCache<>("accounts", maximumSize, ttl, meterRegistry);
+		this.balanceStore = balanceStore;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param accountId {@inheritDoc}
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public Account get(final long accountId) {
+		Account account = this.accounts.get(accountId);
+
+		if (account == null) {
+			account = this.balanceStore.get(accountId);
+			if (account == null) {
+				return null;
+			}
+
+			this.accounts.put(accountId, account);
+		}
+
+		return (account == null) ? null : new Account(account.getAccountId(), account.getPlayerId(), account.getAmount());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param account {@inheritDoc}
+	 */
+	@Override
+	public void put(final Account account) {
+		Objects.requireNonNull(account);
+
+		this.accounts.put(account.getAccountId(),
+				new Account(account.getAccountId(), account.getPlayerId(), account.getAmount())
+		);
+		this.balanceStore.put(account);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param accountId {@inheritDoc}
+	 */
+	@Override
+	public void remove(final long accountId) {
+		this.accounts.remove(accountId);
+		this.balanceStore.remove(accountId);
+	}
+}
@@ -0,0 +1,364 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.cache.impl;
+
+import dev.kalenchukov.wallet.cache.BalanceStore;
+import dev.kalenchukov.wallet.entity.Account;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+/**
+ * Класс хранилища сумм счетов вне кучи.
+ * Суммы хранятся в отображённом в память файле из ячеек постоянного размера,
+ * номер ячейки равен идентификатору счёта, нулевая ячейка занята заголовком.
+ * Ячейка состоит из версии, идентификатора игрока, немасштабированной суммы, масштаба и времени записи.
+ * Запись захватывает ячейку сравнением с обменом нечётной версии, чтение повторяется,
+ * пока версия до и после чтения не совпадёт.
+ * Счёт, записанный раньше времени жизни записей кэша счетов, не возвращается,
+ * поэтому хранилище не продлевает жизнь вытесненных из кэша сумм.
+ * Файл сохраняется между запусками, после аварийной остановки он очищается.
+ * Хранилище предполагает единственный экземпляр приложения, изменяющий суммы счетов:
+ * изменения других экземпляров и изменения в базе данных в обход приложения
+ * становятся видны только по истечении времени жизни записи.
+ */
+@Component
+public class BalanceStoreImpl implements BalanceStore {
+	/**
+	 * Размер ячейки в байтах.
+	 */
+	private static final int SLOT_SIZE = Long.BYTES * 5;
+
+	/**
+	 * Смещение версии в ячейке.
+	 */
+	private static final int VERSION_OFFSET = 0;
+
+	/**
+	 * Смещение идентификатора игрока в ячейке.
+	 */
+	private static final int PLAYER_OFFSET = Long.BYTES;
+
+	/**
+	 * Смещение немасштабированной суммы в ячейке.
+	 */
+	private static final int UNSCALED_OFFSET = Long.BYTES * 2;
+
+	/**
+	 * Смещение масштаба суммы в ячейке.
+	 * Младший бит означает наличие счёта в ячейке, старшие 32 бита содержат масштаб.
+	 */
+	private static final int SCALE_OFFSET = Long.BYTES * 3;
+
+	/**
+	 * Смещение времени записи в ячейке в миллисекундах с начала эпохи.
+	 */
+	private static final int WRITTEN_AT_OFFSET = Long.BYTES * 4;
+
+	/**
+	 * Признак формата файла в заголовке.
+	 */
+	private static final long MAGIC = 0x57414C4C45544253L;
+
+	/**
+	 * Состояние файла после штатной остановки.
+	 */
+	private static final long CLOSED = 0L;
+
+	/**
+	 * Состояние открытого файла.
+	 */
+	private static final long OPENED = 1L;
+
+	/**
+	 * Доступ к числам {@code long} в буфере.
+	 */
+	private static final VarHandle LONGS =
+			MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+	/**
+	 * Признак использования хранилища.
+	 */
+	private final boolean enabled;
+
+	/**
+	 * Файл хранилища.
+	 */
+	private final Path file;
+
+	/**
+	 * Количество ячеек счетов.
+	 */
+	private final int capacity;
+
+	/**
+	 * Время жизни записи в миллисекундах или {@code 0}, если записи не устаревают.
+	 */
+	private final long ttl;
+
+	/**
+	 * Отображение файла хранилища в память.
+	 * Отсутствует, если хранилище не используется или закрыто.
+	 */
+	private volatile MappedByteBuffer buffer;
+
+	/**
+	 * Конструирует хранилище сумм счетов.
+	 *
+	 * @param enabled  признак использования хранилища.
+	 * @param file     файл хранилища.
+	 * @param capacity количество ячеек счетов.
+	 * @param ttl      время жизни записи в миллисекундах или {@code 0}, если записи не устаревают.
+	 * @throws IllegalArgumentException если количество ячеек меньше единицы, файл превышает 2 ГБ
+	 *                                  или время жизни отрицательное.
+	 */
+	@Autowired
+	public BalanceStoreImpl(@Value("${balance-store.enabled}") final boolean enabled,
+							@Value("${balance-store.file}") final String file,
+							@Value("${balance-store.capacity}") final int capacity,
+							@Value("${account-cache.ttl}") final long ttl) {
+		Objects.requireNonNull(file);
+
+		if (capacity < 1 || capacity >= Integer.MAX_VALUE / SLOT_SIZE) {
+			throw new IllegalArgumentException("Количество ячеек хранилища сумм должно быть от 1 до 53687090.");
+		}
+
+		if (ttl < 0) {
+			throw new IllegalArgumentException("Время жизни записи не может быть отрицательным.");
+		}
+
+		this.enabled = enabled;
+		this.file = Path.of(file);
+		this.capacity = capacity;
+		this.ttl = ttl;
+	}
+
+	/**
+	 * Открывает файл хранилища.
+	 * Файл другого размера или формата, а также файл после аварийной остановки очищается.
+	 */
+	@PostConstruct
+	public void open() {
+		if (!this.enabled) {
+			return;
+		}
+
+		long size = (long) (this.capacity + 1) * SLOT_SIZE;
+
+		try {
+			Path parent = this.file.toAbsolutePath().getParent();
+			if (parent != null) {
+				Files.createDirectories(parent);
+			}
+
+			try (FileChannel channel = FileChannel.open(this.file, StandardOpenOption.CREATE,
+					StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+				MappedByteBuffer mappedBuffer = null;
+				if (channel.size() == size) {
+					mappedBuffer = channel.map(FileChannel.MapMode.READ_WRITE, 0L, size);
+					if ((long) LONGS.get(mappedBuffer, 0) != MAGIC
+							|| (long) LONGS.get(mappedBuffer, Long.BYTES) != CLOSED) {
+						mappedBuffer = null;
+					}
+				}
+
+				if (mappedBuffer == null) {
+					channel.truncate(0L);
+					channel.write(ByteBuffer.allocate(1), size - 1);
+					mappedBuffer = channel.map(FileChannel.MapMode.READ_WRITE, 0L, size);
+					LONGS.set(mappedBuffer, 0, MAGIC);
+				}
+
+				LONGS.setVolatile(mappedBuffer, Long.BYTES, OPENED);
+				mappedBuffer.force();
+
+				this.buffer = mappedBuffer;
+			}
+		} catch (IOException exception) {
+			throw new UncheckedIOException(exception);
+		}
+	}
+
+	/**
+	 * Сбрасывает хранилище на диск и отмечает штатную остановку.
+	 */
+	@PreDestroy
+	public void close() {
+		MappedByteBuffer mappedBuffer = this.buffer;
+		if (mappedBuffer == null) {
+			return;
+		}
+
+		this.buffer = null;
+
+		mappedBuffer.force();
+		LONGS.setVolatile(mappedBuffer, Long.BYTES, CLOSED);
+		mappedBuffer.force();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * Счёт, время жизни записи которого истекло, не возвращается.
+	 *
+	 * @param accountId {@inheritDoc}
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public Account get(final long accountId) {
+		MappedByteBuffer mappedBuffer = this.buffer;
+		if (mappedBuffer == null || !this.contains(accountId)) {
+			return null;
+		}
+
+		int offset = (int) accountId * SLOT_SIZE;
+
+		while (true) {
+			long version = (long) LONGS.getAcquire(mappedBuffer, offset + VERSION_OFFSET);
+			if ((version & 1L) != 0L) {
+				Thread.onSpinWait();
+				continue;
+			}
+
+			long playerId = (long) LONGS.getOpaque(mappedBuffer, offset + PLAYER_OFFSET);
+			long unscaled = (long) LONGS.getOpaque(mappedBuffer, offset + UNSCALED_OFFSET);
+			long scale = (long) LONGS.getOpaque(mappedBuffer, offset + SCALE_OFFSET);
+			long writtenAt = (long) LONGS.getOpaque(mappedBuffer, offset + WRITTEN_AT_OFFSET);
+
+			VarHandle.loadLoadFence();
+			if ((long) LONGS.getOpaque(mappedBuffer, offset + VERSION_OFFSET) != version) {
+				continue;
+			}
+
+			if ((scale & 1L) == 0L || this.isExpired(writtenAt)) {
+				return null;
+			}
+
+			return new Account(accountId, playerId, BigDecimal.valueOf(unscaled, (int) (scale >> 32)));
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * Сумма, немасштабированное значение которой не помещается в {@code long}, не записывается.
+	 *
+	 * @param account {@inheritDoc}
+	 */
+	@Override
+	public void put(final Account account) {
+		Objects.requireNonNull(account);
+
+		MappedByteBuffer mappedBuffer = this.buffer;
+		if (mappedBuffer == null || !this.contains(account.getAccountId())) {
+			return;
+		}
+
+		int offset = (int) account.getAccountId() * SLOT_SIZE;
+		BigDecimal amount = account.getAmount();
+
+		if (amount == null) {
+			this.write(mappedBuffer, offset, 0L, 0L, 0L);
+			return;
+		}
+
+		BigInteger unscaled = amount.unscaledValue();
+		if (unscaled.bitLength() >= Long.SIZE) {
+			this.write(mappedBuffer, offset, 0L, 0L, 0L);
+			return;
+		}
+
+		this.write(mappedBuffer, offset, account.getPlayerId(), unscaled.longValue(),
+				((long) amount.scale() << 32) | 1L);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param accountId {@inheritDoc}
+	 */
+	@Override
+	public void remove(final long accountId) {
+		MappedByteBuffer mappedBuffer = this.buffer;
+		if (mappedBuffer == null || !this.contains(accountId)) {
+			return;
+		}
+
+		this.write(mappedBuffer, (int) accountId * SLOT_SIZE, 0L, 0L, 0L);
+	}
+
+	/**
+	 * Проверяет, истекло ли время жизни записи.
+	 *
+	 * @param writtenAt время записи в миллисекундах с начала эпохи.
+	 * @return {@code true} если время жизни записи истекло, иначе {@code false}.
+	 */
+	private boolean isExpired(final long writtenAt) {
+		if (this.ttl == 0) {
+			return false;
+		}
+
+		long age = System.currentTimeMillis() - writtenAt;
+
+		return age < 0 || age >= this.ttl;
+	}
+
+	/**
+	 * Проверяет, есть ли у счёта ячейка в хранилище.
+	 *
+	 * @param accountId идентификатор счёта.
+	 * @return {@code true} если у счёта есть ячейка, иначе {@code false}.
+	 */
+	private boolean contains(final long accountId) {
+		return accountId > 0L && accountId <= this.capacity;
+	}
+
+	/**
+	 * Записывает ячейку.
+	 * Ячейка захватывается переводом версии в нечётное значение и освобождается следующей чётной версией.
+	 *
+	 * @param mappedBuffer отображение файла хранилища.
+	 * @param offset       смещение ячейки.
+	 * @param playerId     идентификатор игрока.
+	 * @param unscaled     немасштабированная сумма.
+	 * @param scale        масштаб суммы с признаком наличия счёта.
+	 */
+	private void write(final MappedByteBuffer mappedBuffer, final int offset, final long playerId,
+					   final long unscaled, final long scale) {
+		long version;
+		while (true) {
+			version = (long) LONGS.getVolatile(mappedBuffer, offset + VERSION_OFFSET);
+			if ((version & 1L) == 0L
+					&& LONGS.compareAndSet(mappedBuffer, offset + VERSION_OFFSET, version, version + 1L)) {
+				break;
+			}
+
+			Thread.onSpinWait();
+		}
+
+		LONGS.setOpaque(mappedBuffer, offset + PLAYER_OFFSET, playerId);
+		LONGS.setOpaque(mappedBuffer, offset + UNSCALED_OFFSET, unscaled);
+		LONGS.setOpaque(mappedBuffer, offset + SCALE_OFFSET, scale);
+		LONGS.setOpaque(mappedBuffer, offset + WRITTEN_AT_OFFSET, System.currentTimeMillis());
+		LONGS.setRelease(mappedBuffer, offset + VERSION_OFFSET, version + 2L);
+	}
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.cache.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.kalenchukov.wallet.cache.LongLruCache;
+import dev.kalenchukov.wallet.cache.OperationJsonCache;
+import dev.kalenchukov.wallet.entity.Operation;
+import dev.kalenchukov.wallet.entity.mappers.OperationMapper;
+import dev.kalenchukov.wallet.money.AmountConverter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.mapstruct.factory.Mappers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.Objects;
+
+/**
+ * Класс кэша операций в формате JSON.
+ * Операции не изменяются после записи, поэтому записи кэша не устаревают и вытесняются только по размеру.
+ * Операции сериализуются один раз при записи, чтение операции сводится к поиску по идентификатору.
+ * Сумма записываемой операции приводится к виду, в котором она читается из хранилища,
+ * чтобы операция из кэша не отличалась от операции из хранилища.
+ */
+@Component
+public class OperationJsonCacheImpl implements OperationJsonCache {
+	/**
+	 * Кэш операций.
+	 */
+	private final LongLruCache<Entry> operations;
+
+	/**
+	 * Преобразователь объектов в JSON.
+	 */
+	private final ObjectMapper objectMapper;
+
+	/**
+	 * Преобразователь сумм.
+	 */
+	private final AmountConverter amountConverter;
+
+	/**
+	 * Конструирует кэш операций в формате JSON.
+	 *
+	 * @param maximumSize     максимальное количество операций.
+	 * @param meterRegistry   реестр метрик.
+	 * @param objectMapper    преобразователь объектов в JSON.
+	 * @param amountConverter преобразователь сумм.
+	 */
+	@Autowired
+	public OperationJsonCacheImpl(@Value("${operation-json-cache.maximum-size}") final int maximumSize,
+								  final MeterRegistry meterRegistry,
+								  final ObjectMapper objectMapper,
+								  final AmountConverter amountConverter) {
+		Objects.requireNonNull(objectMapper);
+		Objects.requireNonNull(amountConverter);
+
+		this.operations = new LongLruCache<>("operation-json", maximumSize, 0L, meterRegistry);
+		this.objectMapper = objectMapper;
+		this.amountConverter = amountConverter;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param playerId    {@inheritDoc}
+	 * @param accountId   {@inheritDoc}
+	 * @param operationId {@inheritDoc}
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public byte[] get(final long playerId, final long accountId, final long operationId) {
+		Entry entry = this.operations.get(operationId);
+
+		if (entry == null || entry.playerId() != playerId || entry.accountId() != accountId) {
+			return null;
+		}
+
+		return entry.json();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param operation {@inheritDoc}
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public byte[] put(final Operation operation) {
+		Objects.requireNonNull(operation);
+
+		BigDecimal amount = this.amountConverter.isMinorUnits()
+				? this.amountConverter.toAmount(this.amountConverter.toMinorUnits(operation.getAmount()))
+				: operation.getAmount();
+		Operation storedOperation = new Operation(operation.getOperationId(), operation.getPlayerId(),
+				operation.getAccountId(), operation.getOperationType(), amount);
+
+		byte[] json;
+		try {
+			json = this.objectMapper.writeValueAsBytes(Mappers.getMapper(OperationMapper.class).toDto(storedOperation));
+		} catch (JsonProcessingException exception) {
+			throw new UncheckedIOException(exception);
+		}
+
+		this.operations.put(operation.getOperationId(),
+				new Entry(operation.getPlayerId(), operation.getAccountId(), json)
+		);
+
+		return json;
+	}
+
+	/**
+	 * Запись кэша.
+	 *
+	 * @param playerId  идентификатор игрока.
+	 * @param accountId идентификатор счёта.
+	 * @param json      операция в формате JSON.
+	 */
+	private record Entry(long playerId, long accountId, byte[] json) {
+	}
+}
@@ -0,0 +1,330 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.cache.impl;
+
+import dev.kalenchukov.wallet.cache.LongLruCache;
+import dev.kalenchukov.wallet.cache.RecentOperationCache;
+import dev.kalenchukov.wallet.entity.Operation;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Класс кэша последних операций счетов.
+ * Для каждого счёта хранит кольцевой буфер последних операций, упорядоченных по идентификатору.
+ * Буферы вытесняются давно не использованными, если общее количество операций превышает бюджет.
+ * Добавление операций и запись загруженных операций выполняются под блокировкой полосы счёта,
+ * чтобы загрузка, начатая до добавления операции, не перезаписала буфер устаревшими операциями.
+ */
+@Component
+public class RecentOperationCacheImpl implements RecentOperationCache {
+	/**
+	 * Количество полос блокировок.
+	 */
+	private static final int STRIPES = 64;
+
+	/**
+	 * Множитель для перемешивания идентификаторов счетов.
+	 */
+	private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+	/**
+	 * Количество последних операций, хранимых для счёта.
+	 */
+	private final int capacity;
+
+	/**
+	 * Буферы операций счетов.
+	 */
+	private final LongLruCache<Ring> rings;
+
+	/**
+	 * Блокировки полос.
+	 */
+	private final Object[] locks;
+
+	/**
+	 * Версии операций счетов полос.
+	 */
+	private final long[] versions;
+
+	/**
+	 * Конструирует кэш последних операций счетов.
+	 *
+	 * @param capacity      количество последних операций, хранимых для счёта.
+	 * @param budget        максимальное количество операций всех счетов.
+	 * @param meterRegistry реестр метрик.
+	 * @throws IllegalArgumentException если количество операций счёта меньше единицы
+	 *                                  или бюджет меньше количества операций счёта.
+	 */
+	@Autowired
+	public RecentOperationCacheImpl(@Value("${recent-operations.capacity}") final int capacity,
+									@Value("${recent-operations.budget}") final int budget,
+									final MeterRegistry meterRegistry) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException("Количество последних операций счёта должно быть больше нуля.");
+		}
+
+		if (budget < capacity) {
+			throw new IllegalArgumentException(
+					"Бюджет последних операций не может быть меньше количества операций счёта.");
+		}
+
+		this.capacity = capacity;
+		this.rings = new LongLruCache<>("recent-operations", budget / capacity, 0L, meterRegistry);
+		this.locks = new Object[STRIPES];
+		for (int stripe = 0; stripe < STRIPES; stripe++) {
+			this.locks[stripe] = new Object();
+		}
+		this.versions = new long[STRIPES];
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public int getCapacity() {
+		return this.capacity;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * Буфер, который не заполнен до конца, содержит все операции счёта,
+	 * поэтому операции не возвращаются только при запросе больше размера буфера.
+	 *
+	 * @param playerId  {@inheritDoc}
+	 * @param accountId {@inheritDoc}
+	 * @param limit     {@inheritDoc}
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public List<Operation> find(final long playerId, final long accountId, final int limit) {
+		if (limit > this.capacity) {
+			return null;
+		}
+
+		synchronized (this.locks[stripe(accountId)]) {
+			Ring ring = this.rings.get(accountId);
+			if (ring == null || ring.playerId != playerId) {
+				return null;
+			}
+
+			return ring.find(limit);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param accountId {@inheritDoc}
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public long getVersion(final long accountId) {
+		int stripe = stripe(accountId);
+
+		synchronized (this.locks[stripe]) {
+			return this.versions[stripe];
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param playerId   {@inheritDoc}
+	 * @param accountId  {@inheritDoc}
+	 * @param version    {@inheritDoc}
+	 * @param operations {@inheritDoc}
+	 */
+	@Override
+	public void fill(final long playerId, final long accountId, final long version,
+					 final List<Operation> operations) {
+		Objects.requireNonNull(operations);
+
+		int stripe = stripe(accountId);
+		Ring ring = new Ring(playerId, this.capacity);
+		for (int index = Math.min(operations.size(), this.capacity) - 1; index >= 0; index--) {
+			ring.add(Objects.requireNonNull(operations.get(index)));
+		}
+
+		synchronized (this.locks[stripe]) {
+			if (this.versions[stripe] == version) {
+				this.rings.put(accountId, ring);
+			}
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * Операция добавляется, только если операции счёта уже находятся в кэше.
+	 *
+	 * @param operation {@inheritDoc}
+	 */
+	@Override
+	public void add(final Operation operation) {
+		Objects.requireNonNull(operation);
+
+		int stripe = stripe(operation.getAccountId());
+
+		synchronized (this.locks[stripe]) {
+			this.versions[stripe]++;
+
+			Ring ring = this.rings.get(operation.getAccountId());
+			if (ring == null) {
+				return;
+			}
+
+			if (ring.playerId == operation.getPlayerId()) {
+				ring.add(operation);
+			} else {
+				this.rings.remove(operation.getAccountId());
+			}
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param accountId {@inheritDoc}
+	 */
+	@Override
+	public void remove(final long accountId) {
+		int stripe = stripe(accountId);
+
+		synchronized (this.locks[stripe]) {
+			this.versions[stripe]++;
+			this.rings.remove(accountId);
+		}
+	}
+
+	/**
+	 * Возвращает полосу счёта.
+	 *
+	 * @param accountId идентификатор счёта.
+	 * @return номер полосы.
+	 */
+	private static int stripe(final long accountId) {
+		return (int) ((accountId * HASH_MULTIPLIER) >>> (Long.SIZE - Integer.numberOfTrailingZeros(STRIPES)));
+	}
+
+	/**
+	 * Класс кольцевого буфера последних операций счёта.
+	 * Операции упорядочены по возрастанию идентификатора, самая старая операция вытесняется при переполнении.
+	 * Пока буфер не переполнялся, он содержит все операции счёта.
+	 */
+	private static final class Ring {
+		/**
+		 * Идентификатор игрока, для которого загружены операции.
+		 */
+		private final long playerId;
+
+		/**
+		 * Операции.
+		 */
+		private final Operation[] operations;
+
+		/**
+		 * Позиция самой старой операции.
+		 */
+		private int start;
+
+		/**
+		 * Количество операций.
+		 */
+		private int size;
+
+		/**
+		 * Конструирует буфер.
+		 *
+		 * @param playerId идентификатор игрока.
+		 * @param capacity максимальное количество операций.
+		 */
+		private Ring(final long playerId, final int capacity) {
+			this.playerId = playerId;
+			this.operations = new Operation[capacity];
+		}
+
+		/**
+		 * Возвращает копии последних операций, начиная с новых.
+		 *
+		 * @param limit максимальное количество операций.
+		 * @return операции.
+		 */
+		private List<Operation> find(final int limit) {
+			int count = Math.max(0, Math.min(limit, this.size));
+			List<Operation> found = new ArrayList<>(count);
+			for (int index = this.size - 1; index >= this.size - count; index--) {
+				Operation operation = this.get(index);
+				found.add(new Operation(operation.getOperationId(), operation.getPlayerId(),
+						operation.getAccountId(), operation.getOperationType(), operation.getAmount()));
+			}
+
+			return found;
+		}
+
+		/**
+		 * Добавляет копию операции на место по идентификатору.
+		 * Уже добавленная операция и операция старше вытесненных не добавляются.
+		 *
+		 * @param operation операция.
+		 */
+		private void add(final Operation operation) {
+			int position = this.size;
+			while (position > 0 && this.get(position - 1).getOperationId() > operation.getOperationId()) {
+				position--;
+			}
+
+			if (position > 0 && this.get(position - 1).getOperationId() == operation.getOperationId()) {
+				return;
+			}
+
+			if (this.size == this.operations.length) {
+				if (position == 0) {
+					return;
+				}
+
+				this.start = (this.start + 1) % this.operations.length;
+				this.size--;
+				position--;
+			}
+
+			for (int index = this.size; index > position; index--) {
+				this.set(index, this.get(index - 1));
+			}
+			this.set(position, new Operation(operation.getOperationId(), operation.getPlayerId(),
+					operation.getAccountId(), operation.getOperationType(), operation.getAmount()));
+			this.size++;
+		}
+
+		/**
+		 * Возвращает операцию по порядковому номеру от самой старой.
+		 *
+		 * @param index порядковый номер.
+		 * @return операция.
+		 */
+		private Operation get(final int index) {
+			return this.operations[(this.start + index) % this.operations.length];
+		}
+
+		/**
+		 * Записывает операцию по порядковому номеру от самой старой.
+		 *
+		 * @param index     порядковый номер.
+		 * @param operation операция.
+		 */
+		private void set(final int index, final Operation operation) {
+			this.operations[(this.start + index) % this.operations.length] = operation;
+		}
+	}
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Класс сверки суммы счёта с журналом операций.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Сущность сверки счёта", accessMode = Schema.AccessMode.READ_ONLY)
+public class AccountAuditDto {
+	/**
+	 * Идентификатор счёта.
+	 */
+	@Schema(description = "Идентификатор счёта", example = "66")
+	private Long accountId;
+
+	/**
+	 * Идентификатор игрока.
+	 */
+	@Schema(description = "Идентификатор игрока", example = "57")
+	private Long playerId;
+
+	/**
+	 * Сумма счёта.
+	 */
+	@Schema(description = "Сумма счёта", example = "17.1")
+	private BigDecimal amount;
+
+	/**
+	 * Сумма, восстановленная по журналу операций.
+	 */
+	@Schema(description = "Сумма по журналу операций", example = "17.1")
+	private BigDecimal ledgerAmount;
+
+	/**
+	 * Идентификатор последней учтённой операции.
+	 */
+	@Schema(description = "Идентификатор последней учтённой операции", example = "1024")
+	private Long operationId;
+
+	/**
+	 * Признак совпадения сумм.
+	 */
+	@Schema(description = "Признак совпадения сумм", example = "true")
+	private Boolean consistent;
+}
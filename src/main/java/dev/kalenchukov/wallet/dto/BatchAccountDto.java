@@ -0,0 +1,41 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+package dev.kalenchukov.wallet.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Класс пакета операций по счетам.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Сущность пакета операций по счетам")
+public class BatchAccountDto {
+	/**
+	 * Признак выполнения всех операций или ни одной.
+	 */
+	@Schema(description = "Выполнить все операции или ни одной", example = "true")
+	@NotNull(message = "Режим выполнения пакета не должен быть null.")
+	private Boolean allOrNothing;
+
+	/**
+	 * Операции.
+	 */
+	@Schema(description = "Операции")
+	@NotEmpty(message = "Пакет не должен быть пустым.")
+	@Size(max = 1000, message = "Пакет не должен содержать больше 1000 операций.")
+	private List<@Valid @NotNull(message = "Операция не должна быть null.") BatchOperationDto> operations;
+}
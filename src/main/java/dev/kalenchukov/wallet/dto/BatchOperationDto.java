@@ -0,0 +1,47 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+package dev.kalenchukov.wallet.dto;
+
+import dev.kalenchukov.wallet.type.OperationType;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Класс операции пакета.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Сущность операции пакета")
+public class BatchOperationDto {
+	/**
+	 * Идентификатор счёта.
+	 */
+	@Schema(description = "Идентификатор счёта", example = "19")
+	@NotNull(message = "Идентификатор счёта не должен быть null.")
+	private Long accountId;
+
+	/**
+	 * Тип.
+	 */
+	@Schema(description = "Тип операции", example = "CREDIT")
+	@NotNull(message = "Тип операции не должен быть null.")
+	private OperationType operationType;
+
+	/**
+	 * Сумма.
+	 */
+	@Schema(description = "Сумма", example = "10.7")
+	@NotNull(message = "Сумма не должна быть null.")
+	@DecimalMin(value = "0.0", message = "Сумма не должна быть меньше нуля.")
+	private BigDecimal amount;
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+package dev.kalenchukov.wallet.dto;
+
+import dev.kalenchukov.wallet.type.AmountChangeStatus;
+import dev.kalenchukov.wallet.type.OperationType;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Класс результата операции пакета.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Сущность результата операции пакета", accessMode = Schema.AccessMode.READ_ONLY)
+public class BatchOperationResultDto {
+	/**
+	 * Идентификатор операции.
+	 */
+	@Schema(description = "Идентификатор операции, если операция выполнена", example = "31")
+	private Long operationId;
+
+	/**
+	 * Идентификатор счёта.
+	 */
+	@Schema(description = "Идентификатор счёта", example = "19")
+	private Long accountId;
+
+	/**
+	 * Тип.
+	 */
+	@Schema(description = "Тип операции", example = "CREDIT")
+	private OperationType operationType;
+
+	/**
+	 * Сумма.
+	 */
+	@Schema(description = "Сумма операции", example = "6.0")
+	private BigDecimal amount;
+
+	/**
+	 * Статус.
+	 */
+	@Schema(description = "Статус операции", example = "SUCCESS")
+	private AmountChangeStatus status;
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.dto;
+
+import dev.kalenchukov.wallet.type.OperationType;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Класс итога операций счёта одного типа за период.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Сущность итога операций", accessMode = Schema.AccessMode.READ_ONLY)
+public class OperationSummaryDto {
+	/**
+	 * Тип операций.
+	 */
+	@Schema(description = "Тип операций", example = "CREDIT")
+	private OperationType operationType;
+
+	/**
+	 * Количество операций.
+	 */
+	@Schema(description = "Количество операций", example = "42")
+	private Long count;
+
+	/**
+	 * Сумма операций.
+	 */
+	@Schema(description = "Сумма операций", example = "1250.5")
+	private BigDecimal amount;
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+package dev.kalenchukov.wallet.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Класс перевода между счетами.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Сущность перевода между счетами")
+public class TransferAccountDto {
+	/**
+	 * Идентификатор счёта зачисления.
+	 */
+	@Schema(description = "Идентификатор счёта зачисления", example = "20")
+	@NotNull(message = "Идентификатор счёта зачисления не должен быть null.")
+	private Long toAccountId;
+
+	/**
+	 * Сумма.
+	 */
+	@Schema(description = "Сумма", example = "10.7")
+	@NotNull(message = "Сумма не должна быть null.")
+	@DecimalMin(value = "0.0", message = "Сумма не должна быть меньше нуля.")
+	private BigDecimal amount;
+}
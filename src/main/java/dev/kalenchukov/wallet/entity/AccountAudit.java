@@ -0,0 +1,44 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * Класс сверки суммы счёта с журналом операций.
+ */
+@Data
+@AllArgsConstructor
+public class AccountAudit {
+	/**
+	 * Идентификатор счёта.
+	 */
+	private long accountId;
+	/**
+	 * Идентификатор игрока.
+	 */
+	private long playerId;
+	/**
+	 * Сумма счёта.
+	 */
+	private BigDecimal amount;
+	/**
+	 * Сумма, восстановленная по журналу операций.
+	 */
+	private BigDecimal ledgerAmount;
+	/**
+	 * Идентификатор последней учтённой операции.
+	 */
+	private long operationId;
+	/**
+	 * Признак совпадения сумм.
+	 */
+	private boolean consistent;
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * Класс снимка суммы счёта.
+ * Сумма счёта равна сумме снимка, изменённой операциями счёта после последней учтённой операции.
+ */
+@Data
+@AllArgsConstructor
+public class AccountSnapshot {
+	/**
+	 * Идентификатор счёта.
+	 */
+	private long accountId;
+	/**
+	 * Идентификатор последней учтённой операции.
+	 */
+	private long operationId;
+	/**
+	 * Сумма.
+	 */
+	private BigDecimal amount;
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.entity;
+
+import dev.kalenchukov.wallet.type.AmountChangeStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * Класс результата изменения суммы счёта.
+ */
+@Data
+@AllArgsConstructor
+public class AmountChange {
+	/**
+	 * Статус.
+	 */
+	private AmountChangeStatus status;
+
+	/**
+	 * Идентификатор операции.
+	 */
+	private long operationId;
+
+	/**
+	 * Сумма счёта.
+	 * После успешного изменения содержит новую сумму, при нехватке средств - текущую.
+	 * После пополнения горячего счёта равна {@code null}.
+	 */
+	private BigDecimal amount;
+}
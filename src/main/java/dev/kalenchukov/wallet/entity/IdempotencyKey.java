@@ -0,0 +1,51 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.entity;
+
+import dev.kalenchukov.wallet.type.OperationType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * Класс ключа идемпотентности.
+ */
+@Data
+@AllArgsConstructor
+public class IdempotencyKey {
+	/**
+	 * Идентификатор игрока.
+	 */
+	private long playerId;
+
+	/**
+	 * Ключ.
+	 */
+	private String key;
+
+	/**
+	 * Идентификатор счёта.
+	 */
+	private long accountId;
+
+	/**
+	 * Тип операции.
+	 */
+	private OperationType operationType;
+
+	/**
+	 * Идентификатор операции.
+	 * Равен {@code null}, пока запрос с данным ключом выполняется.
+	 */
+	private Long operationId;
+
+	/**
+	 * Сумма операции.
+	 */
+	private BigDecimal amount;
+}
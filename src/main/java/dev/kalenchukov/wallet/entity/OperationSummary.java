@@ -0,0 +1,35 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.entity;
+
+import dev.kalenchukov.wallet.type.OperationType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * Класс итога операций счёта одного типа за период.
+ */
+@Data
+@AllArgsConstructor
+public class OperationSummary {
+	/**
+	 * Тип операций.
+	 */
+	private OperationType operationType;
+
+	/**
+	 * Количество операций.
+	 */
+	private long count;
+
+	/**
+	 * Сумма операций.
+	 */
+	private BigDecimal amount;
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+package dev.kalenchukov.wallet.entity;
+
+import dev.kalenchukov.wallet.type.AmountChangeStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * Класс результата перевода между счетами.
+ */
+@Data
+@AllArgsConstructor
+public class TransferChange {
+	/**
+	 * Статус.
+	 */
+	private AmountChangeStatus status;
+
+	/**
+	 * Идентификатор счёта, из-за которого перевод не выполнен.
+	 * После успешного перевода равен идентификатору счёта списания.
+	 */
+	private long accountId;
+
+	/**
+	 * Идентификатор операции списания.
+	 */
+	private long outOperationId;
+
+	/**
+	 * Идентификатор операции зачисления.
+	 */
+	private long inOperationId;
+
+	/**
+	 * Сумма счёта списания.
+	 * После успешного перевода содержит новую сумму, при нехватке средств - текущую.
+	 */
+	private BigDecimal fromAmount;
+
+	/**
+	 * Новая сумма счёта зачисления.
+	 */
+	private BigDecimal toAmount;
+}
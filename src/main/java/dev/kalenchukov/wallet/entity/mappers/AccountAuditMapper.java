@@ -0,0 +1,25 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.entity.mappers;
+
+import dev.kalenchukov.wallet.dto.AccountAuditDto;
+import dev.kalenchukov.wallet.entity.AccountAudit;
+import org.mapstruct.Mapper;
+
+/**
+ * Интерфейс для реализации класса преобразования сверки счёта.
+ */
+@Mapper
+public interface AccountAuditMapper {
+	/**
+	 * Преобразовывает сверку счёта.
+	 *
+	 * @param accountAudit сверка счёта.
+	 * @return сверку счёта для транспортировки.
+	 */
+	AccountAuditDto toDto(AccountAudit accountAudit);
+}
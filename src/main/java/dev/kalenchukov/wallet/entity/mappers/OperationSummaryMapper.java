@@ -0,0 +1,25 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.entity.mappers;
+
+import dev.kalenchukov.wallet.dto.OperationSummaryDto;
+import dev.kalenchukov.wallet.entity.OperationSummary;
+import org.mapstruct.Mapper;
+
+/**
+ * Интерфейс для реализации класса преобразования итога операций.
+ */
+@Mapper
+public interface OperationSummaryMapper {
+	/**
+	 * Преобразовывает итог операций.
+	 *
+	 * @param operationSummary итог операций.
+	 * @return итог операций для транспортировки.
+	 */
+	OperationSummaryDto toDto(OperationSummary operationSummary);
+}
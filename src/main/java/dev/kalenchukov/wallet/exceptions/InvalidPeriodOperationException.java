@@ -0,0 +1,61 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.exceptions;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Класс исключения при некорректном периоде операций.
+ */
+@Getter
+public class InvalidPeriodOperationException extends ApplicationException {
+	/**
+	 * HTTP-код ответа соответствующий данному исключению.
+	 */
+	private static final HttpStatus HTTP_CODE = HttpStatus.BAD_REQUEST;
+
+	/**
+	 * Текст сообщения.
+	 */
+	private static final String MESSAGE = "Период операций '%1$s' некорректен.";
+
+	/**
+	 * Некорректное значение.
+	 */
+	private final String invalidValue;
+
+	/**
+	 * Конструирует исключение.
+	 *
+	 * @param invalidValue некорректное значение.
+	 */
+	public InvalidPeriodOperationException(final String invalidValue) {
+		super(String.format(MESSAGE, invalidValue), HTTP_CODE);
+		this.invalidValue = invalidValue;
+	}
+
+	/**
+	 * Возвращает HTTP-код.
+	 *
+	 * @return HTTP-код.
+	 */
+	@Override
+	public HttpStatus getHttpCode() {
+		return HTTP_CODE;
+	}
+
+	/**
+	 * Возвращает сообщение.
+	 *
+	 * @return сообщение.
+	 */
+	@Override
+	public String getMessage() {
+		return String.format(MESSAGE, invalidValue);
+	}
+}
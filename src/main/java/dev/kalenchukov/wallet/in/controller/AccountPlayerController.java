@@ -11,12 +11,19 @@ import dev.kalenchukov.starter.fixaction.types.ActionType;
 import dev.kalenchukov.wallet.auth.AuthToken;
 import dev.kalenchukov.wallet.dto.*;
 import dev.kalenchukov.wallet.entity.Account;
+import dev.kalenchukov.wallet.entity.AccountAudit;
 import dev.kalenchukov.wallet.entity.Operation;
+import dev.kalenchukov.wallet.entity.mappers.AccountAuditMapper;
 import dev.kalenchukov.wallet.entity.mappers.AccountMapper;
 import dev.kalenchukov.wallet.entity.mappers.OperationMapper;
 import dev.kalenchukov.wallet.exceptions.ApplicationException;
 import dev.kalenchukov.wallet.exceptions.NoAccessPlayerException;
 import dev.kalenchukov.wallet.in.service.AccountService;
+import dev.kalenchukov.wallet.in.service.AccountSnapshotService;
+import dev.kalenchukov.wallet.in.service.IdempotencyService;
+import dev.kalenchukov.wallet.in.service.OperationService;
+import dev.kalenchukov.wallet.pipeline.MutationPipeline;
+import dev.kalenchukov.wallet.type.OperationType;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -30,6 +37,13 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Класс обработки HTTP-запросов по счетам игроков.
@@ -43,6 +57,26 @@ public class AccountPlayerController {
 	 */
 	private final AccountService accountService;
 
+	/**
+	 * Сервис операций.
+	 */
+	private final OperationService operationService;
+
+	/**
+	 * Сервис ключей идемпотентности.
+	 */
+	private final IdempotencyService idempotencyService;
+
+	/**
+	 * Сервис снимков сумм счетов.
+	 */
+	private final AccountSnapshotService accountSnapshotService;
+
+	/**
+	 * Конвейер изменений счетов.
+	 */
+	private final MutationPipeline mutationPipeline;
+
 	/**
 	 * Авторизационные токены.
 	 */
@@ -51,12 +85,23 @@ public class AccountPlayerController {
 	/**
 	 * Конструирует контроллер.
 	 *
-	 * @param accountService сервис счетов.
-	 * @param authToken      авторизационные токены.
+	 * @param accountService         сервис счетов.
+	 * @param operationService       сервис операций.
+	 * @param idempotencyService     сервис ключей идемпотентности.
+	 * @param accountSnapshotService сервис снимков сумм счетов.
+	 * @param mutationPipeline       конвейер изменений счетов.
+	 * @param authToken              авторизационные токены.
 	 */
 	@Autowired
-	public AccountPlayerController(final AccountService accountService, final AuthToken authToken) {
+	public AccountPlayerController(final AccountService accountService, final OperationService operationService,
+								   final IdempotencyService idempotencyService,
+								   final AccountSnapshotService accountSnapshotService,
+								   final MutationPipeline mutationPipeline, final AuthToken authToken) {
 		this.accountService = accountService;
+		this.operationService = operationService;
+		this.idempotencyService = idempotencyService;
+		this.accountSnapshotService = accountSnapshotService;
+		this.mutationPipeline = mutationPipeline;
 		this.authToken = authToken;
 	}
 
@@ -93,12 +138,103 @@ public class AccountPlayerController {
 		return ResponseEntity.status(HttpStatus.CREATED).body(accountDto);
 	}
 
+	/**
+	 * Выполняет получение счёта.
+	 * Ответ содержит тег сущности {@code ETag}, построенный по версии операций счёта.
+	 * Если версия не изменилась с тега из заголовка {@code If-None-Match}, возвращается ответ без тела
+	 * без загрузки счёта.
+	 *
+	 * @param playerId    идентификатор игрока.
+	 * @param accountId   идентификатор счёта.
+	 * @param accessToken токен доступа.
+	 * @param webRequest  запрос.
+	 * @return счёт.
+	 * @throws ApplicationException если произошла ошибка при выполнении данного запроса.
+	 */
+	@ApiResponses({
+			@ApiResponse(responseCode = "200", description = "Если запрос выполнен успешно"),
+			@ApiResponse(responseCode = "304", description = "Если операции счёта не изменились"),
+			@ApiResponse(responseCode = "400", description = "Если запрос или данные некорректны", content = {
+					@Content(schema = @Schema(implementation = ViolationDto.class))}),
+			@ApiResponse(responseCode = "401", description = "Если необходимо пройти авторизацию", content = {
+					@Content(schema = @Schema(implementation = ViolationDto.class))}),
+			@ApiResponse(responseCode = "403", description = "Если доступ отсутствует", content = {
+					@Content(schema = @Schema(implementation = ViolationDto.class))}),
+			@ApiResponse(responseCode = "404", description = "Если счёта игрока не существует", content = {
+					@Content(schema = @Schema(implementation = ViolationDto.class))})
+	})
+	@io.swagger.v3.oas.annotations.Operation(summary = "Получение счёта", description = "Позволяет получить счёт")
+	@FixAction(actionType = ActionType.ACCOUNT)
+	@ResponseStatus(HttpStatus.OK)
+	@GetMapping(path = "/{accountId}")
+	public ResponseEntity<AccountDto> get(
+			@Parameter(description = "Идентификатор игрока") @PathVariable final long playerId,
+			@Parameter(description = "Идентификатор счёта") @PathVariable final long accountId,
+			@Parameter(description = "Токен доступа") @RequestHeader("Authorization") final String accessToken,
+			final WebRequest webRequest
+	) throws ApplicationException {
+		if (playerId != this.authToken.verifyToken(accessToken)) {
+			throw new NoAccessPlayerException(playerId);
+		}
+
+		OptionalLong version = this.operationService.findVersion(playerId, accountId);
+		if (version.isPresent() && webRequest.checkNotModified("\"" + version.getAsLong() + "\"")) {
+			return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+		}
+
+		Account account = this.accountService.findById(playerId, accountId);
+		AccountDto accountDto = Mappers.getMapper(AccountMapper.class).toDto(account);
+
+		return ResponseEntity.status(HttpStatus.OK).body(accountDto);
+	}
+
+	/**
+	 * Выполняет сверку счёта с журналом операций.
+	 *
+	 * @param playerId    идентификатор игрока.
+	 * @param accountId   идентификатор счёта.
+	 * @param accessToken токен доступа.
+	 * @return сверку счёта.
+	 * @throws ApplicationException если произошла ошибка при выполнении данного запроса.
+	 */
+	@ApiResponses({
+			@ApiResponse(responseCode = "200", description = "Если запрос выполнен успешно"),
+			@ApiResponse(responseCode = "400", description = "Если запрос или данные некорректны", content = {
+					@Content(schema = @Schema(implementation = ViolationDto.class))}),
+			@ApiResponse(responseCode = "401", description = "Если необходимо пройти авторизацию", content = {
+					@Content(schema = @Schema(implementation = ViolationDto.class))}),
+			@ApiResponse(responseCode = "403", description = "Если доступ отсутствует", content = {
+					@Content(schema = @Schema(implementation = ViolationDto.class))}),
+			@ApiResponse(responseCode = "404", description = "Если счёта игрока не существует", content = {
+					@Content(schema = @Schema(implementation = ViolationDto.class))})
+	})
+	@io.swagger.v3.oas.annotations.Operation(summary = "Сверка счёта",
+			description = "Позволяет сверить сумму счёта с суммой, восстановленной по журналу операций")
+	@FixAction(actionType = ActionType.AUDIT_ACCOUNT)
+	@ResponseStatus(HttpStatus.OK)
+	@GetMapping(path = "/{accountId}/audit")
+	public ResponseEntity<AccountAuditDto> audit(
+			@Parameter(description = "Идентификатор игрока") @PathVariable final long playerId,
+			@Parameter(description = "Идентификатор счёта") @PathVariable final long accountId,
+			@Parameter(description = "Токен доступа") @RequestHeader("Authorization") final String accessToken
+	) throws ApplicationException {
+		if (playerId != this.authToken.verifyToken(accessToken)) {
+			throw new NoAccessPlayerException(playerId);
+		}
+
+		AccountAudit accountAudit = this.accountSnapshotService.audit(playerId, accountId);
+		AccountAuditDto accountAuditDto = Mappers.getMapper(AccountAuditMapper.class).toDto(accountAudit);
+
+		return ResponseEntity.status(HttpStatus.OK).body(accountAuditDto);
+	}
+
 	/**
 	 * Выполняет пополнение счёта.
 	 *
 	 * @param playerId         идентификатор игрока.
 	 * @param accountId        идентификатор счёта.
 	 * @param accessToken      токен доступа.
+	 * @param idempotencyKey   ключ идемпотентности.
 	 * @param creditAccountDto данные пополнения счёта.
 	 * @return операцию.
 	 * @throws ApplicationException если произошла ошибка при выполнении данного запроса.
@@ -112,26 +248,36 @@ public class AccountPlayerController {
 			@ApiResponse(responseCode = "403", description = "Если доступ отсутствует", content = {
 					@Content(schema = @Schema(implementation = ViolationDto.class))}),
 			@ApiResponse(responseCode = "404", description = "Если счёта игрока не существует", content = {
+					@Content(schema = @Schema(implementation = ViolationDto.class))}),
+			@ApiResponse(responseCode = "409", description = "Если запрос с ключом идемпотентности ещё выполняется", content = {
+					@Content(schema = @Schema(implementation = ViolationDto.class))}),
+			@ApiResponse(responseCode = "422", description = "Если ключ идемпотентности некорректен", content = {
 					@Content(schema = @Schema(implementation = ViolationDto.class))})
 	})
 	@io.swagger.v3.oas.annotations.Operation(summary = "Пополнение счёта", description = "Позволяет пополнить счёт")
 	@FixAction(actionType = ActionType.CREDIT_ACCOUNT)
 	@ResponseStatus(HttpStatus.OK)
 	@PostMapping(path = "/{accountId}/credit", consumes = MediaType.APPLICATION_JSON_VALUE)
-	public ResponseEntity<OperationDto> credit(
+	public CompletableFuture<ResponseEntity<OperationDto>> credit(
 			@Parameter(description = "Идентификатор игрока") @PathVariable final long playerId,
 			@Parameter(description = "Идентификатор счёта") @PathVariable final long accountId,
 			@Parameter(description = "Токен доступа") @RequestHeader("Authorization") final String accessToken,
+			@Parameter(description = "Ключ идемпотентности")
+			@RequestHeader(value = "Idempotency-Key", required = false) final String idempotencyKey,
 			@Valid @RequestBody final CreditAccountDto creditAccountDto
 	) throws ApplicationException {
 		if (playerId != this.authToken.verifyToken(accessToken)) {
 			throw new NoAccessPlayerException(playerId);
 		}
 
-		Operation operation = this.accountService.credit(playerId, accountId, creditAccountDto.getAmount());
-		OperationDto operationDto = Mappers.getMapper(OperationMapper.class).toDto(operation);
+		CompletableFuture<Operation> operation = (idempotencyKey == null)
+				? this.changeAmount(playerId, accountId, OperationType.CREDIT, creditAccountDto.getAmount())
+				: CompletableFuture.completedFuture(this.idempotencyService.execute(playerId, accountId,
+						OperationType.CREDIT, creditAccountDto.getAmount(), idempotencyKey,
+						() -> this.accountService.credit(playerId, accountId, creditAccountDto.getAmount(), idempotencyKey)
+				));
 
-		return ResponseEntity.status(HttpStatus.OK).body(operationDto);
+		return operation.thenApply(this::toResponse);
 	}
 
 	/**
@@ -140,6 +286,7 @@ public class AccountPlayerController {
 	 * @param playerId        идентификатор игрока.
 	 * @param accountId       идентификатор счёта.
 	 * @param accessToken     токен доступа.
+	 * @param idempotencyKey  ключ идемпотентности.
 	 * @param debitAccountDto данные списания со счёта.
 	 * @return операцию.
 	 * @throws ApplicationException если произошла ошибка при выполнении данного запроса.
@@ -153,23 +300,119 @@ public class AccountPlayerController {
 			@ApiResponse(responseCode = "403", description = "Если доступ отсутствует", content = {
 					@Content(schema = @Schema(implementation = ViolationDto.class))}),
 			@ApiResponse(responseCode = "404", description = "Если счёта игрока не существует", content = {
+					@Content(schema = @Schema(implementation = ViolationDto.class))}),
+			@ApiResponse(responseCode = "409", description = "Если запрос с ключом идемпотентности ещё выполняется", content = {
+					@Content(schema = @Schema(implementation = ViolationDto.class))}),
+			@ApiResponse(responseCode = "422", description = "Если ключ идемпотентности некорректен", content = {
 					@Content(schema = @Schema(implementation = ViolationDto.class))})
 	})
 	@io.swagger.v3.oas.annotations.Operation(summary = "Списание со счёта", description = "Позволяет списать со счёта")
 	@FixAction(actionType = ActionType.DEBIT_ACCOUNT)
 	@ResponseStatus(HttpStatus.OK)
 	@PostMapping(path = "/{accountId}/debit", consumes = MediaType.APPLICATION_JSON_VALUE)
-	public ResponseEntity<OperationDto> debit(
+	public CompletableFuture<ResponseEntity<OperationDto>> debit(
 			@Parameter(description = "Идентификатор игрока") @PathVariable final long playerId,
 			@Parameter(description = "Идентификатор счёта") @PathVariable final long accountId,
 			@Parameter(description = "Токен доступа") @RequestHeader("Authorization") final String accessToken,
+			@Parameter(description = "Ключ идемпотентности")
+			@RequestHeader(value = "Idempotency-Key", required = false) final String idempotencyKey,
 			@Valid @RequestBody final DebitAccountDto debitAccountDto
 	) throws ApplicationException {
 		if (playerId != this.authToken.verifyToken(accessToken)) {
 			throw new NoAccessPlayerException(playerId);
 		}
 
-		Operation operation = this.accountService.debit(playerId, accountId, debitAccountDto.getAmount());
+		CompletableFuture<Operation> operation = (idempotencyKey == null)
+				? this.changeAmount(playerId, accountId, OperationType.DEBIT, debitAccountDto.getAmount())
+				: CompletableFuture.completedFuture(this.idempotencyService.execute(playerId, accountId,
+						OperationType.DEBIT, debitAccountDto.getAmount(), idempotencyKey,
+						() -> this.accountService.debit(playerId, accountId, debitAccountDto.getAmount(), idempotencyKey)
+				));
+
+		return operation.thenApply(this::toResponse);
+	}
+
+	/**
+	 * Выполняет перевод между счетами.
+	 *
+	 * @param playerId           идентификатор игрока.
+	 * @param accountId          идентификатор счёта списания.
+	 * @param accessToken        токен доступа.
+	 * @param transferAccountDto данные перевода.
+	 * @return операции списания и зачисления.
+	 * @throws ApplicationException если произошла ошибка при выполнении данного запроса.
+	 */
+	@ApiResponses({
+			@ApiResponse(responseCode = "200", description = "Если запрос выполнен успешно"),
+			@ApiResponse(responseCode = "400", description = "Если запрос или данные некорректны", content = {
+					@Content(schema = @Schema(implementation = ViolationDto.class))}),
+			@ApiResponse(responseCode = "401", description = "Если необходимо пройти авторизацию", content = {
+					@Content(schema = @Schema(implementation = ViolationDto.class))}),
+			@ApiResponse(responseCode = "403", description = "Если доступ отсутствует", content = {
+					@Content(schema = @Schema(implementation = ViolationDto.class))}),
+			@ApiResponse(responseCode = "404", description = "Если счёта игрока не существует", content = {
+					@Content(schema = @Schema(implementation = ViolationDto.class))})
+	})
+	@io.swagger.v3.oas.annotations.Operation(summary = "Перевод между счетами",
+			description = "Позволяет перевести сумму с одного счёта на другой")
+	@FixAction(actionType = ActionType.TRANSFER_ACCOUNT)
+	@ResponseStatus(HttpStatus.OK)
+	@PostMapping(path = "/{accountId}/transfer", consumes = MediaType.APPLICATION_JSON_VALUE)
+	public ResponseEntity<List<OperationDto>> transfer(
+			@Parameter(description = "Идентификатор игрока") @PathVariable final long playerId,
+			@Parameter(description = "Идентификатор счёта списания") @PathVariable final long accountId,
+			@Parameter(description = "Токен доступа") @RequestHeader("Authorization") final String accessToken,
+			@Valid @RequestBody final TransferAccountDto transferAccountDto
+	) throws ApplicationException {
+		if (playerId != this.authToken.verifyToken(accessToken)) {
+			throw new NoAccessPlayerException(playerId);
+		}
+
+		List<Operation> operations = this.accountService.transfer(playerId, accountId,
+				transferAccountDto.getToAccountId(), transferAccountDto.getAmount()
+		);
+		List<OperationDto> operationsDto = new ArrayList<>();
+		for (Operation operation : operations) {
+			operationsDto.add(Mappers.getMapper(OperationMapper.class).toDto(operation));
+		}
+
+		return ResponseEntity.status(HttpStatus.OK).body(operationsDto);
+	}
+
+	/**
+	 * Выполняет пополнение или списание счёта.
+	 * Если конвейер изменений счетов включён, изменение передаётся в конвейер
+	 * и возвращается его результат без ожидания, иначе изменение выполняется сервисом счетов.
+	 * Ошибка изменения в конвейере завершает результат исключением, которое передаётся
+	 * обработчику исключений контроллеров.
+	 *
+	 * @param playerId      идентификатор игрока.
+	 * @param accountId     идентификатор счёта.
+	 * @param operationType тип операции.
+	 * @param amount        сумма.
+	 * @return операцию.
+	 * @throws ApplicationException если изменение сервисом счетов завершилось ошибкой.
+	 */
+	private CompletableFuture<Operation> changeAmount(final long playerId, final long accountId,
+													  final OperationType operationType, final BigDecimal amount)
+			throws ApplicationException {
+		if (!this.mutationPipeline.isEnabled()) {
+			return CompletableFuture.completedFuture((operationType == OperationType.CREDIT)
+					? this.accountService.credit(playerId, accountId, amount)
+					: this.accountService.debit(playerId, accountId, amount)
+			);
+		}
+
+		return this.mutationPipeline.submit(playerId, accountId, operationType, amount);
+	}
+
+	/**
+	 * Возвращает ответ с операцией.
+	 *
+	 * @param operation операция.
+	 * @return ответ с операцией.
+	 */
+	private ResponseEntity<OperationDto> toResponse(final Operation operation) {
 		OperationDto operationDto = Mappers.getMapper(OperationMapper.class).toDto(operation);
 
 		return ResponseEntity.status(HttpStatus.OK).body(operationDto);
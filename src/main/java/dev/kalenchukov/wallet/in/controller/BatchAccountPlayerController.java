@@ -0,0 +1,176 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+package dev.kalenchukov.wallet.in.controller;
+
+import dev.kalenchukov.starter.fixaction.entity.Action;
+import dev.kalenchukov.starter.fixaction.service.FixActionService;
+import dev.kalenchukov.starter.fixaction.types.ActionType;
+import dev.kalenchukov.wallet.auth.AuthToken;
+import dev.kalenchukov.wallet.dto.BatchAccountDto;
+import dev.kalenchukov.wallet.dto.BatchOperationDto;
+import dev.kalenchukov.wallet.dto.BatchOperationResultDto;
+import dev.kalenchukov.wallet.dto.ViolationDto;
+import dev.kalenchukov.wallet.entity.AmountChange;
+import dev.kalenchukov.wallet.entity.Operation;
+import dev.kalenchukov.wallet.exceptions.ApplicationException;
+import dev.kalenchukov.wallet.exceptions.InvalidTypeOperationException;
+import dev.kalenchukov.wallet.exceptions.NoAccessPlayerException;
+import dev.kalenchukov.wallet.in.service.AccountService;
+import dev.kalenchukov.wallet.type.AmountChangeStatus;
+import dev.kalenchukov.wallet.type.OperationType;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Класс обработки HTTP-запросов по пакетам операций со счетами игроков.
+ * Действия игрока фиксируются по каждой операции пакета одной записью в хранилище.
+ */
+@RestController
+@RequestMapping(path = "/players/{playerId}/accounts/batch")
+@Tag(name = "Управление счетами игроков")
+public class BatchAccountPlayerController {
+	/**
+	 * Сервис счетов.
+	 */
+	private final AccountService accountService;
+
+	/**
+	 * Сервис действий.
+	 */
+	private final FixActionService fixActionService;
+
+	/**
+	 * Авторизационные токены.
+	 */
+	private final AuthToken authToken;
+
+	/**
+	 * Конструирует контроллер.
+	 *
+	 * @param accountService   сервис счетов.
+	 * @param fixActionService сервис действий.
+	 * @param authToken        авторизационные токены.
+	 */
+	@Autowired
+	public BatchAccountPlayerController(final AccountService accountService, final FixActionService fixActionService,
+										final AuthToken authToken) {
+		this.accountService = accountService;
+		this.fixActionService = fixActionService;
+		this.authToken = authToken;
+	}
+
+	/**
+	 * Выполняет пакет пополнений и списаний счетов.
+	 *
+	 * @param playerId        идентификатор игрока.
+	 * @param accessToken     токен доступа.
+	 * @param batchAccountDto данные пакета операций.
+	 * @return результаты операций в порядке их следования в пакете.
+	 * @throws ApplicationException если произошла ошибка при выполнении данного запроса.
+	 */
+	@ApiResponses({
+			@ApiResponse(responseCode = "200", description = "Если пакет обработан, статусы операций указаны в результатах"),
+			@ApiResponse(responseCode = "400", description = "Если запрос или данные некорректны", content = {
+					@Content(schema = @Schema(implementation = ViolationDto.class))}),
+			@ApiResponse(responseCode = "401", description = "Если необходимо пройти авторизацию", content = {
+					@Content(schema = @Schema(implementation = ViolationDto.class))}),
+			@ApiResponse(responseCode = "403", description = "Если доступ отсутствует", content = {
+					@Content(schema = @Schema(implementation = ViolationDto.class))})
+	})
+	@io.swagger.v3.oas.annotations.Operation(summary = "Пакет операций по счетам",
+			description = "Позволяет выполнить несколько пополнений и списаний одним запросом")
+	@ResponseStatus(HttpStatus.OK)
+	@PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+	public ResponseEntity<List<BatchOperationResultDto>> execute(
+			@Parameter(description = "Идентификатор игрока") @PathVariable final long playerId,
+			@Parameter(description = "Токен доступа") @RequestHeader("Authorization") final String accessToken,
+			@Valid @RequestBody final BatchAccountDto batchAccountDto
+	) throws ApplicationException {
+		List<BatchOperationDto> batchOperations = batchAccountDto.getOperations();
+		List<AmountChange> amountChanges;
+
+		try {
+			if (playerId != this.authToken.verifyToken(accessToken)) {
+				throw new NoAccessPlayerException(playerId);
+			}
+
+			List<Operation> operations = new ArrayList<>(batchOperations.size());
+			for (BatchOperationDto batchOperation : batchOperations) {
+				if (batchOperation.getOperationType() != OperationType.CREDIT
+						&& batchOperation.getOperationType() != OperationType.DEBIT) {
+					throw new InvalidTypeOperationException(batchOperation.getOperationType());
+				}
+
+				operations.add(new Operation(0L, playerId, batchOperation.getAccountId(),
+						batchOperation.getOperationType(), batchOperation.getAmount()
+				));
+			}
+
+			amountChanges = this.accountService.changeAmounts(playerId, operations,
+					batchAccountDto.getAllOrNothing()
+			);
+		} catch (ApplicationException | RuntimeException exception) {
+			this.addActions(playerId, batchOperations, null);
+			throw exception;
+		}
+
+		this.addActions(playerId, batchOperations, amountChanges);
+
+		List<BatchOperationResultDto> results = new ArrayList<>(batchOperations.size());
+		for (int index = 0; index < batchOperations.size(); index++) {
+			BatchOperationDto batchOperation = batchOperations.get(index);
+			AmountChange amountChange = amountChanges.get(index);
+
+			results.add(new BatchOperationResultDto(
+					(amountChange.getStatus() == AmountChangeStatus.SUCCESS) ? amountChange.getOperationId() : null,
+					batchOperation.getAccountId(), batchOperation.getOperationType(), batchOperation.getAmount(),
+					amountChange.getStatus()
+			));
+		}
+
+		return ResponseEntity.status(HttpStatus.OK).body(results);
+	}
+
+	/**
+	 * Добавляет действия игрока по операциям пакета одним пакетным запросом.
+	 *
+	 * @param playerId        идентификатор игрока.
+	 * @param batchOperations операции пакета.
+	 * @param amountChanges   результаты операций или {@code null}, если пакет не выполнен.
+	 */
+	private void addActions(final long playerId, final List<BatchOperationDto> batchOperations,
+							final List<AmountChange> amountChanges) {
+		List<Action> actions = new ArrayList<>(batchOperations.size());
+		for (int index = 0; index < batchOperations.size(); index++) {
+			ActionType actionType = switch (batchOperations.get(index).getOperationType()) {
+				case CREDIT -> ActionType.CREDIT_ACCOUNT;
+				case DEBIT -> ActionType.DEBIT_ACCOUNT;
+				case TRANSFER_OUT, TRANSFER_IN -> ActionType.TRANSFER_ACCOUNT;
+			};
+			ActionType.Status actionTypeStatus =
+					(amountChanges != null && amountChanges.get(index).getStatus() == AmountChangeStatus.SUCCESS)
+							? ActionType.Status.SUCCESS
+							: ActionType.Status.FAIL;
+
+			actions.add(new Action(0L, playerId, actionType, actionTypeStatus));
+		}
+
+		this.fixActionService.addAll(actions);
+	}
+}
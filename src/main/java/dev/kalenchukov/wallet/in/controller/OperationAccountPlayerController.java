@@ -6,14 +6,21 @@
 
 package dev.kalenchukov.wallet.in.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import dev.kalenchukov.starter.fixaction.annotations.FixAction;
 import dev.kalenchukov.starter.fixaction.types.ActionType;
 import dev.kalenchukov.wallet.auth.AuthToken;
 import dev.kalenchukov.wallet.dto.OperationDto;
+import dev.kalenchukov.wallet.dto.OperationSummaryDto;
 import dev.kalenchukov.wallet.dto.ViolationDto;
 import dev.kalenchukov.wallet.entity.Operation;
+import dev.kalenchukov.wallet.entity.OperationSummary;
 import dev.kalenchukov.wallet.entity.mappers.OperationMapper;
+import dev.kalenchukov.wallet.entity.mappers.OperationSummaryMapper;
 import dev.kalenchukov.wallet.exceptions.ApplicationException;
+import dev.kalenchukov.wallet.exceptions.InvalidFormatOperationException;
+import dev.kalenchukov.wallet.exceptions.InvalidPageOperationException;
+import dev.kalenchukov.wallet.exceptions.InvalidPeriodOperationException;
 import dev.kalenchukov.wallet.exceptions.NoAccessPlayerException;
 import dev.kalenchukov.wallet.in.service.OperationService;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -24,14 +31,28 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.mapstruct.factory.Mappers;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
 import java.util.List;
-
+import java.util.OptionalLong;
 
 /**
  * Класс обработки HTTP-запросов по операциям счетов игроков.
@@ -40,6 +61,31 @@ import java.util.List;
 @RequestMapping(path = "/players/{playerId}/accounts/{accountId}/operations")
 @Tag(name = "Управление операциями счетов игроков")
 public class OperationAccountPlayerController {
+	/**
+	 * Заголовок ответа с курсором следующей страницы операций.
+	 */
+	public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+	/**
+	 * Префикс курсора страницы операций, предшествующих операции.
+	 */
+	private static final String BEFORE_CURSOR = "before:";
+
+	/**
+	 * Префикс курсора страницы операций, следующих за операцией.
+	 */
+	private static final String AFTER_CURSOR = "after:";
+
+	/**
+	 * Тип содержимого выгрузки операций в формате NDJSON.
+	 */
+	private static final String NDJSON_CONTENT_TYPE = "application/x-ndjson";
+
+	/**
+	 * Заголовок выгрузки операций в формате CSV.
+	 */
+	private static final String CSV_HEADER = "operationId,playerId,accountId,operationType,amount";
+
 	/**
 	 * Сервис операций.
 	 */
@@ -50,20 +96,51 @@ public class OperationAccountPlayerController {
 	 */
 	private final AuthToken authToken;
 
+	/**
+	 * Преобразователь объектов в JSON.
+	 */
+	private final ObjectMapper objectMapper;
+
+	/**
+	 * Количество операций на странице по умолчанию.
+	 */
+	private final int pageSize;
+
+	/**
+	 * Максимальное количество операций на странице.
+	 */
+	private final int maxPageSize;
+
 	/**
 	 * Конструирует контроллер.
 	 *
 	 * @param operationService сервис операций.
 	 * @param authToken        авторизационные токены.
+	 * @param objectMapper     преобразователь объектов в JSON.
+	 * @param pageSize         количество операций на странице по умолчанию.
+	 * @param maxPageSize      максимальное количество операций на странице.
+	 * @throws IllegalArgumentException если количество операций на странице меньше единицы или больше максимального.
 	 */
 	@Autowired
-	public OperationAccountPlayerController(final OperationService operationService, final AuthToken authToken) {
+	public OperationAccountPlayerController(final OperationService operationService, final AuthToken authToken,
+											final ObjectMapper objectMapper,
+											@Value("${operation-pages.page-size}") final int pageSize,
+											@Value("${operation-pages.max-page-size}") final int maxPageSize) {
+		if (pageSize < 1 || pageSize > maxPageSize) {
+			throw new IllegalArgumentException(
+					"Количество операций на странице должно быть от единицы до максимального.");
+		}
+
 		this.operationService = operationService;
 		this.authToken = authToken;
+		this.objectMapper = objectMapper;
+		this.pageSize = pageSize;
+		this.maxPageSize = maxPageSize;
 	}
 
 	/**
 	 * Возвращает информацию об операции со счётом.
+	 * Операция возвращается в формате JSON из кэша без повторного преобразования.
 	 *
 	 * @param playerId    идентификатор игрока.
 	 * @param accountId   идентификатор счёта.
@@ -73,7 +150,9 @@ public class OperationAccountPlayerController {
 	 * @throws ApplicationException если произошла ошибка при выполнении данного запроса.
 	 */
 	@ApiResponses({
-			@ApiResponse(responseCode = "200", description = "Если запрос выполнен успешно"),
+			@ApiResponse(responseCode = "200", description = "Если запрос выполнен успешно", content = {
+					@Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+							schema = @Schema(implementation = OperationDto.class))}),
 			@ApiResponse(responseCode = "400", description = "Если запрос или данные некорректны", content = {
 					@Content(schema = @Schema(implementation = ViolationDto.class))}),
 			@ApiResponse(responseCode = "401", description = "Если необходимо пройти авторизацию", content = {
@@ -87,7 +166,7 @@ public class OperationAccountPlayerController {
 	@FixAction(actionType = ActionType.OPERATION_ACCOUNT)
 	@ResponseStatus(HttpStatus.OK)
 	@GetMapping(path = "/{operationId}")
-	public ResponseEntity<OperationDto> get(
+	public ResponseEntity<byte[]> get(
 			@Parameter(description = "Идентификатор игрока") @PathVariable final long playerId,
 			@Parameter(description = "Идентификатор счёта") @PathVariable final long accountId,
 			@Parameter(description = "Идентификатор операции") @PathVariable final long operationId,
@@ -97,23 +176,34 @@ public class OperationAccountPlayerController {
 			throw new NoAccessPlayerException(playerId);
 		}
 
-		Operation operation = this.operationService.findById(playerId, accountId, operationId);
-		OperationDto operationDto = Mappers.getMapper(OperationMapper.class).toDto(operation);
+		byte[] operationJson = this.operationService.findJsonById(playerId, accountId, operationId);
 
-		return ResponseEntity.status(HttpStatus.OK).body(operationDto);
+		return ResponseEntity.status(HttpStatus.OK).contentType(MediaType.APPLICATION_JSON).body(operationJson);
 	}
 
 	/**
-	 * Возвращает список операций со счётом.
+	 * Возвращает страницу операций со счётом от новых к старым.
+	 * Страница ищется по идентификатору операции с помощью индекса, поэтому её стоимость
+	 * не зависит от длины истории счёта.
+	 * Если за страницей есть ещё операции, курсор следующей страницы возвращается в заголовке {@code X-Next-Cursor}.
+	 * Ответ содержит тег сущности {@code ETag}, построенный по версии операций счёта.
+	 * Если версия не изменилась с тега из заголовка {@code If-None-Match}, возвращается ответ без тела
+	 * без поиска операций.
 	 *
 	 * @param playerId    идентификатор игрока.
 	 * @param accountId   идентификатор счёта.
+	 * @param limit       количество операций на странице.
+	 * @param before      идентификатор операции, до которой ищутся операции.
+	 * @param after       идентификатор операции, после которой ищутся операции.
+	 * @param cursor      курсор страницы.
 	 * @param accessToken токен доступа.
+	 * @param webRequest  запрос.
 	 * @return список операций.
 	 * @throws ApplicationException если произошла ошибка при выполнении данного запроса.
 	 */
 	@ApiResponses({
 			@ApiResponse(responseCode = "200", description = "Если запрос выполнен успешно"),
+			@ApiResponse(responseCode = "304", description = "Если операции счёта не изменились"),
 			@ApiResponse(responseCode = "400", description = "Если запрос или данные некорректны", content = {
 					@Content(schema = @Schema(implementation = ViolationDto.class))}),
 			@ApiResponse(responseCode = "401", description = "Если необходимо пройти авторизацию", content = {
@@ -121,25 +211,324 @@ public class OperationAccountPlayerController {
 			@ApiResponse(responseCode = "403", description = "Если доступ отсутствует", content = {
 					@Content(schema = @Schema(implementation = ViolationDto.class))})
 	})
-	@io.swagger.v3.oas.annotations.Operation(summary = "Получение списка операций со счётом", description = "Позволяет получить список операций со счётом")
+	@io.swagger.v3.oas.annotations.Operation(summary = "Получение списка операций со счётом", description = "Позволяет получить список операций со счётом постранично")
 	@FixAction(actionType = ActionType.OPERATIONS_ACCOUNT)
 	@ResponseStatus(HttpStatus.OK)
 	@GetMapping
 	public ResponseEntity<List<OperationDto>> find(
 			@Parameter(description = "Идентификатор игрока") @PathVariable final long playerId,
 			@Parameter(description = "Идентификатор счёта") @PathVariable final long accountId,
-			@Parameter(description = "Токен доступа") @RequestHeader("Authorization") final String accessToken
+			@Parameter(description = "Количество операций на странице") @RequestParam(required = false) final Integer limit,
+			@Parameter(description = "Идентификатор операции, до которой ищутся операции") @RequestParam(required = false) final Long before,
+			@Parameter(description = "Идентификатор операции, после которой ищутся операции") @RequestParam(required = false) final Long after,
+			@Parameter(description = "Курсор страницы") @RequestParam(required = false) final String cursor,
+			@Parameter(description = "Токен доступа") @RequestHeader("Authorization") final String accessToken,
+			final WebRequest webRequest
 	) throws ApplicationException {
 		if (playerId != this.authToken.verifyToken(accessToken)) {
 			throw new NoAccessPlayerException(playerId);
 		}
 
-		List<Operation> operations = this.operationService.find(playerId, accountId);
+		int size = (limit == null) ? this.pageSize : limit;
+		if (size < 1 || size > this.maxPageSize) {
+			throw new InvalidPageOperationException("limit=" + limit);
+		}
+
+		if ((before != null ? 1 : 0) + (after != null ? 1 : 0) + (cursor != null ? 1 : 0) > 1) {
+			throw new InvalidPageOperationException("before, after, cursor");
+		}
+
+		boolean forward = false;
+		long operationId = Long.MAX_VALUE;
+		if (before != null) {
+			operationId = before;
+		} else if (after != null) {
+			forward = true;
+			operationId = after;
+		} else if (cursor != null) {
+			String decodedCursor = decodeCursor(cursor);
+			forward = decodedCursor.startsWith(AFTER_CURSOR);
+			operationId = parseCursor(cursor, decodedCursor.substring(
+					(forward ? AFTER_CURSOR : BEFORE_CURSOR).length()));
+		}
+
+		OptionalLong version = this.operationService.findVersion(playerId, accountId);
+		if (version.isPresent() && webRequest.checkNotModified("\"" + version.getAsLong() + "\"")) {
+			return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+		}
+
+		List<Operation> operations = forward
+				? this.operationService.findAfter(playerId, accountId, operationId, size + 1)
+				: this.operationService.findBefore(playerId, accountId, operationId, size + 1);
+
+		String nextCursor = null;
+		if (operations.size() > size) {
+			operations = operations.subList(0, size);
+			nextCursor = encodeCursor((forward ? AFTER_CURSOR : BEFORE_CURSOR)
+					+ operations.get(size - 1).getOperationId());
+		}
+
 		List<OperationDto> operationsDto = new ArrayList<>();
 		for (Operation operation : operations) {
 			operationsDto.add(Mappers.getMapper(OperationMapper.class).toDto(operation));
 		}
 
-		return ResponseEntity.status(HttpStatus.OK).body(operationsDto);
+		if (forward) {
+			Collections.reverse(operationsDto);
+		}
+
+		ResponseEntity.BodyBuilder response = ResponseEntity.status(HttpStatus.OK);
+		if (nextCursor != null) {
+			response.header(NEXT_CURSOR_HEADER, nextCursor);
+		}
+
+		return response.body(operationsDto);
+	}
+
+	/**
+	 * Выгружает историю операций со счётом от старых к новым.
+	 * Операции записываются в ответ по одной по мере чтения из хранилища в формате NDJSON или CSV,
+	 * поэтому расход памяти не зависит от длины истории.
+	 * Период создания операций ограничивает чтение секциями таблицы операций за этот период.
+	 *
+	 * @param playerId    идентификатор игрока.
+	 * @param accountId   идентификатор счёта.
+	 * @param format      формат выгрузки.
+	 * @param from        начало периода создания операций включительно в формате ISO-8601.
+	 * @param to          конец периода создания операций исключительно в формате ISO-8601.
+	 * @param accessToken токен доступа.
+	 * @return поток операций.
+	 * @throws ApplicationException если произошла ошибка при выполнении данного запроса.
+	 */
+	@ApiResponses({
+			@ApiResponse(responseCode = "200", description = "Если запрос выполнен успешно"),
+			@ApiResponse(responseCode = "400", description = "Если запрос или данные некорректны", content = {
+					@Content(schema = @Schema(implementation = ViolationDto.class))}),
+			@ApiResponse(responseCode = "401", description = "Если необходимо пройти авторизацию", content = {
+					@Content(schema = @Schema(implementation = ViolationDto.class))}),
+			@ApiResponse(responseCode = "403", description = "Если доступ отсутствует", content = {
+					@Content(schema = @Schema(implementation = ViolationDto.class))})
+	})
+	@io.swagger.v3.oas.annotations.Operation(summary = "Выгрузка истории операций со счётом", description = "Позволяет выгрузить историю операций со счётом за период или за всё время в формате NDJSON или CSV")
+	@FixAction(actionType = ActionType.EXPORT_OPERATIONS_ACCOUNT)
+	@ResponseStatus(HttpStatus.OK)
+	@GetMapping(path = "/export")
+	public ResponseEntity<StreamingResponseBody> export(
+			@Parameter(description = "Идентификатор игрока") @PathVariable final long playerId,
+			@Parameter(description = "Идентификатор счёта") @PathVariable final long accountId,
+			@Parameter(description = "Формат выгрузки: ndjson или csv") @RequestParam(defaultValue = "ndjson") final String format,
+			@Parameter(description = "Начало периода создания операций включительно, например 2023-01-01T00:00:00Z") @RequestParam(required = false) final String from,
+			@Parameter(description = "Конец периода создания операций исключительно, например 2023-02-01T00:00:00Z") @RequestParam(required = false) final String to,
+			@Parameter(description = "Токен доступа") @RequestHeader("Authorization") final String accessToken
+	) throws ApplicationException {
+		if (playerId != this.authToken.verifyToken(accessToken)) {
+			throw new NoAccessPlayerException(playerId);
+		}
+
+		boolean csv;
+		MediaType contentType;
+		if (format.equals("ndjson")) {
+			csv = false;
+			contentType = MediaType.parseMediaType(NDJSON_CONTENT_TYPE);
+		} else if (format.equals("csv")) {
+			csv = true;
+			contentType = new MediaType("text", "csv", StandardCharsets.UTF_8);
+		} else {
+			throw new InvalidFormatOperationException(format);
+		}
+
+		Instant fromInstant = parseInstant("from", from);
+		Instant toInstant = parseInstant("to", to);
+		if (fromInstant != null && toInstant != null && !fromInstant.isBefore(toInstant)) {
+			throw new InvalidPeriodOperationException(from + "/" + to);
+		}
+
+		StreamingResponseBody body = outputStream -> {
+			Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+			if (csv) {
+				writer.write(CSV_HEADER);
+				writer.write('\n');
+				writer.flush();
+			}
+
+			boolean[] first = {true};
+			try {
+				this.operationService.export(playerId, accountId, fromInstant, toInstant, operation -> {
+					OperationDto operationDto = Mappers.getMapper(OperationMapper.class).toDto(operation);
+					try {
+						writer.write(csv ? toCsv(operationDto) : this.objectMapper.writeValueAsString(operationDto));
+						writer.write('\n');
+
+						if (first[0]) {
+							writer.flush();
+							first[0] = false;
+						}
+					} catch (IOException exception) {
+						throw new UncheckedIOException(exception);
+					}
+				});
+			} catch (UncheckedIOException exception) {
+				throw exception.getCause();
+			}
+
+			writer.flush();
+		};
+
+		return ResponseEntity.status(HttpStatus.OK).contentType(contentType).body(body);
+	}
+
+	/**
+	 * Возвращает итоги операций со счётом по типам за период.
+	 * Итоги складываются из итогов по дням, поэтому время ответа зависит от длины периода,
+	 * а не от количества операций.
+	 *
+	 * @param playerId    идентификатор игрока.
+	 * @param accountId   идентификатор счёта.
+	 * @param from        первый день периода по UTC в формате ISO-8601.
+	 * @param to          последний день периода по UTC в формате ISO-8601.
+	 * @param accessToken токен доступа.
+	 * @return итоги операций.
+	 * @throws ApplicationException если произошла ошибка при выполнении данного запроса.
+	 */
+	@ApiResponses({
+			@ApiResponse(responseCode = "200", description = "Если запрос выполнен успешно"),
+			@ApiResponse(responseCode = "400", description = "Если запрос или данные некорректны", content = {
+					@Content(schema = @Schema(implementation = ViolationDto.class))}),
+			@ApiResponse(responseCode = "401", description = "Если необходимо пройти авторизацию", content = {
+					@Content(schema = @Schema(implementation = ViolationDto.class))}),
+			@ApiResponse(responseCode = "403", description = "Если доступ отсутствует", content = {
+					@Content(schema = @Schema(implementation = ViolationDto.class))})
+	})
+	@io.swagger.v3.oas.annotations.Operation(summary = "Итоги операций со счётом", description = "Позволяет получить количество и сумму операций со счётом каждого типа за период")
+	@FixAction(actionType = ActionType.SUMMARY_OPERATIONS_ACCOUNT)
+	@ResponseStatus(HttpStatus.OK)
+	@GetMapping(path = "/summary")
+	public List<OperationSummaryDto> summary(
+			@Parameter(description = "Идентификатор игрока") @PathVariable final long playerId,
+			@Parameter(description = "Идентификатор счёта") @PathVariable final long accountId,
+			@Parameter(description = "Первый день периода, например 2023-01-01") @RequestParam(required = false) final String from,
+			@Parameter(description = "Последний день периода, например 2023-01-31") @RequestParam(required = false) final String to,
+			@Parameter(description = "Токен доступа") @RequestHeader("Authorization") final String accessToken
+	) throws ApplicationException {
+		if (playerId != this.authToken.verifyToken(accessToken)) {
+			throw new NoAccessPlayerException(playerId);
+		}
+
+		LocalDate fromDate = parseDate("from", from);
+		LocalDate toDate = parseDate("to", to);
+		if (fromDate.isAfter(toDate)) {
+			throw new InvalidPeriodOperationException(from + "/" + to);
+		}
+
+		List<OperationSummary> operationSummaries = this.operationService.summarize(playerId, accountId,
+				fromDate, toDate);
+		List<OperationSummaryDto> operationSummariesDto = new ArrayList<>(operationSummaries.size());
+		for (OperationSummary operationSummary : operationSummaries) {
+			operationSummariesDto.add(Mappers.getMapper(OperationSummaryMapper.class).toDto(operationSummary));
+		}
+
+		return operationSummariesDto;
+	}
+
+	/**
+	 * Возвращает строку CSV операции.
+	 *
+	 * @param operationDto операция.
+	 * @return строку CSV.
+	 */
+	private static String toCsv(final OperationDto operationDto) {
+		return operationDto.getOperationId() + "," + operationDto.getPlayerId() + "," + operationDto.getAccountId()
+				+ "," + operationDto.getOperationType() + "," + operationDto.getAmount().toPlainString();
+	}
+
+	/**
+	 * Кодирует курсор страницы.
+	 *
+	 * @param value значение курсора.
+	 * @return курсор.
+	 */
+	private static String encodeCursor(final String value) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Декодирует курсор страницы.
+	 *
+	 * @param cursor курсор.
+	 * @return значение курсора.
+	 * @throws InvalidPageOperationException если курсор некорректен.
+	 */
+	private static String decodeCursor(final String cursor) throws InvalidPageOperationException {
+		String value;
+		try {
+			value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+		} catch (IllegalArgumentException exception) {
+			throw new InvalidPageOperationException("cursor=" + cursor);
+		}
+
+		if (!value.startsWith(BEFORE_CURSOR) && !value.startsWith(AFTER_CURSOR)) {
+			throw new InvalidPageOperationException("cursor=" + cursor);
+		}
+
+		return value;
+	}
+
+	/**
+	 * Возвращает идентификатор операции из курсора страницы.
+	 *
+	 * @param cursor      курсор.
+	 * @param operationId идентификатор операции из значения курсора.
+	 * @return идентификатор операции.
+	 * @throws InvalidPageOperationException если идентификатор операции некорректен.
+	 */
+	private static long parseCursor(final String cursor, final String operationId)
+			throws InvalidPageOperationException {
+		try {
+			return Long.parseLong(operationId);
+		} catch (NumberFormatException exception) {
+			throw new InvalidPageOperationException("cursor=" + cursor);
+		}
+	}
+
+	/**
+	 * Возвращает момент времени из параметра запроса.
+	 *
+	 * @param name  название параметра.
+	 * @param value значение параметра.
+	 * @return момент времени или {@code null}, если параметр не указан.
+	 * @throws InvalidPeriodOperationException если значение параметра некорректно.
+	 */
+	private static Instant parseInstant(final String name, final String value)
+			throws InvalidPeriodOperationException {
+		if (value == null) {
+			return null;
+		}
+
+		try {
+			return Instant.parse(value);
+		} catch (DateTimeParseException exception) {
+			throw new InvalidPeriodOperationException(name + "=" + value);
+		}
+	}
+
+	/**
+	 * Возвращает день из параметра запроса.
+	 *
+	 * @param name  название параметра.
+	 * @param value значение параметра.
+	 * @return день.
+	 * @throws InvalidPeriodOperationException если параметр не указан или его значение некорректно.
+	 */
+	private static LocalDate parseDate(final String name, final String value)
+			throws InvalidPeriodOperationException {
+		if (value == null) {
+			throw new InvalidPeriodOperationException(name + "=");
+		}
+
+		try {
+			return LocalDate.parse(value);
+		} catch (DateTimeParseException exception) {
+			throw new InvalidPeriodOperationException(name + "=" + value);
+		}
 	}
 }
@@ -17,6 +17,7 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletionException;
 
 /**
  * Класс обработчика исключений контроллеров.
@@ -36,6 +37,24 @@ public class ControllerHandler {
 		return ResponseEntity.status(exception.getHttpCode()).body(new ViolationDto(exception.getMessage()));
 	}
 
+	/**
+	 * Возвращает информацию о нарушении асинхронного запроса.
+	 * Если причиной является исключение приложения, ответ формируется по нему.
+	 *
+	 * @param exception исключение.
+	 * @return нарушение.
+	 */
+	@ExceptionHandler(CompletionException.class)
+	public ResponseEntity<ViolationDto> handleCompletionException(
+			final CompletionException exception
+	) {
+		if (exception.getCause() instanceof ApplicationException cause) {
+			return this.handleApplicationException(cause);
+		}
+
+		throw exception;
+	}
+
 	/**
 	 * Возвращает информацию о нарушении.
 	 *
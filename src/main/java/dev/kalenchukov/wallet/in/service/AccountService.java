@@ -7,13 +7,19 @@
 package dev.kalenchukov.wallet.in.service;
 
 import dev.kalenchukov.wallet.entity.Account;
+import dev.kalenchukov.wallet.entity.AmountChange;
 import dev.kalenchukov.wallet.entity.Operation;
+import dev.kalenchukov.wallet.exceptions.InvalidScaleAmountException;
+import dev.kalenchukov.wallet.exceptions.InvalidTypeOperationException;
 import dev.kalenchukov.wallet.exceptions.NegativeAmountOperationException;
 import dev.kalenchukov.wallet.exceptions.NoAccessAccountException;
 import dev.kalenchukov.wallet.exceptions.NotFoundAccountException;
 import dev.kalenchukov.wallet.exceptions.OutOfAmountAccountException;
+import dev.kalenchukov.wallet.exceptions.ProcessingIdempotencyKeyException;
+import dev.kalenchukov.wallet.exceptions.SameAccountTransferException;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 /**
  * Интерфейс для реализации класса сервиса счетов.
@@ -37,10 +43,12 @@ public interface AccountService {
 	 * @throws NotFoundAccountException         если счёт не найден.
 	 * @throws NoAccessAccountException         если счёт принадлежит другому игроку.
 	 * @throws NegativeAmountOperationException если сумма меньше нуля.
+	 * @throws InvalidScaleAmountException      если сумма содержит больше знаков после запятой, чем допускает валюта.
 	 * @throws NoAccessAccountException         если счёт принадлежит другому игроку.
 	 */
 	Operation credit(long playerId, long accountId, BigDecimal amount)
-			throws NotFoundAccountException, NoAccessAccountException, NegativeAmountOperationException;
+			throws NotFoundAccountException, NoAccessAccountException, NegativeAmountOperationException,
+			InvalidScaleAmountException;
 
 	/**
 	 * Списывает со счёта.
@@ -53,10 +61,84 @@ public interface AccountService {
 	 * @throws NoAccessAccountException         если счёт принадлежит другому игроку.
 	 * @throws OutOfAmountAccountException      если для списания недостаточно средств.
 	 * @throws NegativeAmountOperationException если сумма меньше нуля.
+	 * @throws InvalidScaleAmountException      если сумма содержит больше знаков после запятой, чем допускает валюта.
 	 */
 	Operation debit(long playerId, long accountId, BigDecimal amount)
 			throws NotFoundAccountException, NoAccessAccountException, NegativeAmountOperationException,
-			OutOfAmountAccountException;
+			InvalidScaleAmountException, OutOfAmountAccountException;
+
+	/**
+	 * Пополняет счёт по зарезервированному ключу идемпотентности.
+	 * Изменение суммы, добавление операции и завершение ключа выполняются в одной транзакции.
+	 *
+	 * @param playerId       идентификатор игрока.
+	 * @param accountId      идентификатор счёта.
+	 * @param amount         сумма.
+	 * @param idempotencyKey ключ идемпотентности.
+	 * @return операцию.
+	 * @throws NotFoundAccountException          если счёт не найден.
+	 * @throws NoAccessAccountException          если счёт принадлежит другому игроку.
+	 * @throws NegativeAmountOperationException  если сумма меньше нуля.
+	 * @throws InvalidScaleAmountException       если сумма содержит больше знаков после запятой, чем допускает валюта.
+	 * @throws ProcessingIdempotencyKeyException если ключ не ожидает выполнения запроса.
+	 */
+	Operation credit(long playerId, long accountId, BigDecimal amount, String idempotencyKey)
+			throws NotFoundAccountException, NoAccessAccountException, NegativeAmountOperationException,
+			InvalidScaleAmountException, ProcessingIdempotencyKeyException;
+
+	/**
+	 * Списывает со счёта по зарезервированному ключу идемпотентности.
+	 * Изменение суммы, добавление операции и завершение ключа выполняются в одной транзакции.
+	 *
+	 * @param playerId       идентификатор игрока.
+	 * @param accountId      идентификатор счёта.
+	 * @param amount         сумма.
+	 * @param idempotencyKey ключ идемпотентности.
+	 * @return операцию.
+	 * @throws NotFoundAccountException          если счёт не найден.
+	 * @throws NoAccessAccountException          если счёт принадлежит другому игроку.
+	 * @throws OutOfAmountAccountException       если для списания недостаточно средств.
+	 * @throws NegativeAmountOperationException  если сумма меньше нуля.
+	 * @throws InvalidScaleAmountException       если сумма содержит больше знаков после запятой, чем допускает валюта.
+	 * @throws ProcessingIdempotencyKeyException если ключ не ожидает выполнения запроса.
+	 */
+	Operation debit(long playerId, long accountId, BigDecimal amount, String idempotencyKey)
+			throws NotFoundAccountException, NoAccessAccountException, NegativeAmountOperationException,
+			InvalidScaleAmountException, OutOfAmountAccountException, ProcessingIdempotencyKeyException;
+
+	/**
+	 * Переводит сумму между счетами игрока.
+	 *
+	 * @param playerId      идентификатор игрока.
+	 * @param fromAccountId идентификатор счёта списания.
+	 * @param toAccountId   идентификатор счёта зачисления.
+	 * @param amount        сумма.
+	 * @return операции списания и зачисления.
+	 * @throws NotFoundAccountException         если какой-либо из счетов не найден.
+	 * @throws NoAccessAccountException         если какой-либо из счетов принадлежит другому игроку.
+	 * @throws OutOfAmountAccountException      если для списания недостаточно средств.
+	 * @throws NegativeAmountOperationException если сумма меньше нуля.
+	 * @throws InvalidScaleAmountException      если сумма содержит больше знаков после запятой, чем допускает валюта.
+	 * @throws SameAccountTransferException     если счёт списания совпадает со счётом зачисления.
+	 */
+	List<Operation> transfer(long playerId, long fromAccountId, long toAccountId, BigDecimal amount)
+			throws NotFoundAccountException, NoAccessAccountException, NegativeAmountOperationException,
+			InvalidScaleAmountException, OutOfAmountAccountException, SameAccountTransferException;
+
+	/**
+	 * Выполняет пакет пополнений и списаний счетов игрока.
+	 *
+	 * @param playerId     идентификатор игрока.
+	 * @param operations   операции.
+	 * @param allOrNothing {@code true} если требуется выполнить все операции или ни одной.
+	 * @return результаты изменения сумм счетов в порядке операций.
+	 * @throws NegativeAmountOperationException если сумма какой-либо операции меньше нуля.
+	 * @throws InvalidScaleAmountException      если сумма какой-либо операции содержит больше знаков после запятой,
+	 *                                          чем допускает валюта.
+	 * @throws InvalidTypeOperationException    если какая-либо операция не является пополнением или списанием.
+	 */
+	List<AmountChange> changeAmounts(long playerId, List<Operation> operations, boolean allOrNothing)
+			throws NegativeAmountOperationException, InvalidScaleAmountException, InvalidTypeOperationException;
 
 	/**
 	 * Возвращает счёт.
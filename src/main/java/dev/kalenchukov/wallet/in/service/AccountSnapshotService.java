@@ -0,0 +1,36 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.in.service;
+
+import dev.kalenchukov.wallet.entity.AccountAudit;
+import dev.kalenchukov.wallet.entity.AccountSnapshot;
+import dev.kalenchukov.wallet.exceptions.NotFoundAccountException;
+
+import java.util.Optional;
+
+/**
+ * Интерфейс для реализации класса сервиса снимков сумм счетов.
+ */
+public interface AccountSnapshotService {
+	/**
+	 * Сверяет сумму счёта с суммой, восстановленной по журналу операций.
+	 *
+	 * @param playerId  идентификатор игрока.
+	 * @param accountId идентификатор счёта.
+	 * @return результат сверки.
+	 * @throws NotFoundAccountException если счёт не найден.
+	 */
+	AccountAudit audit(long playerId, long accountId) throws NotFoundAccountException;
+
+	/**
+	 * Сохраняет снимок текущей суммы счёта.
+	 *
+	 * @param accountId идентификатор счёта.
+	 * @return последний снимок суммы счёта или пустое значение, если счёт не найден.
+	 */
+	Optional<AccountSnapshot> snapshot(long accountId);
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.in.service;
+
+import dev.kalenchukov.wallet.entity.Operation;
+import dev.kalenchukov.wallet.exceptions.ApplicationException;
+import dev.kalenchukov.wallet.exceptions.InvalidIdempotencyKeyException;
+import dev.kalenchukov.wallet.exceptions.ProcessingIdempotencyKeyException;
+import dev.kalenchukov.wallet.type.OperationType;
+
+import java.math.BigDecimal;
+
+/**
+ * Интерфейс для реализации класса сервиса ключей идемпотентности.
+ */
+public interface IdempotencyService {
+	/**
+	 * Выполняет операцию не более одного раза для ключа идемпотентности.
+	 * Повторный запрос с тем же ключом возвращает результат первого запроса без выполнения операции.
+	 * Выполнение операции должно завершить ключ в той же транзакции, что и изменение счёта.
+	 * Если первый запрос завершился ошибкой до завершения ключа, ключ освобождается и запрос может быть повторён.
+	 *
+	 * @param playerId      идентификатор игрока.
+	 * @param accountId     идентификатор счёта.
+	 * @param operationType тип операции.
+	 * @param amount        сумма операции.
+	 * @param key           ключ идемпотентности.
+	 * @param action        выполнение операции.
+	 * @return операцию.
+	 * @throws InvalidIdempotencyKeyException    если ключ некорректен или использован для другого запроса.
+	 * @throws ProcessingIdempotencyKeyException если запрос с данным ключом ещё выполняется.
+	 * @throws ApplicationException              если выполнение операции завершилось ошибкой.
+	 */
+	Operation execute(long playerId, long accountId, OperationType operationType, BigDecimal amount, String key,
+					  Action action) throws ApplicationException;
+
+	/**
+	 * Интерфейс выполнения операции.
+	 */
+	@FunctionalInterface
+	interface Action {
+		/**
+		 * Выполняет операцию и завершает ключ идемпотентности в транзакции операции.
+		 *
+		 * @return операцию.
+		 * @throws ApplicationException если выполнение операции завершилось ошибкой.
+		 */
+		Operation execute() throws ApplicationException;
+	}
+}
@@ -0,0 +1,17 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.in.service;
+
+/**
+ * Интерфейс для реализации класса сервиса архивирования операций.
+ */
+public interface OperationArchiveService {
+	/**
+	 * Переносит операции секций месяцев старше заданного срока в архив и удаляет эти секции.
+	 */
+	void archive();
+}
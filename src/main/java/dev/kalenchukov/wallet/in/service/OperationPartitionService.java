@@ -0,0 +1,17 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.in.service;
+
+/**
+ * Интерфейс для реализации класса сервиса секций таблицы операций.
+ */
+public interface OperationPartitionService {
+	/**
+	 * Создаёт секции текущего и следующих месяцев и удаляет секции месяцев, вышедших за срок хранения.
+	 */
+	void maintain();
+}
@@ -7,11 +7,16 @@
 package dev.kalenchukov.wallet.in.service;
 
 import dev.kalenchukov.wallet.entity.Operation;
+import dev.kalenchukov.wallet.entity.OperationSummary;
 import dev.kalenchukov.wallet.exceptions.NotFoundOperationException;
 import dev.kalenchukov.wallet.type.OperationType;
 
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.OptionalLong;
+import java.util.function.Consumer;
 
 /**
  * Интерфейс для реализации класса сервиса операций.
@@ -39,6 +44,18 @@ public interface OperationService {
 	 */
 	Operation findById(long playerId, long accountId, long operationId) throws NotFoundOperationException;
 
+	/**
+	 * Возвращает операцию в формате JSON.
+	 * Возвращённый массив общий для всех запросов и не должен изменяться.
+	 *
+	 * @param playerId    идентификатор игрока.
+	 * @param accountId   идентификатор счёта.
+	 * @param operationId идентификатор операции.
+	 * @return операция в формате JSON в кодировке UTF-8.
+	 * @throws NotFoundOperationException если операция не найдена.
+	 */
+	byte[] findJsonById(long playerId, long accountId, long operationId) throws NotFoundOperationException;
+
 	/**
 	 * Ищет операции.
 	 *
@@ -47,4 +64,59 @@ public interface OperationService {
 	 * @return найденные операции.
 	 */
 	List<Operation> find(long playerId, long accountId);
+
+	/**
+	 * Ищет операции, предшествующие операции.
+	 *
+	 * @param playerId          идентификатор игрока.
+	 * @param accountId         идентификатор счёта.
+	 * @param beforeOperationId идентификатор операции, до которой ищутся операции.
+	 * @param limit             максимальное количество операций.
+	 * @return найденные операции в порядке убывания идентификаторов.
+	 */
+	List<Operation> findBefore(long playerId, long accountId, long beforeOperationId, int limit);
+
+	/**
+	 * Ищет операции, следующие за операцией.
+	 *
+	 * @param playerId         идентификатор игрока.
+	 * @param accountId        идентификатор счёта.
+	 * @param afterOperationId идентификатор операции, после которой ищутся операции.
+	 * @param limit            максимальное количество операций.
+	 * @return найденные операции в порядке возрастания идентификаторов.
+	 */
+	List<Operation> findAfter(long playerId, long accountId, long afterOperationId, int limit);
+
+	/**
+	 * Передаёт операции счёта, созданные в периоде, получателю по одной в порядке возрастания идентификаторов.
+	 *
+	 * @param playerId  идентификатор игрока.
+	 * @param accountId идентификатор счёта.
+	 * @param from      начало периода создания операций включительно или {@code null}, если период не ограничен снизу.
+	 * @param to        конец периода создания операций исключительно или {@code null}, если период не ограничен сверху.
+	 * @param consumer  получатель операций.
+	 */
+	void export(long playerId, long accountId, Instant from, Instant to, Consumer<Operation> consumer);
+
+	/**
+	 * Возвращает итоги операций счёта по типам за период.
+	 *
+	 * @param playerId  идентификатор игрока.
+	 * @param accountId идентификатор счёта.
+	 * @param from      первый день периода по UTC.
+	 * @param to        последний день периода по UTC.
+	 * @return итоги операций в порядке типов операций.
+	 */
+	List<OperationSummary> summarize(long playerId, long accountId, LocalDate from, LocalDate to);
+
+	/**
+	 * Возвращает версию операций счёта.
+	 * Версия равна идентификатору последней операции счёта и растёт с каждой новой операцией,
+	 * поэтому по ней можно проверить, изменились ли операции счёта.
+	 *
+	 * @param playerId  идентификатор игрока.
+	 * @param accountId идентификатор счёта.
+	 * @return версия или пустое значение, если у счёта нет операций игрока или версия не может быть определена.
+	 */
+	OptionalLong findVersion(long playerId, long accountId);
 }
@@ -6,22 +6,40 @@
 
 package dev.kalenchukov.wallet.in.service.impl;
 
+import dev.kalenchukov.wallet.cache.AccountCache;
+import dev.kalenchukov.wallet.cache.OperationJsonCache;
+import dev.kalenchukov.wallet.cache.RecentOperationCache;
 import dev.kalenchukov.wallet.entity.Account;
+import dev.kalenchukov.wallet.entity.AmountChange;
 import dev.kalenchukov.wallet.entity.Operation;
+import dev.kalenchukov.wallet.entity.TransferChange;
+import dev.kalenchukov.wallet.exceptions.InvalidScaleAmountException;
+import dev.kalenchukov.wallet.exceptions.InvalidTypeOperationException;
 import dev.kalenchukov.wallet.exceptions.NegativeAmountOperationException;
 import dev.kalenchukov.wallet.exceptions.NoAccessAccountException;
 import dev.kalenchukov.wallet.exceptions.NotFoundAccountException;
 import dev.kalenchukov.wallet.exceptions.OutOfAmountAccountException;
+import dev.kalenchukov.wallet.exceptions.ProcessingIdempotencyKeyException;
+import dev.kalenchukov.wallet.exceptions.SameAccountTransferException;
 import dev.kalenchukov.wallet.in.service.AccountService;
+import dev.kalenchukov.wallet.lock.AccountLock;
+import dev.kalenchukov.wallet.money.AmountConverter;
 import dev.kalenchukov.wallet.repository.AccountRepository;
-import dev.kalenchukov.wallet.repository.OperationRepository;
+import dev.kalenchukov.wallet.repository.EventSourcedAccountRepository;
+import dev.kalenchukov.wallet.repository.HotAccountRepository;
+import dev.kalenchukov.wallet.repository.JournalAccountRepository;
+import dev.kalenchukov.wallet.type.AmountChangeStatus;
 import dev.kalenchukov.wallet.type.OperationType;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
 
 /**
  * Класс сервиса счетов.
@@ -34,24 +52,87 @@ public class AccountServiceImpl implements AccountService {
 	private final AccountRepository accountRepository;
 
 	/**
-	 * Хранилище операций.
+	 * Хранилище горячих счетов.
 	 */
-	private final OperationRepository operationRepository;
+	private final HotAccountRepository hotAccountRepository;
+
+	/**
+	 * Хранилище журналируемых счетов.
+	 */
+	private final JournalAccountRepository journalAccountRepository;
+
+	/**
+	 * Хранилище счетов, сумма которых выводится из журнала операций.
+	 */
+	private final EventSourcedAccountRepository eventSourcedAccountRepository;
+
+	/**
+	 * Блокировки счетов.
+	 */
+	private final AccountLock accountLock;
+
+	/**
+	 * Кэш счетов.
+	 */
+	private final AccountCache accountCache;
+
+	/**
+	 * Кэш последних операций счетов.
+	 */
+	private final RecentOperationCache recentOperationCache;
+
+	/**
+	 * Кэш операций в формате JSON.
+	 */
+	private final OperationJsonCache operationJsonCache;
+
+	/**
+	 * Преобразователь сумм.
+	 */
+	private final AmountConverter amountConverter;
 
 	/**
 	 * Конструирует сервис счетов.
 	 *
-	 * @param accountRepository   хранилище счетов.
-	 * @param operationRepository хранилище операций.
+	 * @param accountRepository             хранилище счетов.
+	 * @param hotAccountRepository          хранилище горячих счетов.
+	 * @param journalAccountRepository      хранилище журналируемых счетов.
+	 * @param eventSourcedAccountRepository хранилище счетов, сумма которых выводится из журнала операций.
+	 * @param accountLock                   блокировки счетов.
+	 * @param accountCache                  кэш счетов.
+	 * @param recentOperationCache          кэш последних операций счетов.
+	 * @param operationJsonCache            кэш операций в формате JSON.
+	 * @param amountConverter               преобразователь сумм.
 	 */
 	@Autowired
 	public AccountServiceImpl(final AccountRepository accountRepository,
-							  final OperationRepository operationRepository) {
+							  final HotAccountRepository hotAccountRepository,
+							  final JournalAccountRepository journalAccountRepository,
+							  final EventSourcedAccountRepository eventSourcedAccountRepository,
+							  final AccountLock accountLock,
+							  final AccountCache accountCache,
+							  final RecentOperationCache recentOperationCache,
+							  final OperationJsonCache operationJsonCache,
+							  final AmountConverter amountConverter) {
 		Objects.requireNonNull(accountRepository);
-		Objects.requireNonNull(operationRepository);
+		Objects.requireNonNull(hotAccountRepository);
+		Objects.requireNonNull(journalAccountRepository);
+		Objects.requireNonNull(eventSourcedAccountRepository);
+		Objects.requireNonNull(accountLock);
+		Objects.requireNonNull(accountCache);
+		Objects.requireNonNull(recentOperationCache);
+		Objects.requireNonNull(operationJsonCache);
+		Objects.requireNonNull(amountConverter);
 
 		this.accountRepository = accountRepository;
-		this.operationRepository = operationRepository;
+		this.hotAccountRepository = hotAccountRepository;
+		this.journalAccountRepository = journalAccountRepository;
+		this.eventSourcedAccountRepository = eventSourcedAccountRepository;
+		this.accountLock = accountLock;
+		this.accountCache = accountCache;
+		this.recentOperationCache = recentOperationCache;
+		this.operationJsonCache = operationJsonCache;
+		this.amountConverter = amountConverter;
 	}
 
 	/**
@@ -62,7 +143,10 @@ public class AccountServiceImpl implements AccountService {
 	 */
 	@Override
 	public Account add(final long playerId) {
-		return this.accountRepository.save(new Account(0L, playerId, BigDecimal.ZERO));
+		Account account = this.accountRepository.save(new Account(0L, playerId, BigDecimal.ZERO));
+		this.accountCache.put(account);
+
+		return account;
 	}
 
 	/**
@@ -74,36 +158,32 @@ public class AccountServiceImpl implements AccountService {
 	 * @return {@inheritDoc}
 	 * @throws NotFoundAccountException         {@inheritDoc}
 	 * @throws NegativeAmountOperationException {@inheritDoc}
+	 * @throws InvalidScaleAmountException      {@inheritDoc}
 	 * @throws NoAccessAccountException         {@inheritDoc}
 	 */
 	@Override
 	public Operation credit(final long playerId, final long accountId, final BigDecimal amount)
-			throws NotFoundAccountException, NoAccessAccountException, NegativeAmountOperationException {
-		Objects.requireNonNull(amount);
+			throws NotFoundAccountException, NoAccessAccountException, NegativeAmountOperationException,
+			InvalidScaleAmountException {
+		this.validateAmount(amount);
 
-		Optional<Account> account = this.accountRepository.findById(playerId, accountId);
+		AmountChange amountChange = (this.hotAccountRepository.isHot(accountId)
+				&& !this.journalAccountRepository.isJournaled(accountId)
+				&& !this.eventSourcedAccountRepository.isEventSourced(accountId))
+				? this.hotAccountRepository.credit(playerId, accountId, amount)
+				: this.changeAmount(playerId, accountId, OperationType.CREDIT, amount);
 
-		if (account.isEmpty()) {
-			throw new NotFoundAccountException(accountId);
+		switch (amountChange.getStatus()) {
+			case NOT_FOUND_ACCOUNT -> throw new NotFoundAccountException(accountId);
+			case NO_ACCESS_ACCOUNT -> throw new NoAccessAccountException(accountId);
+			case OUT_OF_AMOUNT -> throw new RuntimeException("Не удалось выполнить пополнение счёта.");
 		}
 
-		if (!Objects.equals(account.get().getPlayerId(), playerId)) {
-			throw new NoAccessAccountException(accountId);
-		}
+		Operation operation = new Operation(amountChange.getOperationId(), playerId, accountId, OperationType.CREDIT,
+				amount);
+		this.cacheOperation(operation);
 
-		if (amount.compareTo(BigDecimal.ZERO) < 0) {
-			throw new NegativeAmountOperationException(amount);
-		}
-
-		BigDecimal resultAmount = account.get().getAmount().add(amount);
-
-		if (!this.accountRepository.updateAmount(playerId, accountId, resultAmount)) {
-			throw new RuntimeException("Не удалось выполнить пополнение счёта.");
-		}
-
-		return this.operationRepository.save(
-				new Operation(0L, playerId, accountId, OperationType.CREDIT, amount)
-		);
+		return operation;
 	}
 
 	/**
@@ -116,41 +196,254 @@ public class AccountServiceImpl implements AccountService {
 	 * @throws NotFoundAccountException         {@inheritDoc}
 	 * @throws OutOfAmountAccountException      {@inheritDoc}
 	 * @throws NegativeAmountOperationException {@inheritDoc}
+	 * @throws InvalidScaleAmountException      {@inheritDoc}
 	 * @throws NoAccessAccountException         {@inheritDoc}
 	 */
 	@Override
 	public Operation debit(final long playerId, final long accountId, final BigDecimal amount)
 			throws NotFoundAccountException, NoAccessAccountException, NegativeAmountOperationException,
-			OutOfAmountAccountException {
-		Objects.requireNonNull(amount);
+			InvalidScaleAmountException, OutOfAmountAccountException {
+		this.validateAmount(amount);
 
-		Optional<Account> account = this.accountRepository.findById(playerId, accountId);
+		AmountChange amountChange = this.changeAmount(playerId, accountId, OperationType.DEBIT, amount);
 
-		if (account.isEmpty()) {
-			throw new NotFoundAccountException(accountId);
+		switch (amountChange.getStatus()) {
+			case NOT_FOUND_ACCOUNT -> throw new NotFoundAccountException(accountId);
+			case NO_ACCESS_ACCOUNT -> throw new NoAccessAccountException(accountId);
+			case OUT_OF_AMOUNT -> throw new OutOfAmountAccountException(amountChange.getAmount());
+		}
+
+		Operation operation = new Operation(amountChange.getOperationId(), playerId, accountId, OperationType.DEBIT,
+				amount);
+		this.cacheOperation(operation);
+
+		return operation;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param playerId       {@inheritDoc}
+	 * @param accountId      {@inheritDoc}
+	 * @param amount         {@inheritDoc}
+	 * @param idempotencyKey {@inheritDoc}
+	 * @return {@inheritDoc}
+	 * @throws NotFoundAccountException          {@inheritDoc}
+	 * @throws NoAccessAccountException          {@inheritDoc}
+	 * @throws NegativeAmountOperationException  {@inheritDoc}
+	 * @throws InvalidScaleAmountException       {@inheritDoc}
+	 * @throws ProcessingIdempotencyKeyException {@inheritDoc}
+	 */
+	@Override
+	public Operation credit(final long playerId, final long accountId, final BigDecimal amount,
+							final String idempotencyKey)
+			throws NotFoundAccountException, NoAccessAccountException, NegativeAmountOperationException,
+			InvalidScaleAmountException, ProcessingIdempotencyKeyException {
+		this.validateAmount(amount);
+
+		AmountChange amountChange = this.changeAmount(playerId, accountId, OperationType.CREDIT, amount,
+				idempotencyKey);
+
+		switch (amountChange.getStatus()) {
+			case NOT_FOUND_ACCOUNT -> throw new NotFoundAccountException(accountId);
+			case NO_ACCESS_ACCOUNT -> throw new NoAccessAccountException(accountId);
+			case RELEASED_IDEMPOTENCY_KEY -> throw new ProcessingIdempotencyKeyException(idempotencyKey);
+			case OUT_OF_AMOUNT -> throw new RuntimeException("Не удалось выполнить пополнение счёта.");
 		}
 
-		if (!Objects.equals(account.get().getPlayerId(), playerId)) {
-			throw new NoAccessAccountException(accountId);
+		Operation operation = new Operation(amountChange.getOperationId(), playerId, accountId, OperationType.CREDIT,
+				amount);
+		this.cacheOperation(operation);
+
+		return operation;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param playerId       {@inheritDoc}
+	 * @param accountId      {@inheritDoc}
+	 * @param amount         {@inheritDoc}
+	 * @param idempotencyKey {@inheritDoc}
+	 * @return {@inheritDoc}
+	 * @throws NotFoundAccountException          {@inheritDoc}
+	 * @throws NoAccessAccountException          {@inheritDoc}
+	 * @throws NegativeAmountOperationException  {@inheritDoc}
+	 * @throws InvalidScaleAmountException       {@inheritDoc}
+	 * @throws OutOfAmountAccountException       {@inheritDoc}
+	 * @throws ProcessingIdempotencyKeyException {@inheritDoc}
+	 */
+	@Override
+	public Operation debit(final long playerId, final long accountId, final BigDecimal amount,
+						   final String idempotencyKey)
+			throws NotFoundAccountException, NoAccessAccountException, NegativeAmountOperationException,
+			InvalidScaleAmountException, OutOfAmountAccountException, ProcessingIdempotencyKeyException {
+		this.validateAmount(amount);
+
+		AmountChange amountChange = this.changeAmount(playerId, accountId, OperationType.DEBIT, amount,
+				idempotencyKey);
+
+		switch (amountChange.getStatus()) {
+			case NOT_FOUND_ACCOUNT -> throw new NotFoundAccountException(accountId);
+			case NO_ACCESS_ACCOUNT -> throw new NoAccessAccountException(accountId);
+			case RELEASED_IDEMPOTENCY_KEY -> throw new ProcessingIdempotencyKeyException(idempotencyKey);
+			case OUT_OF_AMOUNT -> throw new OutOfAmountAccountException(amountChange.getAmount());
 		}
 
-		if (amount.compareTo(BigDecimal.ZERO) < 0) {
-			throw new NegativeAmountOperationException(amount);
+		Operation operation = new Operation(amountChange.getOperationId(), playerId, accountId, OperationType.DEBIT,
+				amount);
+		this.cacheOperation(operation);
+
+		return operation;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * Оба счёта, кроме распределённых, блокируются на время перевода,
+	 * накопленные изменения горячих и журналируемых счетов и суммы счетов, выводимые из журнала операций,
+	 * предварительно записываются.
+	 *
+	 * @param playerId      {@inheritDoc}
+	 * @param fromAccountId {@inheritDoc}
+	 * @param toAccountId   {@inheritDoc}
+	 * @param amount        {@inheritDoc}
+	 * @return {@inheritDoc}
+	 * @throws NotFoundAccountException         {@inheritDoc}
+	 * @throws NoAccessAccountException         {@inheritDoc}
+	 * @throws NegativeAmountOperationException {@inheritDoc}
+	 * @throws InvalidScaleAmountException      {@inheritDoc}
+	 * @throws OutOfAmountAccountException      {@inheritDoc}
+	 * @throws SameAccountTransferException     {@inheritDoc}
+	 */
+	@Override
+	public List<Operation> transfer(final long playerId, final long fromAccountId, final long toAccountId,
+									final BigDecimal amount)
+			throws NotFoundAccountException, NoAccessAccountException, NegativeAmountOperationException,
+			InvalidScaleAmountException, OutOfAmountAccountException, SameAccountTransferException {
+		this.validateAmount(amount);
+
+		if (fromAccountId == toAccountId) {
+			throw new SameAccountTransferException(fromAccountId);
 		}
 
-		BigDecimal resultAmount = account.get().getAmount().subtract(amount);
+		Set<Long> accountIds = new TreeSet<>();
+		for (long accountId : new long[]{fromAccountId, toAccountId}) {
+			if (!this.accountRepository.isSharded(accountId)) {
+				accountIds.add(accountId);
+			}
+		}
+
+		TransferChange transferChange;
+		this.accountLock.lockAll(accountIds);
+		try {
+			this.releaseAccounts(accountIds);
+
+			try {
+				transferChange = this.accountRepository.transfer(playerId, fromAccountId, toAccountId, amount);
+			} catch (RuntimeException exception) {
+				accountIds.forEach(this.accountCache::remove);
+				this.recentOperationCache.remove(fromAccountId);
+				this.recentOperationCache.remove(toAccountId);
+				throw exception;
+			}
 
-		if (resultAmount.compareTo(BigDecimal.ZERO) < 0) {
-			throw new OutOfAmountAccountException(account.get().getAmount());
+			if (transferChange.getStatus() == AmountChangeStatus.SUCCESS) {
+				if (this.isCacheable(fromAccountId)) {
+					this.accountCache.put(new Account(fromAccountId, playerId, transferChange.getFromAmount()));
+				}
+
+				if (this.isCacheable(toAccountId)) {
+					this.accountCache.put(new Account(toAccountId, playerId, transferChange.getToAmount()));
+				}
+			}
+		} finally {
+			this.accountLock.unlockAll(accountIds);
 		}
 
-		if (!this.accountRepository.updateAmount(playerId, accountId, resultAmount)) {
-			throw new RuntimeException("Не удалось выполнить списание со счёта.");
+		switch (transferChange.getStatus()) {
+			case NOT_FOUND_ACCOUNT -> throw new NotFoundAccountException(transferChange.getAccountId());
+			case NO_ACCESS_ACCOUNT -> throw new NoAccessAccountException(transferChange.getAccountId());
+			case OUT_OF_AMOUNT -> throw new OutOfAmountAccountException(transferChange.getFromAmount());
 		}
 
-		return this.operationRepository.save(
-				new Operation(0L, playerId, accountId, OperationType.DEBIT, amount)
+		List<Operation> operations = List.of(
+				new Operation(transferChange.getOutOperationId(), playerId, fromAccountId, OperationType.TRANSFER_OUT,
+						amount),
+				new Operation(transferChange.getInOperationId(), playerId, toAccountId, OperationType.TRANSFER_IN,
+						amount)
 		);
+		operations.forEach(this::cacheOperation);
+
+		return operations;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * Счета пакета, кроме распределённых, блокируются на время выполнения пакета,
+	 * накопленные изменения горячих и журналируемых счетов и суммы счетов, выводимые из журнала операций,
+	 * предварительно записываются.
+	 *
+	 * @param playerId     {@inheritDoc}
+	 * @param operations   {@inheritDoc}
+	 * @param allOrNothing {@inheritDoc}
+	 * @return {@inheritDoc}
+	 * @throws NegativeAmountOperationException {@inheritDoc}
+	 * @throws InvalidScaleAmountException      {@inheritDoc}
+	 * @throws InvalidTypeOperationException    {@inheritDoc}
+	 */
+	@Override
+	public List<AmountChange> changeAmounts(final long playerId, final List<Operation> operations,
+											final boolean allOrNothing)
+			throws NegativeAmountOperationException, InvalidScaleAmountException, InvalidTypeOperationException {
+		Objects.requireNonNull(operations);
+
+		Set<Long> accountIds = new TreeSet<>();
+		for (Operation operation : operations) {
+			this.validateAmount(Objects.requireNonNull(operation).getAmount());
+
+			if (operation.getOperationType() != OperationType.CREDIT
+					&& operation.getOperationType() != OperationType.DEBIT) {
+				throw new InvalidTypeOperationException(operation.getOperationType());
+			}
+
+			if (!this.accountRepository.isSharded(operation.getAccountId())) {
+				accountIds.add(operation.getAccountId());
+			}
+		}
+
+		this.accountLock.lockAll(accountIds);
+		try {
+			this.releaseAccounts(accountIds);
+
+			List<AmountChange> amountChanges;
+			try {
+				amountChanges = this.accountRepository.changeAmounts(playerId, operations, allOrNothing);
+			} catch (RuntimeException exception) {
+				accountIds.forEach(this.accountCache::remove);
+				operations.forEach(operation -> this.recentOperationCache.remove(operation.getAccountId()));
+				throw exception;
+			}
+
+			for (int index = 0; index < amountChanges.size(); index++) {
+				Operation operation = operations.get(index);
+				long accountId = operation.getAccountId();
+
+				if (amountChanges.get(index).getStatus() != AmountChangeStatus.SUCCESS) {
+					continue;
+				}
+
+				if (this.isCacheable(accountId)) {
+					this.accountCache.put(new Account(accountId, playerId, amountChanges.get(index).getAmount()));
+				}
+
+				this.cacheOperation(new Operation(amountChanges.get(index).getOperationId(), playerId, accountId,
+						operation.getOperationType(), operation.getAmount()));
+			}
+
+			return amountChanges;
+		} finally {
+			this.accountLock.unlockAll(accountIds);
+		}
 	}
 
 	/**
@@ -163,7 +456,228 @@ public class AccountServiceImpl implements AccountService {
 	 */
 	@Override
 	public Account findById(final long playerId, final long accountId) throws NotFoundAccountException {
-		Optional<Account> account = this.accountRepository.findById(playerId, accountId);
-		return account.orElseThrow(() -> new NotFoundAccountException(accountId));
+		if (this.journalAccountRepository.isJournaled(accountId)) {
+			return this.journalAccountRepository.findById(playerId, accountId)
+					.orElseThrow(() -> new NotFoundAccountException(accountId));
+		}
+
+		if (this.eventSourcedAccountRepository.isEventSourced(accountId)) {
+			return this.eventSourcedAccountRepository.findById(playerId, accountId)
+					.orElseThrow(() -> new NotFoundAccountException(accountId));
+		}
+
+		if (!this.isCacheable(accountId)) {
+			return this.accountRepository.findById(playerId, accountId)
+					.orElseThrow(() -> new NotFoundAccountException(accountId));
+		}
+
+		Account account = this.accountCache.get(accountId);
+		if (account == null) {
+			account = this.loadAccount(playerId, accountId);
+		}
+
+		if (account == null || account.getPlayerId() != playerId) {
+			throw new NotFoundAccountException(accountId);
+		}
+
+		return account;
+	}
+
+	/**
+	 * Сохраняет операции журналируемых счетов.
+	 */
+	@Scheduled(fixedDelayString = "${journal.drain-interval}")
+	public void drainJournal() {
+		this.journalAccountRepository.drain();
+	}
+
+	/**
+	 * Проверяет сумму операции.
+	 *
+	 * @param amount сумма.
+	 * @throws NegativeAmountOperationException если сумма меньше нуля.
+	 * @throws InvalidScaleAmountException      если сумма не может быть сохранена в минимальных единицах валюты.
+	 */
+	private void validateAmount(final BigDecimal amount)
+			throws NegativeAmountOperationException, InvalidScaleAmountException {
+		Objects.requireNonNull(amount);
+
+		if (amount.compareTo(BigDecimal.ZERO) < 0) {
+			throw new NegativeAmountOperationException(amount);
+		}
+
+		if (!this.amountConverter.isRepresentable(amount)) {
+			throw new InvalidScaleAmountException(amount);
+		}
+	}
+
+	/**
+	 * Изменяет сумму счёта под блокировкой счёта.
+	 * Распределённый счёт изменяется без блокировки счёта.
+	 * Перед изменением горячего счёта записываются его накопленные изменения,
+	 * чтобы проверка достаточности средств учитывала все пополнения.
+	 * Журналируемый счёт изменяется через журнал.
+	 * Счёт, сумма которого выводится из журнала операций, изменяется добавлением операции.
+	 *
+	 * @param playerId      идентификатор игрока.
+	 * @param accountId     идентификатор счёта.
+	 * @param operationType тип операции.
+	 * @param amount        сумма операции.
+	 * @return результат изменения суммы счёта.
+	 */
+	private AmountChange changeAmount(final long playerId, final long accountId, final OperationType operationType,
+									  final BigDecimal amount) {
+		if (this.accountRepository.isSharded(accountId)) {
+			return this.accountRepository.changeAmount(playerId, accountId, operationType, amount);
+		}
+
+		this.accountLock.lock(accountId);
+		try {
+			if (this.journalAccountRepository.isJournaled(accountId)) {
+				return this.journalAccountRepository.changeAmount(playerId, accountId, operationType, amount);
+			}
+
+			if (this.eventSourcedAccountRepository.isEventSourced(accountId)) {
+				return this.eventSourcedAccountRepository.changeAmount(playerId, accountId, operationType, amount);
+			}
+
+			if (this.hotAccountRepository.isHot(accountId)) {
+				this.hotAccountRepository.flush(accountId);
+				return this.accountRepository.changeAmount(playerId, accountId, operationType, amount);
+			}
+
+			AmountChange amountChange;
+			try {
+				amountChange = this.accountRepository.changeAmount(playerId, accountId, operationType, amount);
+			} catch (RuntimeException exception) {
+				this.accountCache.remove(accountId);
+				this.recentOperationCache.remove(accountId);
+				throw exception;
+			}
+
+			if (amountChange.getAmount() != null) {
+				this.accountCache.put(new Account(accountId, playerId, amountChange.getAmount()));
+			}
+
+			return amountChange;
+		} finally {
+			this.accountLock.unlock(accountId);
+		}
+	}
+
+	/**
+	 * Изменяет сумму счёта и завершает ключ идемпотентности под блокировкой счёта.
+	 * Распределённый счёт изменяется без блокировки счёта.
+	 * Накопленные изменения горячего и журналируемого счёта и сумма счёта, выводимая из журнала операций,
+	 * предварительно записываются, после чего счёт изменяется в хранилище напрямую.
+	 *
+	 * @param playerId       идентификатор игрока.
+	 * @param accountId      идентификатор счёта.
+	 * @param operationType  тип операции.
+	 * @param amount         сумма операции.
+	 * @param idempotencyKey ключ идемпотентности.
+	 * @return результат изменения суммы счёта.
+	 */
+	private AmountChange changeAmount(final long playerId, final long accountId, final OperationType operationType,
+									  final BigDecimal amount, final String idempotencyKey) {
+		Set<Long> accountIds = this.accountRepository.isSharded(accountId) ? Set.of() : Set.of(accountId);
+
+		this.accountLock.lockAll(accountIds);
+		try {
+			this.releaseAccounts(accountIds);
+
+			AmountChange amountChange;
+			try {
+				amountChange = this.accountRepository.changeAmount(playerId, accountId, operationType, amount,
+						idempotencyKey);
+			} catch (RuntimeException exception) {
+				this.accountCache.remove(accountId);
+				this.recentOperationCache.remove(accountId);
+				throw exception;
+			}
+
+			if (amountChange.getStatus() == AmountChangeStatus.SUCCESS && this.isCacheable(accountId)) {
+				this.accountCache.put(new Account(accountId, playerId, amountChange.getAmount()));
+			}
+
+			return amountChange;
+		} finally {
+			this.accountLock.unlockAll(accountIds);
+		}
+	}
+
+	/**
+	 * Записывает накопленные изменения горячих и журналируемых счетов и суммы счетов, выводимые из журнала операций,
+	 * перед их изменением в хранилище напрямую.
+	 * Должен вызываться под блокировкой счетов.
+	 *
+	 * @param accountIds идентификаторы счетов.
+	 */
+	private void releaseAccounts(final Set<Long> accountIds) {
+		for (long accountId : accountIds) {
+			if (this.journalAccountRepository.isJournaled(accountId)) {
+				this.journalAccountRepository.release(accountId);
+			} else if (this.eventSourcedAccountRepository.isEventSourced(accountId)) {
+				this.eventSourcedAccountRepository.release(accountId);
+			} else if (this.hotAccountRepository.isHot(accountId)) {
+				this.hotAccountRepository.flush(accountId);
+			}
+		}
+	}
+
+	/**
+	 * Загружает счёт из хранилища и записывает его в кэш.
+	 * Загрузка выполняется под блокировкой счёта, чтобы не перезаписать в кэше более новую сумму.
+	 *
+	 * @param playerId  идентификатор игрока.
+	 * @param accountId идентификатор счёта.
+	 * @return счёт или {@code null}, если счёт не найден.
+	 */
+	private Account loadAccount(final long playerId, final long accountId) {
+		this.accountLock.lock(accountId);
+		try {
+			Account account = this.accountCache.get(accountId);
+			if (account != null) {
+				return account;
+			}
+
+			Optional<Account> foundAccount = this.accountRepository.findById(playerId, accountId);
+			foundAccount.ifPresent(this.accountCache::put);
+
+			return foundAccount.orElse(null);
+		} finally {
+			this.accountLock.unlock(accountId);
+		}
+	}
+
+	/**
+	 * Добавляет операцию в кэш последних операций и кэш операций в формате JSON.
+	 * Операции журналируемых счетов попадают в хранилище с задержкой,
+	 * поэтому вместо добавления последние операции такого счёта удаляются из кэша.
+	 *
+	 * @param operation операция.
+	 */
+	private void cacheOperation(final Operation operation) {
+		if (this.journalAccountRepository.isJournaled(operation.getAccountId())) {
+			this.recentOperationCache.remove(operation.getAccountId());
+		} else {
+			this.recentOperationCache.add(operation);
+			this.operationJsonCache.put(operation);
+		}
+	}
+
+	/**
+	 * Проверяет, может ли счёт храниться в кэше.
+	 * Сумма горячих и распределённых счетов складывается из нескольких частей, поэтому они не кэшируются.
+	 * Сумма журналируемых счетов хранится в их хранилище, а сумма счетов, выводимая из журнала операций,
+	 * восстанавливается при каждом получении.
+	 *
+	 * @param accountId идентификатор счёта.
+	 * @return {@code true} если счёт может храниться в кэше, иначе {@code false}.
+	 */
+	private boolean isCacheable(final long accountId) {
+		return !this.hotAccountRepository.isHot(accountId) && !this.accountRepository.isSharded(accountId)
+				&& !this.journalAccountRepository.isJournaled(accountId)
+				&& !this.eventSourcedAccountRepository.isEventSourced(accountId);
 	}
 }
@@ -0,0 +1,160 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.in.service.impl;
+
+import dev.kalenchukov.wallet.entity.Account;
+import dev.kalenchukov.wallet.entity.AccountAudit;
+import dev.kalenchukov.wallet.entity.AccountSnapshot;
+import dev.kalenchukov.wallet.exceptions.NotFoundAccountException;
+import dev.kalenchukov.wallet.in.service.AccountService;
+import dev.kalenchukov.wallet.in.service.AccountSnapshotService;
+import dev.kalenchukov.wallet.repository.AccountSnapshotRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Класс сервиса снимков сумм счетов.
+ * Снимок счёта сохраняется после заданного количества операций счёта,
+ * поэтому восстановление суммы просматривает не больше этого количества операций.
+ * Операции подсчитываются в памяти с момента запуска приложения.
+ */
+@Service
+public class AccountSnapshotServiceImpl implements AccountSnapshotService {
+	/**
+	 * Сервис счетов.
+	 */
+	private final AccountService accountService;
+
+	/**
+	 * Хранилище снимков сумм счетов.
+	 */
+	private final AccountSnapshotRepository accountSnapshotRepository;
+
+	/**
+	 * Признак периодического сохранения снимков.
+	 */
+	private final boolean enabled;
+
+	/**
+	 * Количество операций счёта, после которого сохраняется снимок.
+	 */
+	private final long operations;
+
+	/**
+	 * Количество операций счетов после последнего снимка.
+	 */
+	private final Map<Long, Long> operationCounts;
+
+	/**
+	 * Идентификатор последней подсчитанной операции.
+	 * Отрицательное значение означает, что подсчёт ещё не начат.
+	 */
+	private long lastOperationId;
+
+	/**
+	 * Конструирует сервис снимков сумм счетов.
+	 *
+	 * @param accountService            сервис счетов.
+	 * @param accountSnapshotRepository хранилище снимков сумм счетов.
+	 * @param enabled                   признак периодического сохранения снимков.
+	 * @param operations                количество операций счёта, после которого сохраняется снимок.
+	 * @throws IllegalArgumentException если количество операций меньше единицы.
+	 */
+	@Autowired
+	public AccountSnapshotServiceImpl(final AccountService accountService,
+									  final AccountSnapshotRepository accountSnapshotRepository,
+									  @Value("${account-snapshots.enabled}") final boolean enabled,
+									  @Value("${account-snapshots.operations}") final long operations) {
+		Objects.requireNonNull(accountService);
+		Objects.requireNonNull(accountSnapshotRepository);
+
+		if (operations < 1) {
+			throw new IllegalArgumentException("Количество операций между снимками должно быть больше нуля.");
+		}
+
+		this.accountService = accountService;
+		this.accountSnapshotRepository = accountSnapshotRepository;
+		this.enabled = enabled;
+		this.operations = operations;
+		this.operationCounts = new HashMap<>();
+		this.lastOperationId = -1L;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * Сумма счёта и журнал операций читаются раздельно,
+	 * поэтому при одновременном изменении счёта суммы могут кратковременно не совпадать.
+	 *
+	 * @param playerId  {@inheritDoc}
+	 * @param accountId {@inheritDoc}
+	 * @return {@inheritDoc}
+	 * @throws NotFoundAccountException {@inheritDoc}
+	 */
+	@Override
+	public AccountAudit audit(final long playerId, final long accountId) throws NotFoundAccountException {
+		Account account = this.accountService.findById(playerId, accountId);
+		AccountSnapshot snapshot = this.accountSnapshotRepository.replay(accountId);
+
+		return new AccountAudit(accountId, playerId, account.getAmount(), snapshot.getAmount(),
+				snapshot.getOperationId(), account.getAmount().compareTo(snapshot.getAmount()) == 0
+		);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param accountId {@inheritDoc}
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public Optional<AccountSnapshot> snapshot(final long accountId) {
+		return this.accountSnapshotRepository.snapshot(accountId);
+	}
+
+	/**
+	 * Сохраняет снимки счетов, у которых после последнего снимка накопилось заданное количество операций.
+	 * При первом запуске подсчёт начинается с последней операции.
+	 */
+	@Scheduled(fixedDelayString = "${account-snapshots.interval}")
+	public synchronized void snapshotAccounts() {
+		if (!this.enabled) {
+			return;
+		}
+
+		long toOperationId = this.accountSnapshotRepository.findLastOperationId();
+		if (this.lastOperationId < 0) {
+			this.lastOperationId = toOperationId;
+			return;
+		}
+
+		if (toOperationId <= this.lastOperationId) {
+			return;
+		}
+
+		this.accountSnapshotRepository.countOperations(this.lastOperationId, toOperationId)
+				.forEach((accountId, count) -> this.operationCounts.merge(accountId, count, Long::sum));
+		this.lastOperationId = toOperationId;
+
+		Iterator<Map.Entry<Long, Long>> iterator = this.operationCounts.entrySet().iterator();
+		while (iterator.hasNext()) {
+			Map.Entry<Long, Long> entry = iterator.next();
+
+			if (entry.getValue() >= this.operations) {
+				this.accountSnapshotRepository.snapshot(entry.getKey());
+				iterator.remove();
+			}
+		}
+	}
+}
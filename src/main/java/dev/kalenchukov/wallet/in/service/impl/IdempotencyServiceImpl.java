@@ -0,0 +1,210 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.in.service.impl;
+
+import dev.kalenchukov.wallet.cache.LongLruCache;
+import dev.kalenchukov.wallet.entity.IdempotencyKey;
+import dev.kalenchukov.wallet.entity.Operation;
+import dev.kalenchukov.wallet.exceptions.ApplicationException;
+import dev.kalenchukov.wallet.exceptions.InvalidIdempotencyKeyException;
+import dev.kalenchukov.wallet.exceptions.ProcessingIdempotencyKeyException;
+import dev.kalenchukov.wallet.in.service.IdempotencyService;
+import dev.kalenchukov.wallet.repository.IdempotencyKeyRepository;
+import dev.kalenchukov.wallet.type.OperationType;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Класс сервиса ключей идемпотентности.
+ * Ключ резервируется в хранилище до выполнения операции, поэтому одновременные повторы
+ * не выполняют операцию повторно. Ключ завершается в транзакции изменения счёта, поэтому
+ * незавершённый ключ означает, что операция не выполнена, и такой ключ может быть освобождён.
+ * Результаты завершённых запросов дополнительно хранятся в памяти.
+ */
+@Service
+public class IdempotencyServiceImpl implements IdempotencyService {
+	/**
+	 * Максимальная длина ключа.
+	 */
+	private static final int MAX_KEY_LENGTH = 255;
+
+	/**
+	 * Хранилище ключей идемпотентности.
+	 */
+	private final IdempotencyKeyRepository idempotencyKeyRepository;
+
+	/**
+	 * Завершённые запросы.
+	 */
+	private final LongLruCache<IdempotencyKey> completedKeys;
+
+	/**
+	 * Время жизни ключа в секундах.
+	 */
+	private final long ttl;
+
+	/**
+	 * Время выполнения запроса в секундах, после которого незавершённый ключ освобождается.
+	 */
+	private final long processingTimeout;
+
+	/**
+	 * Конструирует сервис ключей идемпотентности.
+	 *
+	 * @param idempotencyKeyRepository хранилище ключей идемпотентности.
+	 * @param ttl                      время жизни ключа в секундах.
+	 * @param processingTimeout        время выполнения запроса в секундах, после которого незавершённый ключ
+	 *                                 освобождается.
+	 * @param cacheMaximumSize         максимальное количество завершённых запросов в памяти.
+	 * @param meterRegistry            реестр метрик.
+	 */
+	@Autowired
+	public IdempotencyServiceImpl(final IdempotencyKeyRepository idempotencyKeyRepository,
+								  @Value("${idempotency.ttl}") final long ttl,
+								  @Value("${idempotency.processing-timeout}") final long processingTimeout,
+								  @Value("${idempotency.cache-maximum-size}") final int cacheMaximumSize,
+								  final MeterRegistry meterRegistry) {
+		Objects.requireNonNull(idempotencyKeyRepository);
+		Objects.requireNonNull(meterRegistry);
+
+		this.idempotencyKeyRepository = idempotencyKeyRepository;
+		this.ttl = ttl;
+		this.processingTimeout = processingTimeout;
+		this.completedKeys = new LongLruCache<>("idempotency-keys", cacheMaximumSize,
+				TimeUnit.SECONDS.toMillis(ttl), meterRegistry
+		);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param playerId      {@inheritDoc}
+	 * @param accountId     {@inheritDoc}
+	 * @param operationType {@inheritDoc}
+	 * @param amount        {@inheritDoc}
+	 * @param key           {@inheritDoc}
+	 * @param action        {@inheritDoc}
+	 * @return {@inheritDoc}
+	 * @throws InvalidIdempotencyKeyException    {@inheritDoc}
+	 * @throws ProcessingIdempotencyKeyException {@inheritDoc}
+	 * @throws ApplicationException              {@inheritDoc}
+	 */
+	@Override
+	public Operation execute(final long playerId, final long accountId, final OperationType operationType,
+							 final BigDecimal amount, final String key, final Action action)
+			throws ApplicationException {
+		Objects.requireNonNull(operationType);
+		Objects.requireNonNull(amount);
+		Objects.requireNonNull(key);
+		Objects.requireNonNull(action);
+
+		if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+			throw new InvalidIdempotencyKeyException(key);
+		}
+
+		long cacheKey = hash(playerId, key);
+		IdempotencyKey completedKey = this.completedKeys.get(cacheKey);
+		if (completedKey != null && completedKey.getPlayerId() == playerId && completedKey.getKey().equals(key)) {
+			return replay(completedKey, accountId, operationType, amount);
+		}
+
+		IdempotencyKey idempotencyKey = new IdempotencyKey(playerId, key, accountId, operationType, null, null);
+		while (!this.idempotencyKeyRepository.reserve(idempotencyKey)) {
+			Optional<IdempotencyKey> storedKey = this.idempotencyKeyRepository.find(playerId, key);
+			if (storedKey.isEmpty()) {
+				continue;
+			}
+
+			if (storedKey.get().getOperationId() == null) {
+				if (storedKey.get().getAccountId() != accountId || storedKey.get().getOperationType() != operationType) {
+					throw new InvalidIdempotencyKeyException(key);
+				}
+
+				throw new ProcessingIdempotencyKeyException(key);
+			}
+
+			this.completedKeys.put(cacheKey, storedKey.get());
+
+			return replay(storedKey.get(), accountId, operationType, amount);
+		}
+
+		Operation operation;
+		try {
+			operation = action.execute();
+		} catch (ApplicationException | RuntimeException exception) {
+			this.idempotencyKeyRepository.release(playerId, key);
+			throw exception;
+		}
+
+		idempotencyKey.setOperationId(operation.getOperationId());
+		idempotencyKey.setAmount(operation.getAmount());
+		this.completedKeys.put(cacheKey, idempotencyKey);
+
+		return operation;
+	}
+
+	/**
+	 * Удаляет ключи идемпотентности с истёкшим временем жизни и освобождает ключи,
+	 * оставшиеся незавершёнными после аварийной остановки приложения.
+	 * Первый запуск выполняется при запуске приложения.
+	 */
+	@Scheduled(fixedDelayString = "${idempotency.cleanup-interval}")
+	public void removeExpired() {
+		Instant now = Instant.now();
+		this.idempotencyKeyRepository.removeCreatedBefore(now.minusSeconds(this.ttl));
+		this.idempotencyKeyRepository.releaseCreatedBefore(now.minusSeconds(this.processingTimeout));
+	}
+
+	/**
+	 * Возвращает результат завершённого запроса.
+	 *
+	 * @param idempotencyKey ключ идемпотентности завершённого запроса.
+	 * @param accountId      идентификатор счёта повторного запроса.
+	 * @param operationType  тип операции повторного запроса.
+	 * @param amount         сумма операции повторного запроса.
+	 * @return операцию.
+	 * @throws InvalidIdempotencyKeyException если ключ использован для другого запроса.
+	 */
+	private static Operation replay(final IdempotencyKey idempotencyKey, final long accountId,
+									final OperationType operationType, final BigDecimal amount)
+			throws InvalidIdempotencyKeyException {
+		if (idempotencyKey.getAccountId() != accountId
+				|| idempotencyKey.getOperationType() != operationType
+				|| idempotencyKey.getAmount().compareTo(amount) != 0) {
+			throw new InvalidIdempotencyKeyException(idempotencyKey.getKey());
+		}
+
+		return new Operation(idempotencyKey.getOperationId(), idempotencyKey.getPlayerId(),
+				idempotencyKey.getAccountId(), idempotencyKey.getOperationType(), idempotencyKey.getAmount()
+		);
+	}
+
+	/**
+	 * Возвращает хеш ключа идемпотентности игрока.
+	 *
+	 * @param playerId идентификатор игрока.
+	 * @param key      ключ.
+	 * @return хеш.
+	 */
+	private static long hash(final long playerId, final String key) {
+		long hash = 0xCBF29CE484222325L ^ playerId;
+		for (int index = 0; index < key.length(); index++) {
+			hash = (hash ^ key.charAt(index)) * 0x100000001B3L;
+		}
+
+		return hash;
+	}
+}
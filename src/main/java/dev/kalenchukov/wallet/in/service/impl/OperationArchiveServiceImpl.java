@@ -0,0 +1,120 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.in.service.impl;
+
+import dev.kalenchukov.wallet.archive.OperationArchive;
+import dev.kalenchukov.wallet.in.service.OperationArchiveService;
+import dev.kalenchukov.wallet.repository.AccountSnapshotRepository;
+import dev.kalenchukov.wallet.repository.OperationPartitionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Класс сервиса архивирования операций.
+ * Операции архивируются целыми секциями месяцев: секция записывается в сегмент архива,
+ * по счетам секции сохраняются снимки сумм, после чего секция отсоединяется и удаляется целиком
+ * вместо удаления операций частями.
+ * Снимки сохраняются до удаления секции, поэтому восстановление суммы счёта не обращается к архиву.
+ */
+@Service
+@Profile("!memory")
+public class OperationArchiveServiceImpl implements OperationArchiveService {
+	/**
+	 * Хранилище секций таблицы операций.
+	 */
+	private final OperationPartitionRepository operationPartitionRepository;
+
+	/**
+	 * Хранилище снимков сумм счетов.
+	 */
+	private final AccountSnapshotRepository accountSnapshotRepository;
+
+	/**
+	 * Архив операций.
+	 */
+	private final OperationArchive operationArchive;
+
+	/**
+	 * Признак архивирования операций.
+	 */
+	private final boolean enabled;
+
+	/**
+	 * Возраст операций в месяцах, после которого операции переносятся в архив.
+	 */
+	private final int age;
+
+	/**
+	 * Конструирует сервис архивирования операций.
+	 *
+	 * @param operationPartitionRepository хранилище секций таблицы операций.
+	 * @param accountSnapshotRepository    хранилище снимков сумм счетов.
+	 * @param operationArchive             архив операций.
+	 * @param enabled                      признак архивирования операций.
+	 * @param age                          возраст операций в месяцах, после которого операции переносятся в архив.
+	 * @throws IllegalArgumentException если возраст операций меньше единицы.
+	 */
+	@Autowired
+	public OperationArchiveServiceImpl(final OperationPartitionRepository operationPartitionRepository,
+									   final AccountSnapshotRepository accountSnapshotRepository,
+									   final OperationArchive operationArchive,
+									   @Value("${operation-archive.enabled}") final boolean enabled,
+									   @Value("${operation-archive.age}") final int age) {
+		Objects.requireNonNull(operationPartitionRepository);
+		Objects.requireNonNull(accountSnapshotRepository);
+		Objects.requireNonNull(operationArchive);
+
+		if (age < 1) {
+			throw new IllegalArgumentException("Возраст операций должен быть больше нуля.");
+		}
+
+		this.operationPartitionRepository = operationPartitionRepository;
+		this.accountSnapshotRepository = accountSnapshotRepository;
+		this.operationArchive = operationArchive;
+		this.enabled = enabled;
+		this.age = age;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * Секция месяца архивируется, когда с начала следующего за ним месяца прошёл заданный возраст.
+	 * Время создания операций задаётся при вставке, поэтому секции прошлых месяцев не изменяются.
+	 * Выполняется при запуске приложения и далее с заданным интервалом.
+	 */
+	@Override
+	@Scheduled(fixedDelayString = "${operation-archive.interval}")
+	public synchronized void archive() {
+		if (!this.enabled) {
+			return;
+		}
+
+		YearMonth oldest = YearMonth.now(ZoneOffset.UTC).minusMonths(this.age);
+		for (YearMonth month : this.operationPartitionRepository.find()) {
+			if (!month.isBefore(oldest)) {
+				continue;
+			}
+
+			Set<Long> accountIds = this.operationArchive.write(month,
+					consumer -> this.operationPartitionRepository.export(month, consumer)
+			);
+
+			for (long accountId : accountIds) {
+				this.accountSnapshotRepository.snapshot(accountId);
+			}
+
+			this.operationPartitionRepository.drop(month);
+		}
+	}
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.in.service.impl;
+
+import dev.kalenchukov.wallet.in.service.OperationPartitionService;
+import dev.kalenchukov.wallet.repository.AccountSnapshotRepository;
+import dev.kalenchukov.wallet.repository.OperationPartitionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.Objects;
+
+/**
+ * Класс сервиса секций таблицы операций.
+ * Секции создаются заранее на заданное количество месяцев вперёд, поэтому вставка операции
+ * не ожидает создания секции. Секции месяцев старше срока хранения отсоединяются и удаляются целиком
+ * вместо удаления операций по одной. Перед удалением секции сохраняются снимки сумм её счетов,
+ * чтобы сумма счёта восстанавливалась из снимка и оставшихся операций.
+ */
+@Service
+public class OperationPartitionServiceImpl implements OperationPartitionService {
+	/**
+	 * Хранилище секций таблицы операций.
+	 */
+	private final OperationPartitionRepository operationPartitionRepository;
+
+	/**
+	 * Хранилище снимков сумм счетов.
+	 */
+	private final AccountSnapshotRepository accountSnapshotRepository;
+
+	/**
+	 * Количество месяцев после текущего, для которых секции создаются заранее.
+	 */
+	private final int premake;
+
+	/**
+	 * Срок хранения операций в месяцах.
+	 * Нулевое значение означает хранение без ограничения срока.
+	 */
+	private final int retention;
+
+	/**
+	 * Конструирует сервис секций таблицы операций.
+	 *
+	 * @param operationPartitionRepository хранилище секций таблицы операций.
+	 * @param accountSnapshotRepository    хранилище снимков сумм счетов.
+	 * @param premake                      количество месяцев после текущего, для которых секции создаются заранее.
+	 * @param retention                    срок хранения операций в месяцах или 0 для хранения без ограничения.
+	 * @throws IllegalArgumentException если количество месяцев или срок хранения отрицательные.
+	 */
+	@Autowired
+	public OperationPartitionServiceImpl(final OperationPartitionRepository operationPartitionRepository,
+										 final AccountSnapshotRepository accountSnapshotRepository,
+										 @Value("${operation-partitions.premake}") final int premake,
+										 @Value("${operation-partitions.retention}") final int retention) {
+		Objects.requireNonNull(operationPartitionRepository);
+		Objects.requireNonNull(accountSnapshotRepository);
+
+		if (premake < 0) {
+			throw new IllegalArgumentException("Количество месяцев не может быть отрицательным.");
+		}
+
+		if (retention < 0) {
+			throw new IllegalArgumentException("Срок хранения не может быть отрицательным.");
+		}
+
+		this.operationPartitionRepository = operationPartitionRepository;
+		this.accountSnapshotRepository = accountSnapshotRepository;
+		this.premake = premake;
+		this.retention = retention;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * Секция месяца удаляется, когда с начала следующего за ним месяца прошёл срок хранения,
+	 * после сохранения снимков сумм счетов, операции которых находятся в секции.
+	 * Выполняется при запуске приложения и далее с заданным интервалом.
+	 */
+	@Override
+	@Scheduled(fixedDelayString = "${operation-partitions.interval}")
+	public synchronized void maintain() {
+		YearMonth current = YearMonth.now(ZoneOffset.UTC);
+
+		for (int month = 0; month <= this.premake; month++) {
+			this.operationPartitionRepository.create(current.plusMonths(month));
+		}
+
+		if (this.retention == 0) {
+			return;
+		}
+
+		YearMonth oldest = current.minusMonths(this.retention);
+		for (YearMonth month : this.operationPartitionRepository.find()) {
+			if (!month.isBefore(oldest)) {
+				continue;
+			}
+
+			for (long accountId : this.operationPartitionRepository.findAccountIds(month)) {
+				this.accountSnapshotRepository.snapshot(accountId);
+			}
+
+			this.operationPartitionRepository.drop(month);
+		}
+	}
+}
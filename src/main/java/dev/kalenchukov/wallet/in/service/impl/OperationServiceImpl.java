@@ -6,18 +6,27 @@
 
 package dev.kalenchukov.wallet.in.service.impl;
 
+import dev.kalenchukov.wallet.cache.OperationJsonCache;
+import dev.kalenchukov.wallet.cache.RecentOperationCache;
 import dev.kalenchukov.wallet.entity.Operation;
+import dev.kalenchukov.wallet.entity.OperationSummary;
 import dev.kalenchukov.wallet.exceptions.NotFoundOperationException;
 import dev.kalenchukov.wallet.in.service.OperationService;
+import dev.kalenchukov.wallet.repository.JournalAccountRepository;
 import dev.kalenchukov.wallet.repository.OperationRepository;
 import dev.kalenchukov.wallet.type.OperationType;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.function.Consumer;
 
 /**
  * Класс сервиса операций.
@@ -29,16 +38,43 @@ public class OperationServiceImpl implements OperationService {
 	 */
 	private final OperationRepository operationRepository;
 
+	/**
+	 * Хранилище журналируемых счетов.
+	 */
+	private final JournalAccountRepository journalAccountRepository;
+
+	/**
+	 * Кэш последних операций счетов.
+	 */
+	private final RecentOperationCache recentOperationCache;
+
+	/**
+	 * Кэш операций в формате JSON.
+	 */
+	private final OperationJsonCache operationJsonCache;
+
 	/**
 	 * Конструирует сервис операций.
 	 *
-	 * @param operationRepository хранилище операций.
+	 * @param operationRepository      хранилище операций.
+	 * @param journalAccountRepository хранилище журналируемых счетов.
+	 * @param recentOperationCache     кэш последних операций счетов.
+	 * @param operationJsonCache       кэш операций в формате JSON.
 	 */
 	@Autowired
-	public OperationServiceImpl(final OperationRepository operationRepository) {
+	public OperationServiceImpl(final OperationRepository operationRepository,
+								final JournalAccountRepository journalAccountRepository,
+								final RecentOperationCache recentOperationCache,
+								final OperationJsonCache operationJsonCache) {
 		Objects.requireNonNull(operationRepository);
+		Objects.requireNonNull(journalAccountRepository);
+		Objects.requireNonNull(recentOperationCache);
+		Objects.requireNonNull(operationJsonCache);
 
 		this.operationRepository = operationRepository;
+		this.journalAccountRepository = journalAccountRepository;
+		this.recentOperationCache = recentOperationCache;
+		this.operationJsonCache = operationJsonCache;
 	}
 
 	/**
@@ -55,7 +91,13 @@ public class OperationServiceImpl implements OperationService {
 		Objects.requireNonNull(operationType);
 		Objects.requireNonNull(amount);
 
-		return this.operationRepository.save(new Operation(0L, playerId, accountId, operationType, amount));
+		Operation operation = this.operationRepository.save(
+				new Operation(0L, playerId, accountId, operationType, amount)
+		);
+		this.recentOperationCache.add(operation);
+		this.operationJsonCache.put(operation);
+
+		return operation;
 	}
 
 	/**
@@ -73,6 +115,28 @@ public class OperationServiceImpl implements OperationService {
 		return operation.orElseThrow(() -> new NotFoundOperationException(operationId));
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * Операции не изменяются после записи, поэтому при промахе кэша
+	 * найденная в хранилище операция записывается в кэш без ограничения времени жизни.
+	 *
+	 * @param playerId    {@inheritDoc}
+	 * @param accountId   {@inheritDoc}
+	 * @param operationId {@inheritDoc}
+	 * @return {@inheritDoc}
+	 * @throws NotFoundOperationException {@inheritDoc}
+	 */
+	@Override
+	public byte[] findJsonById(final long playerId, final long accountId, final long operationId)
+			throws NotFoundOperationException {
+		byte[] json = this.operationJsonCache.get(playerId, accountId, operationId);
+		if (json != null) {
+			return json;
+		}
+
+		return this.operationJsonCache.put(this.findById(playerId, accountId, operationId));
+	}
+
 	/**
 	 * {@inheritDoc}
 	 *
@@ -84,4 +148,107 @@ public class OperationServiceImpl implements OperationService {
 	public List<Operation> find(final long playerId, final long accountId) {
 		return this.operationRepository.find(playerId, accountId);
 	}
+
+	/**
+	 * {@inheritDoc}
+	 * Последние операции счёта возвращаются из кэша, при промахе кэш заполняется из хранилища.
+	 * Операции журналируемых счетов попадают в хранилище с задержкой, поэтому читаются из хранилища.
+	 *
+	 * @param playerId          {@inheritDoc}
+	 * @param accountId         {@inheritDoc}
+	 * @param beforeOperationId {@inheritDoc}
+	 * @param limit             {@inheritDoc}
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public List<Operation> findBefore(final long playerId, final long accountId, final long beforeOperationId,
+									  final int limit) {
+		if (beforeOperationId != Long.MAX_VALUE || limit > this.recentOperationCache.getCapacity()
+				|| this.journalAccountRepository.isJournaled(accountId)) {
+			return this.operationRepository.findBefore(playerId, accountId, beforeOperationId, limit);
+		}
+
+		List<Operation> operations = this.recentOperationCache.find(playerId, accountId, limit);
+		if (operations != null) {
+			return operations;
+		}
+
+		long version = this.recentOperationCache.getVersion(accountId);
+		operations = this.operationRepository.findBefore(playerId, accountId, Long.MAX_VALUE,
+				this.recentOperationCache.getCapacity());
+		this.recentOperationCache.fill(playerId, accountId, version, operations);
+
+		return (operations.size() > limit) ? new ArrayList<>(operations.subList(0, limit)) : operations;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param playerId         {@inheritDoc}
+	 * @param accountId        {@inheritDoc}
+	 * @param afterOperationId {@inheritDoc}
+	 * @param limit            {@inheritDoc}
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public List<Operation> findAfter(final long playerId, final long accountId, final long afterOperationId,
+									 final int limit) {
+		return this.operationRepository.findAfter(playerId, accountId, afterOperationId, limit);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param playerId  {@inheritDoc}
+	 * @param accountId {@inheritDoc}
+	 * @param from      {@inheritDoc}
+	 * @param to        {@inheritDoc}
+	 * @param consumer  {@inheritDoc}
+	 */
+	@Override
+	public void export(final long playerId, final long accountId, final Instant from, final Instant to,
+					   final Consumer<Operation> consumer) {
+		Objects.requireNonNull(consumer);
+
+		this.operationRepository.export(playerId, accountId, from, to, consumer);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param playerId  {@inheritDoc}
+	 * @param accountId {@inheritDoc}
+	 * @param from      {@inheritDoc}
+	 * @param to        {@inheritDoc}
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public List<OperationSummary> summarize(final long playerId, final long accountId, final LocalDate from,
+											final LocalDate to) {
+		Objects.requireNonNull(from);
+		Objects.requireNonNull(to);
+
+		return this.operationRepository.summarize(playerId, accountId, from, to);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * Последняя операция берётся из кэша последних операций, как и первая страница операций,
+	 * поэтому версия не опережает операции, возвращаемые после её получения.
+	 * Операции журналируемых счетов попадают в хранилище с задержкой, поэтому их версия не определяется.
+	 *
+	 * @param playerId  {@inheritDoc}
+	 * @param accountId {@inheritDoc}
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public OptionalLong findVersion(final long playerId, final long accountId) {
+		if (this.journalAccountRepository.isJournaled(accountId)) {
+			return OptionalLong.empty();
+		}
+
+		List<Operation> operations = this.findBefore(playerId, accountId, Long.MAX_VALUE, 1);
+
+		return operations.isEmpty() ? OptionalLong.empty() : OptionalLong.of(operations.get(0).getOperationId());
+	}
 }
@@ -0,0 +1,45 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.journal;
+
+import dev.kalenchukov.wallet.entity.Operation;
+
+import java.util.List;
+import java.util.SortedMap;
+
+/**
+ * Интерфейс для реализации класса локального журнала операций.
+ * Журнал состоит из сегментов, сегмент удаляется после освобождения всех его записей.
+ */
+public interface Journal {
+	/**
+	 * Читает записи сегментов, оставшихся от предыдущего запуска.
+	 * Чтение сегмента прекращается на первой повреждённой записи.
+	 * Должен вызываться до первой записи в журнал.
+	 *
+	 * @return операции по номерам сегментов.
+	 */
+	SortedMap<Long, List<Operation>> read();
+
+	/**
+	 * Записывает операцию в журнал.
+	 * Возвращает управление после сброса записи на диск,
+	 * одновременные записи сбрасываются на диск одним вызовом.
+	 *
+	 * @param operation операция.
+	 * @return номер сегмента, в который записана операция.
+	 */
+	long append(Operation operation);
+
+	/**
+	 * Освобождает записи сегмента после их сохранения в хранилище.
+	 *
+	 * @param segment номер сегмента.
+	 * @param count   количество освобождаемых записей.
+	 */
+	void release(long segment, int count);
+}
@@ -0,0 +1,436 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.journal.impl;
+
+import dev.kalenchukov.wallet.entity.Operation;
+import dev.kalenchukov.wallet.journal.Journal;
+import dev.kalenchukov.wallet.type.OperationType;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Класс локального журнала операций.
+ * Сегменты журнала отображаются в память, запись состоит из длины, контрольной суммы и операции.
+ * Нулевая длина означает конец записей сегмента.
+ */
+@Component
+public class JournalImpl implements Journal {
+	/**
+	 * Минимальный размер сегмента в байтах.
+	 */
+	private static final int MIN_SEGMENT_SIZE = 4096;
+
+	/**
+	 * Размер заголовка записи в байтах.
+	 */
+	private static final int HEADER_SIZE = Integer.BYTES * 2;
+
+	/**
+	 * Расширение файлов сегментов.
+	 */
+	private static final String SEGMENT_EXTENSION = ".journal";
+
+	/**
+	 * Каталог журнала.
+	 */
+	private final Path directory;
+
+	/**
+	 * Размер сегмента в байтах.
+	 */
+	private final int segmentSize;
+
+	/**
+	 * Количество неосвобождённых записей по номерам сегментов.
+	 */
+	private final Map<Long, Integer> unreleasedCounts;
+
+	/**
+	 * Объект синхронизации сброса на диск.
+	 */
+	private final Object syncLock;
+
+	/**
+	 * Номер следующего сегмента.
+	 * Отрицательное значение означает, что каталог журнала ещё не просмотрен.
+	 */
+	private long nextSegment;
+
+	/**
+	 * Номер текущего сегмента.
+	 */
+	private long segment;
+
+	/**
+	 * Файл текущего сегмента.
+	 */
+	private FileChannel channel;
+
+	/**
+	 * Отображение текущего сегмента в память.
+	 */
+	private MappedByteBuffer buffer;
+
+	/**
+	 * Количество записанных байтов.
+	 */
+	private long writtenBytes;
+
+	/**
+	 * Количество сброшенных на диск байтов.
+	 */
+	private long syncedBytes;
+
+	/**
+	 * Конструирует журнал.
+	 * Каталог и файлы журнала создаются при первой записи.
+	 *
+	 * @param directory   каталог журнала.
+	 * @param segmentSize размер сегмента в байтах.
+	 * @throws IllegalArgumentException если размер сегмента меньше 4096 байтов.
+	 */
+	@Autowired
+	public JournalImpl(@Value("${journal.directory}") final String directory,
+					   @Value("${journal.segment-size}") final int segmentSize) {
+		Objects.requireNonNull(directory);
+
+		if (segmentSize < MIN_SEGMENT_SIZE) {
+			throw new IllegalArgumentException("Размер сегмента журнала должен быть не меньше 4096 байтов.");
+		}
+
+		this.directory = Path.of(directory);
+		this.segmentSize = segmentSize;
+		this.unreleasedCounts = new HashMap<>();
+		this.syncLock = new Object();
+		this.nextSegment = -1L;
+		this.segment = -1L;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * Сегменты без записей удаляются сразу.
+	 *
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public synchronized SortedMap<Long, List<Operation>> read() {
+		SortedMap<Long, List<Operation>> operations = new TreeMap<>();
+
+		for (long segment : this.findSegments()) {
+			List<Operation> segmentOperations = this.readSegment(this.getSegmentPath(segment));
+
+			if (segmentOperations.isEmpty()) {
+				if (segment != this.segment) {
+					this.deleteSegment(segment);
+				}
+			} else {
+				operations.put(segment, segmentOperations);
+				this.unreleasedCounts.merge(segment, segmentOperations.size(), Integer::sum);
+			}
+		}
+
+		return operations;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param operation {@inheritDoc}
+	 * @return {@inheritDoc}
+	 * @throws IllegalArgumentException если запись не помещается в сегмент.
+	 * @throws UncheckedIOException     если запись в файл завершилась ошибкой.
+	 */
+	@Override
+	public long append(final Operation operation) {
+		Objects.requireNonNull(operation);
+
+		byte[] record = encode(operation);
+		if (record.length + HEADER_SIZE > this.segmentSize) {
+			throw new IllegalArgumentException("Запись не помещается в сегмент журнала.");
+		}
+
+		CRC32 crc = new CRC32();
+		crc.update(record);
+
+		long segment;
+		long position;
+		synchronized (this) {
+			if (this.buffer == null || this.buffer.remaining() < record.length + HEADER_SIZE) {
+				this.rotate();
+			}
+
+			int offset = this.buffer.position();
+			this.buffer.position(offset + Integer.BYTES);
+			this.buffer.putInt((int) crc.getValue());
+			this.buffer.put(record);
+			this.buffer.putInt(offset, record.length);
+
+			this.unreleasedCounts.merge(this.segment, 1, Integer::sum);
+			this.writtenBytes += record.length + HEADER_SIZE;
+
+			segment = this.segment;
+			position = this.writtenBytes;
+		}
+
+		this.sync(position);
+
+		return segment;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * Сегмент удаляется, если все его записи освобождены и запись идёт в другой сегмент.
+	 *
+	 * @param segment {@inheritDoc}
+	 * @param count   {@inheritDoc}
+	 */
+	@Override
+	public synchronized void release(final long segment, final int count) {
+		int unreleasedCount = this.unreleasedCounts.getOrDefault(segment, 0) - count;
+
+		if (unreleasedCount > 0) {
+			this.unreleasedCounts.put(segment, unreleasedCount);
+			return;
+		}
+
+		this.unreleasedCounts.remove(segment);
+		if (segment != this.segment) {
+			this.deleteSegment(segment);
+		}
+	}
+
+	/**
+	 * Сбрасывает текущий сегмент на диск и закрывает его.
+	 *
+	 * @throws IOException если закрытие файла завершилось ошибкой.
+	 */
+	@PreDestroy
+	public synchronized void close() throws IOException {
+		if (this.channel == null) {
+			return;
+		}
+
+		this.buffer.force();
+		this.channel.close();
+		this.channel = null;
+		this.buffer = null;
+	}
+
+	/**
+	 * Сбрасывает записанные байты на диск, если они ещё не сброшены.
+	 * Поток, выполняющий сброс, сбрасывает также записи других потоков, сделанные к этому моменту.
+	 *
+	 * @param position количество байтов, которое должно быть сброшено.
+	 */
+	private void sync(final long position) {
+		synchronized (this.syncLock) {
+			if (this.syncedBytes >= position) {
+				return;
+			}
+
+			MappedByteBuffer buffer;
+			long writtenBytes;
+			synchronized (this) {
+				buffer = this.buffer;
+				writtenBytes = this.writtenBytes;
+			}
+
+			buffer.force();
+			this.syncedBytes = writtenBytes;
+		}
+	}
+
+	/**
+	 * Начинает новый сегмент.
+	 * Предыдущий сегмент сбрасывается на диск и удаляется, если все его записи освобождены.
+	 */
+	private void rotate() {
+		try {
+			if (this.channel != null) {
+				this.buffer.force();
+				this.channel.close();
+
+				if (!this.unreleasedCounts.containsKey(this.segment)) {
+					this.deleteSegment(this.segment);
+				}
+			}
+
+			if (this.nextSegment < 0) {
+				Files.createDirectories(this.directory);
+				this.nextSegment = this.findSegments().stream().mapToLong(Long::longValue).max().orElse(-1L) + 1;
+			}
+
+			this.segment = this.nextSegment++;
+			this.channel = FileChannel.open(this.getSegmentPath(this.segment),
+					StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE
+			);
+			this.buffer = this.channel.map(FileChannel.MapMode.READ_WRITE, 0, this.segmentSize);
+		} catch (IOException exception) {
+			throw new UncheckedIOException(exception);
+		}
+	}
+
+	/**
+	 * Читает записи сегмента до конца записей или первой повреждённой записи.
+	 *
+	 * @param path путь к файлу сегмента.
+	 * @return операции сегмента.
+	 */
+	private List<Operation> readSegment(final Path path) {
+		List<Operation> operations = new ArrayList<>();
+
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+			while (buffer.remaining() >= HEADER_SIZE) {
+				int length = buffer.getInt();
+				int checksum = buffer.getInt();
+
+				if (length <= 0 || length > buffer.remaining()) {
+					break;
+				}
+
+				byte[] record = new byte[length];
+				buffer.get(record);
+
+				CRC32 crc = new CRC32();
+				crc.update(record);
+				if ((int) crc.getValue() != checksum) {
+					break;
+				}
+
+				operations.add(decode(record));
+			}
+		} catch (IOException exception) {
+			throw new UncheckedIOException(exception);
+		}
+
+		return operations;
+	}
+
+	/**
+	 * Возвращает номера существующих сегментов по возрастанию.
+	 *
+	 * @return номера сегментов.
+	 */
+	private List<Long> findSegments() {
+		if (!Files.isDirectory(this.directory)) {
+			return List.of();
+		}
+
+		try (Stream<Path> paths = Files.list(this.directory)) {
+			return paths.map(path -> path.getFileName().toString())
+					.filter(name -> name.endsWith(SEGMENT_EXTENSION))
+					.map(name -> Long.parseLong(name.substring(0, name.length() - SEGMENT_EXTENSION.length())))
+					.sorted()
+					.toList();
+		} catch (IOException exception) {
+			throw new UncheckedIOException(exception);
+		}
+	}
+
+	/**
+	 * Удаляет файл сегмента.
+	 *
+	 * @param segment номер сегмента.
+	 */
+	private void deleteSegment(final long segment) {
+		try {
+			Files.deleteIfExists(this.getSegmentPath(segment));
+		} catch (IOException exception) {
+			throw new UncheckedIOException(exception);
+		}
+	}
+
+	/**
+	 * Возвращает путь к файлу сегмента.
+	 *
+	 * @param segment номер сегмента.
+	 * @return путь к файлу сегмента.
+	 */
+	private Path getSegmentPath(final long segment) {
+		return this.directory.resolve(String.format("%020d%s", segment, SEGMENT_EXTENSION));
+	}
+
+	/**
+	 * Преобразовывает операцию в запись журнала.
+	 *
+	 * @param operation операция.
+	 * @return запись журнала.
+	 */
+	private static byte[] encode(final Operation operation) {
+		Objects.requireNonNull(operation.getOperationType());
+		Objects.requireNonNull(operation.getAmount());
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (DataOutputStream output = new DataOutputStream(bytes)) {
+			byte[] unscaledValue = operation.getAmount().unscaledValue().toByteArray();
+
+			output.writeLong(operation.getOperationId());
+			output.writeLong(operation.getPlayerId());
+			output.writeLong(operation.getAccountId());
+			output.writeUTF(operation.getOperationType().name());
+			output.writeInt(operation.getAmount().scale());
+			output.writeInt(unscaledValue.length);
+			output.write(unscaledValue);
+		} catch (IOException exception) {
+			throw new UncheckedIOException(exception);
+		}
+
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Преобразовывает запись журнала в операцию.
+	 *
+	 * @param record запись журнала.
+	 * @return операцию.
+	 */
+	private static Operation decode(final byte[] record) {
+		try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(record))) {
+			long operationId = input.readLong();
+			long playerId = input.readLong();
+			long accountId = input.readLong();
+			OperationType operationType = OperationType.valueOf(input.readUTF());
+			int scale = input.readInt();
+			byte[] unscaledValue = new byte[input.readInt()];
+			input.readFully(unscaledValue);
+
+			return new Operation(operationId, playerId, accountId, operationType,
+					new BigDecimal(new BigInteger(unscaledValue), scale)
+			);
+		} catch (IOException exception) {
+			throw new UncheckedIOException(exception);
+		}
+	}
+}
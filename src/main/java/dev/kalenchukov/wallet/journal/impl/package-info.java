@@ -0,0 +1,10 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+/**
+ * Предоставляет реализации классов журнала.
+ */
+package dev.kalenchukov.wallet.journal.impl;
\ No newline at end of file
@@ -0,0 +1,10 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+/**
+ * Предоставляет классы, необходимые для локального журнала изменений счетов.
+ */
+package dev.kalenchukov.wallet.journal;
\ No newline at end of file
@@ -0,0 +1,45 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.lock;
+
+import java.util.Collection;
+
+/**
+ * Интерфейс для реализации блокировок счетов.
+ * Изменения одного счёта выполняются по очереди, изменения разных счетов - параллельно.
+ */
+public interface AccountLock {
+	/**
+	 * Захватывает блокировку счёта.
+	 * Если блокировка занята, поток ожидает её освобождения в очереди.
+	 *
+	 * @param accountId идентификатор счёта.
+	 */
+	void lock(long accountId);
+
+	/**
+	 * Освобождает блокировку счёта.
+	 *
+	 * @param accountId идентификатор счёта.
+	 */
+	void unlock(long accountId);
+
+	/**
+	 * Захватывает блокировки нескольких счетов.
+	 * Блокировки захватываются в едином для всех потоков порядке, поэтому взаимная блокировка невозможна.
+	 *
+	 * @param accountIds идентификаторы счетов.
+	 */
+	void lockAll(Collection<Long> accountIds);
+
+	/**
+	 * Освобождает блокировки нескольких счетов, захваченные {@link #lockAll(Collection)}.
+	 *
+	 * @param accountIds идентификаторы счетов.
+	 */
+	void unlockAll(Collection<Long> accountIds);
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.lock.impl;
+
+import dev.kalenchukov.wallet.lock.AccountLock;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Класс блокировок счетов.
+ * Счета распределяются по фиксированному набору полос, у каждой полосы своя справедливая блокировка.
+ * По каждой полосе публикуются время ожидания блокировки и длина очереди ожидающих потоков.
+ */
+@Component
+public class AccountLockImpl implements AccountLock {
+	/**
+	 * Множитель для перемешивания идентификаторов счетов.
+	 */
+	private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+	/**
+	 * Блокировки полос.
+	 */
+	private final ReentrantLock[] locks;
+
+	/**
+	 * Время ожидания блокировок полос.
+	 */
+	private final Timer[] waitTimers;
+
+	/**
+	 * Количество бит в номере полосы.
+	 */
+	private final int stripeBits;
+
+	/**
+	 * Конструирует блокировки счетов.
+	 *
+	 * @param stripes       количество полос, должно быть степенью двойки.
+	 * @param meterRegistry реестр метрик.
+	 * @throws IllegalArgumentException если количество полос не является степенью двойки.
+	 */
+	@Autowired
+	public AccountLockImpl(@Value("${account-lock.stripes}") final int stripes, final MeterRegistry meterRegistry) {
+		Objects.requireNonNull(meterRegistry);
+
+		if (stripes <= 0 || Integer.bitCount(stripes) != 1) {
+			throw new IllegalArgumentException("Количество полос блокировок должно быть степенью двойки.");
+		}
+
+		this.stripeBits = Integer.numberOfTrailingZeros(stripes);
+		this.locks = new ReentrantLock[stripes];
+		this.waitTimers = new Timer[stripes];
+
+		for (int stripe = 0; stripe < stripes; stripe++) {
+			ReentrantLock lock = new ReentrantLock(true);
+			this.locks[stripe] = lock;
+			this.waitTimers[stripe] = Timer.builder("wallet.account.lock.wait")
+					.description("Время ожидания блокировки счёта")
+					.tag("stripe", String.valueOf(stripe))
+					.register(meterRegistry);
+
+			Gauge.builder("wallet.account.lock.queue", lock, ReentrantLock::getQueueLength)
+					.description("Количество потоков в очереди блокировки счёта")
+					.tag("stripe", String.valueOf(stripe))
+					.register(meterRegistry);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param accountId {@inheritDoc}
+	 */
+	@Override
+	public void lock(final long accountId) {
+		int stripe = this.stripe(accountId);
+
+		long start = System.nanoTime();
+		this.locks[stripe].lock();
+		this.waitTimers[stripe].record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param accountId {@inheritDoc}
+	 */
+	@Override
+	public void unlock(final long accountId) {
+		this.locks[this.stripe(accountId)].unlock();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * Блокировки полос захватываются по возрастанию номера полосы, каждая полоса - один раз.
+	 *
+	 * @param accountIds {@inheritDoc}
+	 */
+	@Override
+	public void lockAll(final Collection<Long> accountIds) {
+		Objects.requireNonNull(accountIds);
+
+		BitSet stripes = this.stripes(accountIds);
+		for (int stripe = stripes.nextSetBit(0); stripe >= 0; stripe = stripes.nextSetBit(stripe + 1)) {
+			long start = System.nanoTime();
+			this.locks[stripe].lock();
+			this.waitTimers[stripe].record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param accountIds {@inheritDoc}
+	 */
+	@Override
+	public void unlockAll(final Collection<Long> accountIds) {
+		Objects.requireNonNull(accountIds);
+
+		BitSet stripes = this.stripes(accountIds);
+		for (int stripe = stripes.previousSetBit(stripes.length() - 1); stripe >= 0;
+			 stripe = stripes.previousSetBit(stripe - 1)) {
+			this.locks[stripe].unlock();
+		}
+	}
+
+	/**
+	 * Возвращает номера полос счетов.
+	 *
+	 * @param accountIds идентификаторы счетов.
+	 * @return номера полос.
+	 */
+	private BitSet stripes(final Collection<Long> accountIds) {
+		BitSet stripes = new BitSet(this.locks.length);
+		for (Long accountId : accountIds) {
+			stripes.set(this.stripe(Objects.requireNonNull(accountId)));
+		}
+
+		return stripes;
+	}
+
+	/**
+	 * Возвращает номер полосы счёта.
+	 *
+	 * @param accountId идентификатор счёта.
+	 * @return номер полосы.
+	 */
+	private int stripe(final long accountId) {
+		if (this.stripeBits == 0) {
+			return 0;
+		}
+
+		return (int) ((accountId * HASH_MULTIPLIER) >>> (Long.SIZE - this.stripeBits));
+	}
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.memory;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Класс отображения с ключами типа {@code long}.
+ * Значения хранятся в страницах массива по номеру ключа без упаковки ключей,
+ * поэтому отображение подходит для плотных последовательных идентификаторов.
+ * Чтение выполняется без блокировок, блокировка берётся только при добавлении страниц.
+ *
+ * @param <V> тип значений.
+ */
+public class LongPagedMap<V> {
+	/**
+	 * Количество бит в номере значения внутри страницы.
+	 */
+	private static final int PAGE_BITS = 12;
+
+	/**
+	 * Количество значений в странице.
+	 */
+	private static final int PAGE_SIZE = 1 << PAGE_BITS;
+
+	/**
+	 * Маска номера значения внутри страницы.
+	 */
+	private static final long PAGE_MASK = PAGE_SIZE - 1;
+
+	/**
+	 * Страницы.
+	 * Массив заменяется целиком при добавлении страниц.
+	 */
+	private volatile AtomicReferenceArray<V>[] pages;
+
+	/**
+	 * Конструирует пустое отображение.
+	 */
+	public LongPagedMap() {
+		this.pages = newPages(0);
+	}
+
+	/**
+	 * Возвращает значение.
+	 *
+	 * @param key ключ.
+	 * @return значение или {@code null}, если значение отсутствует.
+	 */
+	public V get(final long key) {
+		if (key < 0) {
+			return null;
+		}
+
+		AtomicReferenceArray<V>[] currentPages = this.pages;
+		long pageIndex = key >>> PAGE_BITS;
+		if (pageIndex >= currentPages.length || currentPages[(int) pageIndex] == null) {
+			return null;
+		}
+
+		return currentPages[(int) pageIndex].get((int) (key & PAGE_MASK));
+	}
+
+	/**
+	 * Добавляет значение, если по ключу значение отсутствует.
+	 *
+	 * @param key   ключ.
+	 * @param value значение.
+	 * @return прежнее значение или {@code null}, если значение добавлено.
+	 * @throws IllegalArgumentException если ключ отрицательный.
+	 */
+	public V putIfAbsent(final long key, final V value) {
+		Objects.requireNonNull(value);
+
+		AtomicReferenceArray<V> page = this.page(key);
+		int index = (int) (key & PAGE_MASK);
+
+		if (page.compareAndSet(index, null, value)) {
+			return null;
+		}
+
+		return page.get(index);
+	}
+
+	/**
+	 * Добавляет или заменяет значение.
+	 *
+	 * @param key   ключ.
+	 * @param value значение.
+	 * @throws IllegalArgumentException если ключ отрицательный.
+	 */
+	public void put(final long key, final V value) {
+		Objects.requireNonNull(value);
+
+		this.page(key).set((int) (key & PAGE_MASK), value);
+	}
+
+	/**
+	 * Передаёт все значения в порядке возрастания ключей.
+	 *
+	 * @param action получатель значений.
+	 */
+	public void forEach(final Consumer<V> action) {
+		Objects.requireNonNull(action);
+
+		for (AtomicReferenceArray<V> page : this.pages) {
+			if (page == null) {
+				continue;
+			}
+
+			for (int index = 0; index < PAGE_SIZE; index++) {
+				V value = page.get(index);
+				if (value != null) {
+					action.accept(value);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Возвращает страницу ключа, добавляя её при отсутствии.
+	 *
+	 * @param key ключ.
+	 * @return страницу.
+	 * @throws IllegalArgumentException если ключ отрицательный.
+	 */
+	private AtomicReferenceArray<V> page(final long key) {
+		if (key < 0) {
+			throw new IllegalArgumentException("Ключ не может быть отрицательным.");
+		}
+
+		long pageIndex = key >>> PAGE_BITS;
+		if (pageIndex > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Ключ слишком велик.");
+		}
+
+		AtomicReferenceArray<V>[] currentPages = this.pages;
+		if (pageIndex < currentPages.length && currentPages[(int) pageIndex] != null) {
+			return currentPages[(int) pageIndex];
+		}
+
+		synchronized (this) {
+			currentPages = this.pages;
+			if (pageIndex >= currentPages.length) {
+				int length = Math.max((int) pageIndex + 1, currentPages.length * 2);
+				currentPages = Arrays.copyOf(currentPages, length);
+			}
+
+			if (currentPages[(int) pageIndex] == null) {
+				currentPages[(int) pageIndex] = new AtomicReferenceArray<>(PAGE_SIZE);
+			}
+
+			this.pages = currentPages;
+
+			return currentPages[(int) pageIndex];
+		}
+	}
+
+	/**
+	 * Создаёт массив страниц.
+	 *
+	 * @param length количество страниц.
+	 * @param <V>    тип значений.
+	 * @return массив страниц.
+	 */
+	@SuppressWarnings("unchecked")
+	private static <V> AtomicReferenceArray<V>[] newPages(final int length) {
+		return (AtomicReferenceArray<V>[]) new AtomicReferenceArray<?>[length];
+	}
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.memory;
+
+import dev.kalenchukov.starter.fixaction.entity.Action;
+import dev.kalenchukov.wallet.entity.Account;
+import dev.kalenchukov.wallet.entity.AmountChange;
+import dev.kalenchukov.wallet.entity.Operation;
+import dev.kalenchukov.wallet.entity.OperationSummary;
+import dev.kalenchukov.wallet.entity.Player;
+import dev.kalenchukov.wallet.entity.TransferChange;
+import dev.kalenchukov.wallet.type.OperationType;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Интерфейс для реализации класса учёта в памяти.
+ * Хранит игроков, счета, операции и действия в памяти и сохраняет их
+ * периодическими снимками и журналом изменений между снимками.
+ * Результаты изменений совпадают с результатами хранилищ в базе данных.
+ */
+public interface MemoryLedger {
+	/**
+	 * Добавляет игрока.
+	 *
+	 * @param name     имя.
+	 * @param password пароль.
+	 * @return игрока или пустое значение, если имя уже занято.
+	 */
+	Optional<Player> addPlayer(String name, String password);
+
+	/**
+	 * Проверяет существование игрока.
+	 *
+	 * @param name имя.
+	 * @return {@code true} если игрок существует, иначе {@code false}.
+	 */
+	boolean existsPlayer(String name);
+
+	/**
+	 * Возвращает игрока.
+	 *
+	 * @param name     имя.
+	 * @param password пароль.
+	 * @return игрока.
+	 */
+	Optional<Player> findPlayer(String name, String password);
+
+	/**
+	 * Добавляет счёт.
+	 *
+	 * @param playerId идентификатор игрока.
+	 * @param amount   сумма.
+	 * @return счёт.
+	 */
+	Account addAccount(long playerId, BigDecimal amount);
+
+	/**
+	 * Возвращает счёт.
+	 *
+	 * @param playerId  идентификатор игрока.
+	 * @param accountId идентификатор счёта.
+	 * @return счёт.
+	 */
+	Optional<Account> findAccount(long playerId, long accountId);
+
+	/**
+	 * Устанавливает сумму счёта.
+	 *
+	 * @param playerId  идентификатор игрока.
+	 * @param accountId идентификатор счёта.
+	 * @param amount    сумма.
+	 * @return {@code true} если сумма установлена, иначе {@code false}.
+	 */
+	boolean setAmount(long playerId, long accountId, BigDecimal amount);
+
+	/**
+	 * Изменяет сумму счёта на сумму операции и добавляет операцию.
+	 *
+	 * @param playerId      идентификатор игрока.
+	 * @param accountId     идентификатор счёта.
+	 * @param operationType тип операции.
+	 * @param amount        сумма операции.
+	 * @return результат изменения суммы счёта.
+	 */
+	AmountChange changeAmount(long playerId, long accountId, OperationType operationType, BigDecimal amount);
+
+	/**
+	 * Изменяет суммы счетов на суммы операций пакета и добавляет операции.
+	 *
+	 * @param playerId     идентификатор игрока.
+	 * @param operations   операции.
+	 * @param allOrNothing {@code true} если требуется выполнить все изменения или ни одного.
+	 * @return результаты изменения сумм счетов в порядке операций.
+	 */
+	List<AmountChange> changeAmounts(long playerId, List<Operation> operations, boolean allOrNothing);
+
+	/**
+	 * Переводит сумму между счетами игрока и добавляет две связанные операции.
+	 *
+	 * @param playerId      идентификатор игрока.
+	 * @param fromAccountId идентификатор счёта списания.
+	 * @param toAccountId   идентификатор счёта зачисления.
+	 * @param amount        сумма перевода.
+	 * @return результат перевода.
+	 * @throws IllegalArgumentException если счёт списания совпадает со счётом зачисления.
+	 */
+	TransferChange transfer(long playerId, long fromAccountId, long toAccountId, BigDecimal amount);
+
+	/**
+	 * Добавляет операции без изменения сумм счетов.
+	 *
+	 * @param operations операции.
+	 * @return операции с идентификаторами в том же порядке.
+	 * @throws IllegalArgumentException если счёт операции не существует.
+	 */
+	List<Operation> addOperations(List<Operation> operations);
+
+	/**
+	 * Возвращает операцию.
+	 *
+	 * @param playerId    идентификатор игрока.
+	 * @param accountId   идентификатор счёта.
+	 * @param operationId идентификатор операции.
+	 * @return операцию.
+	 */
+	Optional<Operation> findOperation(long playerId, long accountId, long operationId);
+
+	/**
+	 * Возвращает операции счёта от новых к старым.
+	 *
+	 * @param playerId  идентификатор игрока.
+	 * @param accountId идентификатор счёта.
+	 * @return операции.
+	 */
+	List<Operation> findOperations(long playerId, long accountId);
+
+	/**
+	 * Возвращает операции счёта, предшествующие операции, от новых к старым.
+	 *
+	 * @param playerId          идентификатор игрока.
+	 * @param accountId         идентификатор счёта.
+	 * @param beforeOperationId идентификатор операции, до которой ищутся операции.
+	 * @param limit             максимальное количество операций.
+	 * @return операции.
+	 */
+	List<Operation> findOperationsBefore(long playerId, long accountId, long beforeOperationId, int limit);
+
+	/**
+	 * Возвращает операции счёта, следующие за операцией, от старых к новым.
+	 *
+	 * @param playerId         идентификатор игрока.
+	 * @param accountId        идентификатор счёта.
+	 * @param afterOperationId идентификатор операции, после которой ищутся операции.
+	 * @param limit            максимальное количество операций.
+	 * @return операции.
+	 */
+	List<Operation> findOperationsAfter(long playerId, long accountId, long afterOperationId, int limit);
+
+	/**
+	 * Передаёт получателю операции счёта, созданные в периоде, от старых к новым.
+	 * Передаются операции, добавленные до начала выгрузки.
+	 *
+	 * @param playerId  идентификатор игрока.
+	 * @param accountId идентификатор счёта.
+	 * @param from      начало периода включительно или {@code null}, если период не ограничен снизу.
+	 * @param to        конец периода исключительно или {@code null}, если период не ограничен сверху.
+	 * @param consumer  получатель операций.
+	 */
+	void exportOperations(long playerId, long accountId, Instant from, Instant to, Consumer<Operation> consumer);
+
+	/**
+	 * Возвращает итоги операций счёта по типам за период.
+	 *
+	 * @param playerId  идентификатор игрока.
+	 * @param accountId идентификатор счёта.
+	 * @param from      первый день периода по UTC.
+	 * @param to        последний день периода по UTC.
+	 * @return итоги операций в порядке типов операций.
+	 */
+	List<OperationSummary> summarizeOperations(long playerId, long accountId, LocalDate from, LocalDate to);
+
+	/**
+	 * Добавляет действия.
+	 *
+	 * @param actions действия.
+	 * @return действия с идентификаторами в том же порядке.
+	 */
+	List<Action> addActions(List<Action> actions);
+
+	/**
+	 * Возвращает действия игрока от новых к старым.
+	 *
+	 * @param playerId идентификатор игрока.
+	 * @return действия.
+	 */
+	List<Action> findActions(long playerId);
+
+	/**
+	 * Сохраняет снимок учёта и начинает новый журнал изменений.
+	 * Журналы и снимки, предшествующие сохранённому снимку, удаляются.
+	 */
+	void snapshot();
+}
@@ -0,0 +1,1486 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.memory.impl;
+
+import dev.kalenchukov.starter.fixaction.entity.Action;
+import dev.kalenchukov.starter.fixaction.types.ActionType;
+import dev.kalenchukov.wallet.entity.Account;
+import dev.kalenchukov.wallet.entity.AmountChange;
+import dev.kalenchukov.wallet.entity.Operation;
+import dev.kalenchukov.wallet.entity.OperationSummary;
+import dev.kalenchukov.wallet.entity.Player;
+import dev.kalenchukov.wallet.entity.TransferChange;
+import dev.kalenchukov.wallet.memory.LongPagedMap;
+import dev.kalenchukov.wallet.memory.MemoryLedger;
+import dev.kalenchukov.wallet.type.AmountChangeStatus;
+import dev.kalenchukov.wallet.type.OperationType;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Класс учёта в памяти.
+ * Игроки, счета и действия хранятся в отображениях с ключами типа {@code long},
+ * суммы счетов изменяются сравнением с обменом, операции счёта добавляются в его массив.
+ * Каждое изменение записывается в журнал изменений текущего поколения, снимок начинает новое поколение.
+ * При запуске загружается последний снимок и применяются журналы, записанные после него.
+ * Изменения удерживают блокировку на чтение, чтобы снимок захватывал согласованное состояние
+ * под блокировкой на запись и записывался в файл уже без неё.
+ */
+@Component
+@Profile("memory")
+public class MemoryLedgerImpl implements MemoryLedger {
+	/**
+	 * Расширение файлов снимков.
+	 */
+	private static final String SNAPSHOT_EXTENSION = ".snapshot";
+
+	/**
+	 * Расширение файлов журналов изменений.
+	 */
+	private static final String CHANGES_EXTENSION = ".changes";
+
+	/**
+	 * Расширение незавершённых файлов снимков.
+	 */
+	private static final String TEMPORARY_EXTENSION = ".tmp";
+
+	/**
+	 * Запись журнала о добавлении игрока.
+	 */
+	private static final int PLAYER_RECORD = 1;
+
+	/**
+	 * Запись журнала о добавлении счёта.
+	 */
+	private static final int ACCOUNT_RECORD = 2;
+
+	/**
+	 * Запись журнала о добавлении операции.
+	 */
+	private static final int OPERATION_RECORD = 3;
+
+	/**
+	 * Запись журнала об изменении суммы счёта без операции.
+	 */
+	private static final int AMOUNT_RECORD = 4;
+
+	/**
+	 * Запись журнала о добавлении действия.
+	 */
+	private static final int ACTION_RECORD = 5;
+
+	/**
+	 * Количество миллисекунд в дне.
+	 */
+	private static final long MILLIS_PER_DAY = TimeUnit.DAYS.toMillis(1L);
+
+	/**
+	 * Каталог снимков и журналов.
+	 */
+	private final Path directory;
+
+	/**
+	 * Игроки по идентификаторам.
+	 */
+	private final LongPagedMap<Player> players;
+
+	/**
+	 * Игроки по именам.
+	 */
+	private final Map<String, Player> playersByName;
+
+	/**
+	 * Счета по идентификаторам.
+	 */
+	private final LongPagedMap<LedgerAccount> accounts;
+
+	/**
+	 * Действия по идентификаторам игроков.
+	 */
+	private final LongPagedMap<List<Action>> actions;
+
+	/**
+	 * Последний идентификатор игрока.
+	 */
+	private final AtomicLong playerSequence;
+
+	/**
+	 * Последний идентификатор счёта.
+	 */
+	private final AtomicLong accountSequence;
+
+	/**
+	 * Последний идентификатор операции.
+	 */
+	private final AtomicLong operationSequence;
+
+	/**
+	 * Последний идентификатор действия.
+	 */
+	private final AtomicLong actionSequence;
+
+	/**
+	 * Блокировка состояния.
+	 * На чтение берётся изменениями, на запись - снимком.
+	 */
+	private final ReadWriteLock stateLock;
+
+	/**
+	 * Объект синхронизации записи в журнал изменений.
+	 */
+	private final Object changesLock;
+
+	/**
+	 * Номер текущего поколения.
+	 */
+	private long generation;
+
+	/**
+	 * Журнал изменений текущего поколения.
+	 * Равен {@code null} до восстановления учёта.
+	 */
+	private DataOutputStream changes;
+
+	/**
+	 * Конструирует учёт.
+	 * Состояние загружается при восстановлении.
+	 *
+	 * @param directory каталог снимков и журналов.
+	 */
+	@Autowired
+	public MemoryLedgerImpl(@Value("${memory.directory}") final String directory) {
+		Objects.requireNonNull(directory);
+
+		this.directory = Path.of(directory);
+		this.players = new LongPagedMap<>();
+		this.playersByName = new ConcurrentHashMap<>();
+		this.accounts = new LongPagedMap<>();
+		this.actions = new LongPagedMap<>();
+		this.playerSequence = new AtomicLong();
+		this.accountSequence = new AtomicLong();
+		this.operationSequence = new AtomicLong();
+		this.actionSequence = new AtomicLong();
+		this.stateLock = new ReentrantReadWriteLock();
+		this.changesLock = new Object();
+	}
+
+	/**
+	 * Восстанавливает учёт из последнего снимка и журналов изменений после него.
+	 * Чтение журнала прекращается на первой неполной записи.
+	 * После восстановления сохраняется новый снимок.
+	 *
+	 * @throws UncheckedIOException если произошла ошибка ввода-вывода.
+	 */
+	@PostConstruct
+	public void recover() {
+		this.stateLock.writeLock().lock();
+		try {
+			Files.createDirectories(this.directory);
+
+			long snapshotGeneration = this.findGenerations(SNAPSHOT_EXTENSION).stream()
+					.max(Long::compare)
+					.orElse(0L);
+			if (snapshotGeneration > 0) {
+				this.readSnapshot(this.file(snapshotGeneration, SNAPSHOT_EXTENSION));
+			}
+
+			this.generation = snapshotGeneration;
+			for (long changesGeneration : this.findGenerations(CHANGES_EXTENSION)) {
+				if (changesGeneration >= snapshotGeneration) {
+					this.readChanges(this.file(changesGeneration, CHANGES_EXTENSION));
+					this.generation = Math.max(this.generation, changesGeneration);
+				}
+			}
+
+			this.openChanges(this.generation + 1);
+			this.generation++;
+		} catch (IOException exception) {
+			throw new UncheckedIOException(exception);
+		} finally {
+			this.stateLock.writeLock().unlock();
+		}
+
+		this.snapshot();
+	}
+
+	/**
+	 * Сохраняет снимок и закрывает журнал изменений.
+	 *
+	 * @throws UncheckedIOException если произошла ошибка ввода-вывода.
+	 */
+	@PreDestroy
+	public void close() {
+		if (this.changes == null) {
+			return;
+		}
+
+		this.snapshot();
+
+		synchronized (this.changesLock) {
+			try {
+				this.changes.close();
+				this.changes = null;
+			} catch (IOException exception) {
+				throw new UncheckedIOException(exception);
+			}
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param name     {@inheritDoc}
+	 * @param password {@inheritDoc}
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public Optional<Player> addPlayer(final String name, final String password) {
+		Objects.requireNonNull(name);
+		Objects.requireNonNull(password);
+
+		this.stateLock.readLock().lock();
+		try {
+			Player[] created = new Player[1];
+			this.playersByName.computeIfAbsent(name, key -> {
+				created[0] = new Player(this.playerSequence.incrementAndGet(), name, password);
+				return created[0];
+			});
+
+			if (created[0] == null) {
+				return Optional.empty();
+			}
+
+			Player player = created[0];
+			this.players.put(player.getPlayerId(), player);
+			this.log(output -> {
+				output.writeByte(PLAYER_RECORD);
+				output.writeLong(player.getPlayerId());
+				output.writeUTF(player.getName());
+				output.writeUTF(player.getPassword());
+			});
+
+			return Optional.of(copy(player));
+		} finally {
+			this.stateLock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param name {@inheritDoc}
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public boolean existsPlayer(final String name) {
+		Objects.requireNonNull(name);
+
+		return this.playersByName.containsKey(name);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param name     {@inheritDoc}
+	 * @param password {@inheritDoc}
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public Optional<Player> findPlayer(final String name, final String password) {
+		Objects.requireNonNull(name);
+		Objects.requireNonNull(password);
+
+		Player player = this.playersByName.get(name);
+		if (player == null || !player.getPassword().equals(password)) {
+			return Optional.empty();
+		}
+
+		return Optional.of(copy(player));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param playerId {@inheritDoc}
+	 * @param amount   {@inheritDoc}
+	 * @return {@inheritDoc}
+	 * @throws IllegalArgumentException если игрок не существует.
+	 */
+	@Override
+	public Account addAccount(final long playerId, final BigDecimal amount) {
+		Objects.requireNonNull(amount);
+
+		if (this.players.get(playerId) == null) {
+			throw new IllegalArgumentException("Игрок не существует.");
+		}
+
+		this.stateLock.readLock().lock();
+		try {
+			LedgerAccount account = new LedgerAccount(this.accountSequence.incrementAndGet(), playerId, amount);
+			this.accounts.put(account.accountId, account);
+			this.log(output -> {
+				output.writeByte(ACCOUNT_RECORD);
+				output.writeLong(account.accountId);
+				output.writeLong(account.playerId);
+				output.writeUTF(amount.toString());
+			});
+
+			return new Account(account.accountId, playerId, amount);
+		} finally {
+			this.stateLock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param playerId  {@inheritDoc}
+	 * @param accountId {@inheritDoc}
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public Optional<Account> findAccount(final long playerId, final long accountId) {
+		LedgerAccount account = this.accounts.get(accountId);
+		if (account == null || account.playerId != playerId) {
+			return Optional.empty();
+		}
+
+		return Optional.of(new Account(accountId, playerId, account.amount.get()));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param playerId  {@inheritDoc}
+	 * @param accountId {@inheritDoc}
+	 * @param amount    {@inheritDoc}
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public boolean setAmount(final long playerId, final long accountId, final BigDecimal amount) {
+		Objects.requireNonNull(amount);
+
+		LedgerAccount account = this.accounts.get(accountId);
+		if (account == null || account.playerId != playerId) {
+			return false;
+		}
+
+		this.stateLock.readLock().lock();
+		try {
+			BigDecimal previous = account.amount.getAndSet(amount);
+			this.log(output -> {
+				output.writeByte(AMOUNT_RECORD);
+				output.writeLong(accountId);
+				output.writeUTF(amount.subtract(previous).toString());
+			});
+
+			return true;
+		} finally {
+			this.stateLock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param playerId      {@inheritDoc}
+	 * @param accountId     {@inheritDoc}
+	 * @param operationType {@inheritDoc}
+	 * @param amount        {@inheritDoc}
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public AmountChange changeAmount(final long playerId, final long accountId, final OperationType operationType,
+									 final BigDecimal amount) {
+		Objects.requireNonNull(operationType);
+		Objects.requireNonNull(amount);
+
+		LedgerAccount account = this.accounts.get(accountId);
+		if (account == null) {
+			return new AmountChange(AmountChangeStatus.NOT_FOUND_ACCOUNT, 0L, null);
+		}
+
+		if (account.playerId != playerId) {
+			return new AmountChange(AmountChangeStatus.NO_ACCESS_ACCOUNT, 0L, null);
+		}
+
+		this.stateLock.readLock().lock();
+		try {
+			BigDecimal delta = getDelta(operationType, amount);
+			BigDecimal current;
+			BigDecimal next;
+			do {
+				current = account.amount.get();
+				next = current.add(delta);
+
+				if (next.signum() < 0) {
+					return new AmountChange(AmountChangeStatus.OUT_OF_AMOUNT, 0L, current);
+				}
+			} while (!account.amount.compareAndSet(current, next));
+
+			Operation operation = this.appendOperation(account, playerId, operationType, amount, true);
+
+			return new AmountChange(AmountChangeStatus.SUCCESS, operation.getOperationId(), next);
+		} finally {
+			this.stateLock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * Изменения применяются по порядку, при отмене пакета применённые изменения возвращаются,
+	 * а операции добавляются только после решения о выполнении пакета.
+	 *
+	 * @param playerId     {@inheritDoc}
+	 * @param operations   {@inheritDoc}
+	 * @param allOrNothing {@inheritDoc}
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public List<AmountChange> changeAmounts(final long playerId, final List<Operation> operations,
+											final boolean allOrNothing) {
+		Objects.requireNonNull(operations);
+
+		this.stateLock.readLock().lock();
+		try {
+			List<AmountChange> amountChanges = new ArrayList<>(operations.size());
+			List<LedgerAccount> changedAccounts = new ArrayList<>(operations.size());
+			boolean failed = false;
+
+			for (Operation operation : operations) {
+				Objects.requireNonNull(operation);
+				Objects.requireNonNull(operation.getOperationType());
+				Objects.requireNonNull(operation.getAmount());
+
+				LedgerAccount account = this.accounts.get(operation.getAccountId());
+				if (account == null) {
+					amountChanges.add(new AmountChange(AmountChangeStatus.NOT_FOUND_ACCOUNT, 0L, null));
+					changedAccounts.add(null);
+					failed = true;
+					continue;
+				}
+
+				if (account.playerId != playerId) {
+					amountChanges.add(new AmountChange(AmountChangeStatus.NO_ACCESS_ACCOUNT, 0L, null));
+					changedAccounts.add(null);
+					failed = true;
+					continue;
+				}
+
+				BigDecimal delta = getDelta(operation.getOperationType(), operation.getAmount());
+				BigDecimal current;
+				BigDecimal next;
+				do {
+					current = account.amount.get();
+					next = current.add(delta);
+				} while (next.signum() >= 0 && !account.amount.compareAndSet(current, next));
+
+				if (next.signum() < 0) {
+					amountChanges.add(new AmountChange(AmountChangeStatus.OUT_OF_AMOUNT, 0L, current));
+					changedAccounts.add(null);
+					failed = true;
+					continue;
+				}
+
+				amountChanges.add(new AmountChange(AmountChangeStatus.SUCCESS, 0L, next));
+				changedAccounts.add(account);
+			}
+
+			if (failed && allOrNothing) {
+				for (int index = operations.size() - 1; index >= 0; index--) {
+					LedgerAccount account = changedAccounts.get(index);
+					if (account != null) {
+						Operation operation = operations.get(index);
+						account.amount.accumulateAndGet(
+								getDelta(operation.getOperationType(), operation.getAmount()).negate(),
+								BigDecimal::add
+						);
+						amountChanges.set(index, new AmountChange(AmountChangeStatus.ROLLED_BACK, 0L, null));
+					}
+				}
+
+				return amountChanges;
+			}
+
+			for (int index = 0; index < operations.size(); index++) {
+				LedgerAccount account = changedAccounts.get(index);
+				if (account != null) {
+					Operation operation = operations.get(index);
+					long operationId = this.appendOperation(account, playerId, operation.getOperationType(),
+							operation.getAmount(), true
+					).getOperationId();
+					amountChanges.get(index).setOperationId(operationId);
+				}
+			}
+
+			return amountChanges;
+		} finally {
+			this.stateLock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param playerId      {@inheritDoc}
+	 * @param fromAccountId {@inheritDoc}
+	 * @param toAccountId   {@inheritDoc}
+	 * @param amount        {@inheritDoc}
+	 * @return {@inheritDoc}
+	 * @throws IllegalArgumentException {@inheritDoc}
+	 */
+	@Override
+	public TransferChange transfer(final long playerId, final long fromAccountId, final long toAccountId,
+								   final BigDecimal amount) {
+		Objects.requireNonNull(amount);
+
+		if (fromAccountId == toAccountId) {
+			throw new IllegalArgumentException("Счёт списания должен отличаться от счёта зачисления.");
+		}
+
+		LedgerAccount fromAccount = this.accounts.get(fromAccountId);
+		if (fromAccount == null) {
+			return new TransferChange(AmountChangeStatus.NOT_FOUND_ACCOUNT, fromAccountId, 0L, 0L, null, null);
+		}
+
+		if (fromAccount.playerId != playerId) {
+			return new TransferChange(AmountChangeStatus.NO_ACCESS_ACCOUNT, fromAccountId, 0L, 0L, null, null);
+		}
+
+		LedgerAccount toAccount = this.accounts.get(toAccountId);
+		if (toAccount == null) {
+			return new TransferChange(AmountChangeStatus.NOT_FOUND_ACCOUNT, toAccountId, 0L, 0L, null, null);
+		}
+
+		if (toAccount.playerId != playerId) {
+			return new TransferChange(AmountChangeStatus.NO_ACCESS_ACCOUNT, toAccountId, 0L, 0L, null, null);
+		}
+
+		this.stateLock.readLock().lock();
+		try {
+			BigDecimal current;
+			BigDecimal fromAmount;
+			do {
+				current = fromAccount.amount.get();
+				fromAmount = current.subtract(amount);
+
+				if (fromAmount.signum() < 0) {
+					return new TransferChange(AmountChangeStatus.OUT_OF_AMOUNT, fromAccountId, 0L, 0L, current, null);
+				}
+			} while (!fromAccount.amount.compareAndSet(current, fromAmount));
+
+			BigDecimal toAmount = toAccount.amount.accumulateAndGet(amount, BigDecimal::add);
+
+			Operation outOperation = this.appendOperation(fromAccount, playerId, OperationType.TRANSFER_OUT, amount,
+					true
+			);
+			Operation inOperation = this.appendOperation(toAccount, playerId, OperationType.TRANSFER_IN, amount, true);
+
+			return new TransferChange(AmountChangeStatus.SUCCESS, fromAccountId, outOperation.getOperationId(),
+					inOperation.getOperationId(), fromAmount, toAmount
+			);
+		} finally {
+			this.stateLock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param operations {@inheritDoc}
+	 * @return {@inheritDoc}
+	 * @throws IllegalArgumentException {@inheritDoc}
+	 */
+	@Override
+	public List<Operation> addOperations(final List<Operation> operations) {
+		Objects.requireNonNull(operations);
+
+		this.stateLock.readLock().lock();
+		try {
+			List<Operation> savedOperations = new ArrayList<>(operations.size());
+			for (Operation operation : operations) {
+				Objects.requireNonNull(operation);
+
+				LedgerAccount account = this.accounts.get(operation.getAccountId());
+				if (account == null) {
+					throw new IllegalArgumentException("Счёт операции не существует.");
+				}
+
+				savedOperations.add(copy(this.appendOperation(account, operation.getPlayerId(),
+						operation.getOperationType(), operation.getAmount(), false
+				)));
+			}
+
+			return savedOperations;
+		} finally {
+			this.stateLock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param playerId    {@inheritDoc}
+	 * @param accountId   {@inheritDoc}
+	 * @param operationId {@inheritDoc}
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public Optional<Operation> findOperation(final long playerId, final long accountId, final long operationId) {
+		LedgerAccount account = this.accounts.get(accountId);
+		if (account == null) {
+			return Optional.empty();
+		}
+
+		int size = account.size;
+		Operation[] operations = account.operations;
+		int low = 0;
+		int high = size - 1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			long middleId = operations[middle].getOperationId();
+
+			if (middleId < operationId) {
+				low = middle + 1;
+			} else if (middleId > operationId) {
+				high = middle - 1;
+			} else {
+				return (operations[middle].getPlayerId() == playerId)
+						? Optional.of(copy(operations[middle]))
+						: Optional.empty();
+			}
+		}
+
+		return Optional.empty();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param playerId  {@inheritDoc}
+	 * @param accountId {@inheritDoc}
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public List<Operation> findOperations(final long playerId, final long accountId) {
+		LedgerAccount account = this.accounts.get(accountId);
+		if (account == null) {
+			return new ArrayList<>();
+		}
+
+		int size = account.size;
+		Operation[] operations = account.operations;
+		List<Operation> result = new ArrayList<>(size);
+		for (int index = size - 1; index >= 0; index--) {
+			if (operations[index].getPlayerId() == playerId) {
+				result.add(copy(operations[index]));
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param playerId          {@inheritDoc}
+	 * @param accountId         {@inheritDoc}
+	 * @param beforeOperationId {@inheritDoc}
+	 * @param limit             {@inheritDoc}
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public List<Operation> findOperationsBefore(final long playerId, final long accountId,
+												final long beforeOperationId, final int limit) {
+		LedgerAccount account = this.accounts.get(accountId);
+		if (account == null || beforeOperationId == Long.MIN_VALUE) {
+			return new ArrayList<>();
+		}
+
+		int size = account.size;
+		Operation[] operations = account.operations;
+		List<Operation> result = new ArrayList<>();
+		for (int index = indexAbove(operations, size, beforeOperationId - 1) - 1;
+			 index >= 0 && result.size() < limit; index--) {
+			if (operations[index].getPlayerId() == playerId) {
+				result.add(copy(operations[index]));
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param playerId         {@inheritDoc}
+	 * @param accountId        {@inheritDoc}
+	 * @param afterOperationId {@inheritDoc}
+	 * @param limit            {@inheritDoc}
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public List<Operation> findOperationsAfter(final long playerId, final long accountId,
+											   final long afterOperationId, final int limit) {
+		LedgerAccount account = this.accounts.get(accountId);
+		if (account == null) {
+			return new ArrayList<>();
+		}
+
+		int size = account.size;
+		Operation[] operations = account.operations;
+		List<Operation> result = new ArrayList<>();
+		for (int index = indexAbove(operations, size, afterOperationId);
+			 index < size && result.size() < limit; index++) {
+			if (operations[index].getPlayerId() == playerId) {
+				result.add(copy(operations[index]));
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * Получатель вызывается без блокировок, так как заполненная часть массивов операций не изменяется.
+	 *
+	 * @param playerId  {@inheritDoc}
+	 * @param accountId {@inheritDoc}
+	 * @param from      {@inheritDoc}
+	 * @param to        {@inheritDoc}
+	 * @param consumer  {@inheritDoc}
+	 */
+	@Override
+	public void exportOperations(final long playerId, final long accountId, final Instant from, final Instant to,
+								 final Consumer<Operation> consumer) {
+		Objects.requireNonNull(consumer);
+
+		LedgerAccount account = this.accounts.get(accountId);
+		if (account == null) {
+			return;
+		}
+
+		long fromMillis = (from == null) ? Long.MIN_VALUE : from.toEpochMilli();
+		long toMillis = (to == null) ? Long.MAX_VALUE : to.toEpochMilli();
+
+		int size = account.size;
+		Operation[] operations = account.operations;
+		long[] createdAt = account.createdAt;
+		for (int index = 0; index < size; index++) {
+			if (operations[index].getPlayerId() == playerId
+					&& createdAt[index] >= fromMillis && createdAt[index] < toMillis) {
+				consumer.accept(copy(operations[index]));
+			}
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * Итоги складываются из итогов по дням, которые счёт обновляет при добавлении каждой операции.
+	 *
+	 * @param playerId  {@inheritDoc}
+	 * @param accountId {@inheritDoc}
+	 * @param from      {@inheritDoc}
+	 * @param to        {@inheritDoc}
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public List<OperationSummary> summarizeOperations(final long playerId, final long accountId,
+													  final LocalDate from, final LocalDate to) {
+		Objects.requireNonNull(from);
+		Objects.requireNonNull(to);
+
+		LedgerAccount account = this.accounts.get(accountId);
+		if (account == null || account.playerId != playerId || from.isAfter(to)) {
+			return new ArrayList<>();
+		}
+
+		OperationSummary[] totals = new OperationSummary[OperationType.values().length];
+		for (OperationSummary[] daySummaries : account.summaries.subMap(from.toEpochDay(), true,
+				to.toEpochDay(), true).values()) {
+			for (int index = 0; index < daySummaries.length; index++) {
+				totals[index] = add(totals[index], daySummaries[index]);
+			}
+		}
+
+		List<OperationSummary> result = new ArrayList<>();
+		for (OperationSummary total : totals) {
+			if (total != null) {
+				result.add(total);
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param actions {@inheritDoc}
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public List<Action> addActions(final List<Action> actions) {
+		Objects.requireNonNull(actions);
+
+		this.stateLock.readLock().lock();
+		try {
+			List<Action> savedActions = new ArrayList<>(actions.size());
+			for (Action action : actions) {
+				Objects.requireNonNull(action);
+
+				Action savedAction = new Action(this.actionSequence.incrementAndGet(), action.getPlayerId(),
+						action.getActionType(), action.getActionTypeStatus()
+				);
+				List<Action> playerActions = this.getActions(savedAction.getPlayerId());
+				synchronized (playerActions) {
+					playerActions.add(savedAction);
+					this.log(output -> {
+						output.writeByte(ACTION_RECORD);
+						output.writeLong(savedAction.getActionId());
+						output.writeLong(savedAction.getPlayerId());
+						output.writeUTF(savedAction.getActionType().name());
+						output.writeUTF(savedAction.getActionTypeStatus().name());
+					});
+				}
+
+				savedActions.add(copy(savedAction));
+			}
+
+			return savedActions;
+		} finally {
+			this.stateLock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param playerId {@inheritDoc}
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public List<Action> findActions(final long playerId) {
+		List<Action> playerActions = this.actions.get(playerId);
+		if (playerActions == null) {
+			return new ArrayList<>();
+		}
+
+		List<Action> result = new ArrayList<>();
+		synchronized (playerActions) {
+			for (int index = playerActions.size() - 1; index >= 0; index--) {
+				result.add(copy(playerActions.get(index)));
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * Состояние захватывается под блокировкой на запись вместе со сменой журнала,
+	 * массивы операций не копируются, так как их заполненная часть не изменяется.
+	 *
+	 * @throws IllegalStateException если учёт не восстановлен.
+	 * @throws UncheckedIOException  если произошла ошибка ввода-вывода.
+	 */
+	@Override
+	@Scheduled(fixedDelayString = "${memory.snapshot-interval}")
+	public synchronized void snapshot() {
+		long snapshotGeneration;
+		long[] sequences;
+		List<Player> snapshotPlayers = new ArrayList<>();
+		List<AccountState> snapshotAccounts = new ArrayList<>();
+		List<Action> snapshotActions = new ArrayList<>();
+
+		this.stateLock.writeLock().lock();
+		try {
+			if (this.changes == null) {
+				throw new IllegalStateException("Учёт в памяти не восстановлен.");
+			}
+
+			snapshotGeneration = this.generation + 1;
+			this.openChanges(snapshotGeneration);
+			this.generation = snapshotGeneration;
+
+			sequences = new long[]{this.playerSequence.get(), this.accountSequence.get(),
+					this.operationSequence.get(), this.actionSequence.get()};
+			this.players.forEach(snapshotPlayers::add);
+			this.accounts.forEach(account -> snapshotAccounts.add(new AccountState(account.accountId,
+					account.playerId, account.amount.get(), account.operations, account.createdAt, account.size
+			)));
+			this.actions.forEach(playerActions -> {
+				synchronized (playerActions) {
+					snapshotActions.addAll(playerActions);
+				}
+			});
+		} catch (IOException exception) {
+			throw new UncheckedIOException(exception);
+		} finally {
+			this.stateLock.writeLock().unlock();
+		}
+
+		try {
+			Path temporary = this.file(snapshotGeneration, SNAPSHOT_EXTENSION + TEMPORARY_EXTENSION);
+			try (FileOutputStream fileOutput = new FileOutputStream(temporary.toFile());
+				 DataOutputStream output = new DataOutputStream(new BufferedOutputStream(fileOutput))) {
+				for (long sequence : sequences) {
+					output.writeLong(sequence);
+				}
+
+				output.writeInt(snapshotPlayers.size());
+				for (Player player : snapshotPlayers) {
+					output.writeLong(player.getPlayerId());
+					output.writeUTF(player.getName());
+					output.writeUTF(player.getPassword());
+				}
+
+				output.writeInt(snapshotAccounts.size());
+				for (AccountState account : snapshotAccounts) {
+					output.writeLong(account.accountId());
+					output.writeLong(account.playerId());
+					output.writeUTF(account.amount().toString());
+					output.writeInt(account.size());
+					for (int index = 0; index < account.size(); index++) {
+						Operation operation = account.operations()[index];
+						output.writeLong(operation.getOperationId());
+						output.writeLong(operation.getPlayerId());
+						output.writeUTF(operation.getOperationType().name());
+						output.writeUTF(operation.getAmount().toString());
+						output.writeLong(account.createdAt()[index]);
+					}
+				}
+
+				output.writeInt(snapshotActions.size());
+				for (Action action : snapshotActions) {
+					output.writeLong(action.getActionId());
+					output.writeLong(action.getPlayerId());
+					output.writeUTF(action.getActionType().name());
+					output.writeUTF(action.getActionTypeStatus().name());
+				}
+
+				output.flush();
+				fileOutput.getFD().sync();
+			}
+
+			Files.move(temporary, this.file(snapshotGeneration, SNAPSHOT_EXTENSION),
+					StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING
+			);
+
+			for (String extension : List.of(SNAPSHOT_EXTENSION, CHANGES_EXTENSION)) {
+				for (long oldGeneration : this.findGenerations(extension)) {
+					if (oldGeneration < snapshotGeneration) {
+						Files.deleteIfExists(this.file(oldGeneration, extension));
+					}
+				}
+			}
+		} catch (IOException exception) {
+			throw new UncheckedIOException(exception);
+		}
+	}
+
+	/**
+	 * Добавляет операцию в массив операций счёта и записывает её в журнал изменений.
+	 * Запись выполняется под блокировкой счёта, поэтому операции счёта следуют в журнале
+	 * в порядке возрастания идентификаторов.
+	 *
+	 * @param account       счёт.
+	 * @param playerId      идентификатор игрока.
+	 * @param operationType тип операции.
+	 * @param amount        сумма операции.
+	 * @param applied       признак изменения суммы счёта операцией.
+	 * @return операцию.
+	 */
+	private Operation appendOperation(final LedgerAccount account, final long playerId,
+									  final OperationType operationType, final BigDecimal amount,
+									  final boolean applied) {
+		synchronized (account) {
+			Operation operation = new Operation(this.operationSequence.incrementAndGet(), playerId,
+					account.accountId, operationType, amount
+			);
+			long createdAt = System.currentTimeMillis();
+			account.append(operation, createdAt);
+			this.log(output -> {
+				output.writeByte(OPERATION_RECORD);
+				output.writeLong(operation.getOperationId());
+				output.writeLong(operation.getPlayerId());
+				output.writeLong(operation.getAccountId());
+				output.writeUTF(operation.getOperationType().name());
+				output.writeUTF(operation.getAmount().toString());
+				output.writeLong(createdAt);
+				output.writeBoolean(applied);
+			});
+
+			return operation;
+		}
+	}
+
+	/**
+	 * Возвращает действия игрока, добавляя пустой список при отсутствии.
+	 *
+	 * @param playerId идентификатор игрока.
+	 * @return действия.
+	 */
+	private List<Action> getActions(final long playerId) {
+		List<Action> playerActions = this.actions.get(playerId);
+		if (playerActions != null) {
+			return playerActions;
+		}
+
+		List<Action> createdActions = new ArrayList<>();
+		playerActions = this.actions.putIfAbsent(playerId, createdActions);
+
+		return (playerActions == null) ? createdActions : playerActions;
+	}
+
+	/**
+	 * Записывает изменение в журнал изменений и сбрасывает его в файл.
+	 *
+	 * @param change запись изменения.
+	 * @throws IllegalStateException если учёт не восстановлен.
+	 * @throws UncheckedIOException  если произошла ошибка ввода-вывода.
+	 */
+	private void log(final Change change) {
+		synchronized (this.changesLock) {
+			if (this.changes == null) {
+				throw new IllegalStateException("Учёт в памяти не восстановлен.");
+			}
+
+			try {
+				change.write(this.changes);
+				this.changes.flush();
+			} catch (IOException exception) {
+				throw new UncheckedIOException(exception);
+			}
+		}
+	}
+
+	/**
+	 * Закрывает текущий журнал изменений и открывает журнал поколения.
+	 *
+	 * @param changesGeneration номер поколения.
+	 * @throws IOException если произошла ошибка ввода-вывода.
+	 */
+	private void openChanges(final long changesGeneration) throws IOException {
+		synchronized (this.changesLock) {
+			if (this.changes != null) {
+				this.changes.close();
+			}
+
+			this.changes = new DataOutputStream(new BufferedOutputStream(
+					new FileOutputStream(this.file(changesGeneration, CHANGES_EXTENSION).toFile(), true)
+			));
+		}
+	}
+
+	/**
+	 * Загружает снимок.
+	 *
+	 * @param file файл снимка.
+	 * @throws IOException если произошла ошибка ввода-вывода.
+	 */
+	private void readSnapshot(final Path file) throws IOException {
+		try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+			this.playerSequence.set(input.readLong());
+			this.accountSequence.set(input.readLong());
+			this.operationSequence.set(input.readLong());
+			this.actionSequence.set(input.readLong());
+
+			int playersCount = input.readInt();
+			for (int index = 0; index < playersCount; index++) {
+				this.restorePlayer(new Player(input.readLong(), input.readUTF(), input.readUTF()));
+			}
+
+			int accountsCount = input.readInt();
+			for (int index = 0; index < accountsCount; index++) {
+				LedgerAccount account = new LedgerAccount(input.readLong(), input.readLong(),
+						new BigDecimal(input.readUTF())
+				);
+				this.accounts.put(account.accountId, account);
+
+				int operationsCount = input.readInt();
+				for (int operationIndex = 0; operationIndex < operationsCount; operationIndex++) {
+					account.append(new Operation(input.readLong(), input.readLong(), account.accountId,
+							OperationType.valueOf(input.readUTF()), new BigDecimal(input.readUTF())
+					), input.readLong());
+				}
+			}
+
+			int actionsCount = input.readInt();
+			for (int index = 0; index < actionsCount; index++) {
+				Action action = new Action(input.readLong(), input.readLong(),
+						ActionType.valueOf(input.readUTF()), ActionType.Status.valueOf(input.readUTF())
+				);
+				this.getActions(action.getPlayerId()).add(action);
+			}
+		}
+	}
+
+	/**
+	 * Применяет записи журнала изменений.
+	 * Чтение прекращается на первой неполной записи.
+	 *
+	 * @param file файл журнала.
+	 * @throws IOException если произошла ошибка ввода-вывода.
+	 */
+	private void readChanges(final Path file) throws IOException {
+		try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+			while (true) {
+				int record = input.read();
+
+				switch (record) {
+					case PLAYER_RECORD -> {
+						Player player = new Player(input.readLong(), input.readUTF(), input.readUTF());
+						this.restorePlayer(player);
+						this.playerSequence.accumulateAndGet(player.getPlayerId(), Math::max);
+					}
+					case ACCOUNT_RECORD -> {
+						LedgerAccount account = new LedgerAccount(input.readLong(), input.readLong(),
+								new BigDecimal(input.readUTF())
+						);
+						this.accounts.put(account.accountId, account);
+						this.accountSequence.accumulateAndGet(account.accountId, Math::max);
+					}
+					case OPERATION_RECORD -> {
+						Operation operation = new Operation(input.readLong(), input.readLong(), input.readLong(),
+								OperationType.valueOf(input.readUTF()), new BigDecimal(input.readUTF())
+						);
+						long createdAt = input.readLong();
+						boolean applied = input.readBoolean();
+
+						LedgerAccount account = this.accounts.get(operation.getAccountId());
+						if (account != null) {
+							account.append(operation, createdAt);
+
+							if (applied) {
+								account.amount.accumulateAndGet(
+										getDelta(operation.getOperationType(), operation.getAmount()),
+										BigDecimal::add
+								);
+							}
+						}
+						this.operationSequence.accumulateAndGet(operation.getOperationId(), Math::max);
+					}
+					case AMOUNT_RECORD -> {
+						LedgerAccount account = this.accounts.get(input.readLong());
+						BigDecimal delta = new BigDecimal(input.readUTF());
+
+						if (account != null) {
+							account.amount.accumulateAndGet(delta, BigDecimal::add);
+						}
+					}
+					case ACTION_RECORD -> {
+						Action action = new Action(input.readLong(), input.readLong(),
+								ActionType.valueOf(input.readUTF()), ActionType.Status.valueOf(input.readUTF())
+						);
+						this.getActions(action.getPlayerId()).add(action);
+						this.actionSequence.accumulateAndGet(action.getActionId(), Math::max);
+					}
+					default -> {
+						return;
+					}
+				}
+			}
+		} catch (EOFException exception) {
+			// Неполная последняя запись отбрасывается.
+		}
+	}
+
+	/**
+	 * Добавляет восстановленного игрока.
+	 *
+	 * @param player игрок.
+	 */
+	private void restorePlayer(final Player player) {
+		this.players.put(player.getPlayerId(), player);
+		this.playersByName.put(player.getName(), player);
+	}
+
+	/**
+	 * Возвращает номера поколений файлов с расширением.
+	 *
+	 * @param extension расширение.
+	 * @return номера поколений по возрастанию.
+	 * @throws IOException если произошла ошибка ввода-вывода.
+	 */
+	private List<Long> findGenerations(final String extension) throws IOException {
+		try (Stream<Path> files = Files.list(this.directory)) {
+			return files.map(file -> file.getFileName().toString())
+					.filter(name -> name.endsWith(extension))
+					.map(name -> Long.parseLong(name.substring(0, name.length() - extension.length())))
+					.sorted()
+					.toList();
+		}
+	}
+
+	/**
+	 * Возвращает путь к файлу поколения.
+	 *
+	 * @param fileGeneration номер поколения.
+	 * @param extension      расширение.
+	 * @return путь к файлу.
+	 */
+	private Path file(final long fileGeneration, final String extension) {
+		return this.directory.resolve(String.format("%020d%s", fileGeneration, extension));
+	}
+
+	/**
+	 * Возвращает изменение суммы счёта операцией.
+	 *
+	 * @param operationType тип операции.
+	 * @param amount        сумма операции.
+	 * @return изменение суммы.
+	 */
+	private static BigDecimal getDelta(final OperationType operationType, final BigDecimal amount) {
+		return (operationType == OperationType.DEBIT || operationType == OperationType.TRANSFER_OUT)
+				? amount.negate()
+				: amount;
+	}
+
+	/**
+	 * Возвращает копию игрока.
+	 *
+	 * @param player игрок.
+	 * @return копию игрока.
+	 */
+	private static Player copy(final Player player) {
+		return new Player(player.getPlayerId(), player.getName(), player.getPassword());
+	}
+
+	/**
+	 * Возвращает позицию первой операции с идентификатором больше заданного.
+	 * Операции счёта упорядочены по возрастанию идентификаторов.
+	 *
+	 * @param operations  операции счёта.
+	 * @param size        количество операций счёта.
+	 * @param operationId идентификатор операции.
+	 * @return позицию операции или количество операций, если таких операций нет.
+	 */
+	private static int indexAbove(final Operation[] operations, final int size, final long operationId) {
+		int low = 0;
+		int high = size;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+
+			if (operations[middle].getOperationId() > operationId) {
+				high = middle;
+			} else {
+				low = middle + 1;
+			}
+		}
+
+		return low;
+	}
+
+	/**
+	 * Возвращает копию операции.
+	 *
+	 * @param operation операция.
+	 * @return копию операции.
+	 */
+	private static Operation copy(final Operation operation) {
+		return new Operation(operation.getOperationId(), operation.getPlayerId(), operation.getAccountId(),
+				operation.getOperationType(), operation.getAmount()
+		);
+	}
+
+	/**
+	 * Возвращает сумму итогов операций одного типа.
+	 *
+	 * @param summary итог операций или {@code null}, если итога нет.
+	 * @param other   итог операций или {@code null}, если итога нет.
+	 * @return новый итог операций или {@code null}, если обоих итогов нет.
+	 */
+	private static OperationSummary add(final OperationSummary summary, final OperationSummary other) {
+		if (other == null) {
+			return summary;
+		}
+
+		if (summary == null) {
+			return new OperationSummary(other.getOperationType(), other.getCount(), other.getAmount());
+		}
+
+		return new OperationSummary(summary.getOperationType(), summary.getCount() + other.getCount(),
+				summary.getAmount().add(other.getAmount())
+		);
+	}
+
+	/**
+	 * Возвращает копию действия.
+	 *
+	 * @param action действие.
+	 * @return копию действия.
+	 */
+	private static Action copy(final Action action) {
+		return new Action(action.getActionId(), action.getPlayerId(), action.getActionType(),
+				action.getActionTypeStatus()
+		);
+	}
+
+	/**
+	 * Интерфейс записи изменения в журнал.
+	 */
+	@FunctionalInterface
+	private interface Change {
+		/**
+		 * Записывает изменение.
+		 *
+		 * @param output поток журнала.
+		 * @throws IOException если произошла ошибка ввода-вывода.
+		 */
+		void write(DataOutputStream output) throws IOException;
+	}
+
+	/**
+	 * Состояние счёта, захваченное для снимка.
+	 *
+	 * @param accountId  идентификатор счёта.
+	 * @param playerId   идентификатор игрока.
+	 * @param amount     сумма.
+	 * @param operations массив операций.
+	 * @param createdAt  массив времени создания операций в миллисекундах.
+	 * @param size       количество операций.
+	 */
+	private record AccountState(long accountId, long playerId, BigDecimal amount, Operation[] operations,
+								long[] createdAt, int size) {
+	}
+
+	/**
+	 * Класс счёта в памяти.
+	 * Сумма изменяется сравнением с обменом, операции добавляются под блокировкой счёта.
+	 */
+	private static final class LedgerAccount {
+		/**
+		 * Идентификатор счёта.
+		 */
+		private final long accountId;
+
+		/**
+		 * Идентификатор игрока.
+		 */
+		private final long playerId;
+
+		/**
+		 * Сумма.
+		 */
+		private final AtomicReference<BigDecimal> amount;
+
+		/**
+		 * Операции в порядке добавления.
+		 * Массив заменяется при расширении, заполненная часть не изменяется.
+		 */
+		private volatile Operation[] operations;
+
+		/**
+		 * Время создания операций в миллисекундах в порядке добавления операций.
+		 * Массив заменяется при расширении вместе с массивом операций.
+		 */
+		private volatile long[] createdAt;
+
+		/**
+		 * Итоги операций по дням создания по UTC.
+		 * Массив итогов дня индексирован порядковым номером типа операций и заменяется при изменении.
+		 */
+		private final ConcurrentNavigableMap<Long, OperationSummary[]> summaries;
+
+		/**
+		 * Количество операций.
+		 */
+		private volatile int size;
+
+		/**
+		 * Конструирует счёт.
+		 *
+		 * @param accountId идентификатор счёта.
+		 * @param playerId  идентификатор игрока.
+		 * @param amount    сумма.
+		 */
+		private LedgerAccount(final long accountId, final long playerId, final BigDecimal amount) {
+			this.accountId = accountId;
+			this.playerId = playerId;
+			this.amount = new AtomicReference<>(amount);
+			this.operations = new Operation[4];
+			this.createdAt = new long[4];
+			this.summaries = new ConcurrentSkipListMap<>();
+		}
+
+		/**
+		 * Добавляет операцию.
+		 * Вызывается под блокировкой счёта или при восстановлении.
+		 *
+		 * @param operation операция.
+		 * @param createdAt время создания операции в миллисекундах.
+		 */
+		private void append(final Operation operation, final long createdAt) {
+			Operation[] current = this.operations;
+			long[] currentCreatedAt = this.createdAt;
+			int currentSize = this.size;
+
+			if (currentSize == current.length) {
+				current = Arrays.copyOf(current, current.length * 2);
+				current[currentSize] = operation;
+				currentCreatedAt = Arrays.copyOf(currentCreatedAt, currentCreatedAt.length * 2);
+				currentCreatedAt[currentSize] = createdAt;
+				this.operations = current;
+				this.createdAt = currentCreatedAt;
+			} else {
+				current[currentSize] = operation;
+				currentCreatedAt[currentSize] = createdAt;
+			}
+
+			this.size = currentSize + 1;
+
+			long day = Math.floorDiv(createdAt, MILLIS_PER_DAY);
+			OperationSummary[] daySummaries = this.summaries.get(day);
+			daySummaries = (daySummaries == null)
+					? new OperationSummary[OperationType.values().length]
+					: daySummaries.clone();
+
+			int index = operation.getOperationType().ordinal();
+			daySummaries[index] = add(daySummaries[index],
+					new OperationSummary(operation.getOperationType(), 1L, operation.getAmount())
+			);
+			this.summaries.put(day, daySummaries);
+		}
+	}
+}
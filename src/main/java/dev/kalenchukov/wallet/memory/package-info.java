@@ -0,0 +1,10 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+/**
+ * Предоставляет классы, необходимые для хранения учёта в памяти.
+ */
+package dev.kalenchukov.wallet.memory;
\ No newline at end of file
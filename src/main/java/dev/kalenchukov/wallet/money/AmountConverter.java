@@ -0,0 +1,69 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.money;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Интерфейс для реализации класса преобразования сумм между приложением и хранилищем.
+ * В приложении и в JSON суммы представлены {@link BigDecimal}, в хранилище - либо {@code DECIMAL},
+ * либо целым количеством минимальных единиц валюты в {@code BIGINT}.
+ */
+public interface AmountConverter {
+	/**
+	 * Проверяет, хранятся ли суммы в минимальных единицах валюты.
+	 *
+	 * @return {@code true} если суммы хранятся в минимальных единицах, иначе {@code false}.
+	 */
+	boolean isMinorUnits();
+
+	/**
+	 * Проверяет, может ли сумма быть сохранена без потери точности.
+	 *
+	 * @param amount сумма.
+	 * @return {@code true} если сумма может быть сохранена, иначе {@code false}.
+	 */
+	boolean isRepresentable(BigDecimal amount);
+
+	/**
+	 * Преобразовывает сумму в количество минимальных единиц валюты.
+	 *
+	 * @param amount сумма.
+	 * @return количество минимальных единиц.
+	 * @throws ArithmeticException если сумма содержит больше знаков после запятой, чем валюта,
+	 *                             или не помещается в {@code long}.
+	 */
+	long toMinorUnits(BigDecimal amount);
+
+	/**
+	 * Преобразовывает количество минимальных единиц валюты в сумму.
+	 *
+	 * @param minorUnits количество минимальных единиц.
+	 * @return сумма.
+	 */
+	BigDecimal toAmount(long minorUnits);
+
+	/**
+	 * Возвращает значение суммы для параметра запроса.
+	 *
+	 * @param amount сумма.
+	 * @return количество минимальных единиц, если суммы хранятся в них, иначе сумма.
+	 */
+	Object toColumn(BigDecimal amount);
+
+	/**
+	 * Возвращает сумму из результата запроса.
+	 *
+	 * @param resultSet   результат запроса.
+	 * @param columnLabel название столбца.
+	 * @return сумма или {@code null}, если значение столбца равно {@code NULL}.
+	 * @throws SQLException если значение столбца не может быть прочитано.
+	 */
+	BigDecimal getAmount(ResultSet resultSet, String columnLabel) throws SQLException;
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.money.impl;
+
+import dev.kalenchukov.wallet.money.AmountConverter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Objects;
+
+/**
+ * Класс преобразования сумм между приложением и хранилищем.
+ * Сумма в минимальных единицах - это сумма, умноженная на десять в степени количества знаков валюты,
+ * например, 10.07 при двух знаках хранится как 1007.
+ */
+@Component
+public class AmountConverterImpl implements AmountConverter {
+	/**
+	 * Максимальное количество знаков после запятой.
+	 * При большем количестве суммы около {@link Long#MAX_VALUE} теряют смысл.
+	 */
+	private static final int MAX_SCALE = 18;
+
+	/**
+	 * Признак хранения сумм в минимальных единицах валюты.
+	 */
+	private final boolean minorUnits;
+
+	/**
+	 * Количество знаков после запятой у валюты.
+	 */
+	private final int scale;
+
+	/**
+	 * Конструирует преобразователь сумм.
+	 *
+	 * @param minorUnits признак хранения сумм в минимальных единицах валюты.
+	 * @param scale      количество знаков после запятой у валюты.
+	 * @throws IllegalArgumentException если количество знаков меньше нуля или больше 18.
+	 */
+	@Autowired
+	public AmountConverterImpl(@Value("${money.minor-units}") final boolean minorUnits,
+							   @Value("${money.scale}") final int scale) {
+		if (scale < 0 || scale > MAX_SCALE) {
+			throw new IllegalArgumentException("Количество знаков валюты должно быть от 0 до 18.");
+		}
+
+		this.minorUnits = minorUnits;
+		this.scale = scale;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public boolean isMinorUnits() {
+		return this.minorUnits;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * Если суммы хранятся в {@code DECIMAL}, то любая сумма может быть сохранена.
+	 *
+	 * @param amount {@inheritDoc}
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public boolean isRepresentable(final BigDecimal amount) {
+		Objects.requireNonNull(amount);
+
+		if (!this.minorUnits) {
+			return true;
+		}
+
+		try {
+			this.toMinorUnits(amount);
+		} catch (ArithmeticException exception) {
+			return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param amount {@inheritDoc}
+	 * @return {@inheritDoc}
+	 * @throws ArithmeticException {@inheritDoc}
+	 */
+	@Override
+	public long toMinorUnits(final BigDecimal amount) {
+		Objects.requireNonNull(amount);
+
+		return amount.movePointRight(this.scale).longValueExact();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param minorUnits {@inheritDoc}
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public BigDecimal toAmount(final long minorUnits) {
+		return BigDecimal.valueOf(minorUnits, this.scale);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param amount {@inheritDoc}
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public Object toColumn(final BigDecimal amount) {
+		if (amount == null || !this.minorUnits) {
+			return amount;
+		}
+
+		return this.toMinorUnits(amount);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param resultSet   {@inheritDoc}
+	 * @param columnLabel {@inheritDoc}
+	 * @return {@inheritDoc}
+	 * @throws SQLException {@inheritDoc}
+	 */
+	@Override
+	public BigDecimal getAmount(final ResultSet resultSet, final String columnLabel) throws SQLException {
+		Objects.requireNonNull(resultSet);
+		Objects.requireNonNull(columnLabel);
+
+		if (!this.minorUnits) {
+			return resultSet.getBigDecimal(columnLabel);
+		}
+
+		long minorUnits = resultSet.getLong(columnLabel);
+		if (resultSet.wasNull()) {
+			return null;
+		}
+
+		return this.toAmount(minorUnits);
+	}
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.pipeline;
+
+import dev.kalenchukov.wallet.entity.Operation;
+import dev.kalenchukov.wallet.type.OperationType;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Интерфейс для реализации класса конвейера изменений счетов.
+ * Изменение проходит этапы проверки, сохранения и ответа,
+ * каждый этап обрабатывает изменения в порядке их поступления.
+ */
+public interface MutationPipeline {
+	/**
+	 * Проверяет, включён ли конвейер.
+	 *
+	 * @return {@code true}, если конвейер включён, иначе {@code false}.
+	 */
+	boolean isEnabled();
+
+	/**
+	 * Передаёт изменение суммы счёта в конвейер.
+	 * Результат завершается операцией после сохранения изменения
+	 * или исключением, которое выбросил бы сервис счетов.
+	 *
+	 * @param playerId      идентификатор игрока.
+	 * @param accountId     идентификатор счёта.
+	 * @param operationType тип операции.
+	 * @param amount        сумма.
+	 * @return результат изменения.
+	 * @throws IllegalArgumentException если тип операции не является пополнением или списанием.
+	 * @throws IllegalStateException    если конвейер не запущен или остановлен.
+	 */
+	CompletableFuture<Operation> submit(long playerId, long accountId, OperationType operationType, BigDecimal amount);
+}
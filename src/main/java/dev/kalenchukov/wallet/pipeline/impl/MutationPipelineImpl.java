@@ -0,0 +1,633 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.pipeline.impl;
+
+import dev.kalenchukov.wallet.entity.AmountChange;
+import dev.kalenchukov.wallet.entity.Operation;
+import dev.kalenchukov.wallet.exceptions.ApplicationException;
+import dev.kalenchukov.wallet.exceptions.InvalidScaleAmountException;
+import dev.kalenchukov.wallet.exceptions.NegativeAmountOperationException;
+import dev.kalenchukov.wallet.exceptions.NoAccessAccountException;
+import dev.kalenchukov.wallet.exceptions.NotFoundAccountException;
+import dev.kalenchukov.wallet.exceptions.OutOfAmountAccountException;
+import dev.kalenchukov.wallet.in.service.AccountService;
+import dev.kalenchukov.wallet.money.AmountConverter;
+import dev.kalenchukov.wallet.pipeline.MutationPipeline;
+import dev.kalenchukov.wallet.type.OperationType;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Класс конвейера изменений счетов на кольцевом буфере.
+ * Ячейки буфера создаются заранее и переиспользуются, этапы связаны счётчиками позиций:
+ * этап обрабатывает ячейку только после того, как её обработал предыдущий этап,
+ * а ячейка занимается новым изменением только после ответа по прежнему.
+ * Достаточность средств проверяется только хранилищем при сохранении изменений
+ * сервисом счетов пакетами по игрокам.
+ * Если этап завершается с ошибкой, конвейер перестаёт принимать изменения,
+ * а все ожидающие результаты завершаются исключением.
+ */
+@Component
+public class MutationPipelineImpl implements MutationPipeline {
+	/**
+	 * Количество попыток активного ожидания.
+	 */
+	private static final int SPIN_ATTEMPTS = 100;
+
+	/**
+	 * Количество попыток ожидания с уступкой процессора.
+	 */
+	private static final int YIELD_ATTEMPTS = 200;
+
+	/**
+	 * Время засыпания при отсутствии изменений в наносекундах.
+	 */
+	private static final long PARK_NANOS = 100_000L;
+
+	/**
+	 * Сервис счетов.
+	 */
+	private final AccountService accountService;
+
+	/**
+	 * Преобразователь сумм.
+	 */
+	private final AmountConverter amountConverter;
+
+	/**
+	 * Признак включения конвейера.
+	 */
+	private final boolean enabled;
+
+	/**
+	 * Маска позиции ячейки в буфере.
+	 */
+	private final int mask;
+
+	/**
+	 * Максимальное количество изменений, сохраняемых одним пакетом.
+	 */
+	private final int batchSize;
+
+	/**
+	 * Ячейки буфера.
+	 */
+	private final MutationEvent[] events;
+
+	/**
+	 * Номера изменений, опубликованных в ячейках буфера.
+	 */
+	private final AtomicLongArray published;
+
+	/**
+	 * Номер следующего занимаемого изменения.
+	 */
+	private final AtomicLong claimSequence;
+
+	/**
+	 * Номер последнего проверенного изменения.
+	 */
+	private final AtomicLong validateSequence;
+
+	/**
+	 * Номер последнего сохранённого изменения.
+	 */
+	private final AtomicLong persistSequence;
+
+	/**
+	 * Номер последнего изменения, по которому отправлен ответ.
+	 */
+	private final AtomicLong respondSequence;
+
+	/**
+	 * Результаты изменений, по которым ещё не отправлен ответ.
+	 */
+	private final Set<CompletableFuture<Operation>> pendingResults;
+
+	/**
+	 * Блокировка приёма изменений.
+	 * Проверка признака приёма и занятие ячейки выполняются под блокировкой чтения,
+	 * остановка под блокировкой записи.
+	 */
+	private final ReadWriteLock lock;
+
+	/**
+	 * Потоки этапов.
+	 */
+	private final List<Thread> threads;
+
+	/**
+	 * Признак приёма изменений.
+	 */
+	private volatile boolean running;
+
+	/**
+	 * Ошибка, с которой завершился этап.
+	 */
+	private volatile Throwable stageFailure;
+
+	/**
+	 * Конструирует конвейер.
+	 *
+	 * @param accountService  сервис счетов.
+	 * @param amountConverter преобразователь сумм.
+	 * @param enabled         признак включения конвейера.
+	 * @param bufferSize      количество ячеек буфера.
+	 * @param batchSize       максимальное количество изменений, сохраняемых одним пакетом.
+	 * @throws IllegalArgumentException если количество ячеек не является степенью двойки
+	 *                                  или размер пакета меньше единицы.
+	 */
+	@Autowired
+	public MutationPipelineImpl(final AccountService accountService, final AmountConverter amountConverter,
+								@Value("${pipeline.enabled}") final boolean enabled,
+								@Value("${pipeline.buffer-size}") final int bufferSize,
+								@Value("${pipeline.batch-size}") final int batchSize) {
+		Objects.requireNonNull(accountService);
+		Objects.requireNonNull(amountConverter);
+
+		if (bufferSize < 1 || Integer.bitCount(bufferSize) != 1) {
+			throw new IllegalArgumentException("Количество ячеек буфера должно быть степенью двойки.");
+		}
+
+		if (batchSize < 1) {
+			throw new IllegalArgumentException("Размер пакета должен быть больше нуля.");
+		}
+
+		this.accountService = accountService;
+		this.amountConverter = amountConverter;
+		this.enabled = enabled;
+		this.mask = bufferSize - 1;
+		this.batchSize = batchSize;
+		this.events = new MutationEvent[bufferSize];
+		this.published = new AtomicLongArray(bufferSize);
+		this.claimSequence = new AtomicLong();
+		this.validateSequence = new AtomicLong(-1L);
+		this.persistSequence = new AtomicLong(-1L);
+		this.respondSequence = new AtomicLong(-1L);
+		this.pendingResults = ConcurrentHashMap.newKeySet();
+		this.lock = new ReentrantReadWriteLock();
+		this.threads = new ArrayList<>();
+
+		for (int index = 0; index < bufferSize; index++) {
+			this.events[index] = new MutationEvent();
+			this.published.set(index, -1L);
+		}
+	}
+
+	/**
+	 * Запускает потоки этапов, если конвейер включён.
+	 */
+	@PostConstruct
+	public void start() {
+		if (!this.enabled || !this.threads.isEmpty()) {
+			return;
+		}
+
+		this.threads.add(new Thread(() -> this.runStage(this::getPublishedSequence, this.validateSequence,
+				this::validate), "mutation-pipeline-validate"));
+		this.threads.add(new Thread(() -> this.runStage(this.validateSequence::get, this.persistSequence,
+				this::persist), "mutation-pipeline-persist"));
+		this.threads.add(new Thread(() -> this.runStage(this.persistSequence::get, this.respondSequence,
+				this::respond), "mutation-pipeline-respond"));
+
+		this.running = true;
+		for (Thread thread : this.threads) {
+			thread.setDaemon(true);
+			thread.start();
+		}
+	}
+
+	/**
+	 * Останавливает конвейер.
+	 * Изменения, принятые до остановки, проходят все этапы перед остановкой потоков,
+	 * если ни один этап не завершился с ошибкой и ожидание не прервано.
+	 * Результаты, оставшиеся без ответа, завершаются исключением.
+	 *
+	 * @throws InterruptedException если ожидание остановки прервано.
+	 */
+	@PreDestroy
+	public void shutdown() throws InterruptedException {
+		this.stop();
+
+		try {
+			for (int attempt = 0; this.stageFailure == null
+					&& this.respondSequence.get() < this.claimSequence.get() - 1; attempt++) {
+				if (Thread.interrupted()) {
+					throw new InterruptedException();
+				}
+
+				idle(attempt);
+			}
+		} finally {
+			for (Thread thread : this.threads) {
+				thread.interrupt();
+			}
+
+			this.completePending(new IllegalStateException("Конвейер изменений счетов остановлен."));
+		}
+
+		for (Thread thread : this.threads) {
+			thread.join();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public boolean isEnabled() {
+		return this.enabled;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * Если все ячейки буфера заняты, ожидает освобождения ячейки.
+	 *
+	 * @param playerId      {@inheritDoc}
+	 * @param accountId     {@inheritDoc}
+	 * @param operationType {@inheritDoc}
+	 * @param amount        {@inheritDoc}
+	 * @return {@inheritDoc}
+	 * @throws IllegalArgumentException {@inheritDoc}
+	 * @throws IllegalStateException    {@inheritDoc}
+	 */
+	@Override
+	public CompletableFuture<Operation> submit(final long playerId, final long accountId,
+											   final OperationType operationType, final BigDecimal amount) {
+		Objects.requireNonNull(operationType);
+		Objects.requireNonNull(amount);
+
+		if (operationType != OperationType.CREDIT && operationType != OperationType.DEBIT) {
+			throw new IllegalArgumentException("Конвейер выполняет только пополнения и списания.");
+		}
+
+		CompletableFuture<Operation> result = new CompletableFuture<>();
+
+		this.lock.readLock().lock();
+		try {
+			if (!this.running) {
+				throw new IllegalStateException("Конвейер изменений счетов не запущен.");
+			}
+
+			long sequence = this.claimSequence.getAndIncrement();
+			long wrapSequence = sequence - this.events.length;
+			for (int attempt = 0; this.stageFailure == null && this.respondSequence.get() < wrapSequence; attempt++) {
+				idle(attempt);
+			}
+
+			if (this.stageFailure != null) {
+				result.completeExceptionally(new IllegalStateException(
+						"Этап конвейера изменений счетов завершился с ошибкой.", this.stageFailure
+				));
+				return result;
+			}
+
+			this.pendingResults.add(result);
+
+			int index = (int) (sequence & this.mask);
+			this.events[index].set(playerId, accountId, operationType, amount, result);
+			this.published.set(index, sequence);
+		} finally {
+			this.lock.readLock().unlock();
+		}
+
+		return result;
+	}
+
+	/**
+	 * Выполняет этап: ожидает изменения, обработанные предыдущим этапом, обрабатывает их
+	 * и сдвигает номер последнего обработанного изменения.
+	 * Завершается при прерывании потока или ошибке обработчика,
+	 * после которой конвейер останавливается.
+	 *
+	 * @param barrier  номер последнего изменения, обработанного предыдущим этапом.
+	 * @param sequence номер последнего изменения, обработанного этапом.
+	 * @param stage    обработчик изменений.
+	 */
+	private void runStage(final LongSupplier barrier, final AtomicLong sequence, final Stage stage) {
+		int attempt = 0;
+
+		while (!Thread.currentThread().isInterrupted()) {
+			long from = sequence.get() + 1;
+			long to = barrier.getAsLong();
+
+			if (to < from) {
+				idle(attempt++);
+				continue;
+			}
+
+			attempt = 0;
+
+			try {
+				sequence.set(stage.process(from, to));
+			} catch (RuntimeException | Error exception) {
+				this.fail(exception);
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Останавливает приём изменений после ошибки этапа и завершает исключением
+	 * все результаты, по которым ещё не отправлен ответ.
+	 *
+	 * @param cause ошибка этапа.
+	 */
+	private void fail(final Throwable cause) {
+		if (this.stageFailure == null) {
+			this.stageFailure = cause;
+		}
+
+		this.stop();
+		this.completePending(new IllegalStateException(
+				"Этап конвейера изменений счетов завершился с ошибкой.", cause
+		));
+	}
+
+	/**
+	 * Прекращает приём изменений.
+	 * Ожидает завершения занятия ячеек, начатого до остановки.
+	 */
+	private void stop() {
+		this.lock.writeLock().lock();
+		try {
+			this.running = false;
+		} finally {
+			this.lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Завершает исключением результаты, по которым ещё не отправлен ответ.
+	 *
+	 * @param exception исключение.
+	 */
+	private void completePending(final Exception exception) {
+		for (CompletableFuture<Operation> result : this.pendingResults) {
+			result.completeExceptionally(exception);
+			this.pendingResults.remove(result);
+		}
+	}
+
+	/**
+	 * Проверяет суммы изменений.
+	 *
+	 * @param from номер первого изменения.
+	 * @param to   номер последнего изменения.
+	 * @return номер последнего обработанного изменения.
+	 */
+	private long validate(final long from, final long to) {
+		for (long sequence = from; sequence <= to; sequence++) {
+			MutationEvent event = this.getEvent(sequence);
+
+			if (event.amount.compareTo(BigDecimal.ZERO) < 0) {
+				event.failure = new NegativeAmountOperationException(event.amount);
+			} else if (!this.amountConverter.isRepresentable(event.amount)) {
+				event.failure = new InvalidScaleAmountException(event.amount);
+			}
+		}
+
+		return to;
+	}
+
+	/**
+	 * Сохраняет изменения пакетами по игрокам.
+	 *
+	 * @param from номер первого изменения.
+	 * @param to   номер последнего изменения.
+	 * @return номер последнего обработанного изменения.
+	 */
+	private long persist(final long from, final long to) {
+		long last = Math.min(to, from + this.batchSize - 1);
+		Map<Long, List<MutationEvent>> playerEvents = new LinkedHashMap<>();
+
+		for (long sequence = from; sequence <= last; sequence++) {
+			MutationEvent event = this.getEvent(sequence);
+
+			if (event.failure == null) {
+				playerEvents.computeIfAbsent(event.playerId, playerId -> new ArrayList<>()).add(event);
+			}
+		}
+
+		for (Map.Entry<Long, List<MutationEvent>> entry : playerEvents.entrySet()) {
+			List<Operation> operations = new ArrayList<>(entry.getValue().size());
+			for (MutationEvent event : entry.getValue()) {
+				operations.add(new Operation(0L, event.playerId, event.accountId, event.operationType, event.amount));
+			}
+
+			try {
+				List<AmountChange> amountChanges = this.accountService.changeAmounts(entry.getKey(), operations,
+						false
+				);
+
+				if (amountChanges.size() != operations.size()) {
+					throw new IllegalStateException("Количество результатов не совпадает с количеством изменений.");
+				}
+
+				for (int index = 0; index < amountChanges.size(); index++) {
+					entry.getValue().get(index).amountChange = amountChanges.get(index);
+				}
+			} catch (ApplicationException | RuntimeException exception) {
+				for (MutationEvent event : entry.getValue()) {
+					event.failure = exception;
+				}
+			}
+		}
+
+		return last;
+	}
+
+	/**
+	 * Завершает результаты изменений и освобождает их ячейки.
+	 *
+	 * @param from номер первого изменения.
+	 * @param to   номер последнего изменения.
+	 * @return номер последнего обработанного изменения.
+	 */
+	private long respond(final long from, final long to) {
+		for (long sequence = from; sequence <= to; sequence++) {
+			MutationEvent event = this.getEvent(sequence);
+
+			if (event.failure != null) {
+				event.result.completeExceptionally(event.failure);
+			} else {
+				AmountChange amountChange = event.amountChange;
+
+				switch (amountChange.getStatus()) {
+					case SUCCESS -> event.result.complete(new Operation(amountChange.getOperationId(),
+							event.playerId, event.accountId, event.operationType, event.amount
+					));
+					case NOT_FOUND_ACCOUNT -> event.result.completeExceptionally(
+							new NotFoundAccountException(event.accountId)
+					);
+					case NO_ACCESS_ACCOUNT -> event.result.completeExceptionally(
+							new NoAccessAccountException(event.accountId)
+					);
+					default -> event.result.completeExceptionally((event.operationType == OperationType.DEBIT)
+							? new OutOfAmountAccountException(amountChange.getAmount())
+							: new RuntimeException("Не удалось выполнить пополнение счёта.")
+					);
+				}
+			}
+
+			this.pendingResults.remove(event.result);
+			event.clear();
+		}
+
+		return to;
+	}
+
+	/**
+	 * Возвращает номер последнего опубликованного изменения,
+	 * перед которым опубликованы все изменения.
+	 *
+	 * @return номер изменения.
+	 */
+	private long getPublishedSequence() {
+		long sequence = this.validateSequence.get();
+
+		while (this.published.get((int) ((sequence + 1) & this.mask)) == sequence + 1) {
+			sequence++;
+		}
+
+		return sequence;
+	}
+
+	/**
+	 * Возвращает ячейку изменения.
+	 *
+	 * @param sequence номер изменения.
+	 * @return ячейку.
+	 */
+	private MutationEvent getEvent(final long sequence) {
+		return this.events[(int) (sequence & this.mask)];
+	}
+
+	/**
+	 * Ожидает изменения: сначала активно, затем с уступкой процессора, затем засыпая.
+	 *
+	 * @param attempt номер попытки.
+	 */
+	private static void idle(final int attempt) {
+		if (attempt < SPIN_ATTEMPTS) {
+			Thread.onSpinWait();
+		} else if (attempt < YIELD_ATTEMPTS) {
+			Thread.yield();
+		} else {
+			LockSupport.parkNanos(PARK_NANOS);
+		}
+	}
+
+	/**
+	 * Интерфейс обработчика изменений этапа.
+	 */
+	@FunctionalInterface
+	private interface Stage {
+		/**
+		 * Обрабатывает изменения.
+		 *
+		 * @param from номер первого изменения.
+		 * @param to   номер последнего изменения.
+		 * @return номер последнего обработанного изменения.
+		 */
+		long process(long from, long to);
+	}
+
+	/**
+	 * Класс ячейки буфера.
+	 * Поля ячейки записываются этапами по очереди, видимость записей
+	 * обеспечивается счётчиками позиций этапов.
+	 */
+	private static final class MutationEvent {
+		/**
+		 * Идентификатор игрока.
+		 */
+		private long playerId;
+
+		/**
+		 * Идентификатор счёта.
+		 */
+		private long accountId;
+
+		/**
+		 * Тип операции.
+		 */
+		private OperationType operationType;
+
+		/**
+		 * Сумма.
+		 */
+		private BigDecimal amount;
+
+		/**
+		 * Результат изменения.
+		 */
+		private CompletableFuture<Operation> result;
+
+		/**
+		 * Исключение, с которым завершится изменение.
+		 */
+		private Exception failure;
+
+		/**
+		 * Результат сохранения изменения.
+		 */
+		private AmountChange amountChange;
+
+		/**
+		 * Заполняет ячейку новым изменением.
+		 *
+		 * @param playerId      идентификатор игрока.
+		 * @param accountId     идентификатор счёта.
+		 * @param operationType тип операции.
+		 * @param amount        сумма.
+		 * @param result        результат изменения.
+		 */
+		private void set(final long playerId, final long accountId, final OperationType operationType,
+						 final BigDecimal amount, final CompletableFuture<Operation> result) {
+			this.playerId = playerId;
+			this.accountId = accountId;
+			this.operationType = operationType;
+			this.amount = amount;
+			this.result = result;
+			this.failure = null;
+			this.amountChange = null;
+		}
+
+		/**
+		 * Очищает ссылки ячейки после ответа.
+		 */
+		private void clear() {
+			this.operationType = null;
+			this.amount = null;
+			this.result = null;
+			this.failure = null;
+			this.amountChange = null;
+		}
+	}
+}
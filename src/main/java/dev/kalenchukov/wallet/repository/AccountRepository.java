@@ -7,8 +7,13 @@
 package dev.kalenchukov.wallet.repository;
 
 import dev.kalenchukov.wallet.entity.Account;
+import dev.kalenchukov.wallet.entity.AmountChange;
+import dev.kalenchukov.wallet.entity.Operation;
+import dev.kalenchukov.wallet.entity.TransferChange;
+import dev.kalenchukov.wallet.type.OperationType;
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -33,8 +38,77 @@ public interface AccountRepository {
 	 */
 	boolean updateAmount(final long playerId, long accountId, BigDecimal amount);
 
+	/**
+	 * Проверяет, распределена ли сумма счёта по частям.
+	 * Изменения распределённого счёта не упорядочиваются блокировкой счёта,
+	 * так как выполняются над разными частями суммы.
+	 *
+	 * @param accountId идентификатор счёта.
+	 * @return {@code true} если сумма счёта распределена, иначе {@code false}.
+	 */
+	boolean isSharded(long accountId);
+
+	/**
+	 * Изменяет сумму счёта на сумму операции и добавляет операцию.
+	 * Проверка владельца, проверка достаточности средств, изменение суммы и добавление операции
+	 * выполняются одним запросом.
+	 *
+	 * @param playerId      идентификатор игрока.
+	 * @param accountId     идентификатор счёта.
+	 * @param operationType тип операции.
+	 * @param amount        сумма операции.
+	 * @return результат изменения суммы счёта.
+	 */
+	AmountChange changeAmount(long playerId, long accountId, OperationType operationType, BigDecimal amount);
+
+	/**
+	 * Изменяет сумму счёта на сумму операции, добавляет операцию и завершает ключ идемпотентности.
+	 * Изменение выполняется, только если ключ зарезервирован и ещё не завершён,
+	 * поэтому запрос с освобождённым ключом не изменяет сумму счёта.
+	 * Изменение суммы, добавление операции и завершение ключа выполняются в одной транзакции.
+	 *
+	 * @param playerId       идентификатор игрока.
+	 * @param accountId      идентификатор счёта.
+	 * @param operationType  тип операции.
+	 * @param amount         сумма операции.
+	 * @param idempotencyKey ключ идемпотентности.
+	 * @return результат изменения суммы счёта.
+	 */
+	AmountChange changeAmount(long playerId, long accountId, OperationType operationType, BigDecimal amount,
+							  String idempotencyKey);
+
+	/**
+	 * Изменяет суммы счетов на суммы операций пакета и добавляет операции.
+	 * Пакет выполняется в одной транзакции: счета блокируются по возрастанию идентификатора,
+	 * изменения применяются по порядку, после чего суммы счетов обновляются и операции добавляются
+	 * пакетными запросами. Если требуется выполнить все изменения, то при неудаче любого из них
+	 * не выполняется ни одно, а удачные получают статус {@link dev.kalenchukov.wallet.type.AmountChangeStatus#ROLLED_BACK}.
+	 *
+	 * @param playerId     идентификатор игрока.
+	 * @param operations   операции.
+	 * @param allOrNothing {@code true} если требуется выполнить все изменения или ни одного.
+	 * @return результаты изменения сумм счетов в порядке операций.
+	 * @throws IllegalArgumentException если какая-либо операция не является пополнением или списанием.
+	 */
+	List<AmountChange> changeAmounts(long playerId, List<Operation> operations, boolean allOrNothing);
+
+	/**
+	 * Переводит сумму между счетами игрока и добавляет две связанные операции.
+	 * Оба счёта блокируются по возрастанию идентификатора, проверки, изменение сумм и добавление операций
+	 * выполняются одним запросом.
+	 *
+	 * @param playerId      идентификатор игрока.
+	 * @param fromAccountId идентификатор счёта списания.
+	 * @param toAccountId   идентификатор счёта зачисления.
+	 * @param amount        сумма перевода.
+	 * @return результат перевода.
+	 * @throws IllegalArgumentException если счёт списания совпадает со счётом зачисления.
+	 */
+	TransferChange transfer(long playerId, long fromAccountId, long toAccountId, BigDecimal amount);
+
 	/**
 	 * Возвращает счёт.
+	 * Сумма распределённого счёта возвращается как сумма всех его частей.
 	 *
 	 * @param playerId  идентификатор игрока.
 	 * @param accountId идентификатор счёта.
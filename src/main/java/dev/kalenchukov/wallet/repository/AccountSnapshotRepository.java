@@ -0,0 +1,61 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.repository;
+
+import dev.kalenchukov.wallet.entity.AccountSnapshot;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Интерфейс для реализации класса хранилища снимков сумм счетов.
+ * Сумма счёта восстанавливается по последнему снимку и операциям счёта после него.
+ */
+public interface AccountSnapshotRepository {
+	/**
+	 * Возвращает последний снимок суммы счёта.
+	 *
+	 * @param accountId идентификатор счёта.
+	 * @return снимок суммы счёта.
+	 */
+	Optional<AccountSnapshot> findLast(long accountId);
+
+	/**
+	 * Восстанавливает сумму счёта по последнему снимку и операциям счёта после него.
+	 * Если снимков счёта нет, сумма восстанавливается по всем операциям счёта.
+	 *
+	 * @param accountId идентификатор счёта.
+	 * @return снимок текущей суммы счёта без сохранения.
+	 */
+	AccountSnapshot replay(long accountId);
+
+	/**
+	 * Сохраняет снимок текущей суммы счёта.
+	 * Счёт блокируется на время создания снимка, поэтому снимок учитывает все завершённые операции счёта.
+	 * Если после последнего снимка операций не было, новый снимок не сохраняется.
+	 *
+	 * @param accountId идентификатор счёта.
+	 * @return последний снимок суммы счёта или пустое значение, если счёт не найден.
+	 */
+	Optional<AccountSnapshot> snapshot(long accountId);
+
+	/**
+	 * Возвращает идентификатор последней операции.
+	 *
+	 * @return идентификатор последней операции или {@code 0}, если операций нет.
+	 */
+	long findLastOperationId();
+
+	/**
+	 * Подсчитывает операции по счетам.
+	 *
+	 * @param fromOperationId идентификатор операции, после которой выполняется подсчёт.
+	 * @param toOperationId   идентификатор последней учитываемой операции.
+	 * @return количество операций по идентификаторам счетов.
+	 */
+	Map<Long, Long> countOperations(long fromOperationId, long toOperationId);
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.repository;
+
+import dev.kalenchukov.wallet.entity.Account;
+import dev.kalenchukov.wallet.entity.AmountChange;
+import dev.kalenchukov.wallet.type.OperationType;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+/**
+ * Интерфейс для реализации класса хранилища счетов, сумма которых выводится из журнала операций.
+ * Изменение такого счёта только добавляет операцию, а сумма счёта восстанавливается
+ * по последнему снимку и операциям счёта после него.
+ */
+public interface EventSourcedAccountRepository {
+	/**
+	 * Проверяет, выводится ли сумма счёта из журнала операций.
+	 *
+	 * @param accountId идентификатор счёта.
+	 * @return {@code true} если сумма счёта выводится из журнала операций, иначе {@code false}.
+	 */
+	boolean isEventSourced(long accountId);
+
+	/**
+	 * Изменяет сумму счёта добавлением операции.
+	 * Достаточность средств проверяется по сумме, восстановленной из журнала операций, сумма счёта не изменяется.
+	 *
+	 * @param playerId      идентификатор игрока.
+	 * @param accountId     идентификатор счёта.
+	 * @param operationType тип операции.
+	 * @param amount        сумма операции.
+	 * @return результат изменения суммы счёта.
+	 * @throws IllegalArgumentException если тип операции не является пополнением или списанием.
+	 */
+	AmountChange changeAmount(long playerId, long accountId, OperationType operationType, BigDecimal amount);
+
+	/**
+	 * Возвращает счёт с суммой, восстановленной из журнала операций.
+	 *
+	 * @param playerId  идентификатор игрока.
+	 * @param accountId идентификатор счёта.
+	 * @return счёт.
+	 */
+	Optional<Account> findById(long playerId, long accountId);
+
+	/**
+	 * Записывает сумму, восстановленную из журнала операций, в сумму счёта,
+	 * после чего счёт может быть изменён в хранилище напрямую.
+	 * Должен вызываться под блокировкой счёта.
+	 *
+	 * @param accountId идентификатор счёта.
+	 */
+	void release(long accountId);
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.repository;
+
+import dev.kalenchukov.wallet.entity.AmountChange;
+
+import java.math.BigDecimal;
+import java.util.Set;
+
+/**
+ * Интерфейс для реализации класса хранилища горячих счетов.
+ * Пополнения горячих счетов накапливаются в памяти и записываются в счёт одним изменением.
+ */
+public interface HotAccountRepository {
+	/**
+	 * Проверяет, является ли счёт горячим.
+	 *
+	 * @param accountId идентификатор счёта.
+	 * @return {@code true} если счёт горячий, иначе {@code false}.
+	 */
+	boolean isHot(long accountId);
+
+	/**
+	 * Возвращает идентификаторы горячих счетов.
+	 *
+	 * @return идентификаторы горячих счетов.
+	 */
+	Set<Long> getHotAccountIds();
+
+	/**
+	 * Пополняет горячий счёт.
+	 * Пополнение накапливается вместе с операцией и завершается после записи группы пополнений.
+	 *
+	 * @param playerId  идентификатор игрока.
+	 * @param accountId идентификатор счёта.
+	 * @param amount    сумма операции.
+	 * @return результат изменения суммы счёта.
+	 */
+	AmountChange credit(long playerId, long accountId, BigDecimal amount);
+
+	/**
+	 * Записывает накопленные пополнения счёта в одной транзакции: сумма счёта изменяется
+	 * на сумму пополнений одним изменением, операции пополнений добавляются пакетом.
+	 * Пополнения, поступившие во время записи, остаются накопленными до следующей записи.
+	 *
+	 * @param accountId идентификатор счёта.
+	 */
+	void flush(long accountId);
+}
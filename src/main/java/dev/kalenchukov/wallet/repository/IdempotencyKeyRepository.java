@@ -0,0 +1,67 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.repository;
+
+import dev.kalenchukov.wallet.entity.IdempotencyKey;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Интерфейс для реализации класса хранилища ключей идемпотентности.
+ */
+public interface IdempotencyKeyRepository {
+	/**
+	 * Резервирует ключ идемпотентности.
+	 *
+	 * @param idempotencyKey ключ идемпотентности.
+	 * @return {@code true} если ключ зарезервирован, иначе {@code false}, если ключ уже существует.
+	 */
+	boolean reserve(IdempotencyKey idempotencyKey);
+
+	/**
+	 * Сохраняет результат запроса с ключом идемпотентности.
+	 * Используется, если ключ не может быть завершён в транзакции изменения счёта.
+	 *
+	 * @param idempotencyKey ключ идемпотентности с результатом запроса.
+	 */
+	void complete(IdempotencyKey idempotencyKey);
+
+	/**
+	 * Возвращает ключ идемпотентности.
+	 *
+	 * @param playerId идентификатор игрока.
+	 * @param key      ключ.
+	 * @return ключ идемпотентности.
+	 */
+	Optional<IdempotencyKey> find(long playerId, String key);
+
+	/**
+	 * Освобождает незавершённый ключ идемпотентности.
+	 * Завершённый ключ не освобождается.
+	 *
+	 * @param playerId идентификатор игрока.
+	 * @param key      ключ.
+	 */
+	void release(long playerId, String key);
+
+	/**
+	 * Освобождает незавершённые ключи идемпотентности, созданные ранее указанного момента.
+	 *
+	 * @param before момент.
+	 * @return количество освобождённых ключей.
+	 */
+	int releaseCreatedBefore(Instant before);
+
+	/**
+	 * Удаляет ключи идемпотентности, созданные ранее указанного момента.
+	 *
+	 * @param before момент.
+	 * @return количество удалённых ключей.
+	 */
+	int removeCreatedBefore(Instant before);
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.repository;
+
+import dev.kalenchukov.wallet.entity.Account;
+import dev.kalenchukov.wallet.entity.AmountChange;
+import dev.kalenchukov.wallet.type.OperationType;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+/**
+ * Интерфейс для реализации класса хранилища журналируемых счетов.
+ * Изменения журналируемых счетов подтверждаются после записи в локальный журнал
+ * и сохраняются в счета и операции позже, пакетами.
+ */
+public interface JournalAccountRepository {
+	/**
+	 * Проверяет, является ли счёт журналируемым.
+	 *
+	 * @param accountId идентификатор счёта.
+	 * @return {@code true} если счёт журналируемый, иначе {@code false}.
+	 */
+	boolean isJournaled(long accountId);
+
+	/**
+	 * Изменяет сумму журналируемого счёта.
+	 * Операция записывается в журнал, сумма счёта изменяется в памяти.
+	 * Должен вызываться под блокировкой счёта.
+	 *
+	 * @param playerId      идентификатор игрока.
+	 * @param accountId     идентификатор счёта.
+	 * @param operationType тип операции.
+	 * @param amount        сумма операции.
+	 * @return результат изменения суммы счёта.
+	 * @throws IllegalArgumentException если тип операции не является пополнением или списанием.
+	 */
+	AmountChange changeAmount(long playerId, long accountId, OperationType operationType, BigDecimal amount);
+
+	/**
+	 * Возвращает журналируемый счёт с суммой, учитывающей ещё не сохранённые операции.
+	 *
+	 * @param playerId  идентификатор игрока.
+	 * @param accountId идентификатор счёта.
+	 * @return счёт.
+	 */
+	Optional<Account> findById(long playerId, long accountId);
+
+	/**
+	 * Сохраняет операции журнала в счета и операции.
+	 */
+	void drain();
+
+	/**
+	 * Сохраняет операции журнала и забывает сумму счёта в памяти,
+	 * после чего счёт может быть изменён в хранилище напрямую.
+	 * Должен вызываться под блокировкой счёта.
+	 *
+	 * @param accountId идентификатор счёта.
+	 */
+	void release(long accountId);
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.repository;
+
+import dev.kalenchukov.wallet.entity.Operation;
+
+import java.time.Instant;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * Интерфейс для реализации класса хранилища секций таблицы операций.
+ * Таблица операций секционирована по месяцам времени создания операции в UTC.
+ */
+public interface OperationPartitionRepository {
+	/**
+	 * Возвращает месяцы существующих секций.
+	 *
+	 * @return месяцы секций в порядке возрастания.
+	 */
+	List<YearMonth> find();
+
+	/**
+	 * Создаёт секцию для операций месяца, если она ещё не существует.
+	 *
+	 * @param month месяц.
+	 */
+	void create(YearMonth month);
+
+	/**
+	 * Передаёт операции секции месяца и время их создания в порядке возрастания
+	 * идентификаторов счетов, затем игроков, затем операций.
+	 *
+	 * @param month    месяц.
+	 * @param consumer получатель операций и времени их создания.
+	 */
+	void export(YearMonth month, BiConsumer<Operation, Instant> consumer);
+
+	/**
+	 * Возвращает идентификаторы счетов, операции которых находятся в секции месяца.
+	 *
+	 * @param month месяц.
+	 * @return идентификаторы счетов в порядке возрастания.
+	 */
+	List<Long> findAccountIds(YearMonth month);
+
+	/**
+	 * Отсоединяет секцию месяца от таблицы операций и удаляет её вместе с операциями.
+	 *
+	 * @param month месяц.
+	 */
+	void drop(YearMonth month);
+}
@@ -7,9 +7,13 @@
 package dev.kalenchukov.wallet.repository;
 
 import dev.kalenchukov.wallet.entity.Operation;
+import dev.kalenchukov.wallet.entity.OperationSummary;
 
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Интерфейс для реализации класса хранилища операций.
@@ -23,6 +27,14 @@ public interface OperationRepository {
 	 */
 	Operation save(Operation operation);
 
+	/**
+	 * Сохраняет операции одним пакетом в одной транзакции.
+	 *
+	 * @param operations операции.
+	 * @return операции в порядке переданных операций.
+	 */
+	List<Operation> saveAll(List<Operation> operations);
+
 	/**
 	 * Возвращает операцию.
 	 *
@@ -41,4 +53,49 @@ public interface OperationRepository {
 	 * @return найденные операции.
 	 */
 	List<Operation> find(long playerId, long accountId);
+
+	/**
+	 * Ищет операции, предшествующие операции.
+	 *
+	 * @param playerId          идентификатор игрока.
+	 * @param accountId         идентификатор счёта.
+	 * @param beforeOperationId идентификатор операции, до которой ищутся операции.
+	 * @param limit             максимальное количество операций.
+	 * @return найденные операции в порядке убывания идентификаторов.
+	 */
+	List<Operation> findBefore(long playerId, long accountId, long beforeOperationId, int limit);
+
+	/**
+	 * Ищет операции, следующие за операцией.
+	 *
+	 * @param playerId         идентификатор игрока.
+	 * @param accountId        идентификатор счёта.
+	 * @param afterOperationId идентификатор операции, после которой ищутся операции.
+	 * @param limit            максимальное количество операций.
+	 * @return найденные операции в порядке возрастания идентификаторов.
+	 */
+	List<Operation> findAfter(long playerId, long accountId, long afterOperationId, int limit);
+
+	/**
+	 * Передаёт операции счёта, созданные в периоде, получателю по одной в порядке возрастания идентификаторов.
+	 * Операции читаются из хранилища частями и не накапливаются в памяти.
+	 *
+	 * @param playerId  идентификатор игрока.
+	 * @param accountId идентификатор счёта.
+	 * @param from      начало периода создания операций включительно или {@code null}, если период не ограничен снизу.
+	 * @param to        конец периода создания операций исключительно или {@code null}, если период не ограничен сверху.
+	 * @param consumer  получатель операций.
+	 */
+	void export(long playerId, long accountId, Instant from, Instant to, Consumer<Operation> consumer);
+
+	/**
+	 * Возвращает итоги операций счёта по типам за период из итогов по дням.
+	 *
+	 * @param playerId  идентификатор игрока.
+	 * @param accountId идентификатор счёта.
+	 * @param from      первый день периода по UTC.
+	 * @param to        последний день периода по UTC.
+	 * @return итоги операций в порядке типов операций.
+	 */
+	List<OperationSummary> summarize(long playerId, long accountId, LocalDate from, LocalDate to);
 }
@@ -7,38 +7,138 @@
 package dev.kalenchukov.wallet.repository.impl;
 
 import dev.kalenchukov.wallet.entity.Account;
+import dev.kalenchukov.wallet.entity.AmountChange;
+import dev.kalenchukov.wallet.entity.Operation;
+import dev.kalenchukov.wallet.entity.TransferChange;
+import dev.kalenchukov.wallet.money.AmountConverter;
 import dev.kalenchukov.wallet.repository.AccountRepository;
+import dev.kalenchukov.wallet.repository.OperationRepository;
+import dev.kalenchukov.wallet.type.AmountChangeStatus;
+import dev.kalenchukov.wallet.type.OperationType;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Класс хранилища счетов.
  */
 @Repository
+@Profile("!memory")
 public class AccountRepositoryImpl implements AccountRepository {
 	/**
 	 * Источник данных.
 	 */
 	private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
 
+	/**
+	 * Шаблон транзакций.
+	 */
+	private final TransactionTemplate transactionTemplate;
+
+	/**
+	 * Хранилище операций.
+	 */
+	private final OperationRepository operationRepository;
+
+	/**
+	 * Преобразователь сумм.
+	 */
+	private final AmountConverter amountConverter;
+
+	/**
+	 * Идентификаторы распределённых счетов.
+	 */
+	private final Set<Long> shardedAccountIds;
+
+	/**
+	 * Количество частей суммы распределённого счёта.
+	 */
+	private final int slots;
+
+	/**
+	 * Групповое выполнение изменений сумм счетов.
+	 * Равно {@code null}, если групповое сохранение отключено.
+	 */
+	private final GroupCommit<Operation, AmountChange> groupCommit;
+
 	/**
 	 * Конструирует хранилище счетов.
 	 *
 	 * @param namedParameterJdbcTemplate источник данных.
+	 * @param transactionTemplate        шаблон транзакций.
+	 * @param operationRepository        хранилище операций.
+	 * @param amountConverter            преобразователь сумм.
+	 * @param shardedAccountIds          идентификаторы распределённых счетов.
+	 * @param slots                      количество частей суммы распределённого счёта.
+	 * @param groupCommitEnabled         признак группового сохранения операций.
+	 * @param groupCommitMaxDelay        максимальное время ожидания группы в миллисекундах.
+	 * @param groupCommitMaxBatchSize    максимальный размер группы.
+	 * @throws IllegalArgumentException если количество частей или размер группы меньше единицы
+	 *                                  или время ожидания группы отрицательное.
 	 */
 	@Autowired
-	public AccountRepositoryImpl(final NamedParameterJdbcTemplate namedParameterJdbcTemplate) {
+	public AccountRepositoryImpl(final NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+								 final TransactionTemplate transactionTemplate,
+								 final OperationRepository operationRepository,
+								 final AmountConverter amountConverter,
+								 @Value("${sharded-accounts.ids}") final Set<Long> shardedAccountIds,
+								 @Value("${sharded-accounts.slots}") final int slots,
+								 @Value("${operation-group-commit.enabled}") final boolean groupCommitEnabled,
+								 @Value("${operation-group-commit.max-delay}") final long groupCommitMaxDelay,
+								 @Value("${operation-group-commit.max-batch-size}") final int groupCommitMaxBatchSize) {
 		Objects.requireNonNull(namedParameterJdbcTemplate);
+		Objects.requireNonNull(transactionTemplate);
+		Objects.requireNonNull(operationRepository);
+		Objects.requireNonNull(amountConverter);
+		Objects.requireNonNull(shardedAccountIds);
+
+		if (slots < 1) {
+			throw new IllegalArgumentException("Количество частей суммы счёта должно быть больше нуля.");
+		}
+
 		this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+		this.transactionTemplate = transactionTemplate;
+		this.operationRepository = operationRepository;
+		this.amountConverter = amountConverter;
+		this.shardedAccountIds = Set.copyOf(shardedAccountIds);
+		this.slots = slots;
+		this.groupCommit = groupCommitEnabled
+				? new GroupCommit<>("account-group-commit", groupCommitMaxDelay, groupCommitMaxBatchSize,
+						operations -> this.applyChanges(operations, false))
+				: null;
+	}
+
+	/**
+	 * Останавливает групповое выполнение изменений сумм счетов.
+	 * Изменения, оставшиеся в очереди, выполняются перед остановкой.
+	 *
+	 * @throws InterruptedException если ожидание остановки прервано.
+	 */
+	@PreDestroy
+	public void shutdown() throws InterruptedException {
+		if (this.groupCommit != null) {
+			this.groupCommit.shutdown();
+		}
 	}
 
 	/**
@@ -58,7 +158,7 @@ public class AccountRepositoryImpl implements AccountRepository {
 
 		MapSqlParameterSource mapSqlParameterSource = new MapSqlParameterSource();
 		mapSqlParameterSource.addValue("player_id", account.getPlayerId());
-		mapSqlParameterSource.addValue("amount", account.getAmount());
+		mapSqlParameterSource.addValue("amount", this.amountConverter.toColumn(account.getAmount()));
 
 		KeyHolder keyHolder = new GeneratedKeyHolder();
 		this.namedParameterJdbcTemplate.update(query, mapSqlParameterSource, keyHolder);
@@ -88,11 +188,387 @@ public class AccountRepositoryImpl implements AccountRepository {
 		MapSqlParameterSource mapSqlParameterSource = new MapSqlParameterSource();
 		mapSqlParameterSource.addValue("player_id", playerId);
 		mapSqlParameterSource.addValue("account_id", accountId);
-		mapSqlParameterSource.addValue("amount", amount);
+		mapSqlParameterSource.addValue("amount", this.amountConverter.toColumn(amount));
+
+		if (!this.isSharded(accountId)) {
+			return (this.namedParameterJdbcTemplate.update(query, mapSqlParameterSource) > 0);
+		}
+
+		String clearQuery = """
+				DELETE FROM account_slots
+				WHERE account_id = :account_id
+				""";
+
+		return Boolean.TRUE.equals(this.transactionTemplate.execute(status -> {
+			int countUpdate = this.namedParameterJdbcTemplate.update(query, mapSqlParameterSource);
+			if (countUpdate > 0) {
+				this.namedParameterJdbcTemplate.update(clearQuery, mapSqlParameterSource);
+			}
+
+			return (countUpdate > 0);
+		}));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param accountId {@inheritDoc}
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public boolean isSharded(final long accountId) {
+		return this.shardedAccountIds.contains(accountId);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * В режиме группового сохранения изменение ставится в очередь и выполняется в одной транзакции
+	 * с изменениями других запросов, поступивших в то же окно: счета группы блокируются
+	 * по возрастанию идентификатора, суммы счетов обновляются и операции добавляются пакетными запросами.
+	 *
+	 * @param playerId      {@inheritDoc}
+	 * @param accountId     {@inheritDoc}
+	 * @param operationType {@inheritDoc}
+	 * @param amount        {@inheritDoc}
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public AmountChange changeAmount(final long playerId, final long accountId, final OperationType operationType,
+									 final BigDecimal amount) {
+		Objects.requireNonNull(operationType);
+		Objects.requireNonNull(amount);
+
+		if (this.isSharded(accountId)) {
+			return this.changeShardedAmount(playerId, accountId, operationType, amount);
+		}
+
+		if (this.groupCommit != null) {
+			return this.groupCommit.submit(new Operation(0L, playerId, accountId, operationType, amount));
+		}
+
+		String query = """
+				WITH account AS (
+					SELECT player_id, amount
+					FROM accounts
+					WHERE account_id = :account_id
+				), updated AS (
+					UPDATE accounts
+					SET amount = amount + :delta
+					WHERE account_id = :account_id AND player_id = :player_id AND amount + :delta >= 0
+					RETURNING amount
+				), operation AS (
+					INSERT INTO operations (player_id, account_id, type, amount)
+					SELECT :player_id, :account_id, :type, :amount
+					FROM updated
+					RETURNING operation_id
+				)
+				SELECT account.player_id AS owner_id, account.amount AS current_amount,
+					updated.amount AS amount, operation.operation_id AS operation_id
+				FROM (VALUES (1)) AS request
+				LEFT JOIN account ON TRUE
+				LEFT JOIN updated ON TRUE
+				LEFT JOIN operation ON TRUE
+				""";
+
+		MapSqlParameterSource mapSqlParameterSource = new MapSqlParameterSource();
+		mapSqlParameterSource.addValue("player_id", playerId);
+		mapSqlParameterSource.addValue("account_id", accountId);
+		mapSqlParameterSource.addValue("type", operationType.getCode());
+		mapSqlParameterSource.addValue("amount", this.amountConverter.toColumn(amount));
+		mapSqlParameterSource.addValue("delta", this.amountConverter.toColumn(
+				(operationType == OperationType.DEBIT) ? amount.negate() : amount
+		));
+
+		return this.namedParameterJdbcTemplate.queryForObject(query, mapSqlParameterSource,
+				(rs, row) -> {
+					long ownerId = rs.getLong("owner_id");
+					if (rs.wasNull()) {
+						return new AmountChange(AmountChangeStatus.NOT_FOUND_ACCOUNT, 0L, null);
+					}
+
+					if (ownerId != playerId) {
+						return new AmountChange(AmountChangeStatus.NO_ACCESS_ACCOUNT, 0L, null);
+					}
+
+					long operationId = rs.getLong("operation_id");
+					if (rs.wasNull()) {
+						return new AmountChange(AmountChangeStatus.OUT_OF_AMOUNT, 0L,
+								this.amountConverter.getAmount(rs, "current_amount"));
+					}
+
+					return new AmountChange(AmountChangeStatus.SUCCESS, operationId,
+							this.amountConverter.getAmount(rs, "amount"));
+				}
+		);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * Строка ключа блокируется до изменения суммы, поэтому одновременное освобождение ключа
+	 * дожидается завершения запроса. Сумма распределённого счёта проверяется вместе с его частями,
+	 * остаток собирается в сумму счёта, а части обнуляются.
+	 *
+	 * @param playerId       {@inheritDoc}
+	 * @param accountId      {@inheritDoc}
+	 * @param operationType  {@inheritDoc}
+	 * @param amount         {@inheritDoc}
+	 * @param idempotencyKey {@inheritDoc}
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public AmountChange changeAmount(final long playerId, final long accountId, final OperationType operationType,
+									 final BigDecimal amount, final String idempotencyKey) {
+		Objects.requireNonNull(operationType);
+		Objects.requireNonNull(amount);
+		Objects.requireNonNull(idempotencyKey);
+
+		String query = """
+				WITH reserved AS (
+					SELECT 1
+					FROM idempotency_keys
+					WHERE player_id = :player_id AND idempotency_key = :idempotency_key AND operation_id IS NULL
+					FOR UPDATE
+				), locked AS (
+					SELECT player_id, amount
+					FROM accounts
+					WHERE account_id = :account_id
+					FOR UPDATE
+				), slots AS (
+					SELECT amount
+					FROM account_slots
+					WHERE account_id = :account_id
+					ORDER BY slot
+					FOR UPDATE
+				), account AS (
+					SELECT player_id, amount + (SELECT COALESCE(SUM(amount), 0) FROM slots) AS amount
+					FROM locked
+				), updated AS (
+					UPDATE accounts
+					SET amount = account.amount + :delta
+					FROM account
+					WHERE accounts.account_id = :account_id AND account.player_id = :player_id
+						AND account.amount + :delta >= 0 AND EXISTS (SELECT 1 FROM reserved)
+					RETURNING accounts.amount
+				), cleared AS (
+					UPDATE account_slots
+					SET amount = 0
+					WHERE account_id = :account_id AND amount <> 0 AND EXISTS (SELECT 1 FROM updated)
+				), operation AS (
+					INSERT INTO operations (player_id, account_id, type, amount)
+					SELECT :player_id, :account_id, :type, :amount
+					FROM updated
+					RETURNING operation_id
+				), completed AS (
+					UPDATE idempotency_keys
+					SET operation_id = operation.operation_id, amount = :amount
+					FROM operation
+					WHERE player_id = :player_id AND idempotency_key = :idempotency_key
+				)
+				SELECT EXISTS (SELECT 1 FROM reserved) AS reserved, account.player_id AS owner_id,
+					account.amount AS current_amount, updated.amount AS amount, operation.operation_id AS operation_id
+				FROM (VALUES (1)) AS request
+				LEFT JOIN account ON TRUE
+				LEFT JOIN updated ON TRUE
+				LEFT JOIN operation ON TRUE
+				""";
+
+		MapSqlParameterSource mapSqlParameterSource = new MapSqlParameterSource();
+		mapSqlParameterSource.addValue("player_id", playerId);
+		mapSqlParameterSource.addValue("account_id", accountId);
+		mapSqlParameterSource.addValue("idempotency_key", idempotencyKey);
+		mapSqlParameterSource.addValue("type", operationType.getCode());
+		mapSqlParameterSource.addValue("amount", this.amountConverter.toColumn(amount));
+		mapSqlParameterSource.addValue("delta", this.amountConverter.toColumn(
+				(operationType == OperationType.DEBIT) ? amount.negate() : amount
+		));
+
+		return this.namedParameterJdbcTemplate.queryForObject(query, mapSqlParameterSource,
+				(rs, row) -> {
+					long ownerId = rs.getLong("owner_id");
+					if (rs.wasNull()) {
+						return new AmountChange(AmountChangeStatus.NOT_FOUND_ACCOUNT, 0L, null);
+					}
+
+					if (ownerId != playerId) {
+						return new AmountChange(AmountChangeStatus.NO_ACCESS_ACCOUNT, 0L, null);
+					}
+
+					if (!rs.getBoolean("reserved")) {
+						return new AmountChange(AmountChangeStatus.RELEASED_IDEMPOTENCY_KEY, 0L, null);
+					}
+
+					long operationId = rs.getLong("operation_id");
+					if (rs.wasNull()) {
+						return new AmountChange(AmountChangeStatus.OUT_OF_AMOUNT, 0L,
+								this.amountConverter.getAmount(rs, "current_amount"));
+					}
+
+					return new AmountChange(AmountChangeStatus.SUCCESS, operationId,
+							this.amountConverter.getAmount(rs, "amount"));
+				}
+		);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param playerId     {@inheritDoc}
+	 * @param operations   {@inheritDoc}
+	 * @param allOrNothing {@inheritDoc}
+	 * @return {@inheritDoc}
+	 * @throws IllegalArgumentException {@inheritDoc}
+	 */
+	@Override
+	public List<AmountChange> changeAmounts(final long playerId, final List<Operation> operations,
+											final boolean allOrNothing) {
+		Objects.requireNonNull(operations);
+
+		List<Operation> playerOperations = new ArrayList<>(operations.size());
+		for (Operation operation : operations) {
+			Objects.requireNonNull(operation);
+			Objects.requireNonNull(operation.getOperationType());
+			Objects.requireNonNull(operation.getAmount());
+
+			playerOperations.add(new Operation(0L, playerId, operation.getAccountId(), operation.getOperationType(),
+					operation.getAmount()
+			));
+		}
+
+		return this.applyChanges(playerOperations, allOrNothing);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * Части суммы распределённого счёта списания блокируются и учитываются при проверке достаточности средств,
+	 * после списания остаток собирается в сумму счёта, а части обнуляются.
+	 * Зачисление на распределённый счёт записывается в сумму счёта.
+	 *
+	 * @param playerId      {@inheritDoc}
+	 * @param fromAccountId {@inheritDoc}
+	 * @param toAccountId   {@inheritDoc}
+	 * @param amount        {@inheritDoc}
+	 * @return {@inheritDoc}
+	 * @throws IllegalArgumentException {@inheritDoc}
+	 */
+	@Override
+	public TransferChange transfer(final long playerId, final long fromAccountId, final long toAccountId,
+								   final BigDecimal amount) {
+		Objects.requireNonNull(amount);
+
+		if (fromAccountId == toAccountId) {
+			throw new IllegalArgumentException("Счёт списания должен отличаться от счёта зачисления.");
+		}
+
+		String query = """
+				WITH locked AS (
+					SELECT account_id, player_id, amount
+					FROM accounts
+					WHERE account_id IN (:from_account_id, :to_account_id)
+					ORDER BY account_id
+					FOR UPDATE
+				), source_slots AS (
+					SELECT amount
+					FROM account_slots
+					WHERE account_id = :from_account_id
+					ORDER BY slot
+					FOR UPDATE
+				), source AS (
+					SELECT player_id, amount + (SELECT COALESCE(SUM(amount), 0) FROM source_slots) AS amount
+					FROM locked
+					WHERE account_id = :from_account_id
+				), target AS (
+					SELECT player_id
+					FROM locked
+					WHERE account_id = :to_account_id
+				), allowed AS (
+					SELECT 1
+					FROM source, target
+					WHERE source.player_id = :player_id AND target.player_id = :player_id AND source.amount >= :amount
+				), debited AS (
+					UPDATE accounts
+					SET amount = source.amount - :amount
+					FROM source
+					WHERE accounts.account_id = :from_account_id AND EXISTS (SELECT 1 FROM allowed)
+					RETURNING accounts.amount
+				), cleared AS (
+					UPDATE account_slots
+					SET amount = 0
+					WHERE account_id = :from_account_id AND amount <> 0 AND EXISTS (SELECT 1 FROM debited)
+				), credited AS (
+					UPDATE accounts
+					SET amount = amount + :amount
+					WHERE account_id = :to_account_id AND EXISTS (SELECT 1 FROM allowed)
+					RETURNING amount
+				), ids AS (
+					SELECT nextval('sq_operations') AS out_operation_id, nextval('sq_operations') AS in_operation_id
+					FROM debited
+				), operation AS (
+					INSERT INTO operations (operation_id, player_id, account_id, type, amount, linked_operation_id)
+					SELECT out_operation_id, :player_id, :from_account_id, :out_type, :amount, in_operation_id
+					FROM ids
+					UNION ALL
+					SELECT in_operation_id, :player_id, :to_account_id, :in_type, :amount, out_operation_id
+					FROM ids
+				)
+				SELECT source.player_id AS from_owner_id, source.amount AS from_current_amount,
+					target.player_id AS to_owner_id, ids.out_operation_id, ids.in_operation_id,
+					source.amount - :amount AS from_amount,
+					credited.amount + (
+						SELECT COALESCE(SUM(amount), 0)
+						FROM account_slots
+						WHERE account_id = :to_account_id
+					) AS to_amount
+				FROM (VALUES (1)) AS request
+				LEFT JOIN source ON TRUE
+				LEFT JOIN target ON TRUE
+				LEFT JOIN credited ON TRUE
+				LEFT JOIN ids ON TRUE
+				""";
+
+		MapSqlParameterSource mapSqlParameterSource = new MapSqlParameterSource();
+		mapSqlParameterSource.addValue("player_id", playerId);
+		mapSqlParameterSource.addValue("from_account_id", fromAccountId);
+		mapSqlParameterSource.addValue("to_account_id", toAccountId);
+		mapSqlParameterSource.addValue("amount", this.amountConverter.toColumn(amount));
+		mapSqlParameterSource.addValue("out_type", OperationType.TRANSFER_OUT.getCode());
+		mapSqlParameterSource.addValue("in_type", OperationType.TRANSFER_IN.getCode());
+
+		return this.namedParameterJdbcTemplate.queryForObject(query, mapSqlParameterSource,
+				(rs, row) -> {
+					long fromOwnerId = rs.getLong("from_owner_id");
+					if (rs.wasNull()) {
+						return new TransferChange(AmountChangeStatus.NOT_FOUND_ACCOUNT, fromAccountId, 0L, 0L,
+								null, null);
+					}
+
+					if (fromOwnerId != playerId) {
+						return new TransferChange(AmountChangeStatus.NO_ACCESS_ACCOUNT, fromAccountId, 0L, 0L,
+								null, null);
+					}
 
-		int countUpdate = this.namedParameterJdbcTemplate.update(query, mapSqlParameterSource);
+					long toOwnerId = rs.getLong("to_owner_id");
+					if (rs.wasNull()) {
+						return new TransferChange(AmountChangeStatus.NOT_FOUND_ACCOUNT, toAccountId, 0L, 0L,
+								null, null);
+					}
 
-		return (countUpdate > 0);
+					if (toOwnerId != playerId) {
+						return new TransferChange(AmountChangeStatus.NO_ACCESS_ACCOUNT, toAccountId, 0L, 0L,
+								null, null);
+					}
+
+					long outOperationId = rs.getLong("out_operation_id");
+					if (rs.wasNull()) {
+						return new TransferChange(AmountChangeStatus.OUT_OF_AMOUNT, fromAccountId, 0L, 0L,
+								this.amountConverter.getAmount(rs, "from_current_amount"), null);
+					}
+
+					return new TransferChange(AmountChangeStatus.SUCCESS, fromAccountId, outOperationId,
+							rs.getLong("in_operation_id"), this.amountConverter.getAmount(rs, "from_amount"),
+							this.amountConverter.getAmount(rs, "to_amount")
+					);
+				}
+		);
 	}
 
 	/**
@@ -110,6 +586,18 @@ public class AccountRepositoryImpl implements AccountRepository {
 				WHERE player_id = :player_id AND account_id = :account_id
 				""";
 
+		if (this.isSharded(accountId)) {
+			query = """
+					SELECT account_id, player_id, amount + (
+						SELECT COALESCE(SUM(amount), 0)
+						FROM account_slots
+						WHERE account_slots.account_id = accounts.account_id
+					) AS amount
+					FROM accounts
+					WHERE player_id = :player_id AND account_id = :account_id
+					""";
+		}
+
 		MapSqlParameterSource mapSqlParameterSource = new MapSqlParameterSource();
 		mapSqlParameterSource.addValue("player_id", playerId);
 		mapSqlParameterSource.addValue("account_id", accountId);
@@ -119,11 +607,370 @@ public class AccountRepositoryImpl implements AccountRepository {
 					(rs, row) -> Optional.of(
 							new Account(rs.getLong("account_id"),
 									rs.getLong("player_id"),
-									rs.getBigDecimal("amount")
+									this.amountConverter.getAmount(rs, "amount")
 							))
 			);
 		} catch (EmptyResultDataAccessException exception) {
 			return Optional.empty();
 		}
 	}
+
+	/**
+	 * Изменяет суммы счетов на суммы операций и добавляет операции в одной транзакции.
+	 * Счета блокируются по возрастанию идентификатора, изменения применяются по порядку
+	 * с проверкой владельца операции, после чего суммы счетов обновляются и операции добавляются
+	 * пакетными запросами.
+	 *
+	 * @param operations   операции игроков.
+	 * @param allOrNothing {@code true} если требуется выполнить все изменения или ни одного.
+	 * @return результаты изменения сумм счетов в порядке операций.
+	 */
+	private List<AmountChange> applyChanges(final List<Operation> operations, final boolean allOrNothing) {
+		if (operations.isEmpty()) {
+			return List.of();
+		}
+
+		return this.transactionTemplate.execute(status -> {
+			Map<Long, Account> accounts = this.lockAccounts(operations);
+
+			List<AmountChange> amountChanges = new ArrayList<>(operations.size());
+			Set<Long> changedAccountIds = new TreeSet<>();
+			List<Operation> appliedOperations = new ArrayList<>(operations.size());
+			boolean failed = false;
+
+			for (Operation operation : operations) {
+				Account account = accounts.get(operation.getAccountId());
+				if (account == null) {
+					amountChanges.add(new AmountChange(AmountChangeStatus.NOT_FOUND_ACCOUNT, 0L, null));
+					failed = true;
+					continue;
+				}
+
+				if (account.getPlayerId() != operation.getPlayerId()) {
+					amountChanges.add(new AmountChange(AmountChangeStatus.NO_ACCESS_ACCOUNT, 0L, null));
+					failed = true;
+					continue;
+				}
+
+				BigDecimal delta = switch (operation.getOperationType()) {
+					case CREDIT -> operation.getAmount();
+					case DEBIT -> operation.getAmount().negate();
+					default -> throw new IllegalArgumentException(
+							"Пакет изменяет счета только пополнением и списанием."
+					);
+				};
+				BigDecimal newAmount = account.getAmount().add(delta);
+				if (newAmount.signum() < 0) {
+					amountChanges.add(new AmountChange(AmountChangeStatus.OUT_OF_AMOUNT, 0L, account.getAmount()));
+					failed = true;
+					continue;
+				}
+
+				account.setAmount(newAmount);
+				changedAccountIds.add(account.getAccountId());
+				appliedOperations.add(new Operation(0L, operation.getPlayerId(), account.getAccountId(),
+						operation.getOperationType(), operation.getAmount()
+				));
+				amountChanges.add(new AmountChange(AmountChangeStatus.SUCCESS, 0L, newAmount));
+			}
+
+			if (failed && allOrNothing) {
+				for (int index = 0; index < amountChanges.size(); index++) {
+					if (amountChanges.get(index).getStatus() == AmountChangeStatus.SUCCESS) {
+						amountChanges.set(index, new AmountChange(AmountChangeStatus.ROLLED_BACK, 0L, null));
+					}
+				}
+
+				return amountChanges;
+			}
+
+			this.updateAmounts(changedAccountIds, accounts);
+
+			Iterator<Operation> savedOperations = this.operationRepository.saveAll(appliedOperations).iterator();
+			for (AmountChange amountChange : amountChanges) {
+				if (amountChange.getStatus() == AmountChangeStatus.SUCCESS) {
+					amountChange.setOperationId(savedOperations.next().getOperationId());
+				}
+			}
+
+			return amountChanges;
+		});
+	}
+
+	/**
+	 * Блокирует счета операций по возрастанию идентификатора и возвращает их текущие суммы.
+	 * Сумма распределённого счёта возвращается как сумма всех его частей, части также блокируются.
+	 * Должен вызываться в транзакции.
+	 *
+	 * @param operations операции.
+	 * @return счета по идентификаторам.
+	 */
+	private Map<Long, Account> lockAccounts(final List<Operation> operations) {
+		String lockAccountsQuery = """
+				SELECT account_id, player_id, amount
+				FROM accounts
+				WHERE account_id IN (:account_ids)
+				ORDER BY account_id
+				FOR UPDATE
+				""";
+
+		String lockSlotsQuery = """
+				SELECT account_id, amount
+				FROM account_slots
+				WHERE account_id IN (:account_ids)
+				ORDER BY account_id, slot
+				FOR UPDATE
+				""";
+
+		Set<Long> accountIds = new TreeSet<>();
+		Set<Long> shardedAccountIds = new TreeSet<>();
+		for (Operation operation : operations) {
+			accountIds.add(Objects.requireNonNull(operation).getAccountId());
+			if (this.isSharded(operation.getAccountId())) {
+				shardedAccountIds.add(operation.getAccountId());
+			}
+		}
+
+		Map<Long, Account> accounts = new HashMap<>();
+		this.namedParameterJdbcTemplate.query(lockAccountsQuery,
+				new MapSqlParameterSource("account_ids", accountIds),
+				rs -> {
+					accounts.put(rs.getLong("account_id"), new Account(rs.getLong("account_id"),
+							rs.getLong("player_id"), this.amountConverter.getAmount(rs, "amount")
+					));
+				}
+		);
+
+		if (!shardedAccountIds.isEmpty()) {
+			this.namedParameterJdbcTemplate.query(lockSlotsQuery,
+					new MapSqlParameterSource("account_ids", shardedAccountIds),
+					rs -> {
+						Account account = accounts.get(rs.getLong("account_id"));
+						BigDecimal slotAmount = this.amountConverter.getAmount(rs, "amount");
+						account.setAmount(account.getAmount().add(slotAmount));
+					}
+			);
+		}
+
+		return accounts;
+	}
+
+	/**
+	 * Записывает новые суммы изменённых счетов одним пакетным запросом.
+	 * Сумма распределённого счёта записывается в сумму счёта целиком, а его части обнуляются.
+	 * Должен вызываться в транзакции после блокировки счетов.
+	 *
+	 * @param accountIds идентификаторы изменённых счетов.
+	 * @param accounts   заблокированные счета с новыми суммами по идентификаторам.
+	 */
+	private void updateAmounts(final Set<Long> accountIds, final Map<Long, Account> accounts) {
+		if (accountIds.isEmpty()) {
+			return;
+		}
+
+		String query = """
+				UPDATE accounts
+				SET amount = :amount
+				WHERE account_id = :account_id
+				""";
+
+		String clearSlotsQuery = """
+				UPDATE account_slots
+				SET amount = 0
+				WHERE account_id IN (:account_ids) AND amount <> 0
+				""";
+
+		MapSqlParameterSource[] mapSqlParameterSources = new MapSqlParameterSource[accountIds.size()];
+		Set<Long> shardedAccountIds = new TreeSet<>();
+		int index = 0;
+		for (Long accountId : accountIds) {
+			mapSqlParameterSources[index] = new MapSqlParameterSource();
+			mapSqlParameterSources[index].addValue("account_id", accountId);
+			mapSqlParameterSources[index].addValue("amount",
+					this.amountConverter.toColumn(accounts.get(accountId).getAmount()));
+			if (this.isSharded(accountId)) {
+				shardedAccountIds.add(accountId);
+			}
+			index++;
+		}
+
+		this.namedParameterJdbcTemplate.batchUpdate(query, mapSqlParameterSources);
+
+		if (!shardedAccountIds.isEmpty()) {
+			this.namedParameterJdbcTemplate.update(clearSlotsQuery,
+					new MapSqlParameterSource("account_ids", shardedAccountIds));
+		}
+	}
+
+	/**
+	 * Изменяет сумму распределённого счёта на сумму операции и добавляет операцию.
+	 * Пополнение зачисляется в случайную часть суммы счёта. Списание сначала выполняется
+	 * из случайной части, а если в ней недостаточно средств, то из суммы всех частей.
+	 *
+	 * @param playerId      идентификатор игрока.
+	 * @param accountId     идентификатор счёта.
+	 * @param operationType тип операции.
+	 * @param amount        сумма операции.
+	 * @return результат изменения суммы счёта.
+	 */
+	private AmountChange changeShardedAmount(final long playerId, final long accountId,
+											 final OperationType operationType, final BigDecimal amount) {
+		String query = """
+				WITH account AS (
+					SELECT player_id
+					FROM accounts
+					WHERE account_id = :account_id
+				), updated AS (
+					INSERT INTO account_slots (account_id, slot, amount)
+					SELECT :account_id, :slot, :amount
+					FROM account
+					WHERE player_id = :player_id
+					ON CONFLICT (account_id, slot) DO UPDATE
+					SET amount = account_slots.amount + EXCLUDED.amount
+					RETURNING amount
+				), operation AS (
+					INSERT INTO operations (player_id, account_id, type, amount)
+					SELECT :player_id, :account_id, :type, :amount
+					FROM updated
+					RETURNING operation_id
+				)
+				SELECT account.player_id AS owner_id, operation.operation_id AS operation_id
+				FROM (VALUES (1)) AS request
+				LEFT JOIN account ON TRUE
+				LEFT JOIN operation ON TRUE
+				""";
+
+		if (operationType == OperationType.DEBIT) {
+			query = """
+					WITH account AS (
+						SELECT player_id
+						FROM accounts
+						WHERE account_id = :account_id
+					), updated AS (
+						UPDATE account_slots
+						SET amount = amount - :amount
+						WHERE account_id = :account_id AND slot = :slot AND amount >= :amount
+							AND EXISTS (SELECT 1 FROM account WHERE player_id = :player_id)
+						RETURNING amount
+					), operation AS (
+						INSERT INTO operations (player_id, account_id, type, amount)
+						SELECT :player_id, :account_id, :type, :amount
+						FROM updated
+						RETURNING operation_id
+					)
+					SELECT account.player_id AS owner_id, operation.operation_id AS operation_id
+					FROM (VALUES (1)) AS request
+					LEFT JOIN account ON TRUE
+					LEFT JOIN operation ON TRUE
+					""";
+		}
+
+		MapSqlParameterSource mapSqlParameterSource = new MapSqlParameterSource();
+		mapSqlParameterSource.addValue("player_id", playerId);
+		mapSqlParameterSource.addValue("account_id", accountId);
+		mapSqlParameterSource.addValue("slot", ThreadLocalRandom.current().nextInt(this.slots));
+		mapSqlParameterSource.addValue("type", operationType.getCode());
+		mapSqlParameterSource.addValue("amount", this.amountConverter.toColumn(amount));
+
+		AmountChange amountChange = this.namedParameterJdbcTemplate.queryForObject(query, mapSqlParameterSource,
+				(rs, row) -> {
+					long ownerId = rs.getLong("owner_id");
+					if (rs.wasNull()) {
+						return new AmountChange(AmountChangeStatus.NOT_FOUND_ACCOUNT, 0L, null);
+					}
+
+					if (ownerId != playerId) {
+						return new AmountChange(AmountChangeStatus.NO_ACCESS_ACCOUNT, 0L, null);
+					}
+
+					long operationId = rs.getLong("operation_id");
+					if (rs.wasNull()) {
+						return new AmountChange(AmountChangeStatus.OUT_OF_AMOUNT, 0L, null);
+					}
+
+					return new AmountChange(AmountChangeStatus.SUCCESS, operationId, null);
+				}
+		);
+
+		if (Objects.requireNonNull(amountChange).getStatus() != AmountChangeStatus.OUT_OF_AMOUNT) {
+			return amountChange;
+		}
+
+		return this.transactionTemplate.execute(status -> this.sweepShardedAmount(playerId, accountId, amount));
+	}
+
+	/**
+	 * Списывает сумму операции из суммы всех частей распределённого счёта и добавляет операцию.
+	 * Счёт и все его части блокируются, остаток собирается в сумму счёта, а части обнуляются.
+	 * Должен вызываться в транзакции.
+	 *
+	 * @param playerId  идентификатор игрока.
+	 * @param accountId идентификатор счёта.
+	 * @param amount    сумма операции.
+	 * @return результат изменения суммы счёта.
+	 */
+	private AmountChange sweepShardedAmount(final long playerId, final long accountId, final BigDecimal amount) {
+		String lockAccountQuery = """
+				SELECT amount
+				FROM accounts
+				WHERE account_id = :account_id AND player_id = :player_id
+				FOR UPDATE
+				""";
+
+		String lockSlotsQuery = """
+				SELECT amount
+				FROM account_slots
+				WHERE account_id = :account_id
+				ORDER BY slot
+				FOR UPDATE
+				""";
+
+		String clearQuery = """
+				UPDATE account_slots
+				SET amount = 0
+				WHERE account_id = :account_id AND amount <> 0
+				""";
+
+		String updateQuery = """
+				UPDATE accounts
+				SET amount = :amount
+				WHERE account_id = :account_id
+				""";
+
+		String operationQuery = """
+				INSERT INTO operations (player_id, account_id, type, amount)
+				VALUES (:player_id, :account_id, :type, :amount)
+				""";
+
+		MapSqlParameterSource mapSqlParameterSource = new MapSqlParameterSource();
+		mapSqlParameterSource.addValue("player_id", playerId);
+		mapSqlParameterSource.addValue("account_id", accountId);
+		mapSqlParameterSource.addValue("type", OperationType.DEBIT.getCode());
+
+		BigDecimal currentAmount = this.namedParameterJdbcTemplate.queryForObject(
+				lockAccountQuery, mapSqlParameterSource, (rs, row) -> this.amountConverter.getAmount(rs, "amount")
+		);
+		for (BigDecimal slotAmount : this.namedParameterJdbcTemplate.query(
+				lockSlotsQuery, mapSqlParameterSource, (rs, row) -> this.amountConverter.getAmount(rs, "amount"))) {
+			currentAmount = Objects.requireNonNull(currentAmount).add(slotAmount);
+		}
+
+		if (Objects.requireNonNull(currentAmount).compareTo(amount) < 0) {
+			return new AmountChange(AmountChangeStatus.OUT_OF_AMOUNT, 0L, currentAmount);
+		}
+
+		BigDecimal newAmount = currentAmount.subtract(amount);
+		mapSqlParameterSource.addValue("amount", this.amountConverter.toColumn(newAmount));
+		this.namedParameterJdbcTemplate.update(clearQuery, mapSqlParameterSource);
+		this.namedParameterJdbcTemplate.update(updateQuery, mapSqlParameterSource);
+
+		mapSqlParameterSource.addValue("amount", this.amountConverter.toColumn(amount));
+		KeyHolder keyHolder = new GeneratedKeyHolder();
+		this.namedParameterJdbcTemplate.update(operationQuery, mapSqlParameterSource, keyHolder,
+				new String[]{"operation_id"}
+		);
+		long operationId = Objects.requireNonNull(keyHolder.getKey()).longValue();
+
+		return new AmountChange(AmountChangeStatus.SUCCESS, operationId, newAmount);
+	}
 }
@@ -0,0 +1,233 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.repository.impl;
+
+import dev.kalenchukov.wallet.entity.AccountSnapshot;
+import dev.kalenchukov.wallet.money.AmountConverter;
+import dev.kalenchukov.wallet.repository.AccountSnapshotRepository;
+import dev.kalenchukov.wallet.type.OperationType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Класс хранилища снимков сумм счетов.
+ */
+@Repository
+public class AccountSnapshotRepositoryImpl implements AccountSnapshotRepository {
+	/**
+	 * Типы операций, увеличивающих сумму счёта.
+	 */
+	private static final List<Short> CREDIT_TYPES = List.of(
+			OperationType.CREDIT.getCode(), OperationType.TRANSFER_IN.getCode()
+	);
+
+	/**
+	 * Источник данных.
+	 */
+	private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+	/**
+	 * Шаблон транзакций.
+	 */
+	private final TransactionTemplate transactionTemplate;
+
+	/**
+	 * Преобразователь сумм.
+	 */
+	private final AmountConverter amountConverter;
+
+	/**
+	 * Конструирует хранилище снимков сумм счетов.
+	 *
+	 * @param namedParameterJdbcTemplate источник данных.
+	 * @param transactionTemplate        шаблон транзакций.
+	 * @param amountConverter            преобразователь сумм.
+	 */
+	@Autowired
+	public AccountSnapshotRepositoryImpl(final NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+										 final TransactionTemplate transactionTemplate,
+										 final AmountConverter amountConverter) {
+		Objects.requireNonNull(namedParameterJdbcTemplate);
+		Objects.requireNonNull(transactionTemplate);
+		Objects.requireNonNull(amountConverter);
+
+		this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+		this.transactionTemplate = transactionTemplate;
+		this.amountConverter = amountConverter;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param accountId {@inheritDoc}
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public Optional<AccountSnapshot> findLast(final long accountId) {
+		String query = """
+				SELECT account_id, operation_id, amount
+				FROM account_snapshots
+				WHERE account_id = :account_id
+				ORDER BY operation_id DESC
+				LIMIT 1
+				""";
+
+		MapSqlParameterSource mapSqlParameterSource = new MapSqlParameterSource();
+		mapSqlParameterSource.addValue("account_id", accountId);
+
+		try {
+			return this.namedParameterJdbcTemplate.queryForObject(query, mapSqlParameterSource,
+					(rs, row) -> Optional.of(
+							new AccountSnapshot(rs.getLong("account_id"),
+									rs.getLong("operation_id"),
+									this.amountConverter.getAmount(rs, "amount")
+							))
+			);
+		} catch (EmptyResultDataAccessException exception) {
+			return Optional.empty();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param accountId {@inheritDoc}
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public AccountSnapshot replay(final long accountId) {
+		String query = """
+				WITH snapshot AS (
+					SELECT operation_id, amount
+					FROM account_snapshots
+					WHERE account_id = :account_id
+					ORDER BY operation_id DESC
+					LIMIT 1
+				)
+				SELECT COALESCE(MAX(operations.operation_id), (SELECT operation_id FROM snapshot), 0) AS operation_id,
+					COALESCE((SELECT amount FROM snapshot), 0) + COALESCE(SUM(
+						CASE WHEN operations.type IN (:credit_types) THEN operations.amount ELSE -operations.amount END
+					), 0) AS amount
+				FROM operations
+				WHERE operations.account_id = :account_id
+					AND operations.operation_id > COALESCE((SELECT operation_id FROM snapshot), 0)
+				""";
+
+		MapSqlParameterSource mapSqlParameterSource = new MapSqlParameterSource();
+		mapSqlParameterSource.addValue("account_id", accountId);
+		mapSqlParameterSource.addValue("credit_types", CREDIT_TYPES);
+
+		return this.namedParameterJdbcTemplate.queryForObject(query, mapSqlParameterSource,
+				(rs, row) -> new AccountSnapshot(accountId,
+						rs.getLong("operation_id"),
+						this.amountConverter.getAmount(rs, "amount")
+				)
+		);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * Блокировка строки счёта дожидается завершения транзакций, добавивших операции счёта,
+	 * так как добавление операции блокирует строку счёта внешним ключом.
+	 *
+	 * @param accountId {@inheritDoc}
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public Optional<AccountSnapshot> snapshot(final long accountId) {
+		String lockQuery = """
+				SELECT account_id
+				FROM accounts
+				WHERE account_id = :account_id
+				FOR UPDATE
+				""";
+
+		String insertQuery = """
+				INSERT INTO account_snapshots (account_id, operation_id, amount)
+				VALUES (:account_id, :operation_id, :amount)
+				""";
+
+		MapSqlParameterSource mapSqlParameterSource = new MapSqlParameterSource();
+		mapSqlParameterSource.addValue("account_id", accountId);
+
+		return this.transactionTemplate.execute(status -> {
+			if (this.namedParameterJdbcTemplate.queryForList(lockQuery, mapSqlParameterSource, Long.class).isEmpty()) {
+				return Optional.empty();
+			}
+
+			Optional<AccountSnapshot> lastSnapshot = this.findLast(accountId);
+			AccountSnapshot snapshot = this.replay(accountId);
+
+			if (lastSnapshot.isPresent() && lastSnapshot.get().getOperationId() >= snapshot.getOperationId()) {
+				return lastSnapshot;
+			}
+
+			mapSqlParameterSource.addValue("operation_id", snapshot.getOperationId());
+			mapSqlParameterSource.addValue("amount", this.amountConverter.toColumn(snapshot.getAmount()));
+			this.namedParameterJdbcTemplate.update(insertQuery, mapSqlParameterSource);
+
+			return Optional.of(snapshot);
+		});
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public long findLastOperationId() {
+		String query = """
+				SELECT COALESCE(MAX(operation_id), 0)
+				FROM operations
+				""";
+
+		Long operationId = this.namedParameterJdbcTemplate.queryForObject(query, new MapSqlParameterSource(), Long.class);
+
+		return (operationId == null) ? 0L : operationId;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param fromOperationId {@inheritDoc}
+	 * @param toOperationId   {@inheritDoc}
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public Map<Long, Long> countOperations(final long fromOperationId, final long toOperationId) {
+		String query = """
+				SELECT account_id, COUNT(*) AS count
+				FROM operations
+				WHERE operation_id > :from_operation_id AND operation_id <= :to_operation_id
+				GROUP BY account_id
+				""";
+
+		MapSqlParameterSource mapSqlParameterSource = new MapSqlParameterSource();
+		mapSqlParameterSource.addValue("from_operation_id", fromOperationId);
+		mapSqlParameterSource.addValue("to_operation_id", toOperationId);
+
+		Map<Long, Long> counts = new HashMap<>();
+		this.namedParameterJdbcTemplate.query(query, mapSqlParameterSource,
+				rs -> {
+					counts.put(rs.getLong("account_id"), rs.getLong("count"));
+				}
+		);
+
+		return counts;
+	}
+}
@@ -10,6 +10,7 @@ import dev.kalenchukov.starter.fixaction.entity.Action;
 import dev.kalenchukov.starter.fixaction.types.ActionType;
 import dev.kalenchukov.wallet.repository.ActionRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Repository;
@@ -21,6 +22,7 @@ import java.util.Objects;
  * Класс хранилища действий.
  */
 @Repository
+@Profile("!memory")
 public class ActionRepositoryImpl implements ActionRepository {
 	/**
 	 * Источник данных.
@@ -59,9 +61,8 @@ public class ActionRepositoryImpl implements ActionRepository {
 		return this.namedParameterJdbcTemplate.query(query, mapSqlParameterSource,
 				(rs, row) -> new Action(rs.getLong("action_id"),
 						rs.getLong("player_id"),
-						ActionType.valueOf(rs.getString("type")),
-						ActionType.Status.valueOf(
-								rs.getString("status"))
+						ActionType.fromCode(rs.getShort("type")),
+						ActionType.Status.fromCode(rs.getShort("status"))
 				)
 		);
 	}
@@ -0,0 +1,234 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.repository.impl;
+
+import dev.kalenchukov.wallet.entity.Account;
+import dev.kalenchukov.wallet.entity.AmountChange;
+import dev.kalenchukov.wallet.entity.Operation;
+import dev.kalenchukov.wallet.money.AmountConverter;
+import dev.kalenchukov.wallet.repository.AccountSnapshotRepository;
+import dev.kalenchukov.wallet.repository.EventSourcedAccountRepository;
+import dev.kalenchukov.wallet.repository.OperationRepository;
+import dev.kalenchukov.wallet.type.AmountChangeStatus;
+import dev.kalenchukov.wallet.type.OperationType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Класс хранилища счетов, сумма которых выводится из журнала операций.
+ * Строка счёта блокируется отдельным запросом до восстановления суммы, поэтому восстановление
+ * выполняется после завершения других изменений счёта и учитывает их операции.
+ */
+@Repository
+public class EventSourcedAccountRepositoryImpl implements EventSourcedAccountRepository {
+	/**
+	 * Источник данных.
+	 */
+	private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+	/**
+	 * Шаблон транзакций.
+	 */
+	private final TransactionTemplate transactionTemplate;
+
+	/**
+	 * Хранилище операций.
+	 */
+	private final OperationRepository operationRepository;
+
+	/**
+	 * Хранилище снимков сумм счетов.
+	 */
+	private final AccountSnapshotRepository accountSnapshotRepository;
+
+	/**
+	 * Преобразователь сумм.
+	 */
+	private final AmountConverter amountConverter;
+
+	/**
+	 * Идентификаторы счетов, сумма которых выводится из журнала операций.
+	 */
+	private final Set<Long> eventSourcedAccountIds;
+
+	/**
+	 * Конструирует хранилище счетов, сумма которых выводится из журнала операций.
+	 *
+	 * @param namedParameterJdbcTemplate источник данных.
+	 * @param transactionTemplate        шаблон транзакций.
+	 * @param operationRepository        хранилище операций.
+	 * @param accountSnapshotRepository  хранилище снимков сумм счетов.
+	 * @param amountConverter            преобразователь сумм.
+	 * @param eventSourcedAccountIds     идентификаторы счетов, сумма которых выводится из журнала операций.
+	 */
+	@Autowired
+	public EventSourcedAccountRepositoryImpl(final NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+											 final TransactionTemplate transactionTemplate,
+											 final OperationRepository operationRepository,
+											 final AccountSnapshotRepository accountSnapshotRepository,
+											 final AmountConverter amountConverter,
+											 @Value("${event-sourced-accounts.ids}")
+											 final Set<Long> eventSourcedAccountIds) {
+		Objects.requireNonNull(namedParameterJdbcTemplate);
+		Objects.requireNonNull(transactionTemplate);
+		Objects.requireNonNull(operationRepository);
+		Objects.requireNonNull(accountSnapshotRepository);
+		Objects.requireNonNull(amountConverter);
+		Objects.requireNonNull(eventSourcedAccountIds);
+
+		this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+		this.transactionTemplate = transactionTemplate;
+		this.operationRepository = operationRepository;
+		this.accountSnapshotRepository = accountSnapshotRepository;
+		this.amountConverter = amountConverter;
+		this.eventSourcedAccountIds = Set.copyOf(eventSourcedAccountIds);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param accountId {@inheritDoc}
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public boolean isEventSourced(final long accountId) {
+		return this.eventSourcedAccountIds.contains(accountId);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * Счёт блокируется до завершения транзакции, поэтому изменения одного счёта
+	 * проверяют достаточность средств по очереди.
+	 *
+	 * @param playerId      {@inheritDoc}
+	 * @param accountId     {@inheritDoc}
+	 * @param operationType {@inheritDoc}
+	 * @param amount        {@inheritDoc}
+	 * @return {@inheritDoc}
+	 * @throws IllegalArgumentException {@inheritDoc}
+	 */
+	@Override
+	public AmountChange changeAmount(final long playerId, final long accountId, final OperationType operationType,
+									 final BigDecimal amount) {
+		Objects.requireNonNull(operationType);
+		Objects.requireNonNull(amount);
+
+		if (operationType != OperationType.CREDIT && operationType != OperationType.DEBIT) {
+			throw new IllegalArgumentException("Счёт изменяется журналом операций только пополнением и списанием.");
+		}
+
+		BigDecimal delta = (operationType == OperationType.DEBIT) ? amount.negate() : amount;
+
+		return this.transactionTemplate.execute(status -> {
+			List<Long> ownerIds = this.lock(accountId);
+			if (ownerIds.isEmpty()) {
+				return new AmountChange(AmountChangeStatus.NOT_FOUND_ACCOUNT, 0L, null);
+			}
+
+			if (ownerIds.get(0) != playerId) {
+				return new AmountChange(AmountChangeStatus.NO_ACCESS_ACCOUNT, 0L, null);
+			}
+
+			BigDecimal currentAmount = this.accountSnapshotRepository.replay(accountId).getAmount();
+			BigDecimal newAmount = currentAmount.add(delta);
+			if (newAmount.signum() < 0) {
+				return new AmountChange(AmountChangeStatus.OUT_OF_AMOUNT, 0L, currentAmount);
+			}
+
+			Operation operation = this.operationRepository.saveAll(List.of(
+					new Operation(0L, playerId, accountId, operationType, amount)
+			)).get(0);
+
+			return new AmountChange(AmountChangeStatus.SUCCESS, operation.getOperationId(), newAmount);
+		});
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param playerId  {@inheritDoc}
+	 * @param accountId {@inheritDoc}
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public Optional<Account> findById(final long playerId, final long accountId) {
+		String query = """
+				SELECT player_id
+				FROM accounts
+				WHERE account_id = :account_id AND player_id = :player_id
+				""";
+
+		MapSqlParameterSource mapSqlParameterSource = new MapSqlParameterSource();
+		mapSqlParameterSource.addValue("account_id", accountId);
+		mapSqlParameterSource.addValue("player_id", playerId);
+
+		if (this.namedParameterJdbcTemplate.queryForList(query, mapSqlParameterSource, Long.class).isEmpty()) {
+			return Optional.empty();
+		}
+
+		return Optional.of(new Account(accountId, playerId,
+				this.accountSnapshotRepository.replay(accountId).getAmount()
+		));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param accountId {@inheritDoc}
+	 */
+	@Override
+	public void release(final long accountId) {
+		String query = """
+				UPDATE accounts
+				SET amount = :amount
+				WHERE account_id = :account_id
+				""";
+
+		this.transactionTemplate.executeWithoutResult(status -> {
+			if (this.lock(accountId).isEmpty()) {
+				return;
+			}
+
+			MapSqlParameterSource mapSqlParameterSource = new MapSqlParameterSource();
+			mapSqlParameterSource.addValue("account_id", accountId);
+			mapSqlParameterSource.addValue("amount", this.amountConverter.toColumn(
+					this.accountSnapshotRepository.replay(accountId).getAmount()
+			));
+
+			this.namedParameterJdbcTemplate.update(query, mapSqlParameterSource);
+		});
+	}
+
+	/**
+	 * Блокирует строку счёта до завершения транзакции.
+	 * Должен вызываться в транзакции.
+	 *
+	 * @param accountId идентификатор счёта.
+	 * @return идентификатор владельца счёта или пустой список, если счёт не найден.
+	 */
+	private List<Long> lock(final long accountId) {
+		String query = """
+				SELECT player_id
+				FROM accounts
+				WHERE account_id = :account_id
+				FOR UPDATE
+				""";
+
+		return this.namedParameterJdbcTemplate.queryForList(query, new MapSqlParameterSource("account_id", accountId),
+				Long.class);
+	}
+}
@@ -0,0 +1,233 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.repository.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * Класс группового сохранения.
+ * Значения, поступившие из разных потоков в одно окно, собираются в группу
+ * и сохраняются одним вызовом в потоке группового сохранения.
+ * Постановка в очередь и остановка выполняются под одной блокировкой, поэтому значение,
+ * принятое в очередь, всегда сохраняется, а после остановки значения сохраняются в вызывающем потоке.
+ *
+ * @param <T> тип сохраняемых значений.
+ * @param <R> тип результатов сохранения.
+ */
+final class GroupCommit<T, R> {
+	/**
+	 * Сохранение группы.
+	 * Возвращает результаты в порядке значений группы.
+	 */
+	private final Function<List<T>, List<R>> committer;
+
+	/**
+	 * Максимальное время ожидания группы в наносекундах.
+	 */
+	private final long maxDelay;
+
+	/**
+	 * Максимальный размер группы.
+	 */
+	private final int maxBatchSize;
+
+	/**
+	 * Очередь значений, ожидающих сохранения.
+	 */
+	private final BlockingQueue<Pending<T, R>> queue;
+
+	/**
+	 * Блокировка приёма значений.
+	 * Постановка в очередь выполняется под блокировкой чтения, остановка под блокировкой записи.
+	 */
+	private final ReadWriteLock lock;
+
+	/**
+	 * Поток группового сохранения.
+	 */
+	private final Thread thread;
+
+	/**
+	 * Признак приёма значений в очередь.
+	 */
+	private volatile boolean running;
+
+	/**
+	 * Конструирует групповое сохранение и запускает его поток.
+	 *
+	 * @param name         наименование потока.
+	 * @param maxDelay     максимальное время ожидания группы в миллисекундах.
+	 * @param maxBatchSize максимальный размер группы.
+	 * @param committer    сохранение группы.
+	 * @throws IllegalArgumentException если время ожидания отрицательное или размер группы меньше единицы.
+	 */
+	GroupCommit(final String name, final long maxDelay, final int maxBatchSize,
+				final Function<List<T>, List<R>> committer) {
+		Objects.requireNonNull(name);
+		Objects.requireNonNull(committer);
+
+		if (maxDelay < 0) {
+			throw new IllegalArgumentException("Время ожидания группы не может быть отрицательным.");
+		}
+
+		if (maxBatchSize < 1) {
+			throw new IllegalArgumentException("Размер группы должен быть больше нуля.");
+		}
+
+		this.committer = committer;
+		this.maxDelay = TimeUnit.MILLISECONDS.toNanos(maxDelay);
+		this.maxBatchSize = maxBatchSize;
+		this.queue = new LinkedBlockingQueue<>();
+		this.lock = new ReentrantReadWriteLock();
+		this.running = true;
+		this.thread = new Thread(this::run, name);
+		this.thread.setDaemon(true);
+		this.thread.start();
+	}
+
+	/**
+	 * Сохраняет значение вместе со значениями других потоков, поступившими в то же окно,
+	 * и ожидает результат. После остановки значение сохраняется отдельно в вызывающем потоке.
+	 *
+	 * @param value значение.
+	 * @return результат сохранения значения.
+	 */
+	R submit(final T value) {
+		Objects.requireNonNull(value);
+
+		Pending<T, R> pending = new Pending<>(value, new CompletableFuture<>());
+
+		this.lock.readLock().lock();
+		try {
+			if (this.running) {
+				this.queue.add(pending);
+			} else {
+				pending = null;
+			}
+		} finally {
+			this.lock.readLock().unlock();
+		}
+
+		if (pending == null) {
+			return this.committer.apply(List.of(value)).get(0);
+		}
+
+		try {
+			return pending.result().join();
+		} catch (CompletionException exception) {
+			if (exception.getCause() instanceof RuntimeException cause) {
+				throw cause;
+			}
+
+			throw exception;
+		}
+	}
+
+	/**
+	 * Останавливает приём значений и ожидает сохранения значений, оставшихся в очереди.
+	 *
+	 * @throws InterruptedException если ожидание остановки прервано.
+	 */
+	void shutdown() throws InterruptedException {
+		this.lock.writeLock().lock();
+		try {
+			this.running = false;
+		} finally {
+			this.lock.writeLock().unlock();
+		}
+
+		this.thread.interrupt();
+		this.thread.join();
+	}
+
+	/**
+	 * Собирает значения из очереди в группы и сохраняет каждую группу.
+	 * Группа закрывается при достижении максимального размера или по истечении времени ожидания
+	 * с момента поступления первого значения группы.
+	 */
+	private void run() {
+		List<Pending<T, R>> batch = new ArrayList<>(this.maxBatchSize);
+
+		while (this.running || !this.queue.isEmpty()) {
+			try {
+				Pending<T, R> first = this.queue.take();
+				batch.add(first);
+
+				long deadline = System.nanoTime() + this.maxDelay;
+				while (batch.size() < this.maxBatchSize) {
+					long remaining = deadline - System.nanoTime();
+					Pending<T, R> next = remaining > 0
+							? this.queue.poll(remaining, TimeUnit.NANOSECONDS)
+							: this.queue.poll();
+
+					if (next == null) {
+						break;
+					}
+
+					batch.add(next);
+				}
+			} catch (InterruptedException exception) {
+				this.queue.drainTo(batch);
+			}
+
+			this.commit(batch);
+			batch.clear();
+		}
+	}
+
+	/**
+	 * Сохраняет группу и передаёт результат каждому ожидающему потоку.
+	 *
+	 * @param batch группа.
+	 */
+	private void commit(final List<Pending<T, R>> batch) {
+		if (batch.isEmpty()) {
+			return;
+		}
+
+		try {
+			List<T> values = new ArrayList<>(batch.size());
+			for (Pending<T, R> pending : batch) {
+				values.add(pending.value());
+			}
+
+			List<R> results = this.committer.apply(values);
+			if (results.size() != batch.size()) {
+				throw new IllegalStateException("Количество результатов не совпадает с размером группы.");
+			}
+
+			for (int index = 0; index < batch.size(); index++) {
+				batch.get(index).result().complete(results.get(index));
+			}
+		} catch (RuntimeException exception) {
+			for (Pending<T, R> pending : batch) {
+				pending.result().completeExceptionally(exception);
+			}
+		}
+	}
+
+	/**
+	 * Значение, ожидающее сохранения.
+	 *
+	 * @param value  значение.
+	 * @param result результат сохранения.
+	 * @param <T>    тип значения.
+	 * @param <R>    тип результата.
+	 */
+	private record Pending<T, R>(T value, CompletableFuture<R> result) {
+	}
+}
@@ -0,0 +1,286 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.repository.impl;
+
+import dev.kalenchukov.wallet.entity.AmountChange;
+import dev.kalenchukov.wallet.entity.Operation;
+import dev.kalenchukov.wallet.money.AmountConverter;
+import dev.kalenchukov.wallet.repository.HotAccountRepository;
+import dev.kalenchukov.wallet.repository.OperationRepository;
+import dev.kalenchukov.wallet.type.AmountChangeStatus;
+import dev.kalenchukov.wallet.type.OperationType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Класс хранилища горячих счетов.
+ * Пополнения накапливаются в памяти вместе с их операциями и записываются одной транзакцией:
+ * сумма счёта изменяется на сумму пополнений, операции добавляются пакетным запросом.
+ * Первое пополнение группы ожидает накопления остальных и записывает группу.
+ * Пополнение завершается только после записи, поэтому при аварийной остановке приложения
+ * теряются лишь пополнения, по которым ещё не получен ответ.
+ */
+@Repository
+public class HotAccountRepositoryImpl implements HotAccountRepository {
+	/**
+	 * Источник данных.
+	 */
+	private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+	/**
+	 * Шаблон транзакций.
+	 */
+	private final TransactionTemplate transactionTemplate;
+
+	/**
+	 * Хранилище операций.
+	 */
+	private final OperationRepository operationRepository;
+
+	/**
+	 * Преобразователь сумм.
+	 */
+	private final AmountConverter amountConverter;
+
+	/**
+	 * Идентификаторы горячих счетов.
+	 */
+	private final Set<Long> hotAccountIds;
+
+	/**
+	 * Владельцы горячих счетов.
+	 */
+	private final Map<Long, Long> owners;
+
+	/**
+	 * Время накопления пополнений в наносекундах.
+	 */
+	private final long flushInterval;
+
+	/**
+	 * Накопленные пополнения горячих счетов.
+	 */
+	private final Map<Long, List<PendingCredit>> pendingCredits;
+
+	/**
+	 * Конструирует хранилище горячих счетов.
+	 *
+	 * @param namedParameterJdbcTemplate источник данных.
+	 * @param transactionTemplate        шаблон транзакций.
+	 * @param operationRepository        хранилище операций.
+	 * @param amountConverter            преобразователь сумм.
+	 * @param hotAccountIds              идентификаторы горячих счетов.
+	 * @param flushInterval              время накопления пополнений в миллисекундах.
+	 * @throws IllegalArgumentException если время накопления отрицательное.
+	 */
+	@Autowired
+	public HotAccountRepositoryImpl(final NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+									final TransactionTemplate transactionTemplate,
+									final OperationRepository operationRepository,
+									final AmountConverter amountConverter,
+									@Value("${hot-accounts.ids}") final Set<Long> hotAccountIds,
+									@Value("${hot-accounts.flush-interval}") final long flushInterval) {
+		Objects.requireNonNull(namedParameterJdbcTemplate);
+		Objects.requireNonNull(transactionTemplate);
+		Objects.requireNonNull(operationRepository);
+		Objects.requireNonNull(amountConverter);
+		Objects.requireNonNull(hotAccountIds);
+
+		if (flushInterval < 0) {
+			throw new IllegalArgumentException("Время накопления пополнений не может быть отрицательным.");
+		}
+
+		this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+		this.transactionTemplate = transactionTemplate;
+		this.operationRepository = operationRepository;
+		this.amountConverter = amountConverter;
+		this.hotAccountIds = Set.copyOf(hotAccountIds);
+		this.owners = new ConcurrentHashMap<>();
+		this.flushInterval = TimeUnit.MILLISECONDS.toNanos(flushInterval);
+		this.pendingCredits = new ConcurrentHashMap<>();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param accountId {@inheritDoc}
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public boolean isHot(final long accountId) {
+		return this.hotAccountIds.contains(accountId);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public Set<Long> getHotAccountIds() {
+		return this.hotAccountIds;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param playerId  {@inheritDoc}
+	 * @param accountId {@inheritDoc}
+	 * @param amount    {@inheritDoc}
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public AmountChange credit(final long playerId, final long accountId, final BigDecimal amount) {
+		Objects.requireNonNull(amount);
+
+		Long ownerId = this.findOwner(accountId);
+		if (ownerId == null) {
+			return new AmountChange(AmountChangeStatus.NOT_FOUND_ACCOUNT, 0L, null);
+		}
+
+		if (ownerId != playerId) {
+			return new AmountChange(AmountChangeStatus.NO_ACCESS_ACCOUNT, 0L, null);
+		}
+
+		PendingCredit pendingCredit = new PendingCredit(
+				new Operation(0L, playerId, accountId, OperationType.CREDIT, amount), new CompletableFuture<>()
+		);
+		AtomicBoolean leader = new AtomicBoolean();
+		this.pendingCredits.compute(accountId, (id, credits) -> {
+			List<PendingCredit> pending = credits;
+			if (pending == null) {
+				pending = new ArrayList<>();
+				leader.set(true);
+			}
+
+			pending.add(pendingCredit);
+			return pending;
+		});
+
+		if (leader.get()) {
+			LockSupport.parkNanos(this.flushInterval);
+			this.flush(accountId);
+		}
+
+		try {
+			return pendingCredit.result().join();
+		} catch (CompletionException exception) {
+			if (exception.getCause() instanceof RuntimeException cause) {
+				throw cause;
+			}
+
+			throw exception;
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param accountId {@inheritDoc}
+	 */
+	@Override
+	public void flush(final long accountId) {
+		List<PendingCredit> credits = this.pendingCredits.remove(accountId);
+		if (credits == null) {
+			return;
+		}
+
+		String query = """
+				UPDATE accounts
+				SET amount = amount + :delta
+				WHERE account_id = :account_id
+				""";
+
+		BigDecimal delta = BigDecimal.ZERO;
+		List<Operation> operations = new ArrayList<>(credits.size());
+		for (PendingCredit credit : credits) {
+			delta = delta.add(credit.operation().getAmount());
+			operations.add(credit.operation());
+		}
+
+		MapSqlParameterSource mapSqlParameterSource = new MapSqlParameterSource();
+		mapSqlParameterSource.addValue("account_id", accountId);
+		mapSqlParameterSource.addValue("delta", this.amountConverter.toColumn(delta));
+
+		List<Operation> savedOperations;
+		try {
+			savedOperations = this.transactionTemplate.execute(status -> {
+				this.namedParameterJdbcTemplate.update(query, mapSqlParameterSource);
+				return this.operationRepository.saveAll(operations);
+			});
+		} catch (RuntimeException exception) {
+			credits.forEach(credit -> credit.result().completeExceptionally(exception));
+			throw exception;
+		}
+
+		for (int index = 0; index < credits.size(); index++) {
+			credits.get(index).result().complete(new AmountChange(AmountChangeStatus.SUCCESS,
+					Objects.requireNonNull(savedOperations).get(index).getOperationId(), null
+			));
+		}
+	}
+
+	/**
+	 * Возвращает владельца счёта.
+	 * Владелец счёта не меняется, поэтому запоминается после первого обращения.
+	 *
+	 * @param accountId идентификатор счёта.
+	 * @return идентификатор игрока или {@code null}, если счёт не найден.
+	 */
+	private Long findOwner(final long accountId) {
+		Long ownerId = this.owners.get(accountId);
+		if (ownerId != null) {
+			return ownerId;
+		}
+
+		String query = """
+				SELECT player_id
+				FROM accounts
+				WHERE account_id = :account_id
+				""";
+
+		MapSqlParameterSource mapSqlParameterSource = new MapSqlParameterSource();
+		mapSqlParameterSource.addValue("account_id", accountId);
+
+		try {
+			ownerId = this.namedParameterJdbcTemplate.queryForObject(query, mapSqlParameterSource, Long.class);
+		} catch (EmptyResultDataAccessException exception) {
+			return null;
+		}
+
+		this.owners.put(accountId, ownerId);
+
+		return ownerId;
+	}
+
+	/**
+	 * Пополнение, ожидающее записи.
+	 *
+	 * @param operation операция пополнения.
+	 * @param result    результат пополнения.
+	 */
+	private record PendingCredit(Operation operation, CompletableFuture<AmountChange> result) {
+	}
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.repository.impl;
+
+import dev.kalenchukov.wallet.entity.IdempotencyKey;
+import dev.kalenchukov.wallet.money.AmountConverter;
+import dev.kalenchukov.wallet.repository.IdempotencyKeyRepository;
+import dev.kalenchukov.wallet.type.OperationType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Класс хранилища ключей идемпотентности.
+ */
+@Repository
+public class IdempotencyKeyRepositoryImpl implements IdempotencyKeyRepository {
+	/**
+	 * Источник данных.
+	 */
+	private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+	/**
+	 * Преобразователь сумм.
+	 */
+	private final AmountConverter amountConverter;
+
+	/**
+	 * Конструирует хранилище ключей идемпотентности.
+	 *
+	 * @param namedParameterJdbcTemplate источник данных.
+	 * @param amountConverter            преобразователь сумм.
+	 */
+	@Autowired
+	public IdempotencyKeyRepositoryImpl(final NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+										final AmountConverter amountConverter) {
+		Objects.requireNonNull(namedParameterJdbcTemplate);
+		Objects.requireNonNull(amountConverter);
+
+		this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+		this.amountConverter = amountConverter;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param idempotencyKey {@inheritDoc}
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public boolean reserve(final IdempotencyKey idempotencyKey) {
+		Objects.requireNonNull(idempotencyKey);
+
+		String query = """
+				INSERT INTO idempotency_keys (player_id, idempotency_key, account_id, type)
+				VALUES (:player_id, :idempotency_key, :account_id, :type)
+				ON CONFLICT (player_id, idempotency_key) DO NOTHING
+				""";
+
+		MapSqlParameterSource mapSqlParameterSource = new MapSqlParameterSource();
+		mapSqlParameterSource.addValue("player_id", idempotencyKey.getPlayerId());
+		mapSqlParameterSource.addValue("idempotency_key", idempotencyKey.getKey());
+		mapSqlParameterSource.addValue("account_id", idempotencyKey.getAccountId());
+		mapSqlParameterSource.addValue("type", idempotencyKey.getOperationType().name());
+
+		int countInsert = this.namedParameterJdbcTemplate.update(query, mapSqlParameterSource);
+
+		return (countInsert > 0);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param idempotencyKey {@inheritDoc}
+	 */
+	@Override
+	public void complete(final IdempotencyKey idempotencyKey) {
+		Objects.requireNonNull(idempotencyKey);
+
+		String query = """
+				UPDATE idempotency_keys
+				SET operation_id = :operation_id, amount = :amount
+				WHERE player_id = :player_id AND idempotency_key = :idempotency_key
+				""";
+
+		MapSqlParameterSource mapSqlParameterSource = new MapSqlParameterSource();
+		mapSqlParameterSource.addValue("player_id", idempotencyKey.getPlayerId());
+		mapSqlParameterSource.addValue("idempotency_key", idempotencyKey.getKey());
+		mapSqlParameterSource.addValue("operation_id", idempotencyKey.getOperationId());
+		mapSqlParameterSource.addValue("amount", this.amountConverter.toColumn(idempotencyKey.getAmount()));
+
+		this.namedParameterJdbcTemplate.update(query, mapSqlParameterSource);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param playerId {@inheritDoc}
+	 * @param key      {@inheritDoc}
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public Optional<IdempotencyKey> find(final long playerId, final String key) {
+		Objects.requireNonNull(key);
+
+		String query = """
+				SELECT *
+				FROM idempotency_keys
+				WHERE player_id = :player_id AND idempotency_key = :idempotency_key
+				""";
+
+		MapSqlParameterSource mapSqlParameterSource = new MapSqlParameterSource();
+		mapSqlParameterSource.addValue("player_id", playerId);
+		mapSqlParameterSource.addValue("idempotency_key", key);
+
+		try {
+			return this.namedParameterJdbcTemplate.queryForObject(query, mapSqlParameterSource,
+					(rs, row) -> Optional.of(
+							new IdempotencyKey(rs.getLong("player_id"),
+									rs.getString("idempotency_key"),
+									rs.getLong("account_id"),
+									OperationType.valueOf(
+											rs.getString("type")),
+									rs.getObject("operation_id", Long.class),
+									this.amountConverter.getAmount(rs, "amount")
+							))
+			);
+		} catch (EmptyResultDataAccessException exception) {
+			return Optional.empty();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param playerId {@inheritDoc}
+	 * @param key      {@inheritDoc}
+	 */
+	@Override
+	public void release(final long playerId, final String key) {
+		Objects.requireNonNull(key);
+
+		String query = """
+				DELETE FROM idempotency_keys
+				WHERE player_id = :player_id AND idempotency_key = :idempotency_key AND operation_id IS NULL
+				""";
+
+		MapSqlParameterSource mapSqlParameterSource = new MapSqlParameterSource();
+		mapSqlParameterSource.addValue("player_id", playerId);
+		mapSqlParameterSource.addValue("idempotency_key", key);
+
+		this.namedParameterJdbcTemplate.update(query, mapSqlParameterSource);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param before {@inheritDoc}
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public int releaseCreatedBefore(final Instant before) {
+		Objects.requireNonNull(before);
+
+		String query = """
+				DELETE FROM idempotency_keys
+				WHERE operation_id IS NULL AND created_at < :before
+				""";
+
+		MapSqlParameterSource mapSqlParameterSource = new MapSqlParameterSource();
+		mapSqlParameterSource.addValue("before", Timestamp.from(before));
+
+		return this.namedParameterJdbcTemplate.update(query, mapSqlParameterSource);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param before {@inheritDoc}
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public int removeCreatedBefore(final Instant before) {
+		Objects.requireNonNull(before);
+
+		String query = """
+				DELETE FROM idempotency_keys
+				WHERE created_at < :before
+				""";
+
+		MapSqlParameterSource mapSqlParameterSource = new MapSqlParameterSource();
+		mapSqlParameterSource.addValue("before", Timestamp.from(before));
+
+		return this.namedParameterJdbcTemplate.update(query, mapSqlParameterSource);
+	}
+}
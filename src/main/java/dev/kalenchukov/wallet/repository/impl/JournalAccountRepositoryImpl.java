@@ -0,0 +1,412 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.repository.impl;
+
+import dev.kalenchukov.wallet.entity.Account;
+import dev.kalenchukov.wallet.entity.AmountChange;
+import dev.kalenchukov.wallet.entity.Operation;
+import dev.kalenchukov.wallet.journal.Journal;
+import dev.kalenchukov.wallet.money.AmountConverter;
+import dev.kalenchukov.wallet.repository.JournalAccountRepository;
+import dev.kalenchukov.wallet.type.AmountChangeStatus;
+import dev.kalenchukov.wallet.type.OperationType;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Класс хранилища журналируемых счетов.
+ * Идентификаторы операций заранее выделяются блоками из последовательности операций,
+ * поэтому операции журнала сохраняются с теми же идентификаторами, что были возвращены при изменении счёта.
+ * Сохранение операции и изменение суммы счёта выполняются одним запросом и пропускают уже сохранённые операции,
+ * поэтому повторное сохранение операций журнала после аварийной остановки не изменяет сумму счёта дважды.
+ */
+@Repository
+public class JournalAccountRepositoryImpl implements JournalAccountRepository {
+	/**
+	 * Типы операций, увеличивающих сумму счёта.
+	 */
+	private static final List<Short> CREDIT_TYPES = List.of(
+			OperationType.CREDIT.getCode(), OperationType.TRANSFER_IN.getCode()
+	);
+
+	/**
+	 * Источник данных.
+	 */
+	private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+	/**
+	 * Журнал операций.
+	 */
+	private final Journal journal;
+
+	/**
+	 * Преобразователь сумм.
+	 */
+	private final AmountConverter amountConverter;
+
+	/**
+	 * Идентификаторы журналируемых счетов.
+	 */
+	private final Set<Long> journaledAccountIds;
+
+	/**
+	 * Количество идентификаторов операций, выделяемых за один запрос.
+	 */
+	private final int idBlockSize;
+
+	/**
+	 * Максимальное количество операций, сохраняемых одним запросом.
+	 */
+	private final int batchSize;
+
+	/**
+	 * Счета с суммами, учитывающими ещё не сохранённые операции.
+	 */
+	private final Map<Long, Account> accounts;
+
+	/**
+	 * Записанные в журнал и ещё не сохранённые операции в порядке записи.
+	 */
+	private final Queue<JournaledOperation> journaledOperations;
+
+	/**
+	 * Выделенные и ещё не использованные идентификаторы операций.
+	 */
+	private final Deque<Long> operationIds;
+
+	/**
+	 * Конструирует хранилище журналируемых счетов.
+	 *
+	 * @param namedParameterJdbcTemplate источник данных.
+	 * @param journal                    журнал операций.
+	 * @param amountConverter            преобразователь сумм.
+	 * @param journaledAccountIds        идентификаторы журналируемых счетов.
+	 * @param idBlockSize                количество идентификаторов операций, выделяемых за один запрос.
+	 * @param batchSize                  максимальное количество операций, сохраняемых одним запросом.
+	 * @throws IllegalArgumentException если количество идентификаторов или размер пакета меньше единицы.
+	 */
+	@Autowired
+	public JournalAccountRepositoryImpl(final NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+										final Journal journal,
+										final AmountConverter amountConverter,
+										@Value("${journal.ids}") final Set<Long> journaledAccountIds,
+										@Value("${journal.id-block-size}") final int idBlockSize,
+										@Value("${journal.batch-size}") final int batchSize) {
+		Objects.requireNonNull(namedParameterJdbcTemplate);
+		Objects.requireNonNull(journal);
+		Objects.requireNonNull(amountConverter);
+		Objects.requireNonNull(journaledAccountIds);
+
+		if (idBlockSize < 1) {
+			throw new IllegalArgumentException("Количество выделяемых идентификаторов должно быть больше нуля.");
+		}
+
+		if (batchSize < 1) {
+			throw new IllegalArgumentException("Размер пакета должен быть больше нуля.");
+		}
+
+		this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+		this.journal = journal;
+		this.amountConverter = amountConverter;
+		this.journaledAccountIds = Set.copyOf(journaledAccountIds);
+		this.idBlockSize = idBlockSize;
+		this.batchSize = batchSize;
+		this.accounts = new ConcurrentHashMap<>();
+		this.journaledOperations = new ConcurrentLinkedQueue<>();
+		this.operationIds = new ArrayDeque<>();
+	}
+
+	/**
+	 * Сохраняет операции, оставшиеся в журнале от предыдущего запуска.
+	 */
+	@PostConstruct
+	public void recover() {
+		for (Map.Entry<Long, List<Operation>> segment : this.journal.read().entrySet()) {
+			List<Operation> operations = segment.getValue();
+
+			for (int from = 0; from < operations.size(); from += this.batchSize) {
+				this.saveAll(operations.subList(from, Math.min(from + this.batchSize, operations.size())));
+			}
+
+			this.journal.release(segment.getKey(), operations.size());
+		}
+	}
+
+	/**
+	 * Сохраняет операции журнала перед остановкой приложения.
+	 */
+	@PreDestroy
+	public void shutdown() {
+		this.drain();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param accountId {@inheritDoc}
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public boolean isJournaled(final long accountId) {
+		return this.journaledAccountIds.contains(accountId);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param playerId      {@inheritDoc}
+	 * @param accountId     {@inheritDoc}
+	 * @param operationType {@inheritDoc}
+	 * @param amount        {@inheritDoc}
+	 * @return {@inheritDoc}
+	 * @throws IllegalArgumentException {@inheritDoc}
+	 */
+	@Override
+	public AmountChange changeAmount(final long playerId, final long accountId, final OperationType operationType,
+									 final BigDecimal amount) {
+		Objects.requireNonNull(operationType);
+		Objects.requireNonNull(amount);
+
+		if (operationType != OperationType.CREDIT && operationType != OperationType.DEBIT) {
+			throw new IllegalArgumentException("Журналируемый счёт изменяется только пополнением и списанием.");
+		}
+
+		Account account = this.loadAccount(accountId);
+		if (account == null) {
+			return new AmountChange(AmountChangeStatus.NOT_FOUND_ACCOUNT, 0L, null);
+		}
+
+		if (account.getPlayerId() != playerId) {
+			return new AmountChange(AmountChangeStatus.NO_ACCESS_ACCOUNT, 0L, null);
+		}
+
+		BigDecimal newAmount = (operationType == OperationType.CREDIT)
+				? account.getAmount().add(amount)
+				: account.getAmount().subtract(amount);
+
+		if (newAmount.signum() < 0) {
+			return new AmountChange(AmountChangeStatus.OUT_OF_AMOUNT, 0L, account.getAmount());
+		}
+
+		Operation operation = new Operation(this.nextOperationId(), playerId, accountId, operationType, amount);
+		long segment = this.journal.append(operation);
+
+		this.journaledOperations.add(new JournaledOperation(segment, operation));
+		this.accounts.put(accountId, new Account(accountId, playerId, newAmount));
+
+		return new AmountChange(AmountChangeStatus.SUCCESS, operation.getOperationId(), newAmount);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param playerId  {@inheritDoc}
+	 * @param accountId {@inheritDoc}
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public Optional<Account> findById(final long playerId, final long accountId) {
+		Account account = this.loadAccount(accountId);
+		if (account == null || account.getPlayerId() != playerId) {
+			return Optional.empty();
+		}
+
+		return Optional.of(new Account(account.getAccountId(), account.getPlayerId(), account.getAmount()));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * Операции сохраняются пакетами в порядке записи в журнал,
+	 * записи журнала освобождаются после сохранения пакета.
+	 */
+	@Override
+	public synchronized void drain() {
+		while (!this.journaledOperations.isEmpty()) {
+			List<Operation> operations = new ArrayList<>(this.batchSize);
+			Map<Long, Integer> segmentCounts = new TreeMap<>();
+
+			Iterator<JournaledOperation> iterator = this.journaledOperations.iterator();
+			while (iterator.hasNext() && operations.size() < this.batchSize) {
+				JournaledOperation journaledOperation = iterator.next();
+				operations.add(journaledOperation.operation());
+				segmentCounts.merge(journaledOperation.segment(), 1, Integer::sum);
+			}
+
+			this.saveAll(operations);
+
+			for (int index = 0; index < operations.size(); index++) {
+				this.journaledOperations.poll();
+			}
+
+			segmentCounts.forEach(this.journal::release);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * Оставшиеся выделенные идентификаторы операций отбрасываются,
+	 * чтобы следующие операции журнала получили идентификаторы больше идентификаторов операций,
+	 * сохранённых в хранилище напрямую.
+	 *
+	 * @param accountId {@inheritDoc}
+	 */
+	@Override
+	public void release(final long accountId) {
+		this.drain();
+		this.accounts.remove(accountId);
+
+		synchronized (this.operationIds) {
+			this.operationIds.clear();
+		}
+	}
+
+	/**
+	 * Сохраняет операции и изменяет суммы их счетов одним запросом.
+	 * Уже сохранённые операции пропускаются и не изменяют сумму счёта.
+	 *
+	 * @param operations операции.
+	 */
+	private void saveAll(final List<Operation> operations) {
+		if (operations.isEmpty()) {
+			return;
+		}
+
+		String query = """
+				WITH inserted AS (
+					INSERT INTO operations (operation_id, player_id, account_id, type, amount)
+					SELECT *
+					FROM (VALUES :operations) AS journal (operation_id, player_id, account_id, type, amount)
+					WHERE NOT EXISTS (
+						SELECT 1
+						FROM operations o
+						WHERE o.operation_id = journal.operation_id
+					)
+					RETURNING account_id, type, amount
+				)
+				UPDATE accounts
+				SET amount = accounts.amount + delta.amount
+				FROM (
+					SELECT account_id, SUM(CASE WHEN type IN (:credit_types) THEN amount ELSE -amount END) AS amount
+					FROM inserted
+					GROUP BY account_id
+				) AS delta
+				WHERE accounts.account_id = delta.account_id
+				""";
+
+		List<Object[]> rows = new ArrayList<>(operations.size());
+		for (Operation operation : operations) {
+			rows.add(new Object[]{
+					operation.getOperationId(),
+					operation.getPlayerId(),
+					operation.getAccountId(),
+					operation.getOperationType().getCode(),
+					this.amountConverter.toColumn(operation.getAmount())
+			});
+		}
+
+		MapSqlParameterSource mapSqlParameterSource = new MapSqlParameterSource();
+		mapSqlParameterSource.addValue("operations", rows);
+		mapSqlParameterSource.addValue("credit_types", CREDIT_TYPES);
+
+		this.namedParameterJdbcTemplate.update(query, mapSqlParameterSource);
+	}
+
+	/**
+	 * Возвращает счёт с суммой, учитывающей ещё не сохранённые операции.
+	 * При первом обращении счёт загружается из хранилища.
+	 *
+	 * @param accountId идентификатор счёта.
+	 * @return счёт или {@code null}, если счёт не найден.
+	 */
+	private Account loadAccount(final long accountId) {
+		Account account = this.accounts.get(accountId);
+		if (account != null) {
+			return account;
+		}
+
+		String query = """
+				SELECT account_id, player_id, amount
+				FROM accounts
+				WHERE account_id = :account_id
+				""";
+
+		MapSqlParameterSource mapSqlParameterSource = new MapSqlParameterSource();
+		mapSqlParameterSource.addValue("account_id", accountId);
+
+		try {
+			account = this.namedParameterJdbcTemplate.queryForObject(query, mapSqlParameterSource,
+					(rs, row) -> new Account(rs.getLong("account_id"),
+							rs.getLong("player_id"),
+							this.amountConverter.getAmount(rs, "amount")
+					)
+			);
+		} catch (EmptyResultDataAccessException exception) {
+			return null;
+		}
+
+		Account loadedAccount = this.accounts.putIfAbsent(accountId, account);
+
+		return (loadedAccount == null) ? account : loadedAccount;
+	}
+
+	/**
+	 * Возвращает следующий идентификатор операции.
+	 * Если выделенные идентификаторы закончились, выделяет новый блок из последовательности операций.
+	 *
+	 * @return идентификатор операции.
+	 */
+	private long nextOperationId() {
+		synchronized (this.operationIds) {
+			if (this.operationIds.isEmpty()) {
+				String query = """
+						SELECT nextval('sq_operations')
+						FROM generate_series(1, :count)
+						ORDER BY 1
+						""";
+
+				MapSqlParameterSource mapSqlParameterSource = new MapSqlParameterSource();
+				mapSqlParameterSource.addValue("count", this.idBlockSize);
+
+				this.operationIds.addAll(
+						this.namedParameterJdbcTemplate.queryForList(query, mapSqlParameterSource, Long.class)
+				);
+			}
+
+			return this.operationIds.poll();
+		}
+	}
+
+	/**
+	 * Операция, записанная в журнал.
+	 *
+	 * @param segment   номер сегмента журнала.
+	 * @param operation операция.
+	 */
+	private record JournaledOperation(long segment, Operation operation) {
+	}
+}
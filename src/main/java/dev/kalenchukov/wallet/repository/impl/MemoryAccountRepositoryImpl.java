@@ -0,0 +1,186 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.repository.impl;
+
+import dev.kalenchukov.wallet.entity.Account;
+import dev.kalenchukov.wallet.entity.AmountChange;
+import dev.kalenchukov.wallet.entity.IdempotencyKey;
+import dev.kalenchukov.wallet.entity.Operation;
+import dev.kalenchukov.wallet.entity.TransferChange;
+import dev.kalenchukov.wallet.memory.MemoryLedger;
+import dev.kalenchukov.wallet.repository.AccountRepository;
+import dev.kalenchukov.wallet.repository.IdempotencyKeyRepository;
+import dev.kalenchukov.wallet.type.AmountChangeStatus;
+import dev.kalenchukov.wallet.type.OperationType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Класс хранилища счетов в памяти.
+ * Используется в профиле {@code memory}, распределённые счета в памяти не поддерживаются.
+ */
+@Repository
+@Profile("memory")
+public class MemoryAccountRepositoryImpl implements AccountRepository {
+	/**
+	 * Учёт в памяти.
+	 */
+	private final MemoryLedger memoryLedger;
+
+	/**
+	 * Хранилище ключей идемпотентности.
+	 */
+	private final IdempotencyKeyRepository idempotencyKeyRepository;
+
+	/**
+	 * Конструирует хранилище счетов.
+	 *
+	 * @param memoryLedger             учёт в памяти.
+	 * @param idempotencyKeyRepository хранилище ключей идемпотентности.
+	 */
+	@Autowired
+	public MemoryAccountRepositoryImpl(final MemoryLedger memoryLedger,
+									   final IdempotencyKeyRepository idempotencyKeyRepository) {
+		Objects.requireNonNull(memoryLedger);
+		Objects.requireNonNull(idempotencyKeyRepository);
+
+		this.memoryLedger = memoryLedger;
+		this.idempotencyKeyRepository = idempotencyKeyRepository;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param account {@inheritDoc}
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public Account save(final Account account) {
+		Objects.requireNonNull(account);
+
+		return this.memoryLedger.addAccount(account.getPlayerId(), account.getAmount());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param playerId  {@inheritDoc}
+	 * @param accountId {@inheritDoc}
+	 * @param amount    {@inheritDoc}
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public boolean updateAmount(final long playerId, final long accountId, final BigDecimal amount) {
+		return this.memoryLedger.setAmount(playerId, accountId, amount);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param accountId {@inheritDoc}
+	 * @return {@code false}.
+	 */
+	@Override
+	public boolean isSharded(final long accountId) {
+		return false;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param playerId      {@inheritDoc}
+	 * @param accountId     {@inheritDoc}
+	 * @param operationType {@inheritDoc}
+	 * @param amount        {@inheritDoc}
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public AmountChange changeAmount(final long playerId, final long accountId, final OperationType operationType,
+									 final BigDecimal amount) {
+		return this.memoryLedger.changeAmount(playerId, accountId, operationType, amount);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * Учёт в памяти не участвует в транзакциях хранилища ключей, поэтому ключ завершается
+	 * сразу после изменения суммы счёта в памяти.
+	 *
+	 * @param playerId       {@inheritDoc}
+	 * @param accountId      {@inheritDoc}
+	 * @param operationType  {@inheritDoc}
+	 * @param amount         {@inheritDoc}
+	 * @param idempotencyKey {@inheritDoc}
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public AmountChange changeAmount(final long playerId, final long accountId, final OperationType operationType,
+									 final BigDecimal amount, final String idempotencyKey) {
+		Objects.requireNonNull(idempotencyKey);
+
+		Optional<IdempotencyKey> reservedKey = this.idempotencyKeyRepository.find(playerId, idempotencyKey);
+		if (reservedKey.isEmpty() || reservedKey.get().getOperationId() != null) {
+			return new AmountChange(AmountChangeStatus.RELEASED_IDEMPOTENCY_KEY, 0L, null);
+		}
+
+		AmountChange amountChange = this.memoryLedger.changeAmount(playerId, accountId, operationType, amount);
+		if (amountChange.getStatus() == AmountChangeStatus.SUCCESS) {
+			this.idempotencyKeyRepository.complete(new IdempotencyKey(playerId, idempotencyKey, accountId,
+					operationType, amountChange.getOperationId(), amount
+			));
+		}
+
+		return amountChange;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param playerId     {@inheritDoc}
+	 * @param operations   {@inheritDoc}
+	 * @param allOrNothing {@inheritDoc}
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public List<AmountChange> changeAmounts(final long playerId, final List<Operation> operations,
+											final boolean allOrNothing) {
+		return this.memoryLedger.changeAmounts(playerId, operations, allOrNothing);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param playerId      {@inheritDoc}
+	 * @param fromAccountId {@inheritDoc}
+	 * @param toAccountId   {@inheritDoc}
+	 * @param amount        {@inheritDoc}
+	 * @return {@inheritDoc}
+	 * @throws IllegalArgumentException {@inheritDoc}
+	 */
+	@Override
+	public TransferChange transfer(final long playerId, final long fromAccountId, final long toAccountId,
+								   final BigDecimal amount) {
+		return this.memoryLedger.transfer(playerId, fromAccountId, toAccountId, amount);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param playerId  {@inheritDoc}
+	 * @param accountId {@inheritDoc}
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public Optional<Account> findById(final long playerId, final long accountId) {
+		return this.memoryLedger.findAccount(playerId, accountId);
+	}
+}
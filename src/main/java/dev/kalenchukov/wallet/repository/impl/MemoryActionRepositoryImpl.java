@@ -0,0 +1,80 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.repository.impl;
+
+import dev.kalenchukov.starter.fixaction.entity.Action;
+import dev.kalenchukov.starter.fixaction.repository.FixActionRepository;
+import dev.kalenchukov.wallet.memory.MemoryLedger;
+import dev.kalenchukov.wallet.repository.ActionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Класс хранилища действий в памяти.
+ * Используется в профиле {@code memory} и заменяет хранилище стартера,
+ * чтобы действия сохранялись туда же, откуда читаются.
+ */
+@Repository
+@Primary
+@Profile("memory")
+public class MemoryActionRepositoryImpl implements ActionRepository, FixActionRepository {
+	/**
+	 * Учёт в памяти.
+	 */
+	private final MemoryLedger memoryLedger;
+
+	/**
+	 * Конструирует хранилище действий.
+	 *
+	 * @param memoryLedger учёт в памяти.
+	 */
+	@Autowired
+	public MemoryActionRepositoryImpl(final MemoryLedger memoryLedger) {
+		Objects.requireNonNull(memoryLedger);
+		this.memoryLedger = memoryLedger;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param action {@inheritDoc}
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public Action save(final Action action) {
+		Objects.requireNonNull(action);
+
+		return this.memoryLedger.addActions(List.of(action)).get(0);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param actions {@inheritDoc}
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public List<Action> saveAll(final List<Action> actions) {
+		return this.memoryLedger.addActions(actions);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param playerId {@inheritDoc}
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public List<Action> find(final long playerId) {
+		return this.memoryLedger.findActions(playerId);
+	}
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.repository.impl;
+
+import dev.kalenchukov.wallet.entity.Operation;
+import dev.kalenchukov.wallet.entity.OperationSummary;
+import dev.kalenchukov.wallet.memory.MemoryLedger;
+import dev.kalenchukov.wallet.repository.OperationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Класс хранилища операций в памяти.
+ * Используется в профиле {@code memory}.
+ */
+@Repository
+@Profile("memory")
+public class MemoryOperationRepositoryImpl implements OperationRepository {
+	/**
+	 * Учёт в памяти.
+	 */
+	private final MemoryLedger memoryLedger;
+
+	/**
+	 * Конструирует хранилище операций.
+	 *
+	 * @param memoryLedger учёт в памяти.
+	 */
+	@Autowired
+	public MemoryOperationRepositoryImpl(final MemoryLedger memoryLedger) {
+		Objects.requireNonNull(memoryLedger);
+		this.memoryLedger = memoryLedger;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param operation {@inheritDoc}
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public Operation save(final Operation operation) {
+		Objects.requireNonNull(operation);
+
+		return this.memoryLedger.addOperations(List.of(operation)).get(0);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param operations {@inheritDoc}
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public List<Operation> saveAll(final List<Operation> operations) {
+		return this.memoryLedger.addOperations(operations);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param playerId    {@inheritDoc}
+	 * @param accountId   {@inheritDoc}
+	 * @param operationId {@inheritDoc}
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public Optional<Operation> findById(final long playerId, final long accountId, final long operationId) {
+		return this.memoryLedger.findOperation(playerId, accountId, operationId);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param playerId  {@inheritDoc}
+	 * @param accountId {@inheritDoc}
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public List<Operation> find(final long playerId, final long accountId) {
+		return this.memoryLedger.findOperations(playerId, accountId);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param playerId          {@inheritDoc}
+	 * @param accountId         {@inheritDoc}
+	 * @param beforeOperationId {@inheritDoc}
+	 * @param limit             {@inheritDoc}
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public List<Operation> findBefore(final long playerId, final long accountId, final long beforeOperationId,
+									  final int limit) {
+		return this.memoryLedger.findOperationsBefore(playerId, accountId, beforeOperationId, limit);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param playerId         {@inheritDoc}
+	 * @param accountId        {@inheritDoc}
+	 * @param afterOperationId {@inheritDoc}
+	 * @param limit            {@inheritDoc}
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public List<Operation> findAfter(final long playerId, final long accountId, final long afterOperationId,
+									 final int limit) {
+		return this.memoryLedger.findOperationsAfter(playerId, accountId, afterOperationId, limit);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param playerId  {@inheritDoc}
+	 * @param accountId {@inheritDoc}
+	 * @param from      {@inheritDoc}
+	 * @param to        {@inheritDoc}
+	 * @param consumer  {@inheritDoc}
+	 */
+	@Override
+	public void export(final long playerId, final long accountId, final Instant from, final Instant to,
+					   final Consumer<Operation> consumer) {
+		Objects.requireNonNull(consumer);
+
+		this.memoryLedger.exportOperations(playerId, accountId, from, to, consumer);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param playerId  {@inheritDoc}
+	 * @param accountId {@inheritDoc}
+	 * @param from      {@inheritDoc}
+	 * @param to        {@inheritDoc}
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public List<OperationSummary> summarize(final long playerId, final long accountId, final LocalDate from,
+											final LocalDate to) {
+		return this.memoryLedger.summarizeOperations(playerId, accountId, from, to);
+	}
+}
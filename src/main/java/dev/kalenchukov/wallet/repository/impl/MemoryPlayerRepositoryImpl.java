@@ -0,0 +1,80 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.repository.impl;
+
+import dev.kalenchukov.wallet.entity.Player;
+import dev.kalenchukov.wallet.memory.MemoryLedger;
+import dev.kalenchukov.wallet.repository.PlayerRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Repository;
+
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Класс хранилища игроков в памяти.
+ * Используется в профиле {@code memory}.
+ */
+@Repository
+@Profile("memory")
+public class MemoryPlayerRepositoryImpl implements PlayerRepository {
+	/**
+	 * Учёт в памяти.
+	 */
+	private final MemoryLedger memoryLedger;
+
+	/**
+	 * Конструирует хранилище игроков.
+	 *
+	 * @param memoryLedger учёт в памяти.
+	 */
+	@Autowired
+	public MemoryPlayerRepositoryImpl(final MemoryLedger memoryLedger) {
+		Objects.requireNonNull(memoryLedger);
+		this.memoryLedger = memoryLedger;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param player {@inheritDoc}
+	 * @return {@inheritDoc}
+	 * @throws DuplicateKeyException если имя игрока уже занято.
+	 */
+	@Override
+	public Player save(final Player player) {
+		Objects.requireNonNull(player);
+
+		return this.memoryLedger.addPlayer(player.getName(), player.getPassword())
+				.orElseThrow(() -> new DuplicateKeyException("Имя игрока уже занято."));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param name {@inheritDoc}
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public boolean existsByName(final String name) {
+		return this.memoryLedger.existsPlayer(name);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param name     {@inheritDoc}
+	 * @param password {@inheritDoc}
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public Optional<Player> find(final String name, final String password) {
+		return this.memoryLedger.findPlayer(name, password);
+	}
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.repository.impl;
+
+import dev.kalenchukov.wallet.entity.Operation;
+import dev.kalenchukov.wallet.money.AmountConverter;
+import dev.kalenchukov.wallet.repository.OperationPartitionRepository;
+import dev.kalenchukov.wallet.type.OperationType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+
+/**
+ * Класс хранилища секций таблицы операций.
+ * Секция месяца называется {@code operations_yГГГГmММ} и содержит операции,
+ * созданные с начала месяца включительно до начала следующего месяца по UTC.
+ * Секция {@code operations_legacy} содержит операции, созданные до секционирования таблицы, и не обслуживается.
+ */
+@Repository
+public class OperationPartitionRepositoryImpl implements OperationPartitionRepository {
+	/**
+	 * Формат названия секции.
+	 */
+	private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'operations_y'uuuu'm'MM");
+
+	/**
+	 * Источник данных.
+	 */
+	private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+	/**
+	 * Источник данных для выгрузки операций с чтением строк частями.
+	 */
+	private final JdbcTemplate exportJdbcTemplate;
+
+	/**
+	 * Шаблон транзакций.
+	 */
+	private final TransactionTemplate transactionTemplate;
+
+	/**
+	 * Преобразователь сумм.
+	 */
+	private final AmountConverter amountConverter;
+
+	/**
+	 * Конструирует хранилище секций таблицы операций.
+	 *
+	 * @param namedParameterJdbcTemplate источник данных.
+	 * @param transactionTemplate        шаблон транзакций.
+	 * @param amountConverter            преобразователь сумм.
+	 * @param exportFetchSize            количество строк, читаемых за раз при выгрузке операций.
+	 * @throws IllegalArgumentException если количество строк выгрузки меньше единицы.
+	 */
+	@Autowired
+	public OperationPartitionRepositoryImpl(final NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+											final TransactionTemplate transactionTemplate,
+											final AmountConverter amountConverter,
+											@Value("${operation-export.fetch-size}") final int exportFetchSize) {
+		Objects.requireNonNull(namedParameterJdbcTemplate);
+		Objects.requireNonNull(transactionTemplate);
+		Objects.requireNonNull(amountConverter);
+
+		if (exportFetchSize < 1) {
+			throw new IllegalArgumentException("Количество строк выгрузки должно быть больше нуля.");
+		}
+
+		JdbcTemplate exportJdbcTemplate = new JdbcTemplate(
+				Objects.requireNonNull(namedParameterJdbcTemplate.getJdbcTemplate().getDataSource())
+		);
+		exportJdbcTemplate.setFetchSize(exportFetchSize);
+
+		this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+		this.exportJdbcTemplate = exportJdbcTemplate;
+		this.transactionTemplate = transactionTemplate;
+		this.amountConverter = amountConverter;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * Секции с названиями другого вида пропускаются.
+	 *
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public List<YearMonth> find() {
+		String query = """
+				SELECT c.relname
+				FROM pg_inherits i
+				JOIN pg_class c ON c.oid = i.inhrelid
+				WHERE i.inhparent = 'operations'::regclass
+				ORDER BY c.relname ASC
+				""";
+
+		List<String> names = this.namedParameterJdbcTemplate.queryForList(query, new MapSqlParameterSource(),
+				String.class);
+
+		List<YearMonth> months = new ArrayList<>(names.size());
+		for (String name : names) {
+			try {
+				months.add(YearMonth.parse(name, PARTITION_NAME));
+			} catch (DateTimeParseException exception) {
+				// Секция создана вручную и не обслуживается.
+			}
+		}
+
+		return months;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param month {@inheritDoc}
+	 */
+	@Override
+	public void create(final YearMonth month) {
+		Objects.requireNonNull(month);
+
+		String query = String.format("""
+				CREATE TABLE IF NOT EXISTS %s PARTITION OF operations
+				FOR VALUES FROM ('%s-01 00:00:00+00') TO ('%s-01 00:00:00+00')
+				""", month.format(PARTITION_NAME), month, month.plusMonths(1L));
+
+		this.namedParameterJdbcTemplate.getJdbcOperations().execute(query);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * Строки читаются курсором на стороне сервера внутри транзакции, поэтому драйвер
+	 * не загружает всю секцию.
+	 *
+	 * @param month    {@inheritDoc}
+	 * @param consumer {@inheritDoc}
+	 */
+	@Override
+	public void export(final YearMonth month, final BiConsumer<Operation, Instant> consumer) {
+		Objects.requireNonNull(month);
+		Objects.requireNonNull(consumer);
+
+		String query = String.format("""
+				SELECT *
+				FROM %s
+				ORDER BY account_id ASC, player_id ASC, operation_id ASC
+				""", month.format(PARTITION_NAME));
+
+		this.transactionTemplate.executeWithoutResult(status ->
+				this.exportJdbcTemplate.query(query, (RowCallbackHandler) rs ->
+						consumer.accept(new Operation(rs.getLong("operation_id"),
+								rs.getLong("player_id"),
+								rs.getLong("account_id"),
+								OperationType.fromCode(rs.getShort("type")),
+								this.amountConverter.getAmount(rs, "amount")
+						), rs.getTimestamp("created_at").toInstant())
+				)
+		);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param month {@inheritDoc}
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public List<Long> findAccountIds(final YearMonth month) {
+		Objects.requireNonNull(month);
+
+		String query = String.format("""
+				SELECT DISTINCT account_id
+				FROM %s
+				ORDER BY account_id ASC
+				""", month.format(PARTITION_NAME));
+
+		return this.namedParameterJdbcTemplate.getJdbcOperations().queryForList(query, Long.class);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param month {@inheritDoc}
+	 */
+	@Override
+	public void drop(final YearMonth month) {
+		Objects.requireNonNull(month);
+
+		String name = month.format(PARTITION_NAME);
+
+		this.transactionTemplate.executeWithoutResult(status -> {
+			this.namedParameterJdbcTemplate.getJdbcOperations().execute(
+					"ALTER TABLE operations DETACH PARTITION " + name
+			);
+			this.namedParameterJdbcTemplate.getJdbcOperations().execute(
+					"DROP TABLE " + name
+			);
+		});
+	}
+}
@@ -6,44 +6,142 @@
 
 package dev.kalenchukov.wallet.repository.impl;
 
+import dev.kalenchukov.wallet.archive.OperationArchive;
 import dev.kalenchukov.wallet.entity.Operation;
+import dev.kalenchukov.wallet.entity.OperationSummary;
+import dev.kalenchukov.wallet.money.AmountConverter;
 import dev.kalenchukov.wallet.repository.OperationRepository;
 import dev.kalenchukov.wallet.type.OperationType;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
 import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Класс хранилища операций.
  */
 @Repository
+@Profile("!memory")
 public class OperationRepositoryImpl implements OperationRepository {
 	/**
 	 * Источник данных.
 	 */
 	private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
 
+	/**
+	 * Источник данных для выгрузки операций с чтением строк частями.
+	 */
+	private final NamedParameterJdbcTemplate exportJdbcTemplate;
+
+	/**
+	 * Шаблон транзакций.
+	 */
+	private final TransactionTemplate transactionTemplate;
+
+	/**
+	 * Преобразователь сумм.
+	 */
+	private final AmountConverter amountConverter;
+
+	/**
+	 * Архив операций.
+	 */
+	private final OperationArchive operationArchive;
+
+	/**
+	 * Групповое сохранение операций.
+	 * Равно {@code null}, если групповое сохранение отключено.
+	 */
+	private final GroupCommit<Operation, Operation> groupCommit;
+
 	/**
 	 * Конструирует хранилище операций.
 	 *
 	 * @param namedParameterJdbcTemplate источник данных.
+	 * @param transactionTemplate        шаблон транзакций.
+	 * @param amountConverter            преобразователь сумм.
+	 * @param operationArchive           архив операций.
+	 * @param groupCommitEnabled         признак группового сохранения операций.
+	 * @param groupCommitMaxDelay        максимальное время ожидания группы в миллисекундах.
+	 * @param groupCommitMaxBatchSize    максимальный размер группы.
+	 * @param exportFetchSize            количество строк, читаемых за раз при выгрузке операций.
+	 * @throws IllegalArgumentException если время ожидания отрицательное, размер группы
+	 *                                  или количество строк выгрузки меньше единицы.
 	 */
 	@Autowired
-	public OperationRepositoryImpl(final NamedParameterJdbcTemplate namedParameterJdbcTemplate) {
+	public OperationRepositoryImpl(final NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+								   final TransactionTemplate transactionTemplate,
+								   final AmountConverter amountConverter,
+								   final OperationArchive operationArchive,
+								   @Value("${operation-group-commit.enabled}") final boolean groupCommitEnabled,
+								   @Value("${operation-group-commit.max-delay}") final long groupCommitMaxDelay,
+								   @Value("${operation-group-commit.max-batch-size}") final int groupCommitMaxBatchSize,
+								   @Value("${operation-export.fetch-size}") final int exportFetchSize) {
 		Objects.requireNonNull(namedParameterJdbcTemplate);
+		Objects.requireNonNull(transactionTemplate);
+		Objects.requireNonNull(amountConverter);
+		Objects.requireNonNull(operationArchive);
+
+		if (exportFetchSize < 1) {
+			throw new IllegalArgumentException("Количество строк выгрузки должно быть больше нуля.");
+		}
+
+		JdbcTemplate exportJdbcTemplate = new JdbcTemplate(
+				Objects.requireNonNull(namedParameterJdbcTemplate.getJdbcTemplate().getDataSource())
+		);
+		exportJdbcTemplate.setFetchSize(exportFetchSize);
+
 		this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+		this.exportJdbcTemplate = new NamedParameterJdbcTemplate(exportJdbcTemplate);
+		this.transactionTemplate = transactionTemplate;
+		this.amountConverter = amountConverter;
+		this.operationArchive = operationArchive;
+		this.groupCommit = groupCommitEnabled
+				? new GroupCommit<>("operation-group-commit", groupCommitMaxDelay, groupCommitMaxBatchSize,
+						this::saveAll)
+				: null;
+	}
+
+	/**
+	 * Останавливает поток группового сохранения.
+	 * Операции, оставшиеся в очереди, сохраняются перед остановкой.
+	 *
+	 * @throws InterruptedException если ожидание остановки прервано.
+	 */
+	@PreDestroy
+	public void shutdown() throws InterruptedException {
+		if (this.groupCommit != null) {
+			this.groupCommit.shutdown();
+		}
 	}
 
 	/**
 	 * {@inheritDoc}
+	 * В режиме группового сохранения операция ставится в очередь и записывается
+	 * вместе с операциями других запросов, поступивших в то же окно.
 	 *
 	 * @param operation {@inheritDoc}
 	 * @return {@inheritDoc}
@@ -52,28 +150,68 @@ public class OperationRepositoryImpl implements OperationRepository {
 	public Operation save(final Operation operation) {
 		Objects.requireNonNull(operation);
 
+		if (this.groupCommit == null) {
+			return this.saveAll(List.of(operation)).get(0);
+		}
+
+		return this.groupCommit.submit(operation);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param operations {@inheritDoc}
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public List<Operation> saveAll(final List<Operation> operations) {
+		Objects.requireNonNull(operations);
+
+		if (operations.isEmpty()) {
+			return List.of();
+		}
+
 		String query = """
 				INSERT INTO operations (player_id, account_id, type, amount)
 				VALUES (:player_id, :account_id, :type, :amount)
 				""";
 
-		MapSqlParameterSource mapSqlParameterSource = new MapSqlParameterSource();
-		mapSqlParameterSource.addValue("player_id", operation.getPlayerId());
-		mapSqlParameterSource.addValue("account_id", operation.getAccountId());
-		mapSqlParameterSource.addValue("type", operation.getOperationType().name());
-		mapSqlParameterSource.addValue("amount", operation.getAmount());
+		MapSqlParameterSource[] mapSqlParameterSources = new MapSqlParameterSource[operations.size()];
+		for (int index = 0; index < operations.size(); index++) {
+			Operation operation = Objects.requireNonNull(operations.get(index));
 
-		KeyHolder keyHolder = new GeneratedKeyHolder();
-		this.namedParameterJdbcTemplate.update(query, mapSqlParameterSource, keyHolder);
-		long operationId = (long) Objects.requireNonNull(keyHolder.getKeys()).get("operation_id");
+			mapSqlParameterSources[index] = new MapSqlParameterSource();
+			mapSqlParameterSources[index].addValue("player_id", operation.getPlayerId());
+			mapSqlParameterSources[index].addValue("account_id", operation.getAccountId());
+			mapSqlParameterSources[index].addValue("type", operation.getOperationType().getCode());
+			mapSqlParameterSources[index].addValue("amount",
+					this.amountConverter.toColumn(operation.getAmount()));
+		}
 
-		return new Operation(operationId, operation.getPlayerId(), operation.getAccountId(),
-				operation.getOperationType(), operation.getAmount()
+		KeyHolder keyHolder = new GeneratedKeyHolder();
+		this.transactionTemplate.executeWithoutResult(status ->
+				this.namedParameterJdbcTemplate.batchUpdate(query, mapSqlParameterSources, keyHolder,
+						new String[]{"operation_id"}
+				)
 		);
+
+		List<Map<String, Object>> keys = keyHolder.getKeyList();
+		List<Operation> savedOperations = new ArrayList<>(operations.size());
+		for (int index = 0; index < operations.size(); index++) {
+			Operation operation = operations.get(index);
+			long operationId = ((Number) keys.get(index).get("operation_id")).longValue();
+
+			savedOperations.add(new Operation(operationId, operation.getPlayerId(), operation.getAccountId(),
+					operation.getOperationType(), operation.getAmount()
+			));
+		}
+
+		return savedOperations;
 	}
 
 	/**
 	 * {@inheritDoc}
+	 * Операция, не найденная в таблице операций, ищется в архиве.
 	 *
 	 * @param operationId {@inheritDoc}
 	 * @param accountId   {@inheritDoc}
@@ -98,18 +236,18 @@ public class OperationRepositoryImpl implements OperationRepository {
 							new Operation(rs.getLong("operation_id"),
 									rs.getLong("player_id"),
 									rs.getLong("account_id"),
-									OperationType.valueOf(
-											rs.getString("type")),
-									rs.getBigDecimal("amount")
+									OperationType.fromCode(rs.getShort("type")),
+									this.amountConverter.getAmount(rs, "amount")
 							))
 			);
 		} catch (EmptyResultDataAccessException exception) {
-			return Optional.empty();
+			return this.operationArchive.findById(playerId, accountId, operationId);
 		}
 	}
 
 	/**
 	 * {@inheritDoc}
+	 * Операции таблицы операций объединяются с операциями архива.
 	 *
 	 * @param playerId  {@inheritDoc}
 	 * @param accountId {@inheritDoc}
@@ -128,14 +266,290 @@ public class OperationRepositoryImpl implements OperationRepository {
 		mapSqlParameterSource.addValue("player_id", playerId);
 		mapSqlParameterSource.addValue("account_id", accountId);
 
-		return this.namedParameterJdbcTemplate.query(query, mapSqlParameterSource,
+		List<Operation> operations = this.namedParameterJdbcTemplate.query(query, mapSqlParameterSource,
+				(rs, row) -> new Operation(rs.getLong("operation_id"),
+						rs.getLong("player_id"),
+						rs.getLong("account_id"),
+						OperationType.fromCode(rs.getShort("type")),
+						this.amountConverter.getAmount(rs, "amount")
+				)
+		);
+
+		if (this.operationArchive.findMaxOperationId() == 0L) {
+			return operations;
+		}
+
+		return merge(operations, this.operationArchive.find(playerId, accountId), true, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * Архив просматривается, только если страница может содержать операции архива.
+	 *
+	 * @param playerId          {@inheritDoc}
+	 * @param accountId         {@inheritDoc}
+	 * @param beforeOperationId {@inheritDoc}
+	 * @param limit             {@inheritDoc}
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public List<Operation> findBefore(final long playerId, final long accountId, final long beforeOperationId,
+									  final int limit) {
+		String query = """
+				SELECT *
+				FROM operations
+				WHERE player_id = :player_id AND account_id = :account_id AND operation_id < :operation_id
+				ORDER BY operation_id DESC
+				LIMIT :limit
+				""";
+
+		MapSqlParameterSource mapSqlParameterSource = new MapSqlParameterSource();
+		mapSqlParameterSource.addValue("player_id", playerId);
+		mapSqlParameterSource.addValue("account_id", accountId);
+		mapSqlParameterSource.addValue("operation_id", beforeOperationId);
+		mapSqlParameterSource.addValue("limit", limit);
+
+		List<Operation> operations = this.namedParameterJdbcTemplate.query(query, mapSqlParameterSource,
+				(rs, row) -> new Operation(rs.getLong("operation_id"),
+						rs.getLong("player_id"),
+						rs.getLong("account_id"),
+						OperationType.fromCode(rs.getShort("type")),
+						this.amountConverter.getAmount(rs, "amount")
+				)
+		);
+
+		long maxArchivedOperationId = this.operationArchive.findMaxOperationId();
+		if (maxArchivedOperationId == 0L || (!operations.isEmpty() && operations.size() >= limit
+				&& operations.get(operations.size() - 1).getOperationId() > maxArchivedOperationId)) {
+			return operations;
+		}
+
+		return merge(operations,
+				this.operationArchive.findBefore(playerId, accountId, beforeOperationId, limit), true, limit
+		);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * Архив просматривается, только если в нём есть операции после заданной.
+	 *
+	 * @param playerId         {@inheritDoc}
+	 * @param accountId        {@inheritDoc}
+	 * @param afterOperationId {@inheritDoc}
+	 * @param limit            {@inheritDoc}
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public List<Operation> findAfter(final long playerId, final long accountId, final long afterOperationId,
+									 final int limit) {
+		String query = """
+				SELECT *
+				FROM operations
+				WHERE player_id = :player_id AND account_id = :account_id AND operation_id > :operation_id
+				ORDER BY operation_id ASC
+				LIMIT :limit
+				""";
+
+		MapSqlParameterSource mapSqlParameterSource = new MapSqlParameterSource();
+		mapSqlParameterSource.addValue("player_id", playerId);
+		mapSqlParameterSource.addValue("account_id", accountId);
+		mapSqlParameterSource.addValue("operation_id", afterOperationId);
+		mapSqlParameterSource.addValue("limit", limit);
+
+		List<Operation> operations = this.namedParameterJdbcTemplate.query(query, mapSqlParameterSource,
 				(rs, row) -> new Operation(rs.getLong("operation_id"),
 						rs.getLong("player_id"),
 						rs.getLong("account_id"),
-						OperationType.valueOf(
-								rs.getString("type")),
-						rs.getBigDecimal("amount")
+						OperationType.fromCode(rs.getShort("type")),
+						this.amountConverter.getAmount(rs, "amount")
+				)
+		);
+
+		if (afterOperationId >= this.operationArchive.findMaxOperationId()) {
+			return operations;
+		}
+
+		return merge(operations,
+				this.operationArchive.findAfter(playerId, accountId, afterOperationId, limit), false, limit
+		);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * Строки читаются курсором на стороне сервера внутри транзакции, поэтому драйвер
+	 * не загружает весь результат запроса.
+	 * Операции архива передаются раньше операций таблицы операций с большими идентификаторами.
+	 * Операции из журнала сохраняются в таблицу позже создания, поэтому операции таблицы
+	 * с идентификаторами не больше наибольшего в архиве загружаются отдельно и передаются вперемешку с архивом.
+	 *
+	 * @param playerId  {@inheritDoc}
+	 * @param accountId {@inheritDoc}
+	 * @param from      {@inheritDoc}
+	 * @param to        {@inheritDoc}
+	 * @param consumer  {@inheritDoc}
+	 */
+	@Override
+	public void export(final long playerId, final long accountId, final Instant from, final Instant to,
+					   final Consumer<Operation> consumer) {
+		Objects.requireNonNull(consumer);
+
+		MapSqlParameterSource mapSqlParameterSource = new MapSqlParameterSource();
+		mapSqlParameterSource.addValue("player_id", playerId);
+		mapSqlParameterSource.addValue("account_id", accountId);
+
+		StringBuilder conditions = new StringBuilder();
+		if (from != null) {
+			conditions.append(" AND created_at >= :from");
+			mapSqlParameterSource.addValue("from", Timestamp.from(from));
+		}
+
+		if (to != null) {
+			conditions.append(" AND created_at < :to");
+			mapSqlParameterSource.addValue("to", Timestamp.from(to));
+		}
+
+		long maxArchivedOperationId = this.operationArchive.findMaxOperationId();
+		if (maxArchivedOperationId > 0L) {
+			mapSqlParameterSource.addValue("archived_operation_id", maxArchivedOperationId);
+
+			Deque<Operation> operations = new ArrayDeque<>(this.namedParameterJdbcTemplate.query("""
+							SELECT *
+							FROM operations
+							WHERE player_id = :player_id AND account_id = :account_id
+								AND operation_id <= :archived_operation_id%s
+							ORDER BY operation_id ASC
+							""".formatted(conditions), mapSqlParameterSource,
+					(rs, row) -> new Operation(rs.getLong("operation_id"),
+							rs.getLong("player_id"),
+							rs.getLong("account_id"),
+							OperationType.fromCode(rs.getShort("type")),
+							this.amountConverter.getAmount(rs, "amount")
+					)
+			));
+
+			this.operationArchive.export(playerId, accountId, from, to, operation -> {
+				while (!operations.isEmpty() && operations.peekFirst().getOperationId() <= operation.getOperationId()) {
+					Operation first = operations.pollFirst();
+					if (first.getOperationId() < operation.getOperationId()) {
+						consumer.accept(first);
+					}
+				}
+
+				consumer.accept(operation);
+			});
+			operations.forEach(consumer);
+
+			conditions.append(" AND operation_id > :archived_operation_id");
+		}
+
+		String query = """
+				SELECT *
+				FROM operations
+				WHERE player_id = :player_id AND account_id = :account_id%s
+				ORDER BY operation_id ASC
+				""".formatted(conditions);
+
+		this.transactionTemplate.executeWithoutResult(status ->
+				this.exportJdbcTemplate.query(query, mapSqlParameterSource, (RowCallbackHandler) rs ->
+						consumer.accept(new Operation(rs.getLong("operation_id"),
+								rs.getLong("player_id"),
+								rs.getLong("account_id"),
+								OperationType.fromCode(rs.getShort("type")),
+								this.amountConverter.getAmount(rs, "amount")
+						))
+				)
+		);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * Итоги по дням обновляются триггером таблицы операций в транзакции вставки операций.
+	 * Итоги дня и типа операций распределены по частям по соединению, которое вставило операции,
+	 * чтобы одновременные вставки операций счёта не ожидали блокировку одной строки итогов,
+	 * поэтому запрос читает не больше нескольких строк на день и тип операций.
+	 *
+	 * @param playerId  {@inheritDoc}
+	 * @param accountId {@inheritDoc}
+	 * @param from      {@inheritDoc}
+	 * @param to        {@inheritDoc}
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public List<OperationSummary> summarize(final long playerId, final long accountId, final LocalDate from,
+											final LocalDate to) {
+		Objects.requireNonNull(from);
+		Objects.requireNonNull(to);
+
+		String query = """
+				SELECT type, SUM(count) AS count, SUM(amount) AS amount
+				FROM operation_rollups
+				WHERE account_id = :account_id AND player_id = :player_id AND day >= :from AND day <= :to
+				GROUP BY type
+				""";
+
+		MapSqlParameterSource mapSqlParameterSource = new MapSqlParameterSource();
+		mapSqlParameterSource.addValue("player_id", playerId);
+		mapSqlParameterSource.addValue("account_id", accountId);
+		mapSqlParameterSource.addValue("from", Date.valueOf(from));
+		mapSqlParameterSource.addValue("to", Date.valueOf(to));
+
+		List<OperationSummary> operationSummaries = this.namedParameterJdbcTemplate.query(query,
+				mapSqlParameterSource,
+				(rs, row) -> new OperationSummary(OperationType.fromCode(rs.getShort("type")),
+						rs.getLong("count"),
+						this.amountConverter.getAmount(rs, "amount")
 				)
 		);
+		operationSummaries.sort(Comparator.comparing(OperationSummary::getOperationType));
+
+		return operationSummaries;
+	}
+
+	/**
+	 * Объединяет операции таблицы операций и архива, упорядоченные по идентификаторам.
+	 * Операция, которая находится и в таблице, и в архиве до удаления секции, передаётся один раз.
+	 *
+	 * @param operations         операции таблицы операций.
+	 * @param archivedOperations операции архива.
+	 * @param descending         признак порядка убывания идентификаторов.
+	 * @param limit              максимальное количество операций.
+	 * @return операции.
+	 */
+	private static List<Operation> merge(final List<Operation> operations, final List<Operation> archivedOperations,
+										 final boolean descending, final int limit) {
+		if (archivedOperations.isEmpty()) {
+			return operations;
+		}
+
+		List<Operation> mergedOperations = new ArrayList<>(
+				Math.min(limit, operations.size() + archivedOperations.size())
+		);
+
+		int index = 0;
+		int archivedIndex = 0;
+		while (mergedOperations.size() < limit
+				&& (index < operations.size() || archivedIndex < archivedOperations.size())) {
+			if (archivedIndex == archivedOperations.size()) {
+				mergedOperations.add(operations.get(index++));
+				continue;
+			}
+
+			if (index == operations.size()) {
+				mergedOperations.add(archivedOperations.get(archivedIndex++));
+				continue;
+			}
+
+			int compare = Long.compare(operations.get(index).getOperationId(),
+					archivedOperations.get(archivedIndex).getOperationId());
+			if (compare == 0) {
+				archivedIndex++;
+			} else if (descending ? compare < 0 : compare > 0) {
+				mergedOperations.add(archivedOperations.get(archivedIndex++));
+			} else {
+				mergedOperations.add(operations.get(index++));
+			}
+		}
+
+		return mergedOperations;
 	}
 }
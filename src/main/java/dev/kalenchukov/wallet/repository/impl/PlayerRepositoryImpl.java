@@ -9,6 +9,7 @@ package dev.kalenchukov.wallet.repository.impl;
 import dev.kalenchukov.wallet.entity.Player;
 import dev.kalenchukov.wallet.repository.PlayerRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
@@ -23,6 +24,7 @@ import java.util.Optional;
  * Класс хранилища игроков.
  */
 @Repository
+@Profile("!memory")
 public class PlayerRepositoryImpl implements PlayerRepository {
 	/**
 	 * Источник данных.
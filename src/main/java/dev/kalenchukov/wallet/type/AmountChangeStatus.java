@@ -0,0 +1,42 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.type;
+
+/**
+ * Перечисление статусов изменения суммы счёта.
+ */
+public enum AmountChangeStatus {
+	/**
+	 * Сумма изменена.
+	 */
+	SUCCESS,
+
+	/**
+	 * Счёт не найден.
+	 */
+	NOT_FOUND_ACCOUNT,
+
+	/**
+	 * Счёт принадлежит другому игроку.
+	 */
+	NO_ACCESS_ACCOUNT,
+
+	/**
+	 * Недостаточно средств.
+	 */
+	OUT_OF_AMOUNT,
+
+	/**
+	 * Изменение отменено, так как не выполнено другое изменение из того же пакета.
+	 */
+	ROLLED_BACK,
+
+	/**
+	 * Изменение не выполнено, так как ключ идемпотентности не ожидает выполнения запроса.
+	 */
+	RELEASED_IDEMPOTENCY_KEY;
+}
@@ -13,10 +13,76 @@ public enum OperationType {
 	/**
 	 * Пополнение.
 	 */
-	CREDIT,
+	CREDIT((short) 1),
 
 	/**
 	 * Списание.
 	 */
-	DEBIT;
+	DEBIT((short) 2),
+
+	/**
+	 * Списание при переводе между счетами.
+	 */
+	TRANSFER_OUT((short) 3),
+
+	/**
+	 * Зачисление при переводе между счетами.
+	 */
+	TRANSFER_IN((short) 4);
+
+	/**
+	 * Типы операций по кодам.
+	 */
+	private static final OperationType[] BY_CODE;
+
+	static {
+		int maxCode = 0;
+		for (OperationType operationType : values()) {
+			maxCode = Math.max(maxCode, operationType.code);
+		}
+
+		BY_CODE = new OperationType[maxCode + 1];
+		for (OperationType operationType : values()) {
+			BY_CODE[operationType.code] = operationType;
+		}
+	}
+
+	/**
+	 * Код типа операции в базе данных.
+	 * Код не зависит от порядка объявления типов и не изменяется.
+	 */
+	private final short code;
+
+	/**
+	 * Конструирует тип операции.
+	 *
+	 * @param code код типа операции в базе данных.
+	 */
+	OperationType(final short code) {
+		this.code = code;
+	}
+
+	/**
+	 * Возвращает код типа операции в базе данных.
+	 *
+	 * @return код типа операции.
+	 */
+	public short getCode() {
+		return this.code;
+	}
+
+	/**
+	 * Возвращает тип операции по коду.
+	 *
+	 * @param code код типа операции в базе данных.
+	 * @return тип операции.
+	 * @throws IllegalArgumentException если типа операции с таким кодом нет.
+	 */
+	public static OperationType fromCode(final int code) {
+		if (code < 0 || code >= BY_CODE.length || BY_CODE[code] == null) {
+			throw new IllegalArgumentException("Неизвестный код типа операции: " + code);
+		}
+
+		return BY_CODE[code];
+	}
 }
@@ -0,0 +1,225 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.archive.impl;
+
+import dev.kalenchukov.wallet.archive.OperationArchive;
+import dev.kalenchukov.wallet.entity.Operation;
+import dev.kalenchukov.wallet.type.OperationType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class OperationArchiveImplTest {
+	private static final YearMonth JANUARY = YearMonth.of(2020, 1);
+
+	private static final YearMonth FEBRUARY = YearMonth.of(2020, 2);
+
+	@TempDir
+	private Path directory;
+
+	private static void write(final OperationArchive operationArchive, final YearMonth month,
+							  final List<Operation> operations) {
+		operationArchive.write(month, consumer -> {
+			for (Operation operation : operations) {
+				consumer.accept(operation, month.atDay(1).atStartOfDay().toInstant(ZoneOffset.UTC)
+						.plusSeconds(operation.getOperationId()));
+			}
+		});
+	}
+
+	@Nested
+	public class Constructor {
+		@DisplayName("Проверка с отсутствующим каталогом.")
+		@Test
+		public void constructorWithoutDirectory() {
+			OperationArchive operationArchive = new OperationArchiveImpl(directory.resolve("archive").toString());
+
+			assertThat(operationArchive.find()).isEmpty();
+			assertThat(operationArchive.findMaxOperationId()).isZero();
+			assertThat(directory.resolve("archive")).doesNotExist();
+		}
+	}
+
+	@Nested
+	public class Write {
+		@DisplayName("Проверка с корректными данными.")
+		@Test
+		public void writeValid() {
+			List<Operation> operations = List.of(
+					new Operation(1L, 7L, 3L, OperationType.CREDIT, new BigDecimal("10.50")),
+					new Operation(4L, 7L, 3L, OperationType.DEBIT, new BigDecimal("0.25")),
+					new Operation(2L, 8L, 5L, OperationType.CREDIT, new BigDecimal("-7.00"))
+			);
+			OperationArchive operationArchive = new OperationArchiveImpl(directory.toString());
+
+			Set<Long> actualAccountIds = operationArchive.write(JANUARY, consumer -> {
+				for (Operation operation : operations) {
+					consumer.accept(operation, Instant.parse("2020-01-15T10:00:00Z"));
+				}
+			});
+
+			assertThat(actualAccountIds).containsExactlyInAnyOrder(3L, 5L);
+			assertThat(operationArchive.find()).containsExactly(JANUARY);
+			assertThat(operationArchive.findMaxOperationId()).isEqualTo(4L);
+			assertThat(operationArchive.find(7L, 3L)).containsExactly(operations.get(1), operations.get(0));
+			assertThat(operationArchive.find(8L, 5L)).containsExactly(operations.get(2));
+		}
+
+		@DisplayName("Проверка чтения сегментов после перезапуска.")
+		@Test
+		public void writeWithReopen() {
+			List<Operation> operations = new ArrayList<>();
+			for (long operationId = 1L; operationId <= 1000L; operationId++) {
+				operations.add(new Operation(operationId * 3L, 1L, 2L,
+						operationId % 2 == 0 ? OperationType.CREDIT : OperationType.DEBIT,
+						BigDecimal.valueOf(operationId * 17L, 2)
+				));
+			}
+			write(new OperationArchiveImpl(directory.toString()), JANUARY, operations);
+
+			OperationArchive operationArchive = new OperationArchiveImpl(directory.toString());
+
+			assertThat(operationArchive.find()).containsExactly(JANUARY);
+			assertThat(operationArchive.find(1L, 2L)).hasSize(1000);
+			assertThat(operationArchive.findById(1L, 2L, 300L)).contains(operations.get(99));
+			assertThat(operationArchive.findById(1L, 2L, 301L)).isEmpty();
+		}
+
+		@DisplayName("Проверка с заменой сегмента месяца.")
+		@Test
+		public void writeTwice() {
+			OperationArchive operationArchive = new OperationArchiveImpl(directory.toString());
+			write(operationArchive, JANUARY, List.of(
+					new Operation(1L, 1L, 2L, OperationType.CREDIT, BigDecimal.ONE)
+			));
+
+			write(operationArchive, JANUARY, List.of(
+					new Operation(2L, 1L, 2L, OperationType.DEBIT, BigDecimal.TEN)
+			));
+
+			assertThat(operationArchive.find(1L, 2L)).extracting(Operation::getOperationId).containsExactly(2L);
+			assertThat(new OperationArchiveImpl(directory.toString()).find(1L, 2L))
+					.extracting(Operation::getOperationId).containsExactly(2L);
+		}
+
+		@DisplayName("Проверка с операциями не по порядку.")
+		@Test
+		public void writeWithUnorderedOperations() {
+			OperationArchive operationArchive = new OperationArchiveImpl(directory.toString());
+
+			assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> {
+				write(operationArchive, JANUARY, List.of(
+						new Operation(1L, 1L, 5L, OperationType.CREDIT, BigDecimal.ONE),
+						new Operation(2L, 1L, 4L, OperationType.CREDIT, BigDecimal.ONE)
+				));
+			});
+			assertThat(operationArchive.find()).isEmpty();
+		}
+
+		@DisplayName("Проверка с повреждённым сегментом.")
+		@Test
+		public void writeWithCorruptedSegment() throws IOException {
+			write(new OperationArchiveImpl(directory.toString()), JANUARY, List.of(
+					new Operation(1L, 1L, 2L, OperationType.CREDIT, BigDecimal.ONE)
+			));
+			Path path = directory.resolve(JANUARY + ".archive");
+			Files.write(path, new byte[Math.toIntExact(Files.size(path))]);
+
+			OperationArchive operationArchive = new OperationArchiveImpl(directory.toString());
+
+			assertThatExceptionOfType(IllegalStateException.class).isThrownBy(operationArchive::find);
+		}
+	}
+
+	@Nested
+	public class FindBefore {
+		@DisplayName("Проверка с пересекающимися идентификаторами сегментов.")
+		@Test
+		public void findBeforeWithOverlappingSegments() {
+			OperationArchive operationArchive = new OperationArchiveImpl(directory.toString());
+			write(operationArchive, JANUARY, List.of(
+					new Operation(1L, 1L, 2L, OperationType.CREDIT, BigDecimal.ONE),
+					new Operation(5L, 1L, 2L, OperationType.CREDIT, BigDecimal.ONE),
+					new Operation(8L, 1L, 2L, OperationType.CREDIT, BigDecimal.ONE)
+			));
+			write(operationArchive, FEBRUARY, List.of(
+					new Operation(7L, 1L, 2L, OperationType.DEBIT, BigDecimal.ONE),
+					new Operation(9L, 1L, 2L, OperationType.DEBIT, BigDecimal.ONE)
+			));
+
+			assertThat(operationArchive.findBefore(1L, 2L, Long.MAX_VALUE, 3))
+					.extracting(Operation::getOperationId).containsExactly(9L, 8L, 7L);
+			assertThat(operationArchive.findBefore(1L, 2L, 7L, 3))
+					.extracting(Operation::getOperationId).containsExactly(5L, 1L);
+			assertThat(operationArchive.findBefore(2L, 2L, Long.MAX_VALUE, 3)).isEmpty();
+		}
+	}
+
+	@Nested
+	public class FindAfter {
+		@DisplayName("Проверка с пересекающимися идентификаторами сегментов.")
+		@Test
+		public void findAfterWithOverlappingSegments() {
+			OperationArchive operationArchive = new OperationArchiveImpl(directory.toString());
+			write(operationArchive, JANUARY, List.of(
+					new Operation(1L, 1L, 2L, OperationType.CREDIT, BigDecimal.ONE),
+					new Operation(5L, 1L, 2L, OperationType.CREDIT, BigDecimal.ONE),
+					new Operation(8L, 1L, 2L, OperationType.CREDIT, BigDecimal.ONE)
+			));
+			write(operationArchive, FEBRUARY, List.of(
+					new Operation(7L, 1L, 2L, OperationType.DEBIT, BigDecimal.ONE),
+					new Operation(9L, 1L, 2L, OperationType.DEBIT, BigDecimal.ONE)
+			));
+
+			assertThat(operationArchive.findAfter(1L, 2L, 0L, 3))
+					.extracting(Operation::getOperationId).containsExactly(1L, 5L, 7L);
+			assertThat(operationArchive.findAfter(1L, 2L, 7L, 3))
+					.extracting(Operation::getOperationId).containsExactly(8L, 9L);
+		}
+	}
+
+	@Nested
+	public class Export {
+		@DisplayName("Проверка с периодом.")
+		@Test
+		public void exportWithPeriod() {
+			OperationArchive operationArchive = new OperationArchiveImpl(directory.toString());
+			operationArchive.write(JANUARY, consumer -> {
+				consumer.accept(new Operation(1L, 1L, 2L, OperationType.CREDIT, BigDecimal.ONE),
+						Instant.parse("2020-01-10T00:00:00Z"));
+				consumer.accept(new Operation(2L, 1L, 2L, OperationType.CREDIT, BigDecimal.TEN),
+						Instant.parse("2020-01-20T00:00:00.000001Z"));
+				consumer.accept(new Operation(3L, 1L, 2L, OperationType.DEBIT, BigDecimal.ONE),
+						Instant.parse("2020-01-30T00:00:00Z"));
+			});
+			List<Operation> actualPeriod = new ArrayList<>();
+			List<Operation> actualAll = new ArrayList<>();
+
+			operationArchive.export(1L, 2L, Instant.parse("2020-01-20T00:00:00.000001Z"),
+					Instant.parse("2020-01-30T00:00:00Z"), actualPeriod::add);
+			operationArchive.export(1L, 2L, null, null, actualAll::add);
+
+			assertThat(actualPeriod).extracting(Operation::getOperationId).containsExactly(2L);
+			assertThat(actualAll).extracting(Operation::getOperationId).containsExactly(1L, 2L, 3L);
+		}
+	}
+}
\ No newline at end of file
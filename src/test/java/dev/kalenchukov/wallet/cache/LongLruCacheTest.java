@@ -0,0 +1,143 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class LongLruCacheTest {
+	private SimpleMeterRegistry meterRegistry;
+
+	@BeforeEach
+	public void beforeEach() {
+		this.meterRegistry = new SimpleMeterRegistry();
+	}
+
+	@Nested
+	public class Constructor {
+		@DisplayName("Проверка с нулевым размером.")
+		@Test
+		public void constructorWithZeroSize() {
+			assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> {
+				new LongLruCache<String>("test", 0, 0L, meterRegistry);
+			});
+		}
+
+		@DisplayName("Проверка с отрицательным временем жизни.")
+		@Test
+		public void constructorWithNegativeTtl() {
+			assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> {
+				new LongLruCache<String>("test", 10, -1L, meterRegistry);
+			});
+		}
+	}
+
+	@Nested
+	public class Get {
+		@DisplayName("Проверка с корректными данными.")
+		@Test
+		public void getValid() {
+			LongLruCache<String> cache = new LongLruCache<>("test", 10, 0L, meterRegistry);
+			cache.put(7L, "seven");
+
+			assertThat(cache.get(7L)).isEqualTo("seven");
+			assertThat(cache.get(8L)).isNull();
+			assertThat(meterRegistry.get("cache.gets").tag("result", "hit").counter().count()).isEqualTo(1.0);
+			assertThat(meterRegistry.get("cache.gets").tag("result", "miss").counter().count()).isEqualTo(1.0);
+		}
+
+		@DisplayName("Проверка с устаревшей записью.")
+		@Test
+		public void getWithExpired() throws InterruptedException {
+			LongLruCache<String> cache = new LongLruCache<>("test", 10, 1L, meterRegistry);
+			cache.put(7L, "seven");
+
+			Thread.sleep(5L);
+
+			assertThat(cache.get(7L)).isNull();
+			assertThat(cache.size()).isZero();
+		}
+	}
+
+	@Nested
+	public class Put {
+		@DisplayName("Проверка вытеснения давно не использованной записи.")
+		@Test
+		public void putEvictsLeastRecentlyUsed() {
+			LongLruCache<String> cache = new LongLruCache<>("test", 1, 0L, meterRegistry);
+			cache.put(1L, "one");
+			cache.put(2L, "two");
+
+			assertThat(cache.get(1L)).isNull();
+			assertThat(cache.get(2L)).isEqualTo("two");
+			assertThat(meterRegistry.get("cache.evictions").counter().count()).isEqualTo(1.0);
+		}
+
+		@DisplayName("Проверка сохранения недавно использованной записи.")
+		@Test
+		public void putKeepsRecentlyUsed() {
+			LongLruCache<String> cache = new LongLruCache<>("test", 3, 0L, meterRegistry);
+			cache.put(1L, "one");
+			cache.put(2L, "two");
+			cache.put(3L, "three");
+			cache.get(1L);
+			cache.put(4L, "four");
+
+			assertThat(cache.get(1L)).isEqualTo("one");
+			assertThat(cache.get(2L)).isNull();
+			assertThat(cache.get(3L)).isEqualTo("three");
+			assertThat(cache.get(4L)).isEqualTo("four");
+		}
+
+		@DisplayName("Проверка ограничения количества записей.")
+		@Test
+		public void putBounded() {
+			LongLruCache<Long> cache = new LongLruCache<>("test", 100, 0L, meterRegistry);
+
+			for (long key = 0; key < 10_000; key++) {
+				cache.put(key, key);
+			}
+
+			assertThat(cache.size()).isEqualTo(100);
+			assertThat(meterRegistry.get("cache.evictions").counter().count()).isEqualTo(9_900.0);
+		}
+
+		@DisplayName("Проверка замены значения.")
+		@Test
+		public void putReplace() {
+			LongLruCache<String> cache = new LongLruCache<>("test", 10, 0L, meterRegistry);
+			cache.put(1L, "one");
+			cache.put(1L, "uno");
+
+			assertThat(cache.get(1L)).isEqualTo("uno");
+			assertThat(cache.size()).isEqualTo(1);
+		}
+	}
+
+	@Nested
+	public class Remove {
+		@DisplayName("Проверка с корректными данными.")
+		@Test
+		public void removeValid() {
+			LongLruCache<String> cache = new LongLruCache<>("test", 10, 0L, meterRegistry);
+			cache.put(1L, "one");
+			cache.put(2L, "two");
+
+			cache.remove(1L);
+
+			assertThat(cache.get(1L)).isNull();
+			assertThat(cache.get(2L)).isEqualTo("two");
+			assertThat(cache.size()).isEqualTo(1);
+		}
+	}
+}
\ No newline at end of file
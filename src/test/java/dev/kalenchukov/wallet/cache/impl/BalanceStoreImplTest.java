@@ -0,0 +1,172 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.cache.impl;
+
+import dev.kalenchukov.wallet.entity.Account;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class BalanceStoreImplTest {
+	@TempDir
+	private Path directory;
+
+	private BalanceStoreImpl open(final int capacity) {
+		BalanceStoreImpl balanceStore = new BalanceStoreImpl(true, directory.resolve("balances.store").toString(),
+				capacity, 60000L);
+		balanceStore.open();
+
+		return balanceStore;
+	}
+
+	@Nested
+	public class Constructor {
+		@DisplayName("Проверка с некорректным количеством ячеек.")
+		@Test
+		public void constructorWithInvalidCapacity() {
+			assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> {
+				new BalanceStoreImpl(true, "balances.store", 0, 60000L);
+			});
+			assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> {
+				new BalanceStoreImpl(true, "balances.store", Integer.MAX_VALUE, 60000L);
+			});
+			assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> {
+				new BalanceStoreImpl(true, "balances.store", 10, -1L);
+			});
+		}
+	}
+
+	@Nested
+	public class Put {
+		@DisplayName("Проверка с корректными данными.")
+		@Test
+		public void putValid() {
+			BalanceStoreImpl balanceStore = open(10);
+
+			balanceStore.put(new Account(3L, 7L, new BigDecimal("-12.50")));
+
+			assertThat(balanceStore.get(3L)).isEqualTo(new Account(3L, 7L, new BigDecimal("-12.50")));
+			assertThat(balanceStore.get(4L)).isNull();
+			balanceStore.close();
+		}
+
+		@DisplayName("Проверка с истекшим временем жизни записи.")
+		@Test
+		public void putWithExpired() throws InterruptedException {
+			BalanceStoreImpl balanceStore = new BalanceStoreImpl(true, directory.resolve("balances.store").toString(),
+					10, 1L);
+			balanceStore.open();
+
+			balanceStore.put(new Account(3L, 7L, BigDecimal.ONE));
+			Thread.sleep(5L);
+
+			assertThat(balanceStore.get(3L)).isNull();
+			balanceStore.close();
+		}
+
+				@DisplayName("Проверка со счётом вне хранилища.")
+		@Test
+		public void putWithOutOfCapacity() {
+			BalanceStoreImpl balanceStore = open(10);
+
+			balanceStore.put(new Account(11L, 7L, BigDecimal.ONE));
+			balanceStore.put(new Account(0L, 7L, BigDecimal.ONE));
+
+			assertThat(balanceStore.get(11L)).isNull();
+			assertThat(balanceStore.get(0L)).isNull();
+			balanceStore.close();
+		}
+
+		@DisplayName("Проверка с суммой, не помещающейся в ячейку.")
+		@Test
+		public void putWithLargeAmount() {
+			BalanceStoreImpl balanceStore = open(10);
+			balanceStore.put(new Account(1L, 7L, BigDecimal.ONE));
+
+			balanceStore.put(new Account(1L, 7L, new BigDecimal("123456789012345678901234567890.00")));
+
+			assertThat(balanceStore.get(1L)).isNull();
+			balanceStore.close();
+		}
+
+		@DisplayName("Проверка с неиспользуемым хранилищем.")
+		@Test
+		public void putWithDisabled() {
+			BalanceStoreImpl balanceStore = new BalanceStoreImpl(false,
+					directory.resolve("balances.store").toString(), 10, 60000L);
+			balanceStore.open();
+
+			balanceStore.put(new Account(1L, 7L, BigDecimal.ONE));
+
+			assertThat(balanceStore.get(1L)).isNull();
+			assertThat(directory.resolve("balances.store")).doesNotExist();
+		}
+	}
+
+	@Nested
+	public class Remove {
+		@DisplayName("Проверка с корректными данными.")
+		@Test
+		public void removeValid() {
+			BalanceStoreImpl balanceStore = open(10);
+			balanceStore.put(new Account(1L, 7L, BigDecimal.ONE));
+
+			balanceStore.remove(1L);
+
+			assertThat(balanceStore.get(1L)).isNull();
+			balanceStore.close();
+		}
+	}
+
+	@Nested
+	public class Open {
+		@DisplayName("Проверка сохранения сумм после штатной остановки.")
+		@Test
+		public void openAfterClose() {
+			BalanceStoreImpl balanceStore = open(10);
+			balanceStore.put(new Account(1L, 7L, BigDecimal.TEN));
+			balanceStore.close();
+
+			BalanceStoreImpl reopenedBalanceStore = open(10);
+
+			assertThat(reopenedBalanceStore.get(1L)).isEqualTo(new Account(1L, 7L, BigDecimal.TEN));
+			reopenedBalanceStore.close();
+		}
+
+		@DisplayName("Проверка очистки после аварийной остановки.")
+		@Test
+		public void openWithoutClose() {
+			BalanceStoreImpl balanceStore = open(10);
+			balanceStore.put(new Account(1L, 7L, BigDecimal.TEN));
+
+			BalanceStoreImpl reopenedBalanceStore = open(10);
+
+			assertThat(reopenedBalanceStore.get(1L)).isNull();
+			reopenedBalanceStore.close();
+		}
+
+		@DisplayName("Проверка очистки при изменении количества ячеек.")
+		@Test
+		public void openWithOtherCapacity() {
+			BalanceStoreImpl balanceStore = open(10);
+			balanceStore.put(new Account(1L, 7L, BigDecimal.TEN));
+			balanceStore.close();
+
+			BalanceStoreImpl reopenedBalanceStore = open(20);
+
+			assertThat(reopenedBalanceStore.get(1L)).isNull();
+			reopenedBalanceStore.close();
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,86 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.cache.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.kalenchukov.wallet.entity.Operation;
+import dev.kalenchukov.wallet.money.impl.AmountConverterImpl;
+import dev.kalenchukov.wallet.type.OperationType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class OperationJsonCacheImplTest {
+	private static OperationJsonCacheImpl cache(final boolean minorUnits) {
+		return new OperationJsonCacheImpl(10, new SimpleMeterRegistry(), new ObjectMapper(),
+				new AmountConverterImpl(minorUnits, 2));
+	}
+
+	@Nested
+	public class Get {
+		@DisplayName("Проверка с корректными данными.")
+		@Test
+		public void getValid() {
+			OperationJsonCacheImpl operationJsonCache = cache(false);
+			operationJsonCache.put(new Operation(5L, 7L, 3L, OperationType.CREDIT, new BigDecimal("10.5")));
+
+			byte[] actual = operationJsonCache.get(7L, 3L, 5L);
+
+			assertThat(new String(actual, StandardCharsets.UTF_8)).isEqualTo(
+					"{\"operationId\":5,\"accountId\":3,\"playerId\":7,\"operationType\":\"CREDIT\",\"amount\":10.5}");
+		}
+
+		@DisplayName("Проверка с отсутствующей операцией.")
+		@Test
+		public void getWithNotCached() {
+			OperationJsonCacheImpl operationJsonCache = cache(false);
+
+			assertThat(operationJsonCache.get(7L, 3L, 5L)).isNull();
+		}
+
+		@DisplayName("Проверка с операцией другого счёта или игрока.")
+		@Test
+		public void getWithOtherAccount() {
+			OperationJsonCacheImpl operationJsonCache = cache(false);
+			operationJsonCache.put(new Operation(5L, 7L, 3L, OperationType.CREDIT, BigDecimal.ONE));
+
+			assertThat(operationJsonCache.get(7L, 4L, 5L)).isNull();
+			assertThat(operationJsonCache.get(8L, 3L, 5L)).isNull();
+		}
+	}
+
+	@Nested
+	public class Put {
+		@DisplayName("Проверка с суммой в минимальных единицах валюты.")
+		@Test
+		public void putWithMinorUnits() {
+			OperationJsonCacheImpl operationJsonCache = cache(true);
+
+			byte[] actual = operationJsonCache.put(new Operation(5L, 7L, 3L, OperationType.DEBIT, BigDecimal.TEN));
+
+			assertThat(actual).isSameAs(operationJsonCache.get(7L, 3L, 5L));
+			assertThat(new String(actual, StandardCharsets.UTF_8)).endsWith("\"amount\":10.00}");
+		}
+
+		@DisplayName("Проверка с null в качестве операции.")
+		@Test
+		public void putWithNull() {
+			OperationJsonCacheImpl operationJsonCache = cache(false);
+
+			assertThatExceptionOfType(NullPointerException.class).isThrownBy(() -> {
+				operationJsonCache.put(null);
+			});
+		}
+	}
+}
\ No newline at end of file
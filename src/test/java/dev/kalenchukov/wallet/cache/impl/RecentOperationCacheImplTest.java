@@ -0,0 +1,215 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.cache.impl;
+
+import dev.kalenchukov.wallet.entity.Operation;
+import dev.kalenchukov.wallet.type.OperationType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class RecentOperationCacheImplTest {
+	private static Operation operation(final long operationId, final long accountId) {
+		return new Operation(operationId, 7L, accountId, OperationType.CREDIT, BigDecimal.valueOf(operationId));
+	}
+
+	private static RecentOperationCacheImpl cache(final int capacity, final int budget) {
+		return new RecentOperationCacheImpl(capacity, budget, new SimpleMeterRegistry());
+	}
+
+	@Nested
+	public class Constructor {
+		@DisplayName("Проверка с некорректным количеством операций счёта.")
+		@Test
+		public void constructorWithInvalidCapacity() {
+			assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> {
+				cache(0, 10);
+			});
+		}
+
+		@DisplayName("Проверка с бюджетом меньше количества операций счёта.")
+		@Test
+		public void constructorWithInvalidBudget() {
+			assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> {
+				cache(10, 9);
+			});
+		}
+	}
+
+	@Nested
+	public class Find {
+		@DisplayName("Проверка с отсутствующими операциями.")
+		@Test
+		public void findWithNotCached() {
+			RecentOperationCacheImpl recentOperationCache = cache(3, 30);
+
+			assertThat(recentOperationCache.find(7L, 1L, 2)).isNull();
+		}
+
+		@DisplayName("Проверка с корректными данными.")
+		@Test
+		public void findValid() {
+			RecentOperationCacheImpl recentOperationCache = cache(3, 30);
+			recentOperationCache.fill(7L, 1L, recentOperationCache.getVersion(1L),
+					List.of(operation(5L, 1L), operation(4L, 1L), operation(2L, 1L)));
+
+			assertThat(recentOperationCache.find(7L, 1L, 2)).containsExactly(operation(5L, 1L), operation(4L, 1L));
+			assertThat(recentOperationCache.find(7L, 1L, 3))
+					.containsExactly(operation(5L, 1L), operation(4L, 1L), operation(2L, 1L));
+		}
+
+		@DisplayName("Проверка со всеми операциями счёта.")
+		@Test
+		public void findWithAllOperations() {
+			RecentOperationCacheImpl recentOperationCache = cache(3, 30);
+			recentOperationCache.fill(7L, 1L, recentOperationCache.getVersion(1L), List.of(operation(5L, 1L)));
+
+			assertThat(recentOperationCache.find(7L, 1L, 3)).containsExactly(operation(5L, 1L));
+		}
+
+		@DisplayName("Проверка с количеством больше размера буфера.")
+		@Test
+		public void findWithLimitOverCapacity() {
+			RecentOperationCacheImpl recentOperationCache = cache(3, 30);
+			recentOperationCache.fill(7L, 1L, recentOperationCache.getVersion(1L), List.of(operation(5L, 1L)));
+
+			assertThat(recentOperationCache.find(7L, 1L, 4)).isNull();
+		}
+
+		@DisplayName("Проверка с другим игроком.")
+		@Test
+		public void findWithOtherPlayer() {
+			RecentOperationCacheImpl recentOperationCache = cache(3, 30);
+			recentOperationCache.fill(7L, 1L, recentOperationCache.getVersion(1L), List.of(operation(5L, 1L)));
+
+			assertThat(recentOperationCache.find(8L, 1L, 1)).isNull();
+		}
+
+		@DisplayName("Проверка изменения возвращённых операций.")
+		@Test
+		public void findWithChangedOperation() {
+			RecentOperationCacheImpl recentOperationCache = cache(3, 30);
+			recentOperationCache.fill(7L, 1L, recentOperationCache.getVersion(1L), List.of(operation(5L, 1L)));
+
+			recentOperationCache.find(7L, 1L, 1).get(0).setAmount(BigDecimal.ZERO);
+
+			assertThat(recentOperationCache.find(7L, 1L, 1)).containsExactly(operation(5L, 1L));
+		}
+	}
+
+	@Nested
+	public class Fill {
+		@DisplayName("Проверка с изменившейся версией.")
+		@Test
+		public void fillWithChangedVersion() {
+			RecentOperationCacheImpl recentOperationCache = cache(3, 30);
+			long version = recentOperationCache.getVersion(1L);
+			recentOperationCache.add(operation(6L, 1L));
+
+			recentOperationCache.fill(7L, 1L, version, List.of(operation(5L, 1L)));
+
+			assertThat(recentOperationCache.find(7L, 1L, 1)).isNull();
+		}
+
+		@DisplayName("Проверка с операциями больше размера буфера.")
+		@Test
+		public void fillWithOverCapacity() {
+			RecentOperationCacheImpl recentOperationCache = cache(2, 20);
+
+			recentOperationCache.fill(7L, 1L, recentOperationCache.getVersion(1L),
+					List.of(operation(5L, 1L), operation(4L, 1L), operation(2L, 1L)));
+
+			assertThat(recentOperationCache.find(7L, 1L, 2)).containsExactly(operation(5L, 1L), operation(4L, 1L));
+		}
+
+		@DisplayName("Проверка с вытеснением счетов при превышении бюджета.")
+		@Test
+		public void fillWithOverBudget() {
+			RecentOperationCacheImpl recentOperationCache = cache(2, 2);
+			recentOperationCache.fill(7L, 1L, recentOperationCache.getVersion(1L), List.of(operation(5L, 1L)));
+
+			recentOperationCache.fill(7L, 2L, recentOperationCache.getVersion(2L), List.of(operation(6L, 2L)));
+
+			assertThat(recentOperationCache.find(7L, 1L, 1)).isNull();
+			assertThat(recentOperationCache.find(7L, 2L, 1)).containsExactly(operation(6L, 2L));
+		}
+	}
+
+	@Nested
+	public class Add {
+		@DisplayName("Проверка с корректными данными.")
+		@Test
+		public void addValid() {
+			RecentOperationCacheImpl recentOperationCache = cache(3, 30);
+			recentOperationCache.fill(7L, 1L, recentOperationCache.getVersion(1L),
+					List.of(operation(5L, 1L), operation(4L, 1L), operation(2L, 1L)));
+
+			recentOperationCache.add(operation(8L, 1L));
+
+			assertThat(recentOperationCache.find(7L, 1L, 3))
+					.containsExactly(operation(8L, 1L), operation(5L, 1L), operation(4L, 1L));
+		}
+
+		@DisplayName("Проверка с операцией не по порядку.")
+		@Test
+		public void addWithOutOfOrder() {
+			RecentOperationCacheImpl recentOperationCache = cache(3, 30);
+			recentOperationCache.fill(7L, 1L, recentOperationCache.getVersion(1L),
+					List.of(operation(5L, 1L), operation(2L, 1L)));
+
+			recentOperationCache.add(operation(4L, 1L));
+			recentOperationCache.add(operation(4L, 1L));
+			recentOperationCache.add(operation(1L, 1L));
+
+			assertThat(recentOperationCache.find(7L, 1L, 3))
+					.containsExactly(operation(5L, 1L), operation(4L, 1L), operation(2L, 1L));
+		}
+
+		@DisplayName("Проверка с отсутствующими операциями.")
+		@Test
+		public void addWithNotCached() {
+			RecentOperationCacheImpl recentOperationCache = cache(3, 30);
+
+			recentOperationCache.add(operation(8L, 1L));
+
+			assertThat(recentOperationCache.find(7L, 1L, 1)).isNull();
+		}
+
+		@DisplayName("Проверка с null в качестве операции.")
+		@Test
+		public void addWithNull() {
+			RecentOperationCacheImpl recentOperationCache = cache(3, 30);
+
+			assertThatExceptionOfType(NullPointerException.class).isThrownBy(() -> {
+				recentOperationCache.add(null);
+			});
+		}
+	}
+
+	@Nested
+	public class Remove {
+		@DisplayName("Проверка с корректными данными.")
+		@Test
+		public void removeValid() {
+			RecentOperationCacheImpl recentOperationCache = cache(3, 30);
+			recentOperationCache.fill(7L, 1L, recentOperationCache.getVersion(1L), List.of(operation(5L, 1L)));
+			long version = recentOperationCache.getVersion(1L);
+
+			recentOperationCache.remove(1L);
+
+			assertThat(recentOperationCache.find(7L, 1L, 1)).isNull();
+			assertThat(recentOperationCache.getVersion(1L)).isNotEqualTo(version);
+		}
+	}
+}
\ No newline at end of file
@@ -8,10 +8,17 @@ package dev.kalenchukov.wallet.in.controller;
 
 import dev.kalenchukov.wallet.auth.AuthToken;
 import dev.kalenchukov.wallet.entity.Account;
+import dev.kalenchukov.wallet.entity.AccountAudit;
 import dev.kalenchukov.wallet.entity.Operation;
+import dev.kalenchukov.wallet.exceptions.NotFoundAccountException;
 import dev.kalenchukov.wallet.exceptions.OutOfAmountAccountException;
+import dev.kalenchukov.wallet.exceptions.SameAccountTransferException;
 import dev.kalenchukov.wallet.in.controller.handlers.ControllerHandler;
 import dev.kalenchukov.wallet.in.service.AccountService;
+import dev.kalenchukov.wallet.in.service.AccountSnapshotService;
+import dev.kalenchukov.wallet.in.service.IdempotencyService;
+import dev.kalenchukov.wallet.in.service.OperationService;
+import dev.kalenchukov.wallet.pipeline.MutationPipeline;
 import dev.kalenchukov.wallet.type.OperationType;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -21,14 +28,20 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.math.BigDecimal;
 import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
 
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -39,12 +52,27 @@ public class AccountPlayerControllerTest {
 	@MockBean
 	private AccountService accountService;
 
+	@MockBean
+	private OperationService operationService;
+
+	@MockBean
+	private IdempotencyService idempotencyService;
+
+	@MockBean
+	private AccountSnapshotService accountSnapshotService;
+
+	@MockBean
+	private MutationPipeline mutationPipeline;
+
 	@MockBean
 	private AuthToken authToken;
 
 	@BeforeEach
 	public void beforeEach() {
-		this.mockMvc = MockMvcBuilders.standaloneSetup(new AccountPlayerController(this.accountService, this.authToken))
+		this.mockMvc = MockMvcBuilders.standaloneSetup(new AccountPlayerController(this.accountService,
+						this.operationService, this.idempotencyService, this.accountSnapshotService,
+						this.mutationPipeline, this.authToken
+				))
 				.defaultResponseCharacterEncoding(StandardCharsets.UTF_8)
 				.setControllerAdvice(ControllerHandler.class)
 				.build();
@@ -127,6 +155,141 @@ public class AccountPlayerControllerTest {
 		}
 	}
 
+	@Nested
+	public class Get {
+		@DisplayName("Проверка с корректными данными.")
+		@Test
+		public void getValid() throws Exception {
+			long accountId = 18L;
+			long playerId = 96L;
+			BigDecimal amount = BigDecimal.valueOf(45.12);
+			when(accountService.findById(anyLong(), anyLong())).thenReturn(new Account(accountId, playerId, amount));
+			when(authToken.verifyToken(anyString())).thenReturn(playerId);
+
+			mockMvc.perform(get("/players/{playerId}/accounts/{accountId}", playerId, accountId).header(
+							"Authorization", "srd7b6s65Vr65E6WX4W65RV7878n897T7R65rsd7f6"))
+					.andExpect(status().isOk())
+					.andExpect(content().contentType(MediaType.APPLICATION_JSON))
+					.andExpectAll(jsonPath("$.accountId").value(accountId), jsonPath("$.playerId").value(playerId),
+							jsonPath("$.amount").value(amount)
+					);
+		}
+
+		@DisplayName("Проверка с изменившимися операциями счёта.")
+		@Test
+		public void getWithModified() throws Exception {
+			long accountId = 18L;
+			long playerId = 96L;
+			when(operationService.findVersion(playerId, accountId)).thenReturn(OptionalLong.of(112L));
+			when(accountService.findById(anyLong(), anyLong()))
+					.thenReturn(new Account(accountId, playerId, new BigDecimal("45.12")));
+			when(authToken.verifyToken(anyString())).thenReturn(playerId);
+
+			mockMvc.perform(get("/players/{playerId}/accounts/{accountId}", playerId, accountId).header(
+							"Authorization", "srd7b6s65Vr65E6WX4W65RV7878n897T7R65rsd7f6"
+					).header("If-None-Match", "\"110\""))
+					.andExpect(status().isOk())
+					.andExpectAll(header().string("ETag", "\"112\""), jsonPath("$.amount").value(45.12));
+		}
+
+		@DisplayName("Проверка с неизменившимися операциями счёта.")
+		@Test
+		public void getWithNotModified() throws Exception {
+			long accountId = 18L;
+			long playerId = 96L;
+			when(operationService.findVersion(playerId, accountId)).thenReturn(OptionalLong.of(112L));
+			when(authToken.verifyToken(anyString())).thenReturn(playerId);
+
+			mockMvc.perform(get("/players/{playerId}/accounts/{accountId}", playerId, accountId).header(
+							"Authorization", "srd7b6s65Vr65E6WX4W65RV7878n897T7R65rsd7f6"
+					).header("If-None-Match", "\"112\""))
+					.andExpect(status().isNotModified())
+					.andExpectAll(header().string("ETag", "\"112\""), content().string(""));
+			verifyNoInteractions(accountService);
+		}
+
+		@DisplayName("Проверка с отсутствующим счётом.")
+		@Test
+		public void getWithNotFound() throws Exception {
+			long accountId = 18L;
+			long playerId = 96L;
+			when(accountService.findById(anyLong(), anyLong())).thenThrow(new NotFoundAccountException(accountId));
+			when(authToken.verifyToken(anyString())).thenReturn(playerId);
+
+			mockMvc.perform(get("/players/{playerId}/accounts/{accountId}", playerId, accountId).header(
+							"Authorization", "srd7b6s65Vr65E6WX4W65RV7878n897T7R65rsd7f6"))
+					.andExpect(status().isNotFound())
+					.andExpect(content().contentType(MediaType.APPLICATION_JSON))
+					.andExpectAll(jsonPath("$.message").isNotEmpty());
+		}
+
+		@DisplayName("Проверка с отсутствием доступа.")
+		@Test
+		public void getWithNoAccess() throws Exception {
+			long accountId = 18L;
+			long playerId = 96L;
+			when(authToken.verifyToken(anyString())).thenReturn(24L);
+
+			mockMvc.perform(get("/players/{playerId}/accounts/{accountId}", playerId, accountId).header(
+							"Authorization", "srd7b6s65Vr65E6WX4W65RV7878n897T7R65rsd7f6"))
+					.andExpect(status().isForbidden())
+					.andExpectAll(jsonPath("$.message").isNotEmpty());
+		}
+	}
+
+	@Nested
+	public class Audit {
+		@DisplayName("Проверка с корректными данными.")
+		@Test
+		public void auditValid() throws Exception {
+			long accountId = 18L;
+			long playerId = 96L;
+			BigDecimal amount = BigDecimal.valueOf(45.12);
+			when(accountSnapshotService.audit(anyLong(), anyLong()))
+					.thenReturn(new AccountAudit(accountId, playerId, amount, amount, 302L, true));
+			when(authToken.verifyToken(anyString())).thenReturn(playerId);
+
+			mockMvc.perform(get("/players/{playerId}/accounts/{accountId}/audit", playerId, accountId).header(
+							"Authorization", "srd7b6s65Vr65E6WX4W65RV7878n897T7R65rsd7f6"))
+					.andExpect(status().isOk())
+					.andExpect(content().contentType(MediaType.APPLICATION_JSON))
+					.andExpectAll(jsonPath("$.accountId").value(accountId), jsonPath("$.playerId").value(playerId),
+							jsonPath("$.amount").value(amount), jsonPath("$.ledgerAmount").value(amount),
+							jsonPath("$.operationId").value(302L), jsonPath("$.consistent").value(true)
+					);
+			verify(accountSnapshotService, only()).audit(playerId, accountId);
+		}
+
+		@DisplayName("Проверка с отсутствующим счётом.")
+		@Test
+		public void auditWithNotFound() throws Exception {
+			long accountId = 18L;
+			long playerId = 96L;
+			when(accountSnapshotService.audit(anyLong(), anyLong())).thenThrow(new NotFoundAccountException(accountId));
+			when(authToken.verifyToken(anyString())).thenReturn(playerId);
+
+			mockMvc.perform(get("/players/{playerId}/accounts/{accountId}/audit", playerId, accountId).header(
+							"Authorization", "srd7b6s65Vr65E6WX4W65RV7878n897T7R65rsd7f6"))
+					.andExpect(status().isNotFound())
+					.andExpect(content().contentType(MediaType.APPLICATION_JSON))
+					.andExpectAll(jsonPath("$.message").isNotEmpty());
+		}
+
+		@DisplayName("Проверка с отсутствием доступа.")
+		@Test
+		public void auditWithNoAccess() throws Exception {
+			long accountId = 18L;
+			long playerId = 96L;
+			when(authToken.verifyToken(anyString())).thenReturn(24L);
+
+			mockMvc.perform(get("/players/{playerId}/accounts/{accountId}/audit", playerId, accountId).header(
+							"Authorization", "srd7b6s65Vr65E6WX4W65RV7878n897T7R65rsd7f6"))
+					.andExpect(status().isForbidden())
+					.andExpectAll(jsonPath("$.message").isNotEmpty());
+			verifyNoInteractions(accountSnapshotService);
+		}
+	}
+
 	@Nested
 	public class Credit {
 		@DisplayName("Проверка с корректными данными.")
@@ -147,13 +310,16 @@ public class AccountPlayerControllerTest {
 			when(accountService.credit(anyLong(), anyLong(), any(BigDecimal.class))).thenReturn(operation);
 			when(authToken.verifyToken(anyString())).thenReturn(playerId);
 
-			mockMvc.perform(post("/players/{playerId}/accounts/{accountId}/credit", playerId, accountId).header(
-									"Authorization", "srd7b6s65Vr65E6WX4W65RV7878n897T7R65rsd7f6")
+			MvcResult mvcResult = mockMvc.perform(post("/players/{playerId}/accounts/{accountId}/credit", playerId,
+									accountId)
+							.header("Authorization", "srd7b6s65Vr65E6WX4W65RV7878n897T7R65rsd7f6")
 							.content(body)
-							.contentType(
-									MediaType.APPLICATION_JSON)
-							.characterEncoding(
-									StandardCharsets.UTF_8))
+							.contentType(MediaType.APPLICATION_JSON)
+							.characterEncoding(StandardCharsets.UTF_8))
+					.andExpect(request().asyncStarted())
+					.andReturn();
+
+			mockMvc.perform(asyncDispatch(mvcResult))
 					.andExpect(status().isOk())
 					.andExpectAll(jsonPath("$.operationId").value(operationId), jsonPath("$.accountId").value(accountId),
 							jsonPath("$.playerId").value(playerId),
@@ -162,6 +328,71 @@ public class AccountPlayerControllerTest {
 					);
 		}
 
+		@DisplayName("Проверка с ключом идемпотентности.")
+		@Test
+		public void creditWithIdempotencyKey() throws Exception {
+			long operationId = 33L;
+			long accountId = 65L;
+			long playerId = 15L;
+			BigDecimal amount = BigDecimal.ONE;
+			String idempotencyKey = "b7e2c1d4-round-15";
+			Operation operation = new Operation(operationId, playerId, accountId, OperationType.CREDIT, amount);
+			String body = "{" + "\"amount\":1" + "}";
+			when(idempotencyService.execute(anyLong(), anyLong(), any(OperationType.class), any(BigDecimal.class),
+					anyString(), any(IdempotencyService.Action.class))).thenReturn(operation);
+			when(authToken.verifyToken(anyString())).thenReturn(playerId);
+
+			MvcResult mvcResult = mockMvc.perform(post("/players/{playerId}/accounts/{accountId}/credit", playerId, accountId)
+							.header("Authorization", "srd7b6s65Vr65E6WX4W65RV7878n897T7R65rsd7f6")
+							.header("Idempotency-Key", idempotencyKey)
+							.content(body)
+							.contentType(MediaType.APPLICATION_JSON)
+							.characterEncoding(StandardCharsets.UTF_8))
+					.andExpect(request().asyncStarted())
+					.andReturn();
+
+			mockMvc.perform(asyncDispatch(mvcResult))
+					.andExpect(status().isOk())
+					.andExpectAll(jsonPath("$.operationId").value(operationId),
+							jsonPath("$.operationType").value(OperationType.CREDIT.name())
+					);
+			verify(idempotencyService, times(1)).execute(eq(playerId), eq(accountId), eq(OperationType.CREDIT),
+					any(BigDecimal.class), eq(idempotencyKey), any(IdempotencyService.Action.class));
+			verifyNoInteractions(accountService);
+		}
+
+		@DisplayName("Проверка с включённым конвейером изменений.")
+		@Test
+		public void creditWithPipeline() throws Exception {
+			long operationId = 33L;
+			long accountId = 65L;
+			long playerId = 15L;
+			BigDecimal amount = BigDecimal.ONE;
+			Operation operation = new Operation(operationId, playerId, accountId, OperationType.CREDIT, amount);
+			String body = "{" + "\"amount\":1" + "}";
+			when(mutationPipeline.isEnabled()).thenReturn(true);
+			when(mutationPipeline.submit(anyLong(), anyLong(), any(OperationType.class), any(BigDecimal.class)))
+					.thenReturn(CompletableFuture.completedFuture(operation));
+			when(authToken.verifyToken(anyString())).thenReturn(playerId);
+
+			MvcResult mvcResult = mockMvc.perform(post("/players/{playerId}/accounts/{accountId}/credit", playerId, accountId)
+							.header("Authorization", "srd7b6s65Vr65E6WX4W65RV7878n897T7R65rsd7f6")
+							.content(body)
+							.contentType(MediaType.APPLICATION_JSON)
+							.characterEncoding(StandardCharsets.UTF_8))
+					.andExpect(request().asyncStarted())
+					.andReturn();
+
+			mockMvc.perform(asyncDispatch(mvcResult))
+					.andExpect(status().isOk())
+					.andExpectAll(jsonPath("$.operationId").value(operationId),
+							jsonPath("$.operationType").value(OperationType.CREDIT.name())
+					);
+			verify(mutationPipeline, times(1)).submit(eq(playerId), eq(accountId), eq(OperationType.CREDIT),
+					any(BigDecimal.class));
+			verifyNoInteractions(accountService);
+		}
+
 		@DisplayName("Проверка с null в качестве суммы.")
 		@Test
 		public void creditWithNullAmount() throws Exception {
@@ -323,13 +554,16 @@ public class AccountPlayerControllerTest {
 			when(accountService.debit(anyLong(), anyLong(), any(BigDecimal.class))).thenReturn(operation);
 			when(authToken.verifyToken(anyString())).thenReturn(playerId);
 
-			mockMvc.perform(post("/players/{playerId}/accounts/{accountId}/debit", playerId, accountId).header(
-									"Authorization", "srd7b6s65Vr65E6WX4W65RV7878n897T7R65rsd7f6")
+			MvcResult mvcResult = mockMvc.perform(post("/players/{playerId}/accounts/{accountId}/debit", playerId,
+									accountId)
+							.header("Authorization", "srd7b6s65Vr65E6WX4W65RV7878n897T7R65rsd7f6")
 							.content(body)
-							.contentType(
-									MediaType.APPLICATION_JSON)
-							.characterEncoding(
-									StandardCharsets.UTF_8))
+							.contentType(MediaType.APPLICATION_JSON)
+							.characterEncoding(StandardCharsets.UTF_8))
+					.andExpect(request().asyncStarted())
+					.andReturn();
+
+			mockMvc.perform(asyncDispatch(mvcResult))
 					.andExpect(status().isOk())
 					.andExpectAll(jsonPath("$.operationId").value(operationId), jsonPath("$.accountId").value(accountId),
 							jsonPath("$.playerId").value(playerId),
@@ -360,6 +594,31 @@ public class AccountPlayerControllerTest {
 					.andExpectAll(jsonPath("$.message").isNotEmpty());
 		}
 
+		@DisplayName("Проверка с суммой превышающей баланс счёта в конвейере изменений.")
+		@Test
+		public void debitWithPipelineOutOfAmount() throws Exception {
+			long accountId = 65L;
+			long playerId = 15L;
+			String body = "{" + "\"amount\":10" + "}";
+			when(mutationPipeline.isEnabled()).thenReturn(true);
+			when(mutationPipeline.submit(anyLong(), anyLong(), any(OperationType.class), any(BigDecimal.class)))
+					.thenReturn(CompletableFuture.failedFuture(new OutOfAmountAccountException(BigDecimal.ONE)));
+			when(authToken.verifyToken(anyString())).thenReturn(playerId);
+
+			MvcResult mvcResult = mockMvc.perform(post("/players/{playerId}/accounts/{accountId}/debit", playerId, accountId)
+							.header("Authorization", "srd7b6s65Vr65E6WX4W65RV7878n897T7R65rsd7f6")
+							.content(body)
+							.contentType(MediaType.APPLICATION_JSON)
+							.characterEncoding(StandardCharsets.UTF_8))
+					.andExpect(request().asyncStarted())
+					.andReturn();
+
+			mockMvc.perform(asyncDispatch(mvcResult))
+					.andExpect(status().isBadRequest())
+					.andExpectAll(jsonPath("$.message").isNotEmpty());
+			verifyNoInteractions(accountService);
+		}
+
 		@DisplayName("Проверка с null в качестве суммы.")
 		@Test
 		public void debitWithNullAmount() throws Exception {
@@ -500,4 +759,108 @@ public class AccountPlayerControllerTest {
 					status().isBadRequest());
 		}
 	}
+
+	@Nested
+	public class Transfer {
+		@DisplayName("Проверка с корректными данными.")
+		@Test
+		public void transferValid() throws Exception {
+			long accountId = 65L;
+			long toAccountId = 66L;
+			long playerId = 15L;
+			BigDecimal amount = BigDecimal.TEN;
+			String body = "{" + "\"toAccountId\":66," + "\"amount\":10" + "}";
+			when(accountService.transfer(anyLong(), anyLong(), anyLong(), any(BigDecimal.class))).thenReturn(List.of(
+					new Operation(33L, playerId, accountId, OperationType.TRANSFER_OUT, amount),
+					new Operation(34L, playerId, toAccountId, OperationType.TRANSFER_IN, amount)
+			));
+			when(authToken.verifyToken(anyString())).thenReturn(playerId);
+
+			mockMvc.perform(post("/players/{playerId}/accounts/{accountId}/transfer", playerId, accountId).header(
+									"Authorization", "srd7b6s65Vr65E6WX4W65RV7878n897T7R65rsd7f6")
+							.content(body)
+							.contentType(MediaType.APPLICATION_JSON)
+							.characterEncoding(StandardCharsets.UTF_8))
+					.andExpect(status().isOk())
+					.andExpectAll(jsonPath("$[0].operationId").value(33L), jsonPath("$[0].accountId").value(accountId),
+							jsonPath("$[0].operationType").value("TRANSFER_OUT"),
+							jsonPath("$[1].operationId").value(34L), jsonPath("$[1].accountId").value(toAccountId),
+							jsonPath("$[1].operationType").value("TRANSFER_IN")
+					);
+			verify(accountService, only()).transfer(playerId, accountId, toAccountId, amount);
+		}
+
+		@DisplayName("Проверка с одинаковыми счетами.")
+		@Test
+		public void transferWithSameAccount() throws Exception {
+			long accountId = 65L;
+			long playerId = 15L;
+			String body = "{" + "\"toAccountId\":65," + "\"amount\":10" + "}";
+			when(accountService.transfer(anyLong(), anyLong(), anyLong(), any(BigDecimal.class)))
+					.thenThrow(new SameAccountTransferException(accountId));
+			when(authToken.verifyToken(anyString())).thenReturn(playerId);
+
+			mockMvc.perform(post("/players/{playerId}/accounts/{accountId}/transfer", playerId, accountId).header(
+									"Authorization", "srd7b6s65Vr65E6WX4W65RV7878n897T7R65rsd7f6")
+							.content(body)
+							.contentType(MediaType.APPLICATION_JSON)
+							.characterEncoding(StandardCharsets.UTF_8))
+					.andExpect(status().isBadRequest())
+					.andExpectAll(jsonPath("$.message").isNotEmpty());
+		}
+
+		@DisplayName("Проверка с суммой превышающей баланс счёта.")
+		@Test
+		public void transferWithOutOfAmount() throws Exception {
+			long accountId = 65L;
+			long playerId = 15L;
+			String body = "{" + "\"toAccountId\":66," + "\"amount\":10" + "}";
+			when(accountService.transfer(anyLong(), anyLong(), anyLong(), any(BigDecimal.class)))
+					.thenThrow(new OutOfAmountAccountException(BigDecimal.ONE));
+			when(authToken.verifyToken(anyString())).thenReturn(playerId);
+
+			mockMvc.perform(post("/players/{playerId}/accounts/{accountId}/transfer", playerId, accountId).header(
+									"Authorization", "srd7b6s65Vr65E6WX4W65RV7878n897T7R65rsd7f6")
+							.content(body)
+							.contentType(MediaType.APPLICATION_JSON)
+							.characterEncoding(StandardCharsets.UTF_8))
+					.andExpect(status().isBadRequest())
+					.andExpectAll(jsonPath("$.message").isNotEmpty());
+		}
+
+		@DisplayName("Проверка без счёта зачисления.")
+		@Test
+		public void transferWithNullToAccountId() throws Exception {
+			long accountId = 65L;
+			long playerId = 15L;
+			String body = "{" + "\"amount\":10" + "}";
+			when(authToken.verifyToken(anyString())).thenReturn(playerId);
+
+			mockMvc.perform(post("/players/{playerId}/accounts/{accountId}/transfer", playerId, accountId).header(
+									"Authorization", "srd7b6s65Vr65E6WX4W65RV7878n897T7R65rsd7f6")
+							.content(body)
+							.contentType(MediaType.APPLICATION_JSON)
+							.characterEncoding(StandardCharsets.UTF_8))
+					.andExpect(status().isBadRequest())
+					.andExpectAll(jsonPath("$").isArray(), jsonPath("$[0].message").isNotEmpty());
+		}
+
+		@DisplayName("Проверка с отсутствием доступа.")
+		@Test
+		public void transferWithNoAccess() throws Exception {
+			long accountId = 65L;
+			long playerId = 15L;
+			String body = "{" + "\"toAccountId\":66," + "\"amount\":10" + "}";
+			when(authToken.verifyToken(anyString())).thenReturn(24L);
+
+			mockMvc.perform(post("/players/{playerId}/accounts/{accountId}/transfer", playerId, accountId).header(
+									"Authorization", "srd7b6s65Vr65E6WX4W65RV7878n897T7R65rsd7f6")
+							.content(body)
+							.contentType(MediaType.APPLICATION_JSON)
+							.characterEncoding(StandardCharsets.UTF_8))
+					.andExpect(status().isForbidden())
+					.andExpectAll(jsonPath("$.message").isNotEmpty());
+			verifyNoInteractions(accountService);
+		}
+	}
 }
\ No newline at end of file
@@ -0,0 +1,180 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+package dev.kalenchukov.wallet.in.controller;
+
+import dev.kalenchukov.starter.fixaction.entity.Action;
+import dev.kalenchukov.starter.fixaction.service.FixActionService;
+import dev.kalenchukov.starter.fixaction.types.ActionType;
+import dev.kalenchukov.wallet.auth.AuthToken;
+import dev.kalenchukov.wallet.entity.AmountChange;
+import dev.kalenchukov.wallet.in.controller.handlers.ControllerHandler;
+import dev.kalenchukov.wallet.in.service.AccountService;
+import dev.kalenchukov.wallet.type.AmountChangeStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(BatchAccountPlayerController.class)
+public class BatchAccountPlayerControllerTest {
+	private MockMvc mockMvc;
+
+	@MockBean
+	private AccountService accountService;
+
+	@MockBean
+	private FixActionService fixActionService;
+
+	@MockBean
+	private AuthToken authToken;
+
+	@BeforeEach
+	public void beforeEach() {
+		this.mockMvc = MockMvcBuilders.standaloneSetup(new BatchAccountPlayerController(this.accountService,
+						this.fixActionService, this.authToken
+				))
+				.defaultResponseCharacterEncoding(StandardCharsets.UTF_8)
+				.setControllerAdvice(ControllerHandler.class)
+				.build();
+	}
+
+	@Nested
+	public class Execute {
+		@DisplayName("Проверка с корректными данными.")
+		@Test
+		public void executeValid() throws Exception {
+			long playerId = 15L;
+			String body = "{" + "\"allOrNothing\":false," + "\"operations\":["
+					+ "{\"accountId\":65,\"operationType\":\"CREDIT\",\"amount\":11.59},"
+					+ "{\"accountId\":66,\"operationType\":\"DEBIT\",\"amount\":3.5}" + "]}";
+			when(authToken.verifyToken(anyString())).thenReturn(playerId);
+			when(accountService.changeAmounts(eq(playerId), anyList(), eq(false))).thenReturn(List.of(
+					new AmountChange(AmountChangeStatus.SUCCESS, 31L, BigDecimal.valueOf(20.0)),
+					new AmountChange(AmountChangeStatus.OUT_OF_AMOUNT, 0L, BigDecimal.ONE)
+			));
+
+			mockMvc.perform(post("/players/{playerId}/accounts/batch", playerId).header(
+									"Authorization", "srd7b6s65Vr65E6WX4W65RV7878n897T7R65rsd7f6")
+							.content(body)
+							.contentType(MediaType.APPLICATION_JSON)
+							.characterEncoding(StandardCharsets.UTF_8))
+					.andExpect(status().isOk())
+					.andExpect(content().contentType(MediaType.APPLICATION_JSON))
+					.andExpectAll(jsonPath("$[0].operationId").value(31L), jsonPath("$[0].accountId").value(65L),
+							jsonPath("$[0].status").value("SUCCESS"), jsonPath("$[1].operationId").isEmpty(),
+							jsonPath("$[1].operationType").value("DEBIT"), jsonPath("$[1].status").value("OUT_OF_AMOUNT")
+					);
+			verify(fixActionService, only()).addAll(List.of(
+					new Action(0L, playerId, ActionType.CREDIT_ACCOUNT, ActionType.Status.SUCCESS),
+					new Action(0L, playerId, ActionType.DEBIT_ACCOUNT, ActionType.Status.FAIL)
+			));
+		}
+
+		@DisplayName("Проверка с пустым пакетом.")
+		@Test
+		public void executeWithEmptyOperations() throws Exception {
+			long playerId = 15L;
+			String body = "{" + "\"allOrNothing\":true," + "\"operations\":[]" + "}";
+			when(authToken.verifyToken(anyString())).thenReturn(playerId);
+
+			mockMvc.perform(post("/players/{playerId}/accounts/batch", playerId).header(
+									"Authorization", "srd7b6s65Vr65E6WX4W65RV7878n897T7R65rsd7f6")
+							.content(body)
+							.contentType(MediaType.APPLICATION_JSON)
+							.characterEncoding(StandardCharsets.UTF_8))
+					.andExpect(status().isBadRequest())
+					.andExpectAll(jsonPath("$").isArray(), jsonPath("$[0].message").isNotEmpty());
+			verifyNoInteractions(accountService);
+		}
+
+		@DisplayName("Проверка с отрицательной суммой.")
+		@Test
+		public void executeWithNegativeAmount() throws Exception {
+			long playerId = 15L;
+			String body = "{" + "\"allOrNothing\":true," + "\"operations\":["
+					+ "{\"accountId\":65,\"operationType\":\"CREDIT\",\"amount\":-11.59}" + "]}";
+			when(authToken.verifyToken(anyString())).thenReturn(playerId);
+
+			mockMvc.perform(post("/players/{playerId}/accounts/batch", playerId).header(
+									"Authorization", "srd7b6s65Vr65E6WX4W65RV7878n897T7R65rsd7f6")
+							.content(body)
+							.contentType(MediaType.APPLICATION_JSON)
+							.characterEncoding(StandardCharsets.UTF_8))
+					.andExpect(status().isBadRequest())
+					.andExpectAll(jsonPath("$").isArray(), jsonPath("$[0].message").isNotEmpty());
+		}
+
+		@DisplayName("Проверка с операцией перевода.")
+		@Test
+		public void executeWithTransferType() throws Exception {
+			long playerId = 15L;
+			String body = "{" + "\"allOrNothing\":false," + "\"operations\":["
+					+ "{\"accountId\":65,\"operationType\":\"TRANSFER_OUT\",\"amount\":1000}" + "]}";
+			when(authToken.verifyToken(anyString())).thenReturn(playerId);
+
+			mockMvc.perform(post("/players/{playerId}/accounts/batch", playerId).header(
+									"Authorization", "srd7b6s65Vr65E6WX4W65RV7878n897T7R65rsd7f6")
+							.content(body)
+							.contentType(MediaType.APPLICATION_JSON)
+							.characterEncoding(StandardCharsets.UTF_8))
+					.andExpect(status().isBadRequest())
+					.andExpectAll(jsonPath("$.message").isNotEmpty());
+			verify(fixActionService, only()).addAll(List.of(
+					new Action(0L, playerId, ActionType.TRANSFER_ACCOUNT, ActionType.Status.FAIL)
+			));
+			verifyNoInteractions(accountService);
+		}
+
+		@DisplayName("Проверка с отсутствием доступа.")
+		@Test
+		public void executeWithNoAccess() throws Exception {
+			long playerId = 15L;
+			String body = "{" + "\"allOrNothing\":true," + "\"operations\":["
+					+ "{\"accountId\":65,\"operationType\":\"CREDIT\",\"amount\":11.59}" + "]}";
+			when(authToken.verifyToken(anyString())).thenReturn(24L);
+
+			mockMvc.perform(post("/players/{playerId}/accounts/batch", playerId).header(
+									"Authorization", "srd7b6s65Vr65E6WX4W65RV7878n897T7R65rsd7f6")
+							.content(body)
+							.contentType(MediaType.APPLICATION_JSON)
+							.characterEncoding(StandardCharsets.UTF_8))
+					.andExpect(status().isForbidden())
+					.andExpectAll(jsonPath("$.message").isNotEmpty());
+			verify(fixActionService, only()).addAll(List.of(
+					new Action(0L, playerId, ActionType.CREDIT_ACCOUNT, ActionType.Status.FAIL)
+			));
+			verifyNoInteractions(accountService);
+		}
+
+		@DisplayName("Проверка с отсутствующим токеном доступа.")
+		@Test
+		public void executeWithNoAccessToken() throws Exception {
+			long playerId = 15L;
+			String body = "{" + "\"allOrNothing\":true," + "\"operations\":["
+					+ "{\"accountId\":65,\"operationType\":\"CREDIT\",\"amount\":11.59}" + "]}";
+
+			mockMvc.perform(post("/players/{playerId}/accounts/batch", playerId)
+							.content(body)
+							.contentType(MediaType.APPLICATION_JSON)
+							.characterEncoding(StandardCharsets.UTF_8))
+					.andExpect(status().isBadRequest());
+		}
+	}
+}
\ No newline at end of file
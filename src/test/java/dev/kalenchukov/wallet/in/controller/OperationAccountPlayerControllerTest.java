@@ -6,8 +6,10 @@
 
 package dev.kalenchukov.wallet.in.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import dev.kalenchukov.wallet.auth.AuthToken;
 import dev.kalenchukov.wallet.entity.Operation;
+import dev.kalenchukov.wallet.entity.OperationSummary;
 import dev.kalenchukov.wallet.exceptions.NotFoundOperationException;
 import dev.kalenchukov.wallet.in.controller.handlers.ControllerHandler;
 import dev.kalenchukov.wallet.in.service.OperationService;
@@ -20,17 +22,29 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.math.BigDecimal;
 import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.Collections;
 import java.util.List;
+import java.util.OptionalLong;
+import java.util.function.Consumer;
 
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -47,7 +61,7 @@ public class OperationAccountPlayerControllerTest {
 	@BeforeEach
 	public void beforeEach() {
 		this.mockMvc = MockMvcBuilders.standaloneSetup(
-						new OperationAccountPlayerController(this.operationService, this.authToken))
+						new OperationAccountPlayerController(this.operationService, this.authToken, new ObjectMapper(), 100, 1000))
 				.defaultResponseCharacterEncoding(StandardCharsets.UTF_8)
 				.setControllerAdvice(ControllerHandler.class)
 				.build();
@@ -62,14 +76,10 @@ public class OperationAccountPlayerControllerTest {
 			long playerId = 88L;
 			long accountId = 14L;
 			OperationType operationType = OperationType.DEBIT;
-			BigDecimal amount = BigDecimal.ONE;
-			Operation operation = mock(Operation.class);
-			when(operation.getOperationId()).thenReturn(operationId);
-			when(operation.getPlayerId()).thenReturn(playerId);
-			when(operation.getAccountId()).thenReturn(accountId);
-			when(operation.getOperationType()).thenReturn(operationType);
-			when(operation.getAmount()).thenReturn(amount);
-			when(operationService.findById(anyLong(), anyLong(), anyLong())).thenReturn(operation);
+			String operationJson = "{\"operationId\":" + operationId + ",\"accountId\":" + accountId
+					+ ",\"playerId\":" + playerId + ",\"operationType\":\"" + operationType + "\",\"amount\":1.50}";
+			when(operationService.findJsonById(playerId, accountId, operationId))
+					.thenReturn(operationJson.getBytes(StandardCharsets.UTF_8));
 			when(authToken.verifyToken(anyString())).thenReturn(playerId);
 
 			mockMvc.perform(
@@ -78,10 +88,7 @@ public class OperationAccountPlayerControllerTest {
 							).header("Authorization", "srd7b6s65Vr65E6WX4W65RV7878n897T7R65rsd7f6"))
 					.andExpect(status().isOk())
 					.andExpect(content().contentType(MediaType.APPLICATION_JSON))
-					.andExpectAll(jsonPath("$.operationId").value(operationId), jsonPath("$.playerId").value(playerId),
-							jsonPath("$.accountId").value(accountId),
-							jsonPath("$.operationType").value(operationType.name())
-					);
+					.andExpect(content().string(operationJson));
 		}
 
 		@DisplayName("Проверка с отсутствующей операцией.")
@@ -90,7 +97,7 @@ public class OperationAccountPlayerControllerTest {
 			long operationId = 1L;
 			long playerId = 88L;
 			long accountId = 14L;
-			when(operationService.findById(anyLong(), anyLong(), anyLong())).thenThrow(
+			when(operationService.findJsonById(anyLong(), anyLong(), anyLong())).thenThrow(
 					new NotFoundOperationException(operationId));
 			when(authToken.verifyToken(anyString())).thenReturn(playerId);
 
@@ -178,7 +185,7 @@ public class OperationAccountPlayerControllerTest {
 			when(operation.getAccountId()).thenReturn(accountId);
 			when(operation.getOperationType()).thenReturn(operationType);
 			when(operation.getAmount()).thenReturn(amount);
-			when(operationService.find(anyLong(), anyLong())).thenReturn(List.of(operation));
+			when(operationService.findBefore(anyLong(), anyLong(), anyLong(), anyInt())).thenReturn(List.of(operation));
 			when(authToken.verifyToken(anyString())).thenReturn(playerId);
 
 			mockMvc.perform(
@@ -191,12 +198,145 @@ public class OperationAccountPlayerControllerTest {
 			);
 		}
 
+		@DisplayName("Проверка с версией операций счёта.")
+		@Test
+		public void findWithVersion() throws Exception {
+			long playerId = 88L;
+			long accountId = 14L;
+			when(operationService.findVersion(playerId, accountId)).thenReturn(OptionalLong.of(25L));
+			when(operationService.findBefore(anyLong(), anyLong(), anyLong(), anyInt())).thenReturn(List.of());
+			when(authToken.verifyToken(anyString())).thenReturn(playerId);
+
+			mockMvc.perform(
+					get("/players/{playerId}/accounts/{accountId}/operations", playerId, accountId).header("Authorization",
+							"srd7b6s65Vr65E6WX4W65RV7878n897T7R65rsd7f6"
+					).header("If-None-Match", "\"24\"")).andExpect(status().isOk()).andExpectAll(
+					header().string("ETag", "\"25\""), jsonPath("$.length()").value(0)
+			);
+		}
+
+		@DisplayName("Проверка с неизменившейся версией операций счёта.")
+		@Test
+		public void findWithNotModified() throws Exception {
+			long playerId = 88L;
+			long accountId = 14L;
+			when(operationService.findVersion(playerId, accountId)).thenReturn(OptionalLong.of(25L));
+			when(authToken.verifyToken(anyString())).thenReturn(playerId);
+
+			mockMvc.perform(
+					get("/players/{playerId}/accounts/{accountId}/operations", playerId, accountId).header("Authorization",
+							"srd7b6s65Vr65E6WX4W65RV7878n897T7R65rsd7f6"
+					).header("If-None-Match", "\"25\"")).andExpect(status().isNotModified()).andExpectAll(
+					header().string("ETag", "\"25\""), content().string("")
+			);
+			verify(operationService, never()).findBefore(anyLong(), anyLong(), anyLong(), anyInt());
+		}
+
+		@DisplayName("Проверка со следующей страницей.")
+		@Test
+		public void findWithNextCursor() throws Exception {
+			long playerId = 88L;
+			long accountId = 14L;
+			List<Operation> operations = List.of(
+					new Operation(30L, playerId, accountId, OperationType.CREDIT, BigDecimal.ONE),
+					new Operation(20L, playerId, accountId, OperationType.CREDIT, BigDecimal.ONE),
+					new Operation(10L, playerId, accountId, OperationType.CREDIT, BigDecimal.ONE)
+			);
+			when(operationService.findBefore(anyLong(), anyLong(), anyLong(), anyInt())).thenReturn(operations);
+			when(authToken.verifyToken(anyString())).thenReturn(playerId);
+
+			String cursor = mockMvc.perform(
+							get("/players/{playerId}/accounts/{accountId}/operations", playerId, accountId)
+									.param("limit", "2")
+									.header("Authorization", "srd7b6s65Vr65E6WX4W65RV7878n897T7R65rsd7f6"))
+					.andExpect(status().isOk())
+					.andExpect(header().exists(OperationAccountPlayerController.NEXT_CURSOR_HEADER))
+					.andExpectAll(jsonPath("$.length()").value(2), jsonPath("$[1].operationId").value(20L))
+					.andReturn().getResponse().getHeader(OperationAccountPlayerController.NEXT_CURSOR_HEADER);
+
+			mockMvc.perform(
+							get("/players/{playerId}/accounts/{accountId}/operations", playerId, accountId)
+									.param("limit", "2")
+									.param("cursor", cursor)
+									.header("Authorization", "srd7b6s65Vr65E6WX4W65RV7878n897T7R65rsd7f6"))
+					.andExpect(status().isOk());
+
+			verify(operationService).findBefore(playerId, accountId, Long.MAX_VALUE, 3);
+			verify(operationService).findBefore(playerId, accountId, 20L, 3);
+		}
+
+		@DisplayName("Проверка с операциями после операции.")
+		@Test
+		public void findWithAfter() throws Exception {
+			long playerId = 88L;
+			long accountId = 14L;
+			List<Operation> operations = List.of(
+					new Operation(11L, playerId, accountId, OperationType.CREDIT, BigDecimal.ONE),
+					new Operation(12L, playerId, accountId, OperationType.CREDIT, BigDecimal.ONE)
+			);
+			when(operationService.findAfter(anyLong(), anyLong(), anyLong(), anyInt())).thenReturn(operations);
+			when(authToken.verifyToken(anyString())).thenReturn(playerId);
+
+			mockMvc.perform(
+							get("/players/{playerId}/accounts/{accountId}/operations", playerId, accountId)
+									.param("after", "10")
+									.header("Authorization", "srd7b6s65Vr65E6WX4W65RV7878n897T7R65rsd7f6"))
+					.andExpect(status().isOk())
+					.andExpect(header().doesNotExist(OperationAccountPlayerController.NEXT_CURSOR_HEADER))
+					.andExpectAll(jsonPath("$[0].operationId").value(12L), jsonPath("$[1].operationId").value(11L));
+
+			verify(operationService).findAfter(playerId, accountId, 10L, 101);
+		}
+
+		@DisplayName("Проверка с некорректным количеством операций на странице.")
+		@Test
+		public void findWithInvalidLimit() throws Exception {
+			long playerId = 88L;
+			long accountId = 14L;
+			when(authToken.verifyToken(anyString())).thenReturn(playerId);
+
+			mockMvc.perform(
+							get("/players/{playerId}/accounts/{accountId}/operations", playerId, accountId)
+									.param("limit", "1001")
+									.header("Authorization", "srd7b6s65Vr65E6WX4W65RV7878n897T7R65rsd7f6"))
+					.andExpect(status().isBadRequest()).andExpectAll(jsonPath("$.message").isNotEmpty());
+		}
+
+		@DisplayName("Проверка с некорректным курсором.")
+		@Test
+		public void findWithInvalidCursor() throws Exception {
+			long playerId = 88L;
+			long accountId = 14L;
+			when(authToken.verifyToken(anyString())).thenReturn(playerId);
+
+			mockMvc.perform(
+							get("/players/{playerId}/accounts/{accountId}/operations", playerId, accountId)
+									.param("cursor", "!!!")
+									.header("Authorization", "srd7b6s65Vr65E6WX4W65RV7878n897T7R65rsd7f6"))
+					.andExpect(status().isBadRequest()).andExpectAll(jsonPath("$.message").isNotEmpty());
+		}
+
+		@DisplayName("Проверка с несколькими границами страницы.")
+		@Test
+		public void findWithBeforeAndAfter() throws Exception {
+			long playerId = 88L;
+			long accountId = 14L;
+			when(authToken.verifyToken(anyString())).thenReturn(playerId);
+
+			mockMvc.perform(
+							get("/players/{playerId}/accounts/{accountId}/operations", playerId, accountId)
+									.param("before", "20")
+									.param("after", "10")
+									.header("Authorization", "srd7b6s65Vr65E6WX4W65RV7878n897T7R65rsd7f6"))
+					.andExpect(status().isBadRequest()).andExpectAll(jsonPath("$.message").isNotEmpty());
+		}
+
 		@DisplayName("Проверка с отсутствующими операциями.")
 		@Test
 		public void findWithNotFound() throws Exception {
 			long playerId = 88L;
 			long accountId = 14L;
-			when(operationService.find(anyLong(), anyLong())).thenReturn(Collections.emptyList());
+			when(operationService.findBefore(anyLong(), anyLong(), anyLong(), anyInt())).thenReturn(Collections.emptyList());
 			when(authToken.verifyToken(anyString())).thenReturn(playerId);
 
 			mockMvc.perform(
@@ -253,4 +393,217 @@ public class OperationAccountPlayerControllerTest {
 					)).andExpect(status().isForbidden()).andExpectAll(jsonPath("$.message").isNotEmpty());
 		}
 	}
+
+	@Nested
+	public class Export {
+		@DisplayName("Проверка с форматом NDJSON.")
+		@Test
+		public void exportValid() throws Exception {
+			long playerId = 88L;
+			long accountId = 14L;
+			mockExport(playerId, accountId);
+			when(authToken.verifyToken(anyString())).thenReturn(playerId);
+
+			MvcResult mvcResult = mockMvc.perform(
+							get("/players/{playerId}/accounts/{accountId}/operations/export", playerId, accountId)
+									.header("Authorization", "srd7b6s65Vr65E6WX4W65RV7878n897T7R65rsd7f6"))
+					.andExpect(request().asyncStarted())
+					.andReturn();
+
+			mockMvc.perform(asyncDispatch(mvcResult))
+					.andExpect(status().isOk())
+					.andExpect(content().contentType("application/x-ndjson"))
+					.andExpect(content().string(
+							"{\"operationId\":1,\"accountId\":14,\"playerId\":88,\"operationType\":\"CREDIT\",\"amount\":10.50}\n"
+									+ "{\"operationId\":2,\"accountId\":14,\"playerId\":88,\"operationType\":\"DEBIT\",\"amount\":1}\n"
+					));
+		}
+
+		@DisplayName("Проверка с форматом CSV.")
+		@Test
+		public void exportWithCsv() throws Exception {
+			long playerId = 88L;
+			long accountId = 14L;
+			mockExport(playerId, accountId);
+			when(authToken.verifyToken(anyString())).thenReturn(playerId);
+
+			MvcResult mvcResult = mockMvc.perform(
+							get("/players/{playerId}/accounts/{accountId}/operations/export", playerId, accountId)
+									.param("format", "csv")
+									.header("Authorization", "srd7b6s65Vr65E6WX4W65RV7878n897T7R65rsd7f6"))
+					.andExpect(request().asyncStarted())
+					.andReturn();
+
+			mockMvc.perform(asyncDispatch(mvcResult))
+					.andExpect(status().isOk())
+					.andExpect(content().contentTypeCompatibleWith("text/csv"))
+					.andExpect(content().string("""
+							operationId,playerId,accountId,operationType,amount
+							1,88,14,CREDIT,10.50
+							2,88,14,DEBIT,1
+							"""));
+		}
+
+		@DisplayName("Проверка с неподдерживаемым форматом.")
+		@Test
+		public void exportWithInvalidFormat() throws Exception {
+			long playerId = 88L;
+			long accountId = 14L;
+			when(authToken.verifyToken(anyString())).thenReturn(playerId);
+
+			mockMvc.perform(
+							get("/players/{playerId}/accounts/{accountId}/operations/export", playerId, accountId)
+									.param("format", "xml")
+									.header("Authorization", "srd7b6s65Vr65E6WX4W65RV7878n897T7R65rsd7f6"))
+					.andExpect(status().isBadRequest()).andExpectAll(jsonPath("$.message").isNotEmpty());
+		}
+
+		@SuppressWarnings("unchecked")
+		@DisplayName("Проверка с периодом.")
+		@Test
+		public void exportWithPeriod() throws Exception {
+			long playerId = 88L;
+			long accountId = 14L;
+			mockExport(playerId, accountId);
+			when(authToken.verifyToken(anyString())).thenReturn(playerId);
+
+			MvcResult mvcResult = mockMvc.perform(
+							get("/players/{playerId}/accounts/{accountId}/operations/export", playerId, accountId)
+									.param("from", "2023-01-01T00:00:00Z")
+									.param("to", "2023-02-01T00:00:00Z")
+									.header("Authorization", "srd7b6s65Vr65E6WX4W65RV7878n897T7R65rsd7f6"))
+					.andExpect(request().asyncStarted())
+					.andReturn();
+
+			mockMvc.perform(asyncDispatch(mvcResult))
+					.andExpect(status().isOk());
+			verify(operationService).export(eq(playerId), eq(accountId), eq(Instant.parse("2023-01-01T00:00:00Z")),
+					eq(Instant.parse("2023-02-01T00:00:00Z")), any(Consumer.class));
+		}
+
+		@DisplayName("Проверка с некорректным моментом периода.")
+		@Test
+		public void exportWithInvalidInstant() throws Exception {
+			long playerId = 88L;
+			long accountId = 14L;
+			when(authToken.verifyToken(anyString())).thenReturn(playerId);
+
+			mockMvc.perform(
+							get("/players/{playerId}/accounts/{accountId}/operations/export", playerId, accountId)
+									.param("from", "2023-01-01")
+									.header("Authorization", "srd7b6s65Vr65E6WX4W65RV7878n897T7R65rsd7f6"))
+					.andExpect(status().isBadRequest()).andExpectAll(jsonPath("$.message").isNotEmpty());
+		}
+
+		@DisplayName("Проверка с началом периода не ранее конца.")
+		@Test
+		public void exportWithEmptyPeriod() throws Exception {
+			long playerId = 88L;
+			long accountId = 14L;
+			when(authToken.verifyToken(anyString())).thenReturn(playerId);
+
+			mockMvc.perform(
+							get("/players/{playerId}/accounts/{accountId}/operations/export", playerId, accountId)
+									.param("from", "2023-02-01T00:00:00Z")
+									.param("to", "2023-02-01T00:00:00Z")
+									.header("Authorization", "srd7b6s65Vr65E6WX4W65RV7878n897T7R65rsd7f6"))
+					.andExpect(status().isBadRequest()).andExpectAll(jsonPath("$.message").isNotEmpty());
+		}
+
+		@DisplayName("Проверка с отсутствием доступа.")
+		@Test
+		public void exportWithNoAccess() throws Exception {
+			long playerId = 88L;
+			long accountId = 14L;
+			when(authToken.verifyToken(anyString())).thenReturn(24L);
+
+			mockMvc.perform(
+							get("/players/{playerId}/accounts/{accountId}/operations/export", playerId, accountId)
+									.header("Authorization", "srd7b634545f45tf45tg497T7R65rsd7f6"))
+					.andExpect(status().isForbidden()).andExpectAll(jsonPath("$.message").isNotEmpty());
+		}
+
+		@SuppressWarnings("unchecked")
+		private void mockExport(final long playerId, final long accountId) {
+			doAnswer(invocation -> {
+				Consumer<Operation> consumer = invocation.getArgument(4);
+				consumer.accept(new Operation(1L, playerId, accountId, OperationType.CREDIT, new BigDecimal("10.50")));
+				consumer.accept(new Operation(2L, playerId, accountId, OperationType.DEBIT, BigDecimal.ONE));
+				return null;
+			}).when(operationService).export(anyLong(), anyLong(), any(), any(), any(Consumer.class));
+		}
+	}
+
+	@Nested
+	public class Summary {
+		@DisplayName("Проверка с корректными данными.")
+		@Test
+		public void summaryValid() throws Exception {
+			long playerId = 88L;
+			long accountId = 14L;
+			LocalDate from = LocalDate.parse("2023-01-01");
+			LocalDate to = LocalDate.parse("2023-01-31");
+			when(operationService.summarize(playerId, accountId, from, to)).thenReturn(List.of(
+					new OperationSummary(OperationType.CREDIT, 2L, new BigDecimal("11.50")),
+					new OperationSummary(OperationType.DEBIT, 1L, BigDecimal.ONE)
+			));
+			when(authToken.verifyToken(anyString())).thenReturn(playerId);
+
+			mockMvc.perform(
+							get("/players/{playerId}/accounts/{accountId}/operations/summary", playerId, accountId)
+									.param("from", "2023-01-01")
+									.param("to", "2023-01-31")
+									.header("Authorization", "srd7b6s65Vr65E6WX4W65RV7878n897T7R65rsd7f6"))
+					.andExpect(status().isOk())
+					.andExpect(content().contentType(MediaType.APPLICATION_JSON))
+					.andExpectAll(jsonPath("$.length()").value(2),
+							jsonPath("$[0].operationType").value("CREDIT"), jsonPath("$[0].count").value(2),
+							jsonPath("$[0].amount").value(11.5), jsonPath("$[1].operationType").value("DEBIT")
+					);
+		}
+
+		@DisplayName("Проверка с первым днём периода позже последнего.")
+		@Test
+		public void summaryWithInvalidPeriod() throws Exception {
+			long playerId = 88L;
+			long accountId = 14L;
+			when(authToken.verifyToken(anyString())).thenReturn(playerId);
+
+			mockMvc.perform(
+							get("/players/{playerId}/accounts/{accountId}/operations/summary", playerId, accountId)
+									.param("from", "2023-02-01")
+									.param("to", "2023-01-31")
+									.header("Authorization", "srd7b6s65Vr65E6WX4W65RV7878n897T7R65rsd7f6"))
+					.andExpect(status().isBadRequest()).andExpectAll(jsonPath("$.message").isNotEmpty());
+		}
+
+		@DisplayName("Проверка с отсутствующим днём периода.")
+		@Test
+		public void summaryWithMissingDate() throws Exception {
+			long playerId = 88L;
+			long accountId = 14L;
+			when(authToken.verifyToken(anyString())).thenReturn(playerId);
+
+			mockMvc.perform(
+							get("/players/{playerId}/accounts/{accountId}/operations/summary", playerId, accountId)
+									.param("from", "2023-01-01")
+									.header("Authorization", "srd7b6s65Vr65E6WX4W65RV7878n897T7R65rsd7f6"))
+					.andExpect(status().isBadRequest()).andExpectAll(jsonPath("$.message").isNotEmpty());
+		}
+
+		@DisplayName("Проверка с отсутствием доступа.")
+		@Test
+		public void summaryWithNoAccess() throws Exception {
+			long playerId = 88L;
+			long accountId = 14L;
+			when(authToken.verifyToken(anyString())).thenReturn(24L);
+
+			mockMvc.perform(
+							get("/players/{playerId}/accounts/{accountId}/operations/summary", playerId, accountId)
+									.param("from", "2023-01-01")
+									.param("to", "2023-01-31")
+									.header("Authorization", "srd7b634545f45tf45tg497T7R65rsd7f6"))
+					.andExpect(status().isForbidden()).andExpectAll(jsonPath("$.message").isNotEmpty());
+		}
+	}
 }
\ No newline at end of file
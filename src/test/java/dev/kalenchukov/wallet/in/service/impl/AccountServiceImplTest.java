@@ -6,25 +6,49 @@
 
 package dev.kalenchukov.wallet.in.service.impl;
 
+import dev.kalenchukov.wallet.cache.AccountCache;
+import dev.kalenchukov.wallet.cache.OperationJsonCache;
+import dev.kalenchukov.wallet.cache.RecentOperationCache;
+import dev.kalenchukov.wallet.cache.impl.AccountCacheImpl;
+import dev.kalenchukov.wallet.cache.impl.OperationJsonCacheImpl;
+import dev.kalenchukov.wallet.cache.impl.RecentOperationCacheImpl;
 import dev.kalenchukov.wallet.entity.Account;
+import dev.kalenchukov.wallet.entity.AmountChange;
 import dev.kalenchukov.wallet.entity.Operation;
+import dev.kalenchukov.wallet.entity.TransferChange;
+import dev.kalenchukov.wallet.exceptions.InvalidScaleAmountException;
+import dev.kalenchukov.wallet.exceptions.InvalidTypeOperationException;
 import dev.kalenchukov.wallet.exceptions.NegativeAmountOperationException;
 import dev.kalenchukov.wallet.exceptions.NoAccessAccountException;
 import dev.kalenchukov.wallet.exceptions.NotFoundAccountException;
 import dev.kalenchukov.wallet.exceptions.OutOfAmountAccountException;
+import dev.kalenchukov.wallet.exceptions.ProcessingIdempotencyKeyException;
+import dev.kalenchukov.wallet.exceptions.SameAccountTransferException;
 import dev.kalenchukov.wallet.in.service.AccountService;
+import dev.kalenchukov.wallet.lock.AccountLock;
+import dev.kalenchukov.wallet.lock.impl.AccountLockImpl;
+import dev.kalenchukov.wallet.money.AmountConverter;
+import dev.kalenchukov.wallet.money.impl.AmountConverterImpl;
 import dev.kalenchukov.wallet.repository.AccountRepository;
-import dev.kalenchukov.wallet.repository.OperationRepository;
+import dev.kalenchukov.wallet.repository.EventSourcedAccountRepository;
+import dev.kalenchukov.wallet.repository.HotAccountRepository;
+import dev.kalenchukov.wallet.repository.JournalAccountRepository;
 import dev.kalenchukov.wallet.repository.impl.AccountRepositoryImpl;
-import dev.kalenchukov.wallet.repository.impl.OperationRepositoryImpl;
+import dev.kalenchukov.wallet.repository.impl.EventSourcedAccountRepositoryImpl;
+import dev.kalenchukov.wallet.repository.impl.HotAccountRepositoryImpl;
+import dev.kalenchukov.wallet.repository.impl.JournalAccountRepositoryImpl;
+import dev.kalenchukov.wallet.type.AmountChangeStatus;
 import dev.kalenchukov.wallet.type.OperationType;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
@@ -33,12 +57,33 @@ import static org.mockito.Mockito.*;
 public class AccountServiceImplTest {
 	private AccountRepository accountRepository;
 
-	private OperationRepository operationRepository;
+	private HotAccountRepository hotAccountRepository;
+
+	private JournalAccountRepository journalAccountRepository;
+
+	private EventSourcedAccountRepository eventSourcedAccountRepository;
+
+	private AccountLock accountLock;
+
+	private AccountCache accountCache;
+
+	private RecentOperationCache recentOperationCache;
+
+	private OperationJsonCache operationJsonCache;
+
+	private AmountConverter amountConverter;
 
 	@BeforeEach
 	public void beforeEach() {
 		this.accountRepository = mock(AccountRepositoryImpl.class);
-		this.operationRepository = mock(OperationRepositoryImpl.class);
+		this.hotAccountRepository = mock(HotAccountRepositoryImpl.class);
+		this.journalAccountRepository = mock(JournalAccountRepositoryImpl.class);
+		this.eventSourcedAccountRepository = mock(EventSourcedAccountRepositoryImpl.class);
+		this.accountLock = mock(AccountLockImpl.class);
+		this.accountCache = mock(AccountCacheImpl.class);
+		this.recentOperationCache = mock(RecentOperationCacheImpl.class);
+		this.operationJsonCache = mock(OperationJsonCacheImpl.class);
+		this.amountConverter = new AmountConverterImpl(false, 2);
 	}
 
 	@Nested
@@ -49,7 +94,10 @@ public class AccountServiceImplTest {
 			long playerId = 738L;
 			Account account = mock(Account.class);
 			when(accountRepository.save(any(Account.class))).thenReturn(account);
-			AccountService accountService = new AccountServiceImpl(accountRepository, operationRepository);
+			AccountService accountService = new AccountServiceImpl(accountRepository, hotAccountRepository,
+					journalAccountRepository, eventSourcedAccountRepository, accountLock, accountCache,
+					recentOperationCache, operationJsonCache, amountConverter
+			);
 
 			Account actualAccount = accountService.add(playerId);
 
@@ -65,14 +113,110 @@ public class AccountServiceImplTest {
 		public void findByIdValid() throws NotFoundAccountException {
 			long playerId = 78L;
 			long accountId = 13L;
-			Account account = mock(Account.class);
+			Account account = new Account(accountId, playerId, BigDecimal.TEN);
+			when(accountRepository.findById(anyLong(), anyLong())).thenReturn(Optional.of(account));
+			AccountService accountService = new AccountServiceImpl(accountRepository, hotAccountRepository,
+					journalAccountRepository, eventSourcedAccountRepository, accountLock, accountCache,
+					recentOperationCache, operationJsonCache, amountConverter
+			);
+
+			Account actualAccount = accountService.findById(playerId, accountId);
+
+			assertThat(actualAccount).isEqualTo(account);
+			verify(accountRepository, times(1)).findById(anyLong(), anyLong());
+			verify(accountCache, times(1)).put(account);
+		}
+
+		@DisplayName("Проверка со счётом в кэше.")
+		@Test
+		public void findByIdWithCachedAccount() throws NotFoundAccountException {
+			long playerId = 78L;
+			long accountId = 13L;
+			Account account = new Account(accountId, playerId, BigDecimal.TEN);
+			when(accountCache.get(accountId)).thenReturn(account);
+			AccountService accountService = new AccountServiceImpl(accountRepository, hotAccountRepository,
+					journalAccountRepository, eventSourcedAccountRepository, accountLock, accountCache,
+					recentOperationCache, operationJsonCache, amountConverter
+			);
+
+			Account actualAccount = accountService.findById(playerId, accountId);
+
+			assertThat(actualAccount).isEqualTo(account);
+			verify(accountRepository, never()).findById(anyLong(), anyLong());
+		}
+
+		@DisplayName("Проверка со счётом другого игрока в кэше.")
+		@Test
+		public void findByIdWithCachedAccountOfOtherPlayer() {
+			long playerId = 78L;
+			long accountId = 13L;
+			when(accountCache.get(accountId)).thenReturn(new Account(accountId, 5L, BigDecimal.TEN));
+			AccountService accountService = new AccountServiceImpl(accountRepository, hotAccountRepository,
+					journalAccountRepository, eventSourcedAccountRepository, accountLock, accountCache,
+					recentOperationCache, operationJsonCache, amountConverter
+			);
+
+			assertThatExceptionOfType(NotFoundAccountException.class).isThrownBy(() -> {
+				accountService.findById(playerId, accountId);
+			});
+		}
+
+		@DisplayName("Проверка с горячим счётом.")
+		@Test
+		public void findByIdWithHotAccount() throws NotFoundAccountException {
+			long playerId = 78L;
+			long accountId = 13L;
+			Account account = new Account(accountId, playerId, BigDecimal.TEN);
 			when(accountRepository.findById(anyLong(), anyLong())).thenReturn(Optional.of(account));
-			AccountService accountService = new AccountServiceImpl(accountRepository, operationRepository);
+			when(hotAccountRepository.isHot(accountId)).thenReturn(true);
+			AccountService accountService = new AccountServiceImpl(accountRepository, hotAccountRepository,
+					journalAccountRepository, eventSourcedAccountRepository, accountLock, accountCache,
+					recentOperationCache, operationJsonCache, amountConverter
+			);
+
+			Account actualAccount = accountService.findById(playerId, accountId);
+
+			assertThat(actualAccount.getAmount()).isEqualTo(BigDecimal.TEN);
+		}
+
+		@DisplayName("Проверка с журналируемым счётом.")
+		@Test
+		public void findByIdWithJournaledAccount() throws NotFoundAccountException {
+			long playerId = 78L;
+			long accountId = 13L;
+			Account account = new Account(accountId, playerId, BigDecimal.TEN);
+			when(journalAccountRepository.isJournaled(accountId)).thenReturn(true);
+			when(journalAccountRepository.findById(playerId, accountId)).thenReturn(Optional.of(account));
+			AccountService accountService = new AccountServiceImpl(accountRepository, hotAccountRepository,
+					journalAccountRepository, eventSourcedAccountRepository, accountLock, accountCache,
+					recentOperationCache, operationJsonCache, amountConverter
+			);
+
+			Account actualAccount = accountService.findById(playerId, accountId);
+
+			assertThat(actualAccount).isEqualTo(account);
+			verifyNoInteractions(accountRepository);
+			verifyNoInteractions(accountCache);
+		}
+
+		@DisplayName("Проверка со счётом, сумма которого выводится из журнала операций.")
+		@Test
+		public void findByIdWithEventSourcedAccount() throws NotFoundAccountException {
+			long playerId = 78L;
+			long accountId = 13L;
+			Account account = new Account(accountId, playerId, BigDecimal.TEN);
+			when(eventSourcedAccountRepository.isEventSourced(accountId)).thenReturn(true);
+			when(eventSourcedAccountRepository.findById(playerId, accountId)).thenReturn(Optional.of(account));
+			AccountService accountService = new AccountServiceImpl(accountRepository, hotAccountRepository,
+					journalAccountRepository, eventSourcedAccountRepository, accountLock, accountCache,
+					recentOperationCache, operationJsonCache, amountConverter
+			);
 
 			Account actualAccount = accountService.findById(playerId, accountId);
 
 			assertThat(actualAccount).isEqualTo(account);
-			verify(accountRepository, only()).findById(anyLong(), anyLong());
+			verifyNoInteractions(accountRepository);
+			verifyNoInteractions(accountCache);
 		}
 
 		@DisplayName("Проверка с отсутствующим счётом.")
@@ -81,7 +225,10 @@ public class AccountServiceImplTest {
 			long playerId = 78L;
 			long accountId = 0L;
 			when(accountRepository.findById(anyLong(), anyLong())).thenReturn(Optional.empty());
-			AccountService accountService = new AccountServiceImpl(accountRepository, operationRepository);
+			AccountService accountService = new AccountServiceImpl(accountRepository, hotAccountRepository,
+					journalAccountRepository, eventSourcedAccountRepository, accountLock, accountCache,
+					recentOperationCache, operationJsonCache, amountConverter
+			);
 
 			assertThatExceptionOfType(NotFoundAccountException.class).isThrownBy(() -> {
 				accountService.findById(playerId, accountId);
@@ -93,34 +240,166 @@ public class AccountServiceImplTest {
 	public class Credit {
 		@DisplayName("Проверка с корректными данными.")
 		@Test
-		public void creditValid() throws NotFoundAccountException, NoAccessAccountException, NegativeAmountOperationException {
+		public void creditValid() throws NotFoundAccountException, NoAccessAccountException, NegativeAmountOperationException, InvalidScaleAmountException {
 			long operationId = 3L;
 			long accountId = 79L;
 			long playerId = 64L;
 			BigDecimal amount = BigDecimal.valueOf(99.58);
-			BigDecimal currentAmountAccount = spy(BigDecimal.valueOf(10.00));
-			OperationType operationType = OperationType.CREDIT;
-			Account account = mock(Account.class);
-			when(account.getPlayerId()).thenReturn(playerId);
-			when(account.getAmount()).thenReturn(currentAmountAccount);
-			Operation operation = mock(Operation.class);
-			when(operation.getOperationId()).thenReturn(operationId);
-			when(operation.getAccountId()).thenReturn(accountId);
-			when(operation.getPlayerId()).thenReturn(playerId);
-			when(operation.getOperationType()).thenReturn(operationType);
-			when(operation.getAmount()).thenReturn(amount);
-			when(operationRepository.save(any(Operation.class))).thenReturn(operation);
-			when(accountRepository.findById(anyLong(), anyLong())).thenReturn(Optional.of(account));
-			when(accountRepository.updateAmount(anyLong(), anyLong(), any(BigDecimal.class))).thenReturn(true);
-			AccountService accountService = new AccountServiceImpl(accountRepository, operationRepository);
+			AmountChange amountChange = new AmountChange(AmountChangeStatus.SUCCESS, operationId, BigDecimal.valueOf(109.58));
+			when(accountRepository.changeAmount(anyLong(), anyLong(), any(OperationType.class), any(BigDecimal.class)))
+					.thenReturn(amountChange);
+			AccountService accountService = new AccountServiceImpl(accountRepository, hotAccountRepository,
+					journalAccountRepository, eventSourcedAccountRepository, accountLock, accountCache,
+					recentOperationCache, operationJsonCache, amountConverter
+			);
 
 			Operation actualOperation = accountService.credit(playerId, accountId, amount);
 
-			assertThat(actualOperation).isEqualTo(operation);
-			verify(accountRepository, times(1)).findById(anyLong(), anyLong());
-			verify(currentAmountAccount, times(1)).add(amount);
-			verify(accountRepository, times(1)).updateAmount(anyLong(), anyLong(), any(BigDecimal.class));
-			verify(operationRepository, times(1)).save(any(Operation.class));
+			assertThat(actualOperation.getOperationId()).isEqualTo(operationId);
+			assertThat(actualOperation.getPlayerId()).isEqualTo(playerId);
+			assertThat(actualOperation.getAccountId()).isEqualTo(accountId);
+			assertThat(actualOperation.getOperationType()).isEqualTo(OperationType.CREDIT);
+			assertThat(actualOperation.getAmount()).isEqualTo(amount);
+			verify(accountRepository, times(1)).changeAmount(playerId, accountId, OperationType.CREDIT, amount);
+			verify(accountLock, times(1)).lock(accountId);
+			verify(accountLock, times(1)).unlock(accountId);
+			verify(accountCache, times(1)).put(new Account(accountId, playerId, BigDecimal.valueOf(109.58)));
+			verify(recentOperationCache, times(1)).add(actualOperation);
+			verify(operationJsonCache, times(1)).put(actualOperation);
+		}
+
+		@DisplayName("Проверка с распределённым счётом.")
+		@Test
+		public void creditWithShardedAccount() throws NotFoundAccountException, NoAccessAccountException, NegativeAmountOperationException, InvalidScaleAmountException {
+			long operationId = 3L;
+			long accountId = 79L;
+			long playerId = 64L;
+			BigDecimal amount = BigDecimal.valueOf(99.58);
+			when(accountRepository.isSharded(accountId)).thenReturn(true);
+			when(accountRepository.changeAmount(anyLong(), anyLong(), any(OperationType.class), any(BigDecimal.class)))
+					.thenReturn(new AmountChange(AmountChangeStatus.SUCCESS, operationId, null));
+			AccountService accountService = new AccountServiceImpl(accountRepository, hotAccountRepository,
+					journalAccountRepository, eventSourcedAccountRepository, accountLock, accountCache,
+					recentOperationCache, operationJsonCache, amountConverter
+			);
+
+			Operation actualOperation = accountService.credit(playerId, accountId, amount);
+
+			assertThat(actualOperation.getOperationId()).isEqualTo(operationId);
+			verify(accountRepository, times(1)).changeAmount(playerId, accountId, OperationType.CREDIT, amount);
+			verifyNoInteractions(accountLock);
+		}
+
+		@DisplayName("Проверка с горячим счётом.")
+		@Test
+		public void creditWithHotAccount() throws NotFoundAccountException, NoAccessAccountException, NegativeAmountOperationException, InvalidScaleAmountException {
+			long operationId = 3L;
+			long accountId = 79L;
+			long playerId = 64L;
+			BigDecimal amount = BigDecimal.valueOf(99.58);
+			when(hotAccountRepository.isHot(accountId)).thenReturn(true);
+			when(hotAccountRepository.credit(playerId, accountId, amount))
+					.thenReturn(new AmountChange(AmountChangeStatus.SUCCESS, operationId, null));
+			AccountService accountService = new AccountServiceImpl(accountRepository, hotAccountRepository,
+					journalAccountRepository, eventSourcedAccountRepository, accountLock, accountCache,
+					recentOperationCache, operationJsonCache, amountConverter
+			);
+
+			Operation actualOperation = accountService.credit(playerId, accountId, amount);
+
+			assertThat(actualOperation.getOperationId()).isEqualTo(operationId);
+			assertThat(actualOperation.getOperationType()).isEqualTo(OperationType.CREDIT);
+			verify(hotAccountRepository, times(1)).credit(playerId, accountId, amount);
+			verifyNoInteractions(accountRepository);
+			verifyNoInteractions(accountLock);
+		}
+
+		@DisplayName("Проверка с ключом идемпотентности и горячим счётом.")
+		@Test
+		public void creditWithIdempotencyKey() throws NotFoundAccountException, NoAccessAccountException, NegativeAmountOperationException, InvalidScaleAmountException, ProcessingIdempotencyKeyException {
+			long operationId = 3L;
+			long accountId = 79L;
+			long playerId = 64L;
+			BigDecimal amount = BigDecimal.valueOf(99.58);
+			when(hotAccountRepository.isHot(accountId)).thenReturn(true);
+			when(accountRepository.changeAmount(playerId, accountId, OperationType.CREDIT, amount, "key-1"))
+					.thenReturn(new AmountChange(AmountChangeStatus.SUCCESS, operationId, null));
+			AccountService accountService = new AccountServiceImpl(accountRepository, hotAccountRepository,
+					journalAccountRepository, eventSourcedAccountRepository, accountLock, accountCache,
+					recentOperationCache, operationJsonCache, amountConverter
+			);
+
+			Operation actualOperation = accountService.credit(playerId, accountId, amount, "key-1");
+
+			assertThat(actualOperation.getOperationId()).isEqualTo(operationId);
+			InOrder inOrder = inOrder(accountLock, hotAccountRepository, accountRepository);
+			inOrder.verify(accountLock, times(1)).lockAll(Set.of(accountId));
+			inOrder.verify(hotAccountRepository, times(1)).flush(accountId);
+			inOrder.verify(accountRepository, times(1))
+					.changeAmount(playerId, accountId, OperationType.CREDIT, amount, "key-1");
+			inOrder.verify(accountLock, times(1)).unlockAll(Set.of(accountId));
+			verify(hotAccountRepository, never()).credit(anyLong(), anyLong(), any(BigDecimal.class));
+		}
+
+		@DisplayName("Проверка с журналируемым счётом.")
+		@Test
+		public void creditWithJournaledAccount() throws NotFoundAccountException, NoAccessAccountException, NegativeAmountOperationException, InvalidScaleAmountException {
+			long operationId = 3L;
+			long accountId = 79L;
+			long playerId = 64L;
+			BigDecimal amount = BigDecimal.valueOf(99.58);
+			when(journalAccountRepository.isJournaled(accountId)).thenReturn(true);
+			when(journalAccountRepository.changeAmount(playerId, accountId, OperationType.CREDIT, amount))
+					.thenReturn(new AmountChange(AmountChangeStatus.SUCCESS, operationId, amount));
+			AccountService accountService = new AccountServiceImpl(accountRepository, hotAccountRepository,
+					journalAccountRepository, eventSourcedAccountRepository, accountLock, accountCache,
+					recentOperationCache, operationJsonCache, amountConverter
+			);
+
+			Operation actualOperation = accountService.credit(playerId, accountId, amount);
+
+			assertThat(actualOperation.getOperationId()).isEqualTo(operationId);
+			InOrder inOrder = inOrder(accountLock, journalAccountRepository);
+			inOrder.verify(accountLock).lock(accountId);
+			inOrder.verify(journalAccountRepository).changeAmount(playerId, accountId, OperationType.CREDIT, amount);
+			inOrder.verify(accountLock).unlock(accountId);
+			verify(accountRepository, never()).changeAmount(anyLong(), anyLong(), any(OperationType.class),
+					any(BigDecimal.class)
+			);
+			verifyNoInteractions(accountCache);
+			verify(recentOperationCache, only()).remove(accountId);
+			verifyNoInteractions(operationJsonCache);
+		}
+
+		@DisplayName("Проверка со счётом, сумма которого выводится из журнала операций.")
+		@Test
+		public void creditWithEventSourcedAccount() throws NotFoundAccountException, NoAccessAccountException, NegativeAmountOperationException, InvalidScaleAmountException {
+			long operationId = 3L;
+			long accountId = 79L;
+			long playerId = 64L;
+			BigDecimal amount = BigDecimal.valueOf(99.58);
+			when(eventSourcedAccountRepository.isEventSourced(accountId)).thenReturn(true);
+			when(hotAccountRepository.isHot(accountId)).thenReturn(true);
+			when(eventSourcedAccountRepository.changeAmount(playerId, accountId, OperationType.CREDIT, amount))
+					.thenReturn(new AmountChange(AmountChangeStatus.SUCCESS, operationId, amount));
+			AccountService accountService = new AccountServiceImpl(accountRepository, hotAccountRepository,
+					journalAccountRepository, eventSourcedAccountRepository, accountLock, accountCache,
+					recentOperationCache, operationJsonCache, amountConverter
+			);
+
+			Operation actualOperation = accountService.credit(playerId, accountId, amount);
+
+			assertThat(actualOperation.getOperationId()).isEqualTo(operationId);
+			InOrder inOrder = inOrder(accountLock, eventSourcedAccountRepository);
+			inOrder.verify(accountLock).lock(accountId);
+			inOrder.verify(eventSourcedAccountRepository).changeAmount(playerId, accountId, OperationType.CREDIT,
+					amount);
+			inOrder.verify(accountLock).unlock(accountId);
+			verify(accountRepository, never()).changeAmount(anyLong(), anyLong(), any(OperationType.class),
+					any(BigDecimal.class)
+			);
+			verify(hotAccountRepository, never()).credit(anyLong(), anyLong(), any(BigDecimal.class));
+			verifyNoInteractions(accountCache);
 		}
 
 		@DisplayName("Проверка с null в качестве суммы.")
@@ -128,15 +407,13 @@ public class AccountServiceImplTest {
 		public void creditWithNullAmount() {
 			long accountId = 79L;
 			long playerId = 64L;
-			BigDecimal amount = BigDecimal.valueOf(0.58);
-			Account account = mock(Account.class);
-			when(account.getPlayerId()).thenReturn(playerId);
-			when(accountRepository.findById(anyLong(), anyLong())).thenReturn(Optional.of(account));
-			when(accountRepository.updateAmount(anyLong(), anyLong(), any(BigDecimal.class))).thenReturn(true);
-			AccountService accountService = new AccountServiceImpl(accountRepository, operationRepository);
+			AccountService accountService = new AccountServiceImpl(accountRepository, hotAccountRepository,
+					journalAccountRepository, eventSourcedAccountRepository, accountLock, accountCache,
+					recentOperationCache, operationJsonCache, amountConverter
+			);
 
 			assertThatExceptionOfType(NullPointerException.class).isThrownBy(() -> {
-				accountService.credit(playerId, accountId, amount);
+				accountService.credit(playerId, accountId, null);
 			});
 		}
 
@@ -146,9 +423,12 @@ public class AccountServiceImplTest {
 			long accountId = 79L;
 			long playerId = 64L;
 			BigDecimal amount = BigDecimal.valueOf(13.43);
-			when(accountRepository.findById(anyLong(), anyLong())).thenReturn(Optional.empty());
-			when(accountRepository.updateAmount(anyLong(), anyLong(), any(BigDecimal.class))).thenReturn(true);
-			AccountService accountService = new AccountServiceImpl(accountRepository, operationRepository);
+			when(accountRepository.changeAmount(anyLong(), anyLong(), any(OperationType.class), any(BigDecimal.class)))
+					.thenReturn(new AmountChange(AmountChangeStatus.NOT_FOUND_ACCOUNT, 0L, null));
+			AccountService accountService = new AccountServiceImpl(accountRepository, hotAccountRepository,
+					journalAccountRepository, eventSourcedAccountRepository, accountLock, accountCache,
+					recentOperationCache, operationJsonCache, amountConverter
+			);
 
 			assertThatExceptionOfType(NotFoundAccountException.class).isThrownBy(() -> {
 				accountService.credit(playerId, accountId, amount);
@@ -161,11 +441,12 @@ public class AccountServiceImplTest {
 			long accountId = 79L;
 			long playerId = 64L;
 			BigDecimal amount = BigDecimal.valueOf(13.43);
-			Account account = mock(Account.class);
-			when(account.getPlayerId()).thenReturn(54654L);
-			when(accountRepository.findById(anyLong(), anyLong())).thenReturn(Optional.of(account));
-			when(accountRepository.updateAmount(anyLong(), anyLong(), any(BigDecimal.class))).thenReturn(true);
-			AccountService accountService = new AccountServiceImpl(accountRepository, operationRepository);
+			when(accountRepository.changeAmount(anyLong(), anyLong(), any(OperationType.class), any(BigDecimal.class)))
+					.thenReturn(new AmountChange(AmountChangeStatus.NO_ACCESS_ACCOUNT, 0L, null));
+			AccountService accountService = new AccountServiceImpl(accountRepository, hotAccountRepository,
+					journalAccountRepository, eventSourcedAccountRepository, accountLock, accountCache,
+					recentOperationCache, operationJsonCache, amountConverter
+			);
 
 			assertThatExceptionOfType(NoAccessAccountException.class).isThrownBy(() -> {
 				accountService.credit(playerId, accountId, amount);
@@ -178,15 +459,32 @@ public class AccountServiceImplTest {
 			long accountId = 79L;
 			long playerId = 64L;
 			BigDecimal amount = BigDecimal.valueOf(-19.43);
-			Account account = mock(Account.class);
-			when(account.getPlayerId()).thenReturn(playerId);
-			when(accountRepository.findById(anyLong(), anyLong())).thenReturn(Optional.of(account));
-			when(accountRepository.updateAmount(anyLong(), anyLong(), any(BigDecimal.class))).thenReturn(true);
-			AccountService accountService = new AccountServiceImpl(accountRepository, operationRepository);
+			AccountService accountService = new AccountServiceImpl(accountRepository, hotAccountRepository,
+					journalAccountRepository, eventSourcedAccountRepository, accountLock, accountCache,
+					recentOperationCache, operationJsonCache, amountConverter
+			);
 
 			assertThatExceptionOfType(NegativeAmountOperationException.class).isThrownBy(() -> {
 				accountService.credit(playerId, accountId, amount);
 			});
+			verifyNoInteractions(accountRepository);
+		}
+
+		@DisplayName("Проверка с суммой точнее валюты.")
+		@Test
+		public void creditWithExcessScaleAmount() {
+			long accountId = 79L;
+			long playerId = 64L;
+			BigDecimal amount = new BigDecimal("19.431");
+			AccountService accountService = new AccountServiceImpl(
+					accountRepository, hotAccountRepository, journalAccountRepository, eventSourcedAccountRepository,
+					accountLock, accountCache, recentOperationCache, operationJsonCache, new AmountConverterImpl(true, 2)
+			);
+
+			assertThatExceptionOfType(InvalidScaleAmountException.class).isThrownBy(() -> {
+				accountService.credit(playerId, accountId, amount);
+			});
+			verifyNoInteractions(accountRepository);
 		}
 	}
 
@@ -194,34 +492,53 @@ public class AccountServiceImplTest {
 	public class Debit {
 		@DisplayName("Проверка с корректными данными.")
 		@Test
-		public void debitValid() throws NotFoundAccountException, NoAccessAccountException, OutOfAmountAccountException, NegativeAmountOperationException {
+		public void debitValid() throws NotFoundAccountException, NoAccessAccountException, OutOfAmountAccountException, NegativeAmountOperationException, InvalidScaleAmountException {
 			long operationId = 3L;
 			long accountId = 79L;
 			long playerId = 64L;
 			BigDecimal amount = BigDecimal.valueOf(99.58);
-			BigDecimal currentAmountAccount = spy(BigDecimal.valueOf(100.00));
-			OperationType operationType = OperationType.DEBIT;
-			Account account = mock(Account.class);
-			when(account.getPlayerId()).thenReturn(playerId);
-			when(account.getAmount()).thenReturn(currentAmountAccount);
-			Operation operation = mock(Operation.class);
-			when(operation.getOperationId()).thenReturn(operationId);
-			when(operation.getAccountId()).thenReturn(accountId);
-			when(operation.getPlayerId()).thenReturn(playerId);
-			when(operation.getOperationType()).thenReturn(operationType);
-			when(operation.getAmount()).thenReturn(amount);
-			when(operationRepository.save(any(Operation.class))).thenReturn(operation);
-			when(accountRepository.findById(anyLong(), anyLong())).thenReturn(Optional.of(account));
-			when(accountRepository.updateAmount(anyLong(), anyLong(), any(BigDecimal.class))).thenReturn(true);
-			AccountService accountService = new AccountServiceImpl(accountRepository, operationRepository);
+			AmountChange amountChange = new AmountChange(AmountChangeStatus.SUCCESS, operationId, BigDecimal.valueOf(0.42));
+			when(accountRepository.changeAmount(anyLong(), anyLong(), any(OperationType.class), any(BigDecimal.class)))
+					.thenReturn(amountChange);
+			AccountService accountService = new AccountServiceImpl(accountRepository, hotAccountRepository,
+					journalAccountRepository, eventSourcedAccountRepository, accountLock, accountCache,
+					recentOperationCache, operationJsonCache, amountConverter
+			);
 
 			Operation actualOperation = accountService.debit(playerId, accountId, amount);
 
-			assertThat(actualOperation).isEqualTo(operation);
-			verify(accountRepository, times(1)).findById(anyLong(), anyLong());
-			verify(currentAmountAccount, times(1)).subtract(amount);
-			verify(accountRepository, times(1)).updateAmount(anyLong(), anyLong(), any(BigDecimal.class));
-			verify(operationRepository, times(1)).save(any(Operation.class));
+			assertThat(actualOperation.getOperationId()).isEqualTo(operationId);
+			assertThat(actualOperation.getPlayerId()).isEqualTo(playerId);
+			assertThat(actualOperation.getAccountId()).isEqualTo(accountId);
+			assertThat(actualOperation.getOperationType()).isEqualTo(OperationType.DEBIT);
+			assertThat(actualOperation.getAmount()).isEqualTo(amount);
+			verify(accountRepository, times(1)).changeAmount(playerId, accountId, OperationType.DEBIT, amount);
+			verify(accountLock, times(1)).lock(accountId);
+			verify(accountLock, times(1)).unlock(accountId);
+		}
+
+		@DisplayName("Проверка с горячим счётом.")
+		@Test
+		public void debitWithHotAccount() throws NotFoundAccountException, NoAccessAccountException, OutOfAmountAccountException, NegativeAmountOperationException, InvalidScaleAmountException {
+			long operationId = 3L;
+			long accountId = 79L;
+			long playerId = 64L;
+			BigDecimal amount = BigDecimal.valueOf(99.58);
+			when(hotAccountRepository.isHot(accountId)).thenReturn(true);
+			when(accountRepository.changeAmount(anyLong(), anyLong(), any(OperationType.class), any(BigDecimal.class)))
+					.thenReturn(new AmountChange(AmountChangeStatus.SUCCESS, operationId, BigDecimal.ZERO));
+			AccountService accountService = new AccountServiceImpl(accountRepository, hotAccountRepository,
+					journalAccountRepository, eventSourcedAccountRepository, accountLock, accountCache,
+					recentOperationCache, operationJsonCache, amountConverter
+			);
+
+			accountService.debit(playerId, accountId, amount);
+
+			InOrder inOrder = inOrder(accountLock, hotAccountRepository, accountRepository);
+			inOrder.verify(accountLock).lock(accountId);
+			inOrder.verify(hotAccountRepository).flush(accountId);
+			inOrder.verify(accountRepository).changeAmount(playerId, accountId, OperationType.DEBIT, amount);
+			inOrder.verify(accountLock).unlock(accountId);
 		}
 
 		@DisplayName("Проверка с null в качестве суммы.")
@@ -229,15 +546,13 @@ public class AccountServiceImplTest {
 		public void debitWithNullAmount() {
 			long accountId = 79L;
 			long playerId = 64L;
-			BigDecimal amount = BigDecimal.valueOf(0.58);
-			Account account = mock(Account.class);
-			when(account.getPlayerId()).thenReturn(playerId);
-			when(accountRepository.findById(anyLong(), anyLong())).thenReturn(Optional.of(account));
-			when(accountRepository.updateAmount(anyLong(), anyLong(), any(BigDecimal.class))).thenReturn(true);
-			AccountService accountService = new AccountServiceImpl(accountRepository, operationRepository);
+			AccountService accountService = new AccountServiceImpl(accountRepository, hotAccountRepository,
+					journalAccountRepository, eventSourcedAccountRepository, accountLock, accountCache,
+					recentOperationCache, operationJsonCache, amountConverter
+			);
 
 			assertThatExceptionOfType(NullPointerException.class).isThrownBy(() -> {
-				accountService.debit(playerId, accountId, amount);
+				accountService.debit(playerId, accountId, null);
 			});
 		}
 
@@ -247,9 +562,12 @@ public class AccountServiceImplTest {
 			long accountId = 79L;
 			long playerId = 64L;
 			BigDecimal amount = BigDecimal.valueOf(13.43);
-			when(accountRepository.findById(anyLong(), anyLong())).thenReturn(Optional.empty());
-			when(accountRepository.updateAmount(anyLong(), anyLong(), any(BigDecimal.class))).thenReturn(true);
-			AccountService accountService = new AccountServiceImpl(accountRepository, operationRepository);
+			when(accountRepository.changeAmount(anyLong(), anyLong(), any(OperationType.class), any(BigDecimal.class)))
+					.thenReturn(new AmountChange(AmountChangeStatus.NOT_FOUND_ACCOUNT, 0L, null));
+			AccountService accountService = new AccountServiceImpl(accountRepository, hotAccountRepository,
+					journalAccountRepository, eventSourcedAccountRepository, accountLock, accountCache,
+					recentOperationCache, operationJsonCache, amountConverter
+			);
 
 			assertThatExceptionOfType(NotFoundAccountException.class).isThrownBy(() -> {
 				accountService.debit(playerId, accountId, amount);
@@ -262,11 +580,12 @@ public class AccountServiceImplTest {
 			long accountId = 79L;
 			long playerId = 64L;
 			BigDecimal amount = BigDecimal.valueOf(13.43);
-			Account account = mock(Account.class);
-			when(account.getPlayerId()).thenReturn(54654L);
-			when(accountRepository.findById(anyLong(), anyLong())).thenReturn(Optional.of(account));
-			when(accountRepository.updateAmount(anyLong(), anyLong(), any(BigDecimal.class))).thenReturn(true);
-			AccountService accountService = new AccountServiceImpl(accountRepository, operationRepository);
+			when(accountRepository.changeAmount(anyLong(), anyLong(), any(OperationType.class), any(BigDecimal.class)))
+					.thenReturn(new AmountChange(AmountChangeStatus.NO_ACCESS_ACCOUNT, 0L, null));
+			AccountService accountService = new AccountServiceImpl(accountRepository, hotAccountRepository,
+					journalAccountRepository, eventSourcedAccountRepository, accountLock, accountCache,
+					recentOperationCache, operationJsonCache, amountConverter
+			);
 
 			assertThatExceptionOfType(NoAccessAccountException.class).isThrownBy(() -> {
 				accountService.debit(playerId, accountId, amount);
@@ -279,15 +598,32 @@ public class AccountServiceImplTest {
 			long accountId = 79L;
 			long playerId = 64L;
 			BigDecimal amount = BigDecimal.valueOf(-19.43);
-			Account account = mock(Account.class);
-			when(account.getPlayerId()).thenReturn(playerId);
-			when(accountRepository.findById(anyLong(), anyLong())).thenReturn(Optional.of(account));
-			when(accountRepository.updateAmount(anyLong(), anyLong(), any(BigDecimal.class))).thenReturn(true);
-			AccountService accountService = new AccountServiceImpl(accountRepository, operationRepository);
+			AccountService accountService = new AccountServiceImpl(accountRepository, hotAccountRepository,
+					journalAccountRepository, eventSourcedAccountRepository, accountLock, accountCache,
+					recentOperationCache, operationJsonCache, amountConverter
+			);
 
 			assertThatExceptionOfType(NegativeAmountOperationException.class).isThrownBy(() -> {
 				accountService.debit(playerId, accountId, amount);
 			});
+			verifyNoInteractions(accountRepository);
+		}
+
+		@DisplayName("Проверка с суммой точнее валюты.")
+		@Test
+		public void debitWithExcessScaleAmount() {
+			long accountId = 79L;
+			long playerId = 64L;
+			BigDecimal amount = new BigDecimal("19.431");
+			AccountService accountService = new AccountServiceImpl(
+					accountRepository, hotAccountRepository, journalAccountRepository, eventSourcedAccountRepository,
+					accountLock, accountCache, recentOperationCache, operationJsonCache, new AmountConverterImpl(true, 2)
+			);
+
+			assertThatExceptionOfType(InvalidScaleAmountException.class).isThrownBy(() -> {
+				accountService.debit(playerId, accountId, amount);
+			});
+			verifyNoInteractions(accountRepository);
 		}
 
 		@DisplayName("Проверка с превышением суммы на счету.")
@@ -296,15 +632,317 @@ public class AccountServiceImplTest {
 			long accountId = 79L;
 			long playerId = 64L;
 			BigDecimal amount = BigDecimal.valueOf(50.47);
-			Account account = mock(Account.class);
-			when(account.getPlayerId()).thenReturn(playerId);
-			when(account.getAmount()).thenReturn(BigDecimal.TEN);
-			when(accountRepository.findById(anyLong(), anyLong())).thenReturn(Optional.of(account));
-			AccountService accountService = new AccountServiceImpl(accountRepository, operationRepository);
+			when(accountRepository.changeAmount(anyLong(), anyLong(), any(OperationType.class), any(BigDecimal.class)))
+					.thenReturn(new AmountChange(AmountChangeStatus.OUT_OF_AMOUNT, 0L, BigDecimal.TEN));
+			AccountService accountService = new AccountServiceImpl(accountRepository, hotAccountRepository,
+					journalAccountRepository, eventSourcedAccountRepository, accountLock, accountCache,
+					recentOperationCache, operationJsonCache, amountConverter
+			);
 
 			assertThatExceptionOfType(OutOfAmountAccountException.class).isThrownBy(() -> {
 				accountService.debit(playerId, accountId, amount);
 			});
 		}
+
+		@DisplayName("Проверка с освобождённым ключом идемпотентности.")
+		@Test
+		public void debitWithReleasedIdempotencyKey() {
+			long accountId = 79L;
+			long playerId = 64L;
+			BigDecimal amount = BigDecimal.valueOf(50.47);
+			when(accountRepository.changeAmount(playerId, accountId, OperationType.DEBIT, amount, "key-1"))
+					.thenReturn(new AmountChange(AmountChangeStatus.RELEASED_IDEMPOTENCY_KEY, 0L, null));
+			AccountService accountService = new AccountServiceImpl(accountRepository, hotAccountRepository,
+					journalAccountRepository, eventSourcedAccountRepository, accountLock, accountCache,
+					recentOperationCache, operationJsonCache, amountConverter
+			);
+
+			assertThatExceptionOfType(ProcessingIdempotencyKeyException.class).isThrownBy(() -> {
+				accountService.debit(playerId, accountId, amount, "key-1");
+			});
+			verifyNoInteractions(recentOperationCache);
+		}
+	}
+
+	@Nested
+	public class ChangeAmounts {
+		@DisplayName("Проверка с корректными данными.")
+		@Test
+		public void changeAmountsValid()
+				throws NegativeAmountOperationException, InvalidScaleAmountException, InvalidTypeOperationException {
+			long playerId = 64L;
+			List<Operation> operations = List.of(
+					new Operation(0L, playerId, 79L, OperationType.CREDIT, BigDecimal.TEN),
+					new Operation(0L, playerId, 12L, OperationType.DEBIT, BigDecimal.ONE)
+			);
+			List<AmountChange> amountChanges = List.of(
+					new AmountChange(AmountChangeStatus.SUCCESS, 3L, BigDecimal.TEN),
+					new AmountChange(AmountChangeStatus.OUT_OF_AMOUNT, 0L, BigDecimal.ZERO)
+			);
+			when(accountRepository.changeAmounts(playerId, operations, false)).thenReturn(amountChanges);
+			AccountService accountService = new AccountServiceImpl(accountRepository, hotAccountRepository,
+					journalAccountRepository, eventSourcedAccountRepository, accountLock, accountCache,
+					recentOperationCache, operationJsonCache, amountConverter
+			);
+
+			List<AmountChange> actual = accountService.changeAmounts(playerId, operations, false);
+
+			assertThat(actual).isEqualTo(amountChanges);
+			InOrder inOrder = inOrder(accountLock, accountRepository);
+			inOrder.verify(accountLock).lockAll(Set.of(12L, 79L));
+			inOrder.verify(accountRepository).changeAmounts(playerId, operations, false);
+			inOrder.verify(accountLock).unlockAll(Set.of(12L, 79L));
+			verify(accountCache, times(1)).put(new Account(79L, playerId, BigDecimal.TEN));
+			verify(accountCache, never()).put(new Account(12L, playerId, BigDecimal.ZERO));
+		}
+
+		@DisplayName("Проверка с горячим и распределённым счётом.")
+		@Test
+		public void changeAmountsWithHotAndShardedAccount()
+				throws NegativeAmountOperationException, InvalidScaleAmountException, InvalidTypeOperationException {
+			long playerId = 64L;
+			List<Operation> operations = List.of(
+					new Operation(0L, playerId, 79L, OperationType.DEBIT, BigDecimal.TEN),
+					new Operation(0L, playerId, 12L, OperationType.CREDIT, BigDecimal.ONE)
+			);
+			when(hotAccountRepository.isHot(79L)).thenReturn(true);
+			when(accountRepository.isSharded(12L)).thenReturn(true);
+			when(accountRepository.changeAmounts(playerId, operations, true)).thenReturn(List.of(
+					new AmountChange(AmountChangeStatus.SUCCESS, 3L, BigDecimal.ZERO),
+					new AmountChange(AmountChangeStatus.SUCCESS, 4L, BigDecimal.ONE)
+			));
+			AccountService accountService = new AccountServiceImpl(accountRepository, hotAccountRepository,
+					journalAccountRepository, eventSourcedAccountRepository, accountLock, accountCache,
+					recentOperationCache, operationJsonCache, amountConverter
+			);
+
+			accountService.changeAmounts(playerId, operations, true);
+
+			InOrder inOrder = inOrder(accountLock, hotAccountRepository, accountRepository);
+			inOrder.verify(accountLock).lockAll(Set.of(79L));
+			inOrder.verify(hotAccountRepository).flush(79L);
+			inOrder.verify(accountRepository).changeAmounts(playerId, operations, true);
+			inOrder.verify(accountLock).unlockAll(Set.of(79L));
+			verify(accountCache, never()).put(any(Account.class));
+		}
+
+		@DisplayName("Проверка с отрицательной суммой.")
+		@Test
+		public void changeAmountsWithNegativeAmount() {
+			long playerId = 64L;
+			List<Operation> operations = List.of(
+					new Operation(0L, playerId, 79L, OperationType.CREDIT, BigDecimal.valueOf(-1.5))
+			);
+			AccountService accountService = new AccountServiceImpl(accountRepository, hotAccountRepository,
+					journalAccountRepository, eventSourcedAccountRepository, accountLock, accountCache,
+					recentOperationCache, operationJsonCache, amountConverter
+			);
+
+			assertThatExceptionOfType(NegativeAmountOperationException.class).isThrownBy(() -> {
+				accountService.changeAmounts(playerId, operations, true);
+			});
+			verifyNoInteractions(accountLock);
+		}
+
+		@DisplayName("Проверка с операцией перевода.")
+		@Test
+		public void changeAmountsWithTransferType() {
+			long playerId = 64L;
+			List<Operation> operations = List.of(
+					new Operation(0L, playerId, 79L, OperationType.CREDIT, BigDecimal.TEN),
+					new Operation(0L, playerId, 79L, OperationType.TRANSFER_OUT, BigDecimal.valueOf(1000))
+			);
+			AccountService accountService = new AccountServiceImpl(accountRepository, hotAccountRepository,
+					journalAccountRepository, eventSourcedAccountRepository, accountLock, accountCache,
+					recentOperationCache, operationJsonCache, amountConverter
+			);
+
+			assertThatExceptionOfType(InvalidTypeOperationException.class).isThrownBy(() -> {
+				accountService.changeAmounts(playerId, operations, false);
+			});
+			verify(accountRepository, never()).changeAmounts(anyLong(), anyList(), anyBoolean());
+			verifyNoInteractions(accountLock);
+		}
+
+		@DisplayName("Проверка с ошибкой хранилища.")
+		@Test
+		public void changeAmountsWithRepositoryError() {
+			long playerId = 64L;
+			List<Operation> operations = List.of(
+					new Operation(0L, playerId, 79L, OperationType.CREDIT, BigDecimal.TEN)
+			);
+			when(accountRepository.changeAmounts(playerId, operations, true)).thenThrow(new RuntimeException());
+			AccountService accountService = new AccountServiceImpl(accountRepository, hotAccountRepository,
+					journalAccountRepository, eventSourcedAccountRepository, accountLock, accountCache,
+					recentOperationCache, operationJsonCache, amountConverter
+			);
+
+			assertThatExceptionOfType(RuntimeException.class).isThrownBy(() -> {
+				accountService.changeAmounts(playerId, operations, true);
+			});
+			verify(accountCache, times(1)).remove(79L);
+			verify(accountLock, times(1)).unlockAll(Set.of(79L));
+		}
+	}
+
+	@Nested
+	public class Transfer {
+		@DisplayName("Проверка с корректными данными.")
+		@Test
+		public void transferValid() throws NotFoundAccountException, NoAccessAccountException, OutOfAmountAccountException, NegativeAmountOperationException, InvalidScaleAmountException, SameAccountTransferException {
+			long playerId = 64L;
+			BigDecimal amount = BigDecimal.TEN;
+			when(accountRepository.transfer(playerId, 79L, 12L, amount)).thenReturn(
+					new TransferChange(AmountChangeStatus.SUCCESS, 79L, 3L, 4L, BigDecimal.ONE, BigDecimal.TEN)
+			);
+			AccountService accountService = new AccountServiceImpl(accountRepository, hotAccountRepository,
+					journalAccountRepository, eventSourcedAccountRepository, accountLock, accountCache,
+					recentOperationCache, operationJsonCache, amountConverter
+			);
+
+			List<Operation> actual = accountService.transfer(playerId, 79L, 12L, amount);
+
+			assertThat(actual).containsExactly(
+					new Operation(3L, playerId, 79L, OperationType.TRANSFER_OUT, amount),
+					new Operation(4L, playerId, 12L, OperationType.TRANSFER_IN, amount)
+			);
+			InOrder inOrder = inOrder(accountLock, accountRepository);
+			inOrder.verify(accountLock).lockAll(Set.of(12L, 79L));
+			inOrder.verify(accountRepository).transfer(playerId, 79L, 12L, amount);
+			inOrder.verify(accountLock).unlockAll(Set.of(12L, 79L));
+			verify(accountCache, times(1)).put(new Account(79L, playerId, BigDecimal.ONE));
+			verify(accountCache, times(1)).put(new Account(12L, playerId, BigDecimal.TEN));
+		}
+
+		@DisplayName("Проверка с журналируемым счётом.")
+		@Test
+		public void transferWithJournaledAccount() throws NotFoundAccountException, NoAccessAccountException, OutOfAmountAccountException, NegativeAmountOperationException, InvalidScaleAmountException, SameAccountTransferException {
+			long playerId = 64L;
+			BigDecimal amount = BigDecimal.TEN;
+			when(journalAccountRepository.isJournaled(79L)).thenReturn(true);
+			when(accountRepository.transfer(playerId, 79L, 12L, amount)).thenReturn(
+					new TransferChange(AmountChangeStatus.SUCCESS, 79L, 3L, 4L, BigDecimal.ONE, BigDecimal.TEN)
+			);
+			AccountService accountService = new AccountServiceImpl(accountRepository, hotAccountRepository,
+					journalAccountRepository, eventSourcedAccountRepository, accountLock, accountCache,
+					recentOperationCache, operationJsonCache, amountConverter
+			);
+
+			accountService.transfer(playerId, 79L, 12L, amount);
+
+			InOrder inOrder = inOrder(accountLock, journalAccountRepository, accountRepository);
+			inOrder.verify(accountLock).lockAll(Set.of(12L, 79L));
+			inOrder.verify(journalAccountRepository).release(79L);
+			inOrder.verify(accountRepository).transfer(playerId, 79L, 12L, amount);
+			inOrder.verify(accountLock).unlockAll(Set.of(12L, 79L));
+			verify(accountCache, never()).put(new Account(79L, playerId, BigDecimal.ONE));
+			verify(accountCache, times(1)).put(new Account(12L, playerId, BigDecimal.TEN));
+		}
+
+		@DisplayName("Проверка со счётом, сумма которого выводится из журнала операций.")
+		@Test
+		public void transferWithEventSourcedAccount() throws NotFoundAccountException, NoAccessAccountException, OutOfAmountAccountException, NegativeAmountOperationException, InvalidScaleAmountException, SameAccountTransferException {
+			long playerId = 64L;
+			BigDecimal amount = BigDecimal.TEN;
+			when(eventSourcedAccountRepository.isEventSourced(79L)).thenReturn(true);
+			when(accountRepository.transfer(playerId, 79L, 12L, amount)).thenReturn(
+					new TransferChange(AmountChangeStatus.SUCCESS, 79L, 3L, 4L, BigDecimal.ONE, BigDecimal.TEN)
+			);
+			AccountService accountService = new AccountServiceImpl(accountRepository, hotAccountRepository,
+					journalAccountRepository, eventSourcedAccountRepository, accountLock, accountCache,
+					recentOperationCache, operationJsonCache, amountConverter
+			);
+
+			accountService.transfer(playerId, 79L, 12L, amount);
+
+			InOrder inOrder = inOrder(accountLock, eventSourcedAccountRepository, accountRepository);
+			inOrder.verify(accountLock).lockAll(Set.of(12L, 79L));
+			inOrder.verify(eventSourcedAccountRepository).release(79L);
+			inOrder.verify(accountRepository).transfer(playerId, 79L, 12L, amount);
+			inOrder.verify(accountLock).unlockAll(Set.of(12L, 79L));
+			verify(accountCache, never()).put(new Account(79L, playerId, BigDecimal.ONE));
+			verify(accountCache, times(1)).put(new Account(12L, playerId, BigDecimal.TEN));
+		}
+
+		@DisplayName("Проверка с недостаточной суммой.")
+		@Test
+		public void transferWithOutOfAmount() {
+			long playerId = 64L;
+			when(accountRepository.transfer(anyLong(), anyLong(), anyLong(), any(BigDecimal.class))).thenReturn(
+					new TransferChange(AmountChangeStatus.OUT_OF_AMOUNT, 79L, 0L, 0L, BigDecimal.ONE, null)
+			);
+			AccountService accountService = new AccountServiceImpl(accountRepository, hotAccountRepository,
+					journalAccountRepository, eventSourcedAccountRepository, accountLock, accountCache,
+					recentOperationCache, operationJsonCache, amountConverter
+			);
+
+			assertThatExceptionOfType(OutOfAmountAccountException.class).isThrownBy(() -> {
+				accountService.transfer(playerId, 79L, 12L, BigDecimal.TEN);
+			});
+			verify(accountCache, never()).put(any(Account.class));
+			verify(accountLock, times(1)).unlockAll(Set.of(12L, 79L));
+		}
+
+		@DisplayName("Проверка с отсутствием счёта зачисления.")
+		@Test
+		public void transferWithNotFoundAccount() {
+			long playerId = 64L;
+			when(accountRepository.transfer(anyLong(), anyLong(), anyLong(), any(BigDecimal.class))).thenReturn(
+					new TransferChange(AmountChangeStatus.NOT_FOUND_ACCOUNT, 12L, 0L, 0L, null, null)
+			);
+			AccountService accountService = new AccountServiceImpl(accountRepository, hotAccountRepository,
+					journalAccountRepository, eventSourcedAccountRepository, accountLock, accountCache,
+					recentOperationCache, operationJsonCache, amountConverter
+			);
+
+			assertThatExceptionOfType(NotFoundAccountException.class).isThrownBy(() -> {
+				accountService.transfer(playerId, 79L, 12L, BigDecimal.TEN);
+			});
+		}
+
+		@DisplayName("Проверка с отсутствием доступа к счёту.")
+		@Test
+		public void transferWithNoAccessAccount() {
+			long playerId = 64L;
+			when(accountRepository.transfer(anyLong(), anyLong(), anyLong(), any(BigDecimal.class))).thenReturn(
+					new TransferChange(AmountChangeStatus.NO_ACCESS_ACCOUNT, 12L, 0L, 0L, null, null)
+			);
+			AccountService accountService = new AccountServiceImpl(accountRepository, hotAccountRepository,
+					journalAccountRepository, eventSourcedAccountRepository, accountLock, accountCache,
+					recentOperationCache, operationJsonCache, amountConverter
+			);
+
+			assertThatExceptionOfType(NoAccessAccountException.class).isThrownBy(() -> {
+				accountService.transfer(playerId, 79L, 12L, BigDecimal.TEN);
+			});
+		}
+
+		@DisplayName("Проверка с одинаковыми счетами.")
+		@Test
+		public void transferWithSameAccount() {
+			AccountService accountService = new AccountServiceImpl(accountRepository, hotAccountRepository,
+					journalAccountRepository, eventSourcedAccountRepository, accountLock, accountCache,
+					recentOperationCache, operationJsonCache, amountConverter
+			);
+
+			assertThatExceptionOfType(SameAccountTransferException.class).isThrownBy(() -> {
+				accountService.transfer(64L, 79L, 79L, BigDecimal.TEN);
+			});
+			verifyNoInteractions(accountRepository);
+		}
+
+		@DisplayName("Проверка с отрицательной суммой.")
+		@Test
+		public void transferWithNegativeAmount() {
+			AccountService accountService = new AccountServiceImpl(accountRepository, hotAccountRepository,
+					journalAccountRepository, eventSourcedAccountRepository, accountLock, accountCache,
+					recentOperationCache, operationJsonCache, amountConverter
+			);
+
+			assertThatExceptionOfType(NegativeAmountOperationException.class).isThrownBy(() -> {
+				accountService.transfer(64L, 79L, 12L, BigDecimal.valueOf(-1.5));
+			});
+			verifyNoInteractions(accountRepository);
+		}
 	}
 }
\ No newline at end of file
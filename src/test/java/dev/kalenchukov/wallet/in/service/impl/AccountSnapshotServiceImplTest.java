@@ -0,0 +1,159 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.in.service.impl;
+
+import dev.kalenchukov.wallet.entity.Account;
+import dev.kalenchukov.wallet.entity.AccountAudit;
+import dev.kalenchukov.wallet.entity.AccountSnapshot;
+import dev.kalenchukov.wallet.exceptions.NotFoundAccountException;
+import dev.kalenchukov.wallet.in.service.AccountService;
+import dev.kalenchukov.wallet.repository.AccountSnapshotRepository;
+import dev.kalenchukov.wallet.repository.impl.AccountSnapshotRepositoryImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.Mockito.*;
+
+public class AccountSnapshotServiceImplTest {
+	private AccountService accountService;
+
+	private AccountSnapshotRepository accountSnapshotRepository;
+
+	@BeforeEach
+	public void beforeEach() {
+		this.accountService = mock(AccountServiceImpl.class);
+		this.accountSnapshotRepository = mock(AccountSnapshotRepositoryImpl.class);
+	}
+
+	@Nested
+	public class Constructor {
+		@DisplayName("Проверка с количеством операций меньше единицы.")
+		@Test
+		public void constructorWithZeroOperations() {
+			assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> {
+				new AccountSnapshotServiceImpl(accountService, accountSnapshotRepository, true, 0L);
+			});
+		}
+	}
+
+	@Nested
+	public class Audit {
+		@DisplayName("Проверка с совпадающими суммами.")
+		@Test
+		public void auditValid() throws NotFoundAccountException {
+			long playerId = 5L;
+			long accountId = 17L;
+			when(accountService.findById(anyLong(), anyLong()))
+					.thenReturn(new Account(accountId, playerId, new BigDecimal("10.50")));
+			when(accountSnapshotRepository.replay(anyLong()))
+					.thenReturn(new AccountSnapshot(accountId, 94L, new BigDecimal("10.5")));
+			AccountSnapshotServiceImpl accountSnapshotService = new AccountSnapshotServiceImpl(
+					accountService, accountSnapshotRepository, false, 1000L
+			);
+
+			AccountAudit actual = accountSnapshotService.audit(playerId, accountId);
+
+			assertThat(actual.getAccountId()).isEqualTo(accountId);
+			assertThat(actual.getPlayerId()).isEqualTo(playerId);
+			assertThat(actual.getOperationId()).isEqualTo(94L);
+			assertThat(actual.isConsistent()).isTrue();
+			verify(accountService, only()).findById(playerId, accountId);
+			verify(accountSnapshotRepository, only()).replay(accountId);
+		}
+
+		@DisplayName("Проверка с расходящимися суммами.")
+		@Test
+		public void auditInconsistent() throws NotFoundAccountException {
+			long playerId = 5L;
+			long accountId = 17L;
+			when(accountService.findById(anyLong(), anyLong()))
+					.thenReturn(new Account(accountId, playerId, BigDecimal.TEN));
+			when(accountSnapshotRepository.replay(anyLong()))
+					.thenReturn(new AccountSnapshot(accountId, 94L, BigDecimal.ONE));
+			AccountSnapshotServiceImpl accountSnapshotService = new AccountSnapshotServiceImpl(
+					accountService, accountSnapshotRepository, false, 1000L
+			);
+
+			AccountAudit actual = accountSnapshotService.audit(playerId, accountId);
+
+			assertThat(actual.getAmount()).isEqualTo(BigDecimal.TEN);
+			assertThat(actual.getLedgerAmount()).isEqualTo(BigDecimal.ONE);
+			assertThat(actual.isConsistent()).isFalse();
+		}
+
+		@DisplayName("Проверка с отсутствующим счётом.")
+		@Test
+		public void auditNotFoundAccount() throws NotFoundAccountException {
+			long playerId = 5L;
+			long accountId = 17L;
+			when(accountService.findById(anyLong(), anyLong())).thenThrow(new NotFoundAccountException(accountId));
+			AccountSnapshotServiceImpl accountSnapshotService = new AccountSnapshotServiceImpl(
+					accountService, accountSnapshotRepository, false, 1000L
+			);
+
+			assertThatExceptionOfType(NotFoundAccountException.class).isThrownBy(() -> {
+				accountSnapshotService.audit(playerId, accountId);
+			});
+			verifyNoInteractions(accountSnapshotRepository);
+		}
+	}
+
+	@Nested
+	public class SnapshotAccounts {
+		@DisplayName("Проверка с выключенным сохранением снимков.")
+		@Test
+		public void snapshotAccountsDisabled() {
+			AccountSnapshotServiceImpl accountSnapshotService = new AccountSnapshotServiceImpl(
+					accountService, accountSnapshotRepository, false, 2L
+			);
+
+			accountSnapshotService.snapshotAccounts();
+
+			verifyNoInteractions(accountSnapshotRepository);
+		}
+
+		@DisplayName("Проверка с первым запуском.")
+		@Test
+		public void snapshotAccountsFirstRun() {
+			when(accountSnapshotRepository.findLastOperationId()).thenReturn(100L);
+			AccountSnapshotServiceImpl accountSnapshotService = new AccountSnapshotServiceImpl(
+					accountService, accountSnapshotRepository, true, 2L
+			);
+
+			accountSnapshotService.snapshotAccounts();
+
+			verify(accountSnapshotRepository, only()).findLastOperationId();
+		}
+
+		@DisplayName("Проверка с накоплением операций между запусками.")
+		@Test
+		public void snapshotAccountsValid() {
+			when(accountSnapshotRepository.findLastOperationId()).thenReturn(100L, 103L, 105L);
+			when(accountSnapshotRepository.countOperations(100L, 103L)).thenReturn(Map.of(1L, 1L, 2L, 2L));
+			when(accountSnapshotRepository.countOperations(103L, 105L)).thenReturn(Map.of(1L, 1L));
+			AccountSnapshotServiceImpl accountSnapshotService = new AccountSnapshotServiceImpl(
+					accountService, accountSnapshotRepository, true, 2L
+			);
+
+			accountSnapshotService.snapshotAccounts();
+			accountSnapshotService.snapshotAccounts();
+			verify(accountSnapshotRepository, times(1)).snapshot(2L);
+			verify(accountSnapshotRepository, never()).snapshot(1L);
+
+			accountSnapshotService.snapshotAccounts();
+			verify(accountSnapshotRepository, times(1)).snapshot(1L);
+			verify(accountSnapshotRepository, times(1)).snapshot(2L);
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,159 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.in.service.impl;
+
+import dev.kalenchukov.wallet.entity.IdempotencyKey;
+import dev.kalenchukov.wallet.entity.Operation;
+import dev.kalenchukov.wallet.exceptions.ApplicationException;
+import dev.kalenchukov.wallet.exceptions.InvalidIdempotencyKeyException;
+import dev.kalenchukov.wallet.exceptions.NotFoundAccountException;
+import dev.kalenchukov.wallet.exceptions.ProcessingIdempotencyKeyException;
+import dev.kalenchukov.wallet.in.service.IdempotencyService;
+import dev.kalenchukov.wallet.repository.IdempotencyKeyRepository;
+import dev.kalenchukov.wallet.repository.impl.IdempotencyKeyRepositoryImpl;
+import dev.kalenchukov.wallet.type.OperationType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.Mockito.*;
+
+public class IdempotencyServiceImplTest {
+	private IdempotencyKeyRepository idempotencyKeyRepository;
+
+	private IdempotencyService idempotencyService;
+
+	@BeforeEach
+	public void beforeEach() {
+		this.idempotencyKeyRepository = mock(IdempotencyKeyRepositoryImpl.class);
+		this.idempotencyService = new IdempotencyServiceImpl(this.idempotencyKeyRepository, 3600L, 300L, 100,
+				new SimpleMeterRegistry()
+		);
+	}
+
+	@Nested
+	public class Execute {
+		@DisplayName("Проверка с корректными данными.")
+		@Test
+		public void executeValid() throws ApplicationException {
+			Operation operation = new Operation(31L, 14L, 19L, OperationType.CREDIT, BigDecimal.TEN);
+			when(idempotencyKeyRepository.reserve(any(IdempotencyKey.class))).thenReturn(true);
+
+			Operation actualOperation = idempotencyService.execute(14L, 19L, OperationType.CREDIT, BigDecimal.TEN,
+					"key-1", () -> operation);
+
+			assertThat(actualOperation).isEqualTo(operation);
+			verify(idempotencyKeyRepository, never()).complete(any(IdempotencyKey.class));
+		}
+
+		@DisplayName("Проверка повтора запроса.")
+		@Test
+		public void executeRepeated() throws ApplicationException {
+			AtomicInteger executions = new AtomicInteger();
+			when(idempotencyKeyRepository.reserve(any(IdempotencyKey.class))).thenReturn(true);
+			IdempotencyService.Action action = () -> new Operation(
+					31L + executions.getAndIncrement(), 14L, 19L, OperationType.CREDIT, BigDecimal.TEN);
+
+			Operation firstOperation = idempotencyService.execute(14L, 19L, OperationType.CREDIT, BigDecimal.TEN,
+					"key-1", action);
+			Operation repeatedOperation = idempotencyService.execute(14L, 19L, OperationType.CREDIT, BigDecimal.TEN,
+					"key-1", action);
+
+			assertThat(repeatedOperation).isEqualTo(firstOperation);
+			assertThat(executions.get()).isEqualTo(1);
+			verify(idempotencyKeyRepository, times(1)).reserve(any(IdempotencyKey.class));
+		}
+
+		@DisplayName("Проверка повтора запроса, завершённого в другом экземпляре.")
+		@Test
+		public void executeRepeatedFromRepository() throws ApplicationException {
+			when(idempotencyKeyRepository.reserve(any(IdempotencyKey.class))).thenReturn(false);
+			when(idempotencyKeyRepository.find(14L, "key-1")).thenReturn(Optional.of(
+					new IdempotencyKey(14L, "key-1", 19L, OperationType.DEBIT, 31L, BigDecimal.ONE)));
+
+			Operation actualOperation = idempotencyService.execute(14L, 19L, OperationType.DEBIT, BigDecimal.ONE,
+					"key-1", () -> {
+						throw new IllegalStateException();
+					});
+
+			assertThat(actualOperation.getOperationId()).isEqualTo(31L);
+			assertThat(actualOperation.getOperationType()).isEqualTo(OperationType.DEBIT);
+			assertThat(actualOperation.getAmount()).isEqualTo(BigDecimal.ONE);
+		}
+
+		@DisplayName("Проверка с выполняющимся запросом.")
+		@Test
+		public void executeWithProcessing() {
+			when(idempotencyKeyRepository.reserve(any(IdempotencyKey.class))).thenReturn(false);
+			when(idempotencyKeyRepository.find(14L, "key-1")).thenReturn(Optional.of(
+					new IdempotencyKey(14L, "key-1", 19L, OperationType.CREDIT, null, null)));
+
+			assertThatExceptionOfType(ProcessingIdempotencyKeyException.class).isThrownBy(() -> {
+				idempotencyService.execute(14L, 19L, OperationType.CREDIT, BigDecimal.TEN, "key-1", () -> null);
+			});
+		}
+
+		@DisplayName("Проверка с ключом другого запроса.")
+		@Test
+		public void executeWithOtherRequest() {
+			when(idempotencyKeyRepository.reserve(any(IdempotencyKey.class))).thenReturn(false);
+			when(idempotencyKeyRepository.find(14L, "key-1")).thenReturn(Optional.of(
+					new IdempotencyKey(14L, "key-1", 19L, OperationType.CREDIT, 31L, BigDecimal.TEN)));
+
+			assertThatExceptionOfType(InvalidIdempotencyKeyException.class).isThrownBy(() -> {
+				idempotencyService.execute(14L, 19L, OperationType.DEBIT, BigDecimal.TEN, "key-1", () -> null);
+			});
+		}
+
+		@DisplayName("Проверка с пустым ключом.")
+		@Test
+		public void executeWithBlankKey() {
+			assertThatExceptionOfType(InvalidIdempotencyKeyException.class).isThrownBy(() -> {
+				idempotencyService.execute(14L, 19L, OperationType.CREDIT, BigDecimal.TEN, " ", () -> null);
+			});
+			verifyNoInteractions(idempotencyKeyRepository);
+		}
+
+		@DisplayName("Проверка освобождения ключа при ошибке.")
+		@Test
+		public void executeWithFailedAction() {
+			when(idempotencyKeyRepository.reserve(any(IdempotencyKey.class))).thenReturn(true);
+
+			assertThatExceptionOfType(NotFoundAccountException.class).isThrownBy(() -> {
+				idempotencyService.execute(14L, 19L, OperationType.CREDIT, BigDecimal.TEN, "key-1", () -> {
+					throw new NotFoundAccountException(19L);
+				});
+			});
+			verify(idempotencyKeyRepository, times(1)).release(14L, "key-1");
+		}
+	}
+
+	@Nested
+	public class RemoveExpired {
+		@DisplayName("Проверка освобождения незавершённых ключей.")
+		@Test
+		public void removeExpiredValid() {
+			idempotencyService = new IdempotencyServiceImpl(idempotencyKeyRepository, 3600L, 300L, 100,
+					new SimpleMeterRegistry()
+			);
+
+			((IdempotencyServiceImpl) idempotencyService).removeExpired();
+
+			verify(idempotencyKeyRepository, times(1)).removeCreatedBefore(any(Instant.class));
+			verify(idempotencyKeyRepository, times(1)).releaseCreatedBefore(any(Instant.class));
+		}
+	}
+}
\ No newline at end of file
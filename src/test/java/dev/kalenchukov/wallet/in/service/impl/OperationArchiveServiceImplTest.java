@@ -0,0 +1,110 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.in.service.impl;
+
+import dev.kalenchukov.wallet.archive.OperationArchive;
+import dev.kalenchukov.wallet.archive.impl.OperationArchiveImpl;
+import dev.kalenchukov.wallet.in.service.OperationArchiveService;
+import dev.kalenchukov.wallet.repository.AccountSnapshotRepository;
+import dev.kalenchukov.wallet.repository.OperationPartitionRepository;
+import dev.kalenchukov.wallet.repository.impl.AccountSnapshotRepositoryImpl;
+import dev.kalenchukov.wallet.repository.impl.OperationPartitionRepositoryImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class OperationArchiveServiceImplTest {
+	private OperationPartitionRepository operationPartitionRepository;
+
+	private AccountSnapshotRepository accountSnapshotRepository;
+
+	private OperationArchive operationArchive;
+
+	@BeforeEach
+	public void beforeEach() {
+		this.operationPartitionRepository = mock(OperationPartitionRepositoryImpl.class);
+		this.accountSnapshotRepository = mock(AccountSnapshotRepositoryImpl.class);
+		this.operationArchive = mock(OperationArchiveImpl.class);
+	}
+
+	@Nested
+	public class Constructor {
+		@DisplayName("Проверка с возрастом операций меньше единицы.")
+		@Test
+		public void constructorWithZeroAge() {
+			assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> {
+				new OperationArchiveServiceImpl(operationPartitionRepository, accountSnapshotRepository,
+						operationArchive, true, 0);
+			});
+		}
+	}
+
+	@Nested
+	public class Archive {
+		@DisplayName("Проверка архивирования секций старше заданного возраста.")
+		@Test
+		public void archiveValid() {
+			YearMonth current = YearMonth.now(ZoneOffset.UTC);
+			YearMonth oldest = current.minusMonths(13L);
+			when(operationPartitionRepository.find()).thenReturn(List.of(
+					oldest, current.minusMonths(12L), current
+			));
+			when(operationArchive.write(eq(oldest), any())).thenReturn(Set.of(5L, 7L));
+			OperationArchiveService operationArchiveService = new OperationArchiveServiceImpl(
+					operationPartitionRepository, accountSnapshotRepository, operationArchive, true, 12);
+
+			operationArchiveService.archive();
+
+			InOrder inOrder = inOrder(operationArchive, accountSnapshotRepository, operationPartitionRepository);
+			inOrder.verify(operationArchive).write(eq(oldest), any());
+			inOrder.verify(accountSnapshotRepository, times(2)).snapshot(anyLong());
+			inOrder.verify(operationPartitionRepository).drop(oldest);
+			verify(accountSnapshotRepository).snapshot(5L);
+			verify(accountSnapshotRepository).snapshot(7L);
+			verify(operationArchive, times(1)).write(any(YearMonth.class), any());
+			verify(operationPartitionRepository, times(1)).drop(any(YearMonth.class));
+		}
+
+		@DisplayName("Проверка с отключённым архивированием.")
+		@Test
+		public void archiveWithDisabled() {
+			OperationArchiveService operationArchiveService = new OperationArchiveServiceImpl(
+					operationPartitionRepository, accountSnapshotRepository, operationArchive, false, 12);
+
+			operationArchiveService.archive();
+
+			verifyNoInteractions(operationPartitionRepository, accountSnapshotRepository, operationArchive);
+		}
+
+		@DisplayName("Проверка с ошибкой записи архива.")
+		@Test
+		public void archiveWithFailedWrite() {
+			YearMonth month = YearMonth.now(ZoneOffset.UTC).minusMonths(13L);
+			when(operationPartitionRepository.find()).thenReturn(List.of(month));
+			when(operationArchive.write(eq(month), any())).thenThrow(IllegalArgumentException.class);
+			OperationArchiveService operationArchiveService = new OperationArchiveServiceImpl(
+					operationPartitionRepository, accountSnapshotRepository, operationArchive, true, 12);
+
+			assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(operationArchiveService::archive);
+
+			verify(operationPartitionRepository, never()).drop(any(YearMonth.class));
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,112 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.in.service.impl;
+
+import dev.kalenchukov.wallet.in.service.OperationPartitionService;
+import dev.kalenchukov.wallet.repository.AccountSnapshotRepository;
+import dev.kalenchukov.wallet.repository.OperationPartitionRepository;
+import dev.kalenchukov.wallet.repository.impl.AccountSnapshotRepositoryImpl;
+import dev.kalenchukov.wallet.repository.impl.OperationPartitionRepositoryImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class OperationPartitionServiceImplTest {
+	private OperationPartitionRepository operationPartitionRepository;
+
+	private AccountSnapshotRepository accountSnapshotRepository;
+
+	@BeforeEach
+	public void beforeEach() {
+		this.operationPartitionRepository = mock(OperationPartitionRepositoryImpl.class);
+		this.accountSnapshotRepository = mock(AccountSnapshotRepositoryImpl.class);
+	}
+
+	@Nested
+	public class Constructor {
+		@DisplayName("Проверка с отрицательным количеством месяцев.")
+		@Test
+		public void constructorWithNegativePremake() {
+			assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> {
+				new OperationPartitionServiceImpl(operationPartitionRepository, accountSnapshotRepository, -1, 0);
+			});
+		}
+
+		@DisplayName("Проверка с отрицательным сроком хранения.")
+		@Test
+		public void constructorWithNegativeRetention() {
+			assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> {
+				new OperationPartitionServiceImpl(operationPartitionRepository, accountSnapshotRepository, 0, -1);
+			});
+		}
+	}
+
+	@Nested
+	public class Maintain {
+		@DisplayName("Проверка создания секций заранее.")
+		@Test
+		public void maintainValid() {
+			YearMonth current = YearMonth.now(ZoneOffset.UTC);
+			OperationPartitionService operationPartitionService =
+					new OperationPartitionServiceImpl(operationPartitionRepository, accountSnapshotRepository, 2, 0);
+
+			operationPartitionService.maintain();
+
+			verify(operationPartitionRepository).create(current);
+			verify(operationPartitionRepository).create(current.plusMonths(1L));
+			verify(operationPartitionRepository).create(current.plusMonths(2L));
+			verify(operationPartitionRepository, times(3)).create(any(YearMonth.class));
+			verify(operationPartitionRepository, never()).find();
+			verify(operationPartitionRepository, never()).drop(any(YearMonth.class));
+			verifyNoInteractions(accountSnapshotRepository);
+		}
+
+		@DisplayName("Проверка удаления секций старше срока хранения.")
+		@Test
+		public void maintainWithRetention() {
+			YearMonth current = YearMonth.now(ZoneOffset.UTC);
+			when(operationPartitionRepository.find()).thenReturn(List.of(
+					current.minusMonths(14L), current.minusMonths(13L), current.minusMonths(12L), current
+			));
+			OperationPartitionService operationPartitionService =
+					new OperationPartitionServiceImpl(operationPartitionRepository, accountSnapshotRepository, 0, 12);
+
+			operationPartitionService.maintain();
+
+			verify(operationPartitionRepository).drop(current.minusMonths(14L));
+			verify(operationPartitionRepository).drop(current.minusMonths(13L));
+			verify(operationPartitionRepository, times(2)).drop(any(YearMonth.class));
+		}
+
+		@DisplayName("Проверка сохранения снимков счетов перед удалением секции.")
+		@Test
+		public void maintainWithRetentionSnapshots() {
+			YearMonth month = YearMonth.now(ZoneOffset.UTC).minusMonths(13L);
+			when(operationPartitionRepository.find()).thenReturn(List.of(month));
+			when(operationPartitionRepository.findAccountIds(month)).thenReturn(List.of(3L, 5L));
+			OperationPartitionService operationPartitionService =
+					new OperationPartitionServiceImpl(operationPartitionRepository, accountSnapshotRepository, 0, 12);
+
+			operationPartitionService.maintain();
+
+			InOrder inOrder = inOrder(accountSnapshotRepository, operationPartitionRepository);
+			inOrder.verify(accountSnapshotRepository).snapshot(3L);
+			inOrder.verify(accountSnapshotRepository).snapshot(5L);
+			inOrder.verify(operationPartitionRepository).drop(month);
+		}
+	}
+}
\ No newline at end of file
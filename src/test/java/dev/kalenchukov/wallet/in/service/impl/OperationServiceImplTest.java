@@ -6,10 +6,17 @@
 
 package dev.kalenchukov.wallet.in.service.impl;
 
+import dev.kalenchukov.wallet.cache.OperationJsonCache;
+import dev.kalenchukov.wallet.cache.RecentOperationCache;
+import dev.kalenchukov.wallet.cache.impl.OperationJsonCacheImpl;
+import dev.kalenchukov.wallet.cache.impl.RecentOperationCacheImpl;
 import dev.kalenchukov.wallet.entity.Operation;
+import dev.kalenchukov.wallet.entity.OperationSummary;
 import dev.kalenchukov.wallet.exceptions.NotFoundOperationException;
 import dev.kalenchukov.wallet.in.service.OperationService;
+import dev.kalenchukov.wallet.repository.JournalAccountRepository;
 import dev.kalenchukov.wallet.repository.OperationRepository;
+import dev.kalenchukov.wallet.repository.impl.JournalAccountRepositoryImpl;
 import dev.kalenchukov.wallet.repository.impl.OperationRepositoryImpl;
 import dev.kalenchukov.wallet.type.OperationType;
 import org.junit.jupiter.api.BeforeEach;
@@ -18,9 +25,13 @@ import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.function.Consumer;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
@@ -29,9 +40,18 @@ import static org.mockito.Mockito.*;
 public class OperationServiceImplTest {
 	private OperationRepository operationRepository;
 
+	private JournalAccountRepository journalAccountRepository;
+
+	private RecentOperationCache recentOperationCache;
+
+	private OperationJsonCache operationJsonCache;
+
 	@BeforeEach
 	public void beforeEach() {
 		this.operationRepository = mock(OperationRepositoryImpl.class);
+		this.journalAccountRepository = mock(JournalAccountRepositoryImpl.class);
+		this.recentOperationCache = mock(RecentOperationCacheImpl.class);
+		this.operationJsonCache = mock(OperationJsonCacheImpl.class);
 	}
 
 	@Nested
@@ -45,12 +65,15 @@ public class OperationServiceImplTest {
 			OperationType operationType = mock(OperationType.class);
 			BigDecimal amount = mock(BigDecimal.class);
 			when(operationRepository.save(any(Operation.class))).thenReturn(operation);
-			OperationService operationService = new OperationServiceImpl(operationRepository);
+			OperationService operationService = new OperationServiceImpl(operationRepository,
+					journalAccountRepository, recentOperationCache, operationJsonCache);
 
 			Operation actualOperation = operationService.add(playerId, accountId, operationType, amount);
 
 			assertThat(actualOperation).isEqualTo(operation);
 			verify(operationRepository, only()).save(any(Operation.class));
+			verify(recentOperationCache, only()).add(operation);
+			verify(operationJsonCache, only()).put(operation);
 		}
 
 		@DisplayName("Проверка с null в качестве типа операции.")
@@ -59,7 +82,8 @@ public class OperationServiceImplTest {
 			long playerId = 11L;
 			long accountId = 13L;
 			BigDecimal amount = mock(BigDecimal.class);
-			OperationService operationService = new OperationServiceImpl(operationRepository);
+			OperationService operationService = new OperationServiceImpl(operationRepository,
+					journalAccountRepository, recentOperationCache, operationJsonCache);
 
 			assertThatExceptionOfType(NullPointerException.class).isThrownBy(() -> {
 				operationService.add(playerId, accountId, null, amount);
@@ -72,7 +96,8 @@ public class OperationServiceImplTest {
 			long playerId = 11L;
 			long accountId = 13L;
 			OperationType operationType = mock(OperationType.class);
-			OperationService operationService = new OperationServiceImpl(operationRepository);
+			OperationService operationService = new OperationServiceImpl(operationRepository,
+					journalAccountRepository, recentOperationCache, operationJsonCache);
 
 			assertThatExceptionOfType(NullPointerException.class).isThrownBy(() -> {
 				operationService.add(playerId, accountId, operationType, null);
@@ -90,7 +115,8 @@ public class OperationServiceImplTest {
 			long playerId = 435L;
 			Operation operation = mock(Operation.class);
 			when(operationRepository.findById(playerId, accountId, operationId)).thenReturn(Optional.of(operation));
-			OperationService operationService = new OperationServiceImpl(operationRepository);
+			OperationService operationService = new OperationServiceImpl(operationRepository,
+					journalAccountRepository, recentOperationCache, operationJsonCache);
 
 			Operation actual = operationService.findById(playerId, accountId, operationId);
 
@@ -105,7 +131,8 @@ public class OperationServiceImplTest {
 			long accountId = 13L;
 			long playerId = 435L;
 			when(operationRepository.findById(playerId, accountId, operationId)).thenReturn(Optional.empty());
-			OperationService operationService = new OperationServiceImpl(operationRepository);
+			OperationService operationService = new OperationServiceImpl(operationRepository,
+					journalAccountRepository, recentOperationCache, operationJsonCache);
 
 			assertThatExceptionOfType(NotFoundOperationException.class).isThrownBy(() -> {
 				operationService.findById(playerId, accountId, operationId);
@@ -115,6 +142,61 @@ public class OperationServiceImplTest {
 		}
 	}
 
+	@Nested
+	public class FindJsonById {
+		@DisplayName("Проверка с операцией в кэше.")
+		@Test
+		public void findJsonByIdWithCached() throws NotFoundOperationException {
+			long operationId = 42L;
+			long accountId = 13L;
+			long playerId = 435L;
+			byte[] operationJson = new byte[]{'{', '}'};
+			when(operationJsonCache.get(playerId, accountId, operationId)).thenReturn(operationJson);
+			OperationService operationService = new OperationServiceImpl(operationRepository,
+					journalAccountRepository, recentOperationCache, operationJsonCache);
+
+			byte[] actual = operationService.findJsonById(playerId, accountId, operationId);
+
+			verifyNoInteractions(operationRepository);
+			assertThat(actual).isSameAs(operationJson);
+		}
+
+		@DisplayName("Проверка с операцией вне кэша.")
+		@Test
+		public void findJsonByIdWithNotCached() throws NotFoundOperationException {
+			long operationId = 42L;
+			long accountId = 13L;
+			long playerId = 435L;
+			byte[] operationJson = new byte[]{'{', '}'};
+			Operation operation = mock(Operation.class);
+			when(operationRepository.findById(playerId, accountId, operationId)).thenReturn(Optional.of(operation));
+			when(operationJsonCache.put(operation)).thenReturn(operationJson);
+			OperationService operationService = new OperationServiceImpl(operationRepository,
+					journalAccountRepository, recentOperationCache, operationJsonCache);
+
+			byte[] actual = operationService.findJsonById(playerId, accountId, operationId);
+
+			verify(operationJsonCache, times(1)).put(operation);
+			assertThat(actual).isSameAs(operationJson);
+		}
+
+		@DisplayName("Проверка с отсутствующей операцией.")
+		@Test
+		public void findJsonByIdWithNotFound() {
+			long operationId = 42L;
+			long accountId = 13L;
+			long playerId = 435L;
+			when(operationRepository.findById(playerId, accountId, operationId)).thenReturn(Optional.empty());
+			OperationService operationService = new OperationServiceImpl(operationRepository,
+					journalAccountRepository, recentOperationCache, operationJsonCache);
+
+			assertThatExceptionOfType(NotFoundOperationException.class).isThrownBy(() -> {
+				operationService.findJsonById(playerId, accountId, operationId);
+			});
+			verify(operationJsonCache, never()).put(any(Operation.class));
+		}
+	}
+
 	@Nested
 	public class Find {
 		@DisplayName("Проверка с корректными данными.")
@@ -125,7 +207,8 @@ public class OperationServiceImplTest {
 			Operation operation = mock(Operation.class);
 			when(operation.getAccountId()).thenReturn(accountId);
 			when(operationRepository.find(playerId, accountId)).thenReturn(List.of(operation));
-			OperationService operationService = new OperationServiceImpl(operationRepository);
+			OperationService operationService = new OperationServiceImpl(operationRepository,
+					journalAccountRepository, recentOperationCache, operationJsonCache);
 
 			List<Operation> actual = operationService.find(playerId, accountId);
 			List<Operation> expected = List.of(operation);
@@ -142,7 +225,8 @@ public class OperationServiceImplTest {
 			Operation operation = mock(Operation.class);
 			when(operation.getAccountId()).thenReturn(accountId);
 			when(operationRepository.find(playerId, accountId)).thenReturn(Collections.emptyList());
-			OperationService operationService = new OperationServiceImpl(operationRepository);
+			OperationService operationService = new OperationServiceImpl(operationRepository,
+					journalAccountRepository, recentOperationCache, operationJsonCache);
 
 			List<Operation> actual = operationService.find(playerId, accountId);
 
@@ -150,4 +234,210 @@ public class OperationServiceImplTest {
 			assertThat(actual).isEmpty();
 		}
 	}
+
+	@Nested
+	public class FindBefore {
+		@DisplayName("Проверка с корректными данными.")
+		@Test
+		public void findBeforeValid() {
+			long accountId = 13L;
+			long playerId = 435L;
+			Operation operation = mock(Operation.class);
+			when(operationRepository.findBefore(playerId, accountId, 100L, 10)).thenReturn(List.of(operation));
+			OperationService operationService = new OperationServiceImpl(operationRepository,
+					journalAccountRepository, recentOperationCache, operationJsonCache);
+
+			List<Operation> actual = operationService.findBefore(playerId, accountId, 100L, 10);
+
+			verify(operationRepository, only()).findBefore(playerId, accountId, 100L, 10);
+			assertThat(actual).containsExactly(operation);
+		}
+
+		@DisplayName("Проверка с последними операциями в кэше.")
+		@Test
+		public void findBeforeWithCachedOperations() {
+			long accountId = 13L;
+			long playerId = 435L;
+			Operation operation = mock(Operation.class);
+			when(recentOperationCache.getCapacity()).thenReturn(20);
+			when(recentOperationCache.find(playerId, accountId, 10)).thenReturn(List.of(operation));
+			OperationService operationService = new OperationServiceImpl(operationRepository,
+					journalAccountRepository, recentOperationCache, operationJsonCache);
+
+			List<Operation> actual = operationService.findBefore(playerId, accountId, Long.MAX_VALUE, 10);
+
+			verifyNoInteractions(operationRepository);
+			assertThat(actual).containsExactly(operation);
+		}
+
+		@DisplayName("Проверка с последними операциями вне кэша.")
+		@Test
+		public void findBeforeWithNotCachedOperations() {
+			long accountId = 13L;
+			long playerId = 435L;
+			List<Operation> operations = List.of(mock(Operation.class), mock(Operation.class), mock(Operation.class));
+			when(recentOperationCache.getCapacity()).thenReturn(3);
+			when(recentOperationCache.find(playerId, accountId, 2)).thenReturn(null);
+			when(recentOperationCache.getVersion(accountId)).thenReturn(7L);
+			when(operationRepository.findBefore(playerId, accountId, Long.MAX_VALUE, 3)).thenReturn(operations);
+			OperationService operationService = new OperationServiceImpl(operationRepository,
+					journalAccountRepository, recentOperationCache, operationJsonCache);
+
+			List<Operation> actual = operationService.findBefore(playerId, accountId, Long.MAX_VALUE, 2);
+
+			verify(recentOperationCache, times(1)).fill(playerId, accountId, 7L, operations);
+			assertThat(actual).containsExactlyElementsOf(operations.subList(0, 2));
+		}
+
+		@DisplayName("Проверка с последними операциями журналируемого счёта.")
+		@Test
+		public void findBeforeWithJournaledAccount() {
+			long accountId = 13L;
+			long playerId = 435L;
+			Operation operation = mock(Operation.class);
+			when(recentOperationCache.getCapacity()).thenReturn(20);
+			when(journalAccountRepository.isJournaled(accountId)).thenReturn(true);
+			when(operationRepository.findBefore(playerId, accountId, Long.MAX_VALUE, 10))
+					.thenReturn(List.of(operation));
+			OperationService operationService = new OperationServiceImpl(operationRepository,
+					journalAccountRepository, recentOperationCache, operationJsonCache);
+
+			List<Operation> actual = operationService.findBefore(playerId, accountId, Long.MAX_VALUE, 10);
+
+			verify(recentOperationCache, never()).find(anyLong(), anyLong(), anyInt());
+			assertThat(actual).containsExactly(operation);
+		}
+	}
+
+	@Nested
+	public class FindAfter {
+		@DisplayName("Проверка с корректными данными.")
+		@Test
+		public void findAfterValid() {
+			long accountId = 13L;
+			long playerId = 435L;
+			Operation operation = mock(Operation.class);
+			when(operationRepository.findAfter(playerId, accountId, 100L, 10)).thenReturn(List.of(operation));
+			OperationService operationService = new OperationServiceImpl(operationRepository,
+					journalAccountRepository, recentOperationCache, operationJsonCache);
+
+			List<Operation> actual = operationService.findAfter(playerId, accountId, 100L, 10);
+
+			verify(operationRepository, only()).findAfter(playerId, accountId, 100L, 10);
+			assertThat(actual).containsExactly(operation);
+		}
+	}
+
+	@Nested
+	public class Export {
+		@DisplayName("Проверка с корректными данными.")
+		@Test
+		public void exportValid() {
+			long accountId = 13L;
+			long playerId = 435L;
+			Consumer<Operation> consumer = operation -> {
+			};
+			Instant from = Instant.parse("2023-01-01T00:00:00Z");
+			Instant to = Instant.parse("2023-02-01T00:00:00Z");
+			OperationService operationService = new OperationServiceImpl(operationRepository,
+					journalAccountRepository, recentOperationCache, operationJsonCache);
+
+			operationService.export(playerId, accountId, from, to, consumer);
+
+			verify(operationRepository, only()).export(playerId, accountId, from, to, consumer);
+		}
+
+		@DisplayName("Проверка с null в качестве получателя.")
+		@Test
+		public void exportWithNull() {
+			OperationService operationService = new OperationServiceImpl(operationRepository,
+					journalAccountRepository, recentOperationCache, operationJsonCache);
+
+			assertThatExceptionOfType(NullPointerException.class).isThrownBy(() -> {
+				operationService.export(435L, 13L, null, null, null);
+			});
+		}
+	}
+
+	@Nested
+	public class Summarize {
+		@DisplayName("Проверка с корректными данными.")
+		@Test
+		public void summarizeValid() {
+			long accountId = 13L;
+			long playerId = 435L;
+			LocalDate from = LocalDate.parse("2023-01-01");
+			LocalDate to = LocalDate.parse("2023-01-31");
+			List<OperationSummary> operationSummaries = List.of(
+					new OperationSummary(OperationType.CREDIT, 1L, BigDecimal.ONE));
+			when(operationRepository.summarize(playerId, accountId, from, to)).thenReturn(operationSummaries);
+			OperationService operationService = new OperationServiceImpl(operationRepository,
+					journalAccountRepository, recentOperationCache, operationJsonCache);
+
+			List<OperationSummary> actualOperationSummaries = operationService.summarize(playerId, accountId, from, to);
+
+			assertThat(actualOperationSummaries).isEqualTo(operationSummaries);
+		}
+
+		@DisplayName("Проверка с null в качестве дня.")
+		@Test
+		public void summarizeWithNull() {
+			OperationService operationService = new OperationServiceImpl(operationRepository,
+					journalAccountRepository, recentOperationCache, operationJsonCache);
+
+			assertThatExceptionOfType(NullPointerException.class).isThrownBy(() -> {
+				operationService.summarize(435L, 13L, null, LocalDate.parse("2023-01-31"));
+			});
+		}
+	}
+
+	@Nested
+	public class FindVersion {
+		@DisplayName("Проверка с корректными данными.")
+		@Test
+		public void findVersionValid() {
+			long accountId = 13L;
+			long playerId = 435L;
+			when(recentOperationCache.getCapacity()).thenReturn(20);
+			when(recentOperationCache.find(playerId, accountId, 1))
+					.thenReturn(List.of(new Operation(42L, playerId, accountId, OperationType.CREDIT, BigDecimal.TEN)));
+			OperationService operationService = new OperationServiceImpl(operationRepository,
+					journalAccountRepository, recentOperationCache, operationJsonCache);
+
+			OptionalLong actual = operationService.findVersion(playerId, accountId);
+
+			verifyNoInteractions(operationRepository);
+			assertThat(actual).hasValue(42L);
+		}
+
+		@DisplayName("Проверка со счётом без операций.")
+		@Test
+		public void findVersionWithNoOperations() {
+			long accountId = 13L;
+			long playerId = 435L;
+			when(recentOperationCache.getCapacity()).thenReturn(20);
+			when(recentOperationCache.find(playerId, accountId, 1)).thenReturn(List.of());
+			OperationService operationService = new OperationServiceImpl(operationRepository,
+					journalAccountRepository, recentOperationCache, operationJsonCache);
+
+			OptionalLong actual = operationService.findVersion(playerId, accountId);
+
+			assertThat(actual).isEmpty();
+		}
+
+		@DisplayName("Проверка с журналируемым счётом.")
+		@Test
+		public void findVersionWithJournaledAccount() {
+			long accountId = 13L;
+			long playerId = 435L;
+			when(journalAccountRepository.isJournaled(accountId)).thenReturn(true);
+			OperationService operationService = new OperationServiceImpl(operationRepository,
+					journalAccountRepository, recentOperationCache, operationJsonCache);
+
+			OptionalLong actual = operationService.findVersion(playerId, accountId);
+
+			verifyNoInteractions(operationRepository, recentOperationCache);
+			assertThat(actual).isEmpty();
+		}
+	}
 }
\ No newline at end of file
@@ -0,0 +1,168 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.journal.impl;
+
+import dev.kalenchukov.wallet.entity.Operation;
+import dev.kalenchukov.wallet.journal.Journal;
+import dev.kalenchukov.wallet.type.OperationType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class JournalImplTest {
+	@TempDir
+	private Path directory;
+
+	@Nested
+	public class Constructor {
+		@DisplayName("Проверка с размером сегмента меньше допустимого.")
+		@Test
+		public void constructorWithSmallSegment() {
+			assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> {
+				new JournalImpl(directory.toString(), 1024);
+			});
+		}
+
+		@DisplayName("Проверка с отсутствующим каталогом.")
+		@Test
+		public void constructorWithoutDirectory() {
+			Journal journal = new JournalImpl(directory.resolve("journal").toString(), 4096);
+
+			assertThat(journal.read()).isEmpty();
+			assertThat(directory.resolve("journal")).doesNotExist();
+		}
+	}
+
+	@Nested
+	public class Append {
+		@DisplayName("Проверка с корректными данными.")
+		@Test
+		public void appendValid() throws IOException {
+			List<Operation> operations = List.of(
+					new Operation(1L, 2L, 3L, OperationType.CREDIT, new BigDecimal("10.50")),
+					new Operation(2L, 2L, 3L, OperationType.DEBIT, new BigDecimal("0.01")),
+					new Operation(3L, 2L, 4L, OperationType.CREDIT, BigDecimal.valueOf(-7))
+			);
+			JournalImpl journal = new JournalImpl(directory.toString(), 4096);
+			for (Operation operation : operations) {
+				journal.append(operation);
+			}
+			journal.close();
+
+			SortedMap<Long, List<Operation>> actual = new JournalImpl(directory.toString(), 4096).read();
+
+			assertThat(actual).hasSize(1);
+			assertThat(actual.get(actual.firstKey())).isEqualTo(operations);
+		}
+
+		@DisplayName("Проверка со сменой сегмента.")
+		@Test
+		public void appendWithRotation() throws IOException {
+			List<Operation> operations = new ArrayList<>();
+			JournalImpl journal = new JournalImpl(directory.toString(), 4096);
+			for (long operationId = 1; operationId <= 300; operationId++) {
+				Operation operation = new Operation(operationId, 1L, 1L, OperationType.CREDIT, BigDecimal.ONE);
+				operations.add(operation);
+				journal.append(operation);
+			}
+			journal.close();
+
+			SortedMap<Long, List<Operation>> actual = new JournalImpl(directory.toString(), 4096).read();
+
+			assertThat(actual.size()).isGreaterThan(1);
+			assertThat(actual.values().stream().flatMap(List::stream).toList()).isEqualTo(operations);
+		}
+	}
+
+	@Nested
+	public class Read {
+		@DisplayName("Проверка с повреждённой записью.")
+		@Test
+		public void readWithCorruptedRecord() throws IOException {
+			JournalImpl journal = new JournalImpl(directory.toString(), 4096);
+			journal.append(new Operation(1L, 1L, 1L, OperationType.CREDIT, BigDecimal.ONE));
+			journal.append(new Operation(2L, 1L, 1L, OperationType.CREDIT, BigDecimal.TEN));
+			journal.close();
+
+			Path segment = findSegments().get(0);
+			try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+				long offset = file.readInt() + 8L + 12L;
+				file.seek(offset);
+				file.writeByte(file.readByte() ^ 0xFF);
+			}
+
+			SortedMap<Long, List<Operation>> actual = new JournalImpl(directory.toString(), 4096).read();
+
+			assertThat(actual.get(actual.firstKey())).extracting(Operation::getOperationId).containsExactly(1L);
+		}
+
+		@DisplayName("Проверка продолжения записи после чтения.")
+		@Test
+		public void readThenAppend() throws IOException {
+			JournalImpl journal = new JournalImpl(directory.toString(), 4096);
+			long segment = journal.append(new Operation(1L, 1L, 1L, OperationType.CREDIT, BigDecimal.ONE));
+			journal.close();
+
+			JournalImpl actual = new JournalImpl(directory.toString(), 4096);
+			actual.read();
+			long actualSegment = actual.append(new Operation(2L, 1L, 1L, OperationType.CREDIT, BigDecimal.ONE));
+
+			assertThat(actualSegment).isGreaterThan(segment);
+			assertThat(findSegments()).hasSize(2);
+		}
+	}
+
+	@Nested
+	public class Release {
+		@DisplayName("Проверка с освобождением всех записей прошлого сегмента.")
+		@Test
+		public void releaseValid() throws IOException {
+			JournalImpl journal = new JournalImpl(directory.toString(), 4096);
+			journal.append(new Operation(1L, 1L, 1L, OperationType.CREDIT, BigDecimal.ONE));
+			journal.close();
+			JournalImpl actual = new JournalImpl(directory.toString(), 4096);
+			SortedMap<Long, List<Operation>> operations = actual.read();
+
+			actual.release(operations.firstKey(), 1);
+
+			assertThat(findSegments()).isEmpty();
+		}
+
+		@DisplayName("Проверка с текущим сегментом.")
+		@Test
+		public void releaseCurrentSegment() {
+			JournalImpl journal = new JournalImpl(directory.toString(), 4096);
+			long segment = journal.append(new Operation(1L, 1L, 1L, OperationType.CREDIT, BigDecimal.ONE));
+
+			journal.release(segment, 1);
+
+			assertThat(findSegments()).hasSize(1);
+		}
+	}
+
+	private List<Path> findSegments() {
+		try (Stream<Path> paths = Files.list(directory)) {
+			return paths.sorted().toList();
+		} catch (IOException exception) {
+			throw new RuntimeException(exception);
+		}
+	}
+}
\ No newline at end of file
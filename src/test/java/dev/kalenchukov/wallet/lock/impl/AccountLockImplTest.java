@@ -0,0 +1,153 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.lock.impl;
+
+import dev.kalenchukov.wallet.lock.AccountLock;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class AccountLockImplTest {
+	private SimpleMeterRegistry meterRegistry;
+
+	@BeforeEach
+	public void beforeEach() {
+		this.meterRegistry = new SimpleMeterRegistry();
+	}
+
+	@Nested
+	public class Constructor {
+		@DisplayName("Проверка с количеством полос не являющимся степенью двойки.")
+		@Test
+		public void constructorWithNotPowerOfTwoStripes() {
+			assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> {
+				new AccountLockImpl(12, meterRegistry);
+			});
+		}
+
+		@DisplayName("Проверка с нулевым количеством полос.")
+		@Test
+		public void constructorWithZeroStripes() {
+			assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> {
+				new AccountLockImpl(0, meterRegistry);
+			});
+		}
+
+		@DisplayName("Проверка регистрации метрик по каждой полосе.")
+		@Test
+		public void constructorRegistersMeters() {
+			new AccountLockImpl(8, meterRegistry);
+
+			assertThat(meterRegistry.find("wallet.account.lock.wait").timers()).hasSize(8);
+			assertThat(meterRegistry.find("wallet.account.lock.queue").gauges()).hasSize(8);
+		}
+	}
+
+	@Nested
+	public class Lock {
+		@DisplayName("Проверка последовательного изменения одного счёта из нескольких потоков.")
+		@Test
+		public void lockSerializesAccount() throws InterruptedException {
+			AccountLock accountLock = new AccountLockImpl(4, meterRegistry);
+			long accountId = 6L;
+			int threads = 8;
+			int iterations = 1000;
+			int[] counter = new int[1];
+			AtomicInteger concurrent = new AtomicInteger();
+			AtomicInteger maxConcurrent = new AtomicInteger();
+			ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+			for (int thread = 0; thread < threads; thread++) {
+				executor.execute(() -> {
+					for (int iteration = 0; iteration < iterations; iteration++) {
+						accountLock.lock(accountId);
+						try {
+							maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+							counter[0]++;
+							concurrent.decrementAndGet();
+						} finally {
+							accountLock.unlock(accountId);
+						}
+					}
+				});
+			}
+			executor.shutdown();
+
+			assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+			assertThat(counter[0]).isEqualTo(threads * iterations);
+			assertThat(maxConcurrent.get()).isEqualTo(1);
+			assertThat(meterRegistry.find("wallet.account.lock.wait").timers().stream()
+					.mapToLong(timer -> timer.count()).sum()).isEqualTo((long) threads * iterations);
+		}
+
+		@DisplayName("Проверка с одной полосой.")
+		@Test
+		public void lockWithSingleStripe() {
+			AccountLock accountLock = new AccountLockImpl(1, meterRegistry);
+
+			accountLock.lock(1L);
+			accountLock.lock(2L);
+			accountLock.unlock(2L);
+			accountLock.unlock(1L);
+
+			assertThat(meterRegistry.get("wallet.account.lock.wait").timer().count()).isEqualTo(2L);
+		}
+	}
+
+	@Nested
+	public class LockAll {
+		@DisplayName("Проверка захвата счетов в разном порядке из нескольких потоков.")
+		@Test
+		public void lockAllInDifferentOrder() throws InterruptedException {
+			AccountLock accountLock = new AccountLockImpl(16, meterRegistry);
+			List<Long> forward = List.of(1L, 2L, 3L, 4L, 5L);
+			List<Long> backward = List.of(5L, 4L, 3L, 2L, 1L);
+			int iterations = 1000;
+			int[] counter = new int[1];
+			ExecutorService executor = Executors.newFixedThreadPool(2);
+
+			for (List<Long> accountIds : List.of(forward, backward)) {
+				executor.execute(() -> {
+					for (int iteration = 0; iteration < iterations; iteration++) {
+						accountLock.lockAll(accountIds);
+						try {
+							counter[0]++;
+						} finally {
+							accountLock.unlockAll(accountIds);
+						}
+					}
+				});
+			}
+			executor.shutdown();
+
+			assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+			assertThat(counter[0]).isEqualTo(2 * iterations);
+		}
+
+		@DisplayName("Проверка со счетами из одной полосы.")
+		@Test
+		public void lockAllWithSingleStripe() {
+			AccountLock accountLock = new AccountLockImpl(1, meterRegistry);
+
+			accountLock.lockAll(List.of(1L, 2L, 3L));
+			accountLock.unlockAll(List.of(1L, 2L, 3L));
+
+			assertThat(meterRegistry.get("wallet.account.lock.wait").timer().count()).isEqualTo(1L);
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,86 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.memory;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class LongPagedMapTest {
+	@Nested
+	public class Get {
+		@DisplayName("Проверка с отсутствующим ключом.")
+		@Test
+		public void getWithAbsentKey() {
+			LongPagedMap<String> map = new LongPagedMap<>();
+			map.put(3L, "three");
+
+			assertThat(map.get(4L)).isNull();
+			assertThat(map.get(100_000L)).isNull();
+			assertThat(map.get(-1L)).isNull();
+		}
+	}
+
+	@Nested
+	public class Put {
+		@DisplayName("Проверка с ключами в разных страницах.")
+		@Test
+		public void putValid() {
+			LongPagedMap<String> map = new LongPagedMap<>();
+
+			map.put(1L, "one");
+			map.put(50_000L, "fifty thousand");
+			map.put(1L, "first");
+
+			assertThat(map.get(1L)).isEqualTo("first");
+			assertThat(map.get(50_000L)).isEqualTo("fifty thousand");
+		}
+
+		@DisplayName("Проверка с отрицательным ключом.")
+		@Test
+		public void putWithNegativeKey() {
+			LongPagedMap<String> map = new LongPagedMap<>();
+
+			assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> {
+				map.put(-1L, "minus one");
+			});
+		}
+
+		@DisplayName("Проверка добавления при отсутствии значения.")
+		@Test
+		public void putIfAbsentValid() {
+			LongPagedMap<String> map = new LongPagedMap<>();
+
+			assertThat(map.putIfAbsent(7L, "seven")).isNull();
+			assertThat(map.putIfAbsent(7L, "other")).isEqualTo("seven");
+			assertThat(map.get(7L)).isEqualTo("seven");
+		}
+	}
+
+	@Nested
+	public class ForEach {
+		@DisplayName("Проверка порядка значений.")
+		@Test
+		public void forEachValid() {
+			LongPagedMap<Long> map = new LongPagedMap<>();
+			map.put(9_000L, 9_000L);
+			map.put(2L, 2L);
+			map.put(5L, 5L);
+			List<Long> values = new ArrayList<>();
+
+			map.forEach(values::add);
+
+			assertThat(values).containsExactly(2L, 5L, 9_000L);
+		}
+	}
+}
\ No newline at end of file
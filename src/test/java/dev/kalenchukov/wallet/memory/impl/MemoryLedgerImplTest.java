@@ -0,0 +1,318 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.memory.impl;
+
+import dev.kalenchukov.starter.fixaction.entity.Action;
+import dev.kalenchukov.starter.fixaction.types.ActionType;
+import dev.kalenchukov.wallet.entity.Account;
+import dev.kalenchukov.wallet.entity.AmountChange;
+import dev.kalenchukov.wallet.entity.Operation;
+import dev.kalenchukov.wallet.entity.OperationSummary;
+import dev.kalenchukov.wallet.entity.Player;
+import dev.kalenchukov.wallet.entity.TransferChange;
+import dev.kalenchukov.wallet.type.AmountChangeStatus;
+import dev.kalenchukov.wallet.type.OperationType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class MemoryLedgerImplTest {
+	@TempDir
+	private Path directory;
+
+	private MemoryLedgerImpl memoryLedger;
+
+	private long playerId;
+
+	@BeforeEach
+	public void beforeEach() {
+		this.memoryLedger = new MemoryLedgerImpl(this.directory.toString());
+		this.memoryLedger.recover();
+		this.playerId = this.memoryLedger.addPlayer("igor", "password").orElseThrow().getPlayerId();
+	}
+
+	@AfterEach
+	public void afterEach() {
+		this.memoryLedger.close();
+	}
+
+	@Nested
+	public class AddPlayer {
+		@DisplayName("Проверка с корректными данными.")
+		@Test
+		public void addPlayerValid() {
+			Optional<Player> player = memoryLedger.addPlayer("fedya", "secret");
+
+			assertThat(player).isPresent();
+			assertThat(player.get().getPlayerId()).isGreaterThan(playerId);
+			assertThat(memoryLedger.existsPlayer("fedya")).isTrue();
+			assertThat(memoryLedger.findPlayer("fedya", "secret")).contains(player.get());
+			assertThat(memoryLedger.findPlayer("fedya", "other")).isEmpty();
+		}
+
+		@DisplayName("Проверка с занятым именем.")
+		@Test
+		public void addPlayerWithDuplicateName() {
+			assertThat(memoryLedger.addPlayer("igor", "other")).isEmpty();
+		}
+	}
+
+	@Nested
+	public class AddAccount {
+		@DisplayName("Проверка с несуществующим игроком.")
+		@Test
+		public void addAccountWithNotFoundPlayer() {
+			assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> {
+				memoryLedger.addAccount(playerId + 100, BigDecimal.ZERO);
+			});
+		}
+	}
+
+	@Nested
+	public class ChangeAmount {
+		@DisplayName("Проверка пополнения и списания.")
+		@Test
+		public void changeAmountValid() {
+			long accountId = memoryLedger.addAccount(playerId, BigDecimal.ZERO).getAccountId();
+
+			AmountChange credit = memoryLedger.changeAmount(playerId, accountId, OperationType.CREDIT,
+					new BigDecimal("10.50"));
+			AmountChange debit = memoryLedger.changeAmount(playerId, accountId, OperationType.DEBIT,
+					new BigDecimal("0.50"));
+
+			assertThat(credit.getStatus()).isEqualTo(AmountChangeStatus.SUCCESS);
+			assertThat(debit.getStatus()).isEqualTo(AmountChangeStatus.SUCCESS);
+			assertThat(debit.getAmount()).isEqualByComparingTo("10");
+			assertThat(memoryLedger.findOperations(playerId, accountId))
+					.extracting(Operation::getOperationId)
+					.containsExactly(debit.getOperationId(), credit.getOperationId());
+			assertThat(memoryLedger.findOperation(playerId, accountId, credit.getOperationId()))
+					.contains(new Operation(credit.getOperationId(), playerId, accountId, OperationType.CREDIT,
+							new BigDecimal("10.50")));
+		}
+
+		@DisplayName("Проверка с суммой превышающей сумму счёта.")
+		@Test
+		public void changeAmountWithOutOfAmount() {
+			long accountId = memoryLedger.addAccount(playerId, BigDecimal.ONE).getAccountId();
+
+			AmountChange amountChange = memoryLedger.changeAmount(playerId, accountId, OperationType.DEBIT,
+					BigDecimal.TEN);
+
+			assertThat(amountChange).isEqualTo(new AmountChange(AmountChangeStatus.OUT_OF_AMOUNT, 0L, BigDecimal.ONE));
+			assertThat(memoryLedger.findOperations(playerId, accountId)).isEmpty();
+		}
+
+		@DisplayName("Проверка с несуществующим счётом и чужим счётом.")
+		@Test
+		public void changeAmountWithInvalidAccount() {
+			long accountId = memoryLedger.addAccount(playerId, BigDecimal.ONE).getAccountId();
+
+			assertThat(memoryLedger.changeAmount(playerId, accountId + 100, OperationType.CREDIT, BigDecimal.ONE)
+					.getStatus()).isEqualTo(AmountChangeStatus.NOT_FOUND_ACCOUNT);
+			assertThat(memoryLedger.changeAmount(playerId + 100, accountId, OperationType.CREDIT, BigDecimal.ONE)
+					.getStatus()).isEqualTo(AmountChangeStatus.NO_ACCESS_ACCOUNT);
+		}
+	}
+
+	@Nested
+	public class ChangeAmounts {
+		@DisplayName("Проверка отмены пакета «всё или ничего».")
+		@Test
+		public void changeAmountsWithAllOrNothing() {
+			long accountId = memoryLedger.addAccount(playerId, BigDecimal.ONE).getAccountId();
+			List<Operation> operations = List.of(
+					new Operation(0L, playerId, accountId, OperationType.CREDIT, BigDecimal.TEN),
+					new Operation(0L, playerId, accountId, OperationType.DEBIT, new BigDecimal("100"))
+			);
+
+			List<AmountChange> amountChanges = memoryLedger.changeAmounts(playerId, operations, true);
+
+			assertThat(amountChanges).extracting(AmountChange::getStatus)
+					.containsExactly(AmountChangeStatus.ROLLED_BACK, AmountChangeStatus.OUT_OF_AMOUNT);
+			assertThat(memoryLedger.findAccount(playerId, accountId).orElseThrow().getAmount())
+					.isEqualByComparingTo("1");
+			assertThat(memoryLedger.findOperations(playerId, accountId)).isEmpty();
+		}
+
+		@DisplayName("Проверка пакета «сколько получится».")
+		@Test
+		public void changeAmountsWithPartial() {
+			long accountId = memoryLedger.addAccount(playerId, BigDecimal.ONE).getAccountId();
+			List<Operation> operations = List.of(
+					new Operation(0L, playerId, accountId, OperationType.CREDIT, BigDecimal.TEN),
+					new Operation(0L, playerId, accountId, OperationType.DEBIT, new BigDecimal("100"))
+			);
+
+			List<AmountChange> amountChanges = memoryLedger.changeAmounts(playerId, operations, false);
+
+			assertThat(amountChanges).extracting(AmountChange::getStatus)
+					.containsExactly(AmountChangeStatus.SUCCESS, AmountChangeStatus.OUT_OF_AMOUNT);
+			assertThat(amountChanges.get(0).getOperationId()).isPositive();
+			assertThat(memoryLedger.findAccount(playerId, accountId).orElseThrow().getAmount())
+					.isEqualByComparingTo("11");
+		}
+	}
+
+	@Nested
+	public class Transfer {
+		@DisplayName("Проверка с корректными данными.")
+		@Test
+		public void transferValid() {
+			long fromAccountId = memoryLedger.addAccount(playerId, BigDecimal.TEN).getAccountId();
+			long toAccountId = memoryLedger.addAccount(playerId, BigDecimal.ONE).getAccountId();
+
+			TransferChange transferChange = memoryLedger.transfer(playerId, fromAccountId, toAccountId,
+					new BigDecimal("4"));
+
+			assertThat(transferChange.getStatus()).isEqualTo(AmountChangeStatus.SUCCESS);
+			assertThat(transferChange.getFromAmount()).isEqualByComparingTo("6");
+			assertThat(transferChange.getToAmount()).isEqualByComparingTo("5");
+			assertThat(memoryLedger.findOperation(playerId, toAccountId, transferChange.getInOperationId())
+					.orElseThrow().getOperationType()).isEqualTo(OperationType.TRANSFER_IN);
+		}
+
+		@DisplayName("Проверка с суммой превышающей сумму счёта списания.")
+		@Test
+		public void transferWithOutOfAmount() {
+			long fromAccountId = memoryLedger.addAccount(playerId, BigDecimal.ONE).getAccountId();
+			long toAccountId = memoryLedger.addAccount(playerId, BigDecimal.ONE).getAccountId();
+
+			TransferChange transferChange = memoryLedger.transfer(playerId, fromAccountId, toAccountId,
+					BigDecimal.TEN);
+
+			assertThat(transferChange.getStatus()).isEqualTo(AmountChangeStatus.OUT_OF_AMOUNT);
+			assertThat(memoryLedger.findAccount(playerId, toAccountId).orElseThrow().getAmount())
+					.isEqualByComparingTo("1");
+		}
+	}
+
+	@Nested
+	public class ExportOperations {
+		@DisplayName("Проверка с периодом после восстановления из снимка и журнала изменений.")
+		@Test
+		public void exportOperationsWithPeriod() {
+			Instant from = Instant.now();
+			long accountId = memoryLedger.addAccount(playerId, BigDecimal.ZERO).getAccountId();
+			memoryLedger.changeAmount(playerId, accountId, OperationType.CREDIT, BigDecimal.TEN);
+			memoryLedger.snapshot();
+			memoryLedger.changeAmount(playerId, accountId, OperationType.DEBIT, BigDecimal.ONE);
+			Instant to = Instant.now().plusMillis(1L);
+
+			MemoryLedgerImpl recoveredLedger = new MemoryLedgerImpl(directory.toString());
+			recoveredLedger.recover();
+			List<Operation> actualPeriod = new ArrayList<>();
+			List<Operation> actualPast = new ArrayList<>();
+			recoveredLedger.exportOperations(playerId, accountId, from, to, actualPeriod::add);
+			recoveredLedger.exportOperations(playerId, accountId, null, from, actualPast::add);
+			recoveredLedger.close();
+
+			assertThat(actualPeriod).containsExactlyInAnyOrderElementsOf(memoryLedger.findOperations(playerId, accountId))
+					.isSortedAccordingTo(Comparator.comparingLong(Operation::getOperationId));
+			assertThat(actualPast).isEmpty();
+		}
+	}
+
+	@Nested
+	public class SummarizeOperations {
+		@DisplayName("Проверка итогов после восстановления из снимка и журнала изменений.")
+		@Test
+		public void summarizeOperationsValid() {
+			long accountId = memoryLedger.addAccount(playerId, BigDecimal.ZERO).getAccountId();
+			memoryLedger.changeAmount(playerId, accountId, OperationType.CREDIT, BigDecimal.TEN);
+			memoryLedger.snapshot();
+			memoryLedger.changeAmount(playerId, accountId, OperationType.CREDIT, BigDecimal.ONE);
+			memoryLedger.changeAmount(playerId, accountId, OperationType.DEBIT, BigDecimal.ONE);
+			LocalDate today = LocalDate.now(ZoneOffset.UTC);
+
+			MemoryLedgerImpl recoveredLedger = new MemoryLedgerImpl(directory.toString());
+			recoveredLedger.recover();
+			List<OperationSummary> actualOperationSummaries = recoveredLedger.summarizeOperations(playerId,
+					accountId, today.minusDays(1L), today);
+			List<OperationSummary> actualPast = recoveredLedger.summarizeOperations(playerId, accountId,
+					today.minusDays(2L), today.minusDays(1L));
+			recoveredLedger.close();
+
+			assertThat(actualOperationSummaries).containsExactly(
+					new OperationSummary(OperationType.CREDIT, 2L, new BigDecimal("11")),
+					new OperationSummary(OperationType.DEBIT, 1L, BigDecimal.ONE)
+			);
+			assertThat(actualPast).isEmpty();
+		}
+	}
+
+	@Nested
+	public class Recover {
+		@DisplayName("Проверка восстановления из снимка и журнала изменений.")
+		@Test
+		public void recoverValid() {
+			long accountId = memoryLedger.addAccount(playerId, BigDecimal.ZERO).getAccountId();
+			memoryLedger.changeAmount(playerId, accountId, OperationType.CREDIT, BigDecimal.TEN);
+			memoryLedger.snapshot();
+			memoryLedger.changeAmount(playerId, accountId, OperationType.DEBIT, BigDecimal.ONE);
+			memoryLedger.setAmount(playerId, accountId, new BigDecimal("20"));
+			memoryLedger.addActions(List.of(new Action(0L, playerId, ActionType.CREDIT_ACCOUNT,
+					ActionType.Status.SUCCESS)));
+
+			MemoryLedgerImpl recoveredLedger = new MemoryLedgerImpl(directory.toString());
+			recoveredLedger.recover();
+
+			assertThat(recoveredLedger.findPlayer("igor", "password")).isPresent();
+			assertThat(recoveredLedger.findAccount(playerId, accountId).orElseThrow().getAmount())
+					.isEqualByComparingTo("20");
+			assertThat(recoveredLedger.findOperations(playerId, accountId))
+					.isEqualTo(memoryLedger.findOperations(playerId, accountId));
+			assertThat(recoveredLedger.findActions(playerId)).hasSize(1);
+			assertThat(recoveredLedger.addAccount(playerId, BigDecimal.ZERO).getAccountId()).isGreaterThan(accountId);
+			recoveredLedger.close();
+		}
+
+		@DisplayName("Проверка с неполной последней записью журнала изменений.")
+		@Test
+		public void recoverWithTruncatedChanges() throws IOException {
+			long accountId = memoryLedger.addAccount(playerId, BigDecimal.ZERO).getAccountId();
+			memoryLedger.changeAmount(playerId, accountId, OperationType.CREDIT, BigDecimal.TEN);
+			memoryLedger.changeAmount(playerId, accountId, OperationType.CREDIT, BigDecimal.ONE);
+
+			Path changes;
+			try (Stream<Path> files = Files.list(directory)) {
+				changes = files.filter(file -> file.toString().endsWith(".changes")).findFirst().orElseThrow();
+			}
+			try (RandomAccessFile file = new RandomAccessFile(changes.toFile(), "rw")) {
+				file.setLength(file.length() - 3);
+			}
+
+			MemoryLedgerImpl recoveredLedger = new MemoryLedgerImpl(directory.toString());
+			recoveredLedger.recover();
+
+			assertThat(recoveredLedger.findAccount(playerId, accountId).map(Account::getAmount).orElseThrow())
+					.isEqualByComparingTo("10");
+			assertThat(recoveredLedger.findOperations(playerId, accountId)).hasSize(1);
+			recoveredLedger.close();
+		}
+	}
+}
\ No newline at end of file
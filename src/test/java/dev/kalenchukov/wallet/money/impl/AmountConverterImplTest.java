@@ -0,0 +1,151 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.money.impl;
+
+import dev.kalenchukov.wallet.money.AmountConverter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class AmountConverterImplTest {
+	@Nested
+	public class Constructor {
+		@DisplayName("Проверка с отрицательным количеством знаков.")
+		@Test
+		public void constructorWithNegativeScale() {
+			assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> {
+				new AmountConverterImpl(true, -1);
+			});
+		}
+
+		@DisplayName("Проверка с количеством знаков больше допустимого.")
+		@Test
+		public void constructorWithTooLargeScale() {
+			assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> {
+				new AmountConverterImpl(true, 19);
+			});
+		}
+	}
+
+	@Nested
+	public class IsRepresentable {
+		@DisplayName("Проверка с корректными данными.")
+		@Test
+		public void isRepresentableValid() {
+			AmountConverter amountConverter = new AmountConverterImpl(true, 2);
+
+			boolean actual = amountConverter.isRepresentable(new BigDecimal("10.07"));
+
+			assertThat(actual).isTrue();
+		}
+
+		@DisplayName("Проверка с суммой точнее валюты.")
+		@Test
+		public void isRepresentableWithExcessScale() {
+			AmountConverter amountConverter = new AmountConverterImpl(true, 2);
+
+			boolean actual = amountConverter.isRepresentable(new BigDecimal("10.075"));
+
+			assertThat(actual).isFalse();
+		}
+
+		@DisplayName("Проверка с суммой вне диапазона long.")
+		@Test
+		public void isRepresentableWithOverflow() {
+			AmountConverter amountConverter = new AmountConverterImpl(true, 2);
+
+			boolean actual = amountConverter.isRepresentable(BigDecimal.valueOf(Long.MAX_VALUE));
+
+			assertThat(actual).isFalse();
+		}
+
+		@DisplayName("Проверка с хранением в DECIMAL.")
+		@Test
+		public void isRepresentableWithDecimal() {
+			AmountConverter amountConverter = new AmountConverterImpl(false, 2);
+
+			boolean actual = amountConverter.isRepresentable(new BigDecimal("10.075"));
+
+			assertThat(actual).isTrue();
+		}
+	}
+
+	@Nested
+	public class ToMinorUnits {
+		@DisplayName("Проверка с корректными данными.")
+		@Test
+		public void toMinorUnitsValid() {
+			AmountConverter amountConverter = new AmountConverterImpl(true, 2);
+
+			long actual = amountConverter.toMinorUnits(new BigDecimal("10.07"));
+
+			assertThat(actual).isEqualTo(1007L);
+		}
+
+		@DisplayName("Проверка с суммой точнее валюты.")
+		@Test
+		public void toMinorUnitsWithExcessScale() {
+			AmountConverter amountConverter = new AmountConverterImpl(true, 2);
+
+			assertThatExceptionOfType(ArithmeticException.class).isThrownBy(() -> {
+				amountConverter.toMinorUnits(new BigDecimal("10.075"));
+			});
+		}
+	}
+
+	@Nested
+	public class ToAmount {
+		@DisplayName("Проверка с корректными данными.")
+		@Test
+		public void toAmountValid() {
+			AmountConverter amountConverter = new AmountConverterImpl(true, 2);
+
+			BigDecimal actual = amountConverter.toAmount(1007L);
+
+			assertThat(actual).isEqualTo(new BigDecimal("10.07"));
+		}
+	}
+
+	@Nested
+	public class ToColumn {
+		@DisplayName("Проверка с хранением в минимальных единицах.")
+		@Test
+		public void toColumnWithMinorUnits() {
+			AmountConverter amountConverter = new AmountConverterImpl(true, 2);
+
+			Object actual = amountConverter.toColumn(new BigDecimal("10.07"));
+
+			assertThat(actual).isEqualTo(1007L);
+		}
+
+		@DisplayName("Проверка с хранением в DECIMAL.")
+		@Test
+		public void toColumnWithDecimal() {
+			AmountConverter amountConverter = new AmountConverterImpl(false, 2);
+			BigDecimal amount = new BigDecimal("10.075");
+
+			Object actual = amountConverter.toColumn(amount);
+
+			assertThat(actual).isSameAs(amount);
+		}
+
+		@DisplayName("Проверка с пустой суммой.")
+		@Test
+		public void toColumnWithNull() {
+			AmountConverter amountConverter = new AmountConverterImpl(true, 2);
+
+			Object actual = amountConverter.toColumn(null);
+
+			assertThat(actual).isNull();
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,285 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.pipeline.impl;
+
+import dev.kalenchukov.wallet.entity.AmountChange;
+import dev.kalenchukov.wallet.entity.Operation;
+import dev.kalenchukov.wallet.exceptions.InvalidScaleAmountException;
+import dev.kalenchukov.wallet.exceptions.NegativeAmountOperationException;
+import dev.kalenchukov.wallet.exceptions.NotFoundAccountException;
+import dev.kalenchukov.wallet.exceptions.OutOfAmountAccountException;
+import dev.kalenchukov.wallet.in.service.AccountService;
+import dev.kalenchukov.wallet.in.service.impl.AccountServiceImpl;
+import dev.kalenchukov.wallet.money.AmountConverter;
+import dev.kalenchukov.wallet.money.impl.AmountConverterImpl;
+import dev.kalenchukov.wallet.pipeline.MutationPipeline;
+import dev.kalenchukov.wallet.type.AmountChangeStatus;
+import dev.kalenchukov.wallet.type.OperationType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.Mockito.*;
+
+public class MutationPipelineImplTest {
+	private AccountService accountService;
+
+	private AmountConverter amountConverter;
+
+	private MutationPipelineImpl mutationPipeline;
+
+	@BeforeEach
+	public void beforeEach() {
+		this.accountService = mock(AccountServiceImpl.class);
+		this.amountConverter = new AmountConverterImpl(false, 2);
+	}
+
+	@AfterEach
+	public void afterEach() throws InterruptedException {
+		if (this.mutationPipeline != null) {
+			this.mutationPipeline.shutdown();
+		}
+	}
+
+	@Nested
+	public class Constructor {
+		@DisplayName("Проверка с количеством ячеек, не являющимся степенью двойки.")
+		@Test
+		public void constructorWithInvalidBufferSize() {
+			assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> {
+				new MutationPipelineImpl(accountService, amountConverter, true, 100, 16);
+			});
+		}
+
+		@DisplayName("Проверка с нулевым размером пакета.")
+		@Test
+		public void constructorWithZeroBatchSize() {
+			assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> {
+				new MutationPipelineImpl(accountService, amountConverter, true, 64, 0);
+			});
+		}
+	}
+
+	@Nested
+	public class Submit {
+		@DisplayName("Проверка пополнения.")
+		@Test
+		public void submitCredit() throws Exception {
+			when(accountService.changeAmounts(anyLong(), anyList(), anyBoolean())).thenAnswer(invocation ->
+					List.of(new AmountChange(AmountChangeStatus.SUCCESS, 17L, new BigDecimal("10.00")))
+			);
+			mutationPipeline = new MutationPipelineImpl(accountService, amountConverter, true, 64, 16);
+			mutationPipeline.start();
+
+			Operation operation = mutationPipeline.submit(1L, 3L, OperationType.CREDIT, BigDecimal.TEN).join();
+
+			assertThat(operation).isEqualTo(new Operation(17L, 1L, 3L, OperationType.CREDIT, BigDecimal.TEN));
+			verify(accountService, times(1)).changeAmounts(1L,
+					List.of(new Operation(0L, 1L, 3L, OperationType.CREDIT, BigDecimal.TEN)), false
+			);
+		}
+
+		@DisplayName("Проверка множества изменений при заполнении буфера.")
+		@Test
+		public void submitMany() throws Exception {
+			AtomicLong operationId = new AtomicLong();
+			Set<Long> threads = ConcurrentHashMap.newKeySet();
+			when(accountService.changeAmounts(anyLong(), anyList(), anyBoolean())).thenAnswer(invocation -> {
+				threads.add(Thread.currentThread().getId());
+				List<AmountChange> amountChanges = new ArrayList<>();
+				for (Object ignored : invocation.getArgument(1, List.class)) {
+					amountChanges.add(new AmountChange(AmountChangeStatus.SUCCESS, operationId.incrementAndGet(),
+							BigDecimal.ONE
+					));
+				}
+				return amountChanges;
+			});
+			mutationPipeline = new MutationPipelineImpl(accountService, amountConverter, true, 16, 8);
+			mutationPipeline.start();
+
+			List<CompletableFuture<Operation>> results = new ArrayList<>();
+			for (long index = 0; index < 1000; index++) {
+				results.add(mutationPipeline.submit(index % 3, index % 7, OperationType.CREDIT, BigDecimal.ONE));
+			}
+
+			for (int index = 0; index < results.size(); index++) {
+				assertThat(results.get(index).join().getOperationId()).isPositive();
+			}
+			assertThat(operationId.get()).isEqualTo(1000L);
+			assertThat(threads).hasSize(1);
+		}
+
+		@DisplayName("Проверка списания, превышающего сумму счёта.")
+		@Test
+		public void submitDebitWithOutOfAmount() throws Exception {
+			when(accountService.changeAmounts(anyLong(), anyList(), anyBoolean())).thenAnswer(invocation ->
+					List.of(new AmountChange(AmountChangeStatus.OUT_OF_AMOUNT, 0L, BigDecimal.ONE))
+			);
+			mutationPipeline = new MutationPipelineImpl(accountService, amountConverter, true, 64, 16);
+			mutationPipeline.start();
+
+			CompletableFuture<Operation> result = mutationPipeline.submit(1L, 3L, OperationType.DEBIT, BigDecimal.TEN);
+
+			assertThatExceptionOfType(CompletionException.class).isThrownBy(result::join)
+					.withCauseInstanceOf(OutOfAmountAccountException.class);
+			verify(accountService, times(1)).changeAmounts(1L,
+					List.of(new Operation(0L, 1L, 3L, OperationType.DEBIT, BigDecimal.TEN)), false
+			);
+		}
+
+		@DisplayName("Проверка списания с отрицательной суммой.")
+		@Test
+		public void submitDebitWithNegativeAmount() throws Exception {
+			mutationPipeline = new MutationPipelineImpl(accountService, amountConverter, true, 64, 16);
+			mutationPipeline.start();
+
+			CompletableFuture<Operation> result = mutationPipeline.submit(1L, 3L, OperationType.DEBIT,
+					BigDecimal.ONE.negate()
+			);
+
+			assertThatExceptionOfType(CompletionException.class).isThrownBy(result::join)
+					.withCauseInstanceOf(NegativeAmountOperationException.class);
+			verify(accountService, never()).changeAmounts(anyLong(), anyList(), anyBoolean());
+		}
+
+		@DisplayName("Проверка пополнения с суммой точнее валюты.")
+		@Test
+		public void submitCreditWithExcessScaleAmount() throws Exception {
+			mutationPipeline = new MutationPipelineImpl(accountService, new AmountConverterImpl(true, 2),
+					true, 64, 16
+			);
+			mutationPipeline.start();
+
+			CompletableFuture<Operation> result = mutationPipeline.submit(1L, 3L, OperationType.CREDIT,
+					new BigDecimal("1.001")
+			);
+
+			assertThatExceptionOfType(CompletionException.class).isThrownBy(result::join)
+					.withCauseInstanceOf(InvalidScaleAmountException.class);
+			verify(accountService, never()).changeAmounts(anyLong(), anyList(), anyBoolean());
+		}
+
+		@DisplayName("Проверка с несуществующим счётом.")
+		@Test
+		public void submitWithNotFoundAccount() throws Exception {
+			when(accountService.changeAmounts(anyLong(), anyList(), anyBoolean())).thenAnswer(invocation ->
+					List.of(new AmountChange(AmountChangeStatus.NOT_FOUND_ACCOUNT, 0L, null))
+			);
+			mutationPipeline = new MutationPipelineImpl(accountService, amountConverter, true, 64, 16);
+			mutationPipeline.start();
+
+			CompletableFuture<Operation> result = mutationPipeline.submit(1L, 3L, OperationType.DEBIT, BigDecimal.TEN);
+
+			assertThatExceptionOfType(CompletionException.class).isThrownBy(result::join)
+					.withCauseInstanceOf(NotFoundAccountException.class);
+		}
+
+		@DisplayName("Проверка с ошибкой сохранения.")
+		@Test
+		public void submitWithFailedPersist() throws Exception {
+			when(accountService.changeAmounts(anyLong(), anyList(), anyBoolean()))
+					.thenThrow(new IllegalStateException("Ошибка"));
+			mutationPipeline = new MutationPipelineImpl(accountService, amountConverter, true, 64, 16);
+			mutationPipeline.start();
+
+			CompletableFuture<Operation> result = mutationPipeline.submit(1L, 3L, OperationType.CREDIT, BigDecimal.TEN);
+
+			assertThatExceptionOfType(CompletionException.class).isThrownBy(result::join)
+					.withCauseInstanceOf(IllegalStateException.class);
+		}
+
+		@DisplayName("Проверка с ошибкой этапа.")
+		@Test
+		public void submitWithFailedStage() throws Exception {
+			AmountConverter failingConverter = mock(AmountConverterImpl.class);
+			when(failingConverter.isRepresentable(any())).thenThrow(new IllegalStateException("Ошибка"));
+			mutationPipeline = new MutationPipelineImpl(accountService, failingConverter, true, 64, 16);
+			mutationPipeline.start();
+
+			CompletableFuture<Operation> result = mutationPipeline.submit(1L, 3L, OperationType.CREDIT, BigDecimal.TEN);
+
+			assertThatExceptionOfType(CompletionException.class).isThrownBy(result::join)
+					.withCauseInstanceOf(IllegalStateException.class);
+			assertThatExceptionOfType(IllegalStateException.class).isThrownBy(() -> {
+				mutationPipeline.submit(1L, 3L, OperationType.CREDIT, BigDecimal.TEN);
+			});
+			verify(accountService, never()).changeAmounts(anyLong(), anyList(), anyBoolean());
+		}
+
+		@DisplayName("Проверка прерванной остановки с изменением без ответа.")
+		@Test
+		public void submitWithInterruptedShutdown() throws Exception {
+			CompletableFuture<Void> persisting = new CompletableFuture<>();
+			when(accountService.changeAmounts(anyLong(), anyList(), anyBoolean())).thenAnswer(invocation -> {
+				persisting.complete(null);
+				while (!Thread.currentThread().isInterrupted()) {
+					Thread.onSpinWait();
+				}
+				return List.of();
+			});
+			MutationPipelineImpl stoppingPipeline = new MutationPipelineImpl(accountService, amountConverter,
+					true, 64, 16
+			);
+			stoppingPipeline.start();
+
+			CompletableFuture<Operation> result = stoppingPipeline.submit(1L, 3L, OperationType.CREDIT, BigDecimal.TEN);
+			persisting.join();
+			CompletableFuture<Throwable> shutdown = new CompletableFuture<>();
+			Thread thread = new Thread(() -> {
+				try {
+					stoppingPipeline.shutdown();
+					shutdown.complete(null);
+				} catch (InterruptedException exception) {
+					shutdown.complete(exception);
+				}
+			});
+			thread.start();
+			thread.interrupt();
+
+			assertThatExceptionOfType(CompletionException.class).isThrownBy(result::join)
+					.withCauseInstanceOf(IllegalStateException.class);
+			assertThat(shutdown.join()).isInstanceOf(InterruptedException.class);
+		}
+
+		@DisplayName("Проверка с переводом.")
+		@Test
+		public void submitWithTransfer() {
+			mutationPipeline = new MutationPipelineImpl(accountService, amountConverter, true, 64, 16);
+			mutationPipeline.start();
+
+			assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> {
+				mutationPipeline.submit(1L, 3L, OperationType.TRANSFER_OUT, BigDecimal.TEN);
+			});
+		}
+
+		@DisplayName("Проверка с выключенным конвейером.")
+		@Test
+		public void submitWithDisabled() {
+			MutationPipeline disabledPipeline = new MutationPipelineImpl(accountService, amountConverter,
+					false, 64, 16
+			);
+
+			assertThat(disabledPipeline.isEnabled()).isFalse();
+			assertThatExceptionOfType(IllegalStateException.class).isThrownBy(() -> {
+				disabledPipeline.submit(1L, 3L, OperationType.CREDIT, BigDecimal.TEN);
+			});
+		}
+	}
+}
\ No newline at end of file
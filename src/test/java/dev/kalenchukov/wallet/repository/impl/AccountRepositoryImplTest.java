@@ -8,7 +8,14 @@ package dev.kalenchukov.wallet.repository.impl;
 
 import dev.kalenchukov.wallet.WalletApplicationTest;
 import dev.kalenchukov.wallet.entity.Account;
+import dev.kalenchukov.wallet.entity.AmountChange;
+import dev.kalenchukov.wallet.entity.IdempotencyKey;
+import dev.kalenchukov.wallet.entity.Operation;
+import dev.kalenchukov.wallet.entity.TransferChange;
 import dev.kalenchukov.wallet.repository.AccountRepository;
+import dev.kalenchukov.wallet.repository.IdempotencyKeyRepository;
+import dev.kalenchukov.wallet.type.AmountChangeStatus;
+import dev.kalenchukov.wallet.type.OperationType;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -16,7 +23,13 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
@@ -28,6 +41,9 @@ public class AccountRepositoryImplTest {
 	@Autowired
 	private AccountRepository accountRepository;
 
+	@Autowired
+	private IdempotencyKeyRepository idempotencyKeyRepository;
+
 	@Nested
 	public class Save {
 		@DisplayName("Проверка с корректными данными.")
@@ -89,6 +105,480 @@ public class AccountRepositoryImplTest {
 		}
 	}
 
+	@Nested
+	public class ChangeAmount {
+		@DisplayName("Проверка пополнения с корректными данными.")
+		@Test
+		public void changeAmountCreditValid() {
+			long playerId = 3L;
+			long accountId = 6L;
+			BigDecimal amount = new BigDecimal("10.5");
+			BigDecimal currentAmount = accountRepository.findById(playerId, accountId).orElseThrow().getAmount();
+
+			AmountChange actual = accountRepository.changeAmount(playerId, accountId, OperationType.CREDIT, amount);
+
+			assertThat(actual.getStatus()).isEqualTo(AmountChangeStatus.SUCCESS);
+			assertThat(actual.getOperationId()).isPositive();
+			assertThat(actual.getAmount()).isEqualByComparingTo(currentAmount.add(amount));
+		}
+
+		@DisplayName("Проверка списания с корректными данными.")
+		@Test
+		public void changeAmountDebitValid() {
+			long playerId = 3L;
+			long accountId = 6L;
+			BigDecimal amount = new BigDecimal("1.5");
+			BigDecimal currentAmount = accountRepository.findById(playerId, accountId).orElseThrow().getAmount();
+
+			AmountChange actual = accountRepository.changeAmount(playerId, accountId, OperationType.DEBIT, amount);
+
+			assertThat(actual.getStatus()).isEqualTo(AmountChangeStatus.SUCCESS);
+			assertThat(actual.getOperationId()).isPositive();
+			assertThat(actual.getAmount()).isEqualByComparingTo(currentAmount.subtract(amount));
+		}
+
+		@DisplayName("Проверка пополнения из нескольких потоков.")
+		@Test
+		public void changeAmountCreditConcurrent() throws InterruptedException {
+			long playerId = 3L;
+			long accountId = 6L;
+			BigDecimal expectedAmount = accountRepository.findById(playerId, accountId).orElseThrow().getAmount()
+					.add(BigDecimal.valueOf(200));
+			Set<Long> operationIds = ConcurrentHashMap.newKeySet();
+			ExecutorService executor = Executors.newFixedThreadPool(8);
+
+			for (int thread = 0; thread < 8; thread++) {
+				executor.execute(() -> {
+					for (int iteration = 0; iteration < 25; iteration++) {
+						operationIds.add(accountRepository.changeAmount(playerId, accountId, OperationType.CREDIT,
+								BigDecimal.ONE).getOperationId());
+					}
+				});
+			}
+			executor.shutdown();
+
+			assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+			assertThat(operationIds).hasSize(200);
+			assertThat(accountRepository.findById(playerId, accountId).orElseThrow().getAmount())
+					.isEqualByComparingTo(expectedAmount);
+		}
+
+		@DisplayName("Проверка списания с превышением суммы на счету.")
+		@Test
+		public void changeAmountWithOutOfAmount() {
+			long playerId = 3L;
+			long accountId = 6L;
+			BigDecimal amount = new BigDecimal("1000000.0");
+
+			AmountChange actual = accountRepository.changeAmount(playerId, accountId, OperationType.DEBIT, amount);
+
+			assertThat(actual.getStatus()).isEqualTo(AmountChangeStatus.OUT_OF_AMOUNT);
+			assertThat(actual.getAmount()).isNotNull();
+		}
+
+		@DisplayName("Проверка с отсутствующим счётом.")
+		@Test
+		public void changeAmountWithNotFoundAccount() {
+			long playerId = 3L;
+			long accountId = 7897894L;
+
+			AmountChange actual = accountRepository.changeAmount(playerId, accountId, OperationType.CREDIT, BigDecimal.TEN);
+
+			assertThat(actual.getStatus()).isEqualTo(AmountChangeStatus.NOT_FOUND_ACCOUNT);
+		}
+
+		@DisplayName("Проверка со счётом другого игрока.")
+		@Test
+		public void changeAmountWithNoAccessAccount() {
+			long playerId = 1L;
+			long accountId = 6L;
+
+			AmountChange actual = accountRepository.changeAmount(playerId, accountId, OperationType.CREDIT, BigDecimal.TEN);
+
+			assertThat(actual.getStatus()).isEqualTo(AmountChangeStatus.NO_ACCESS_ACCOUNT);
+		}
+
+		@DisplayName("Проверка с null в качестве суммы.")
+		@Test
+		public void changeAmountWithNullAmount() {
+			assertThatExceptionOfType(NullPointerException.class).isThrownBy(() -> {
+				accountRepository.changeAmount(3L, 6L, OperationType.CREDIT, null);
+			});
+		}
+	}
+
+	@Nested
+	public class ChangeShardedAmount {
+		private static final long PLAYER_ID = 3L;
+
+		private static final long ACCOUNT_ID = 7L;
+
+		@DisplayName("Проверка пополнения из нескольких потоков.")
+		@Test
+		public void changeShardedAmountCreditConcurrent() throws InterruptedException {
+			BigDecimal expectedAmount = this.getAmount().add(BigDecimal.valueOf(200));
+			ExecutorService executor = Executors.newFixedThreadPool(8);
+
+			for (int thread = 0; thread < 8; thread++) {
+				executor.execute(() -> {
+					for (int iteration = 0; iteration < 25; iteration++) {
+						accountRepository.changeAmount(PLAYER_ID, ACCOUNT_ID, OperationType.CREDIT, BigDecimal.ONE);
+					}
+				});
+			}
+			executor.shutdown();
+
+			assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+			assertThat(this.getAmount()).isEqualByComparingTo(expectedAmount);
+		}
+
+		@DisplayName("Проверка списания из суммы всех частей.")
+		@Test
+		public void changeShardedAmountDebitSweep() {
+			accountRepository.changeAmount(PLAYER_ID, ACCOUNT_ID, OperationType.CREDIT, BigDecimal.TEN);
+			BigDecimal amount = this.getAmount().subtract(BigDecimal.ONE);
+
+			AmountChange actual = accountRepository.changeAmount(PLAYER_ID, ACCOUNT_ID, OperationType.DEBIT, amount);
+
+			assertThat(actual.getStatus()).isEqualTo(AmountChangeStatus.SUCCESS);
+			assertThat(actual.getOperationId()).isPositive();
+			assertThat(this.getAmount()).isEqualByComparingTo(BigDecimal.ONE);
+		}
+
+		@DisplayName("Проверка с недостаточной суммой.")
+		@Test
+		public void changeShardedAmountOutOfAmount() {
+			BigDecimal currentAmount = this.getAmount();
+
+			AmountChange actual = accountRepository.changeAmount(PLAYER_ID, ACCOUNT_ID, OperationType.DEBIT,
+					currentAmount.add(BigDecimal.ONE));
+
+			assertThat(actual.getStatus()).isEqualTo(AmountChangeStatus.OUT_OF_AMOUNT);
+			assertThat(actual.getAmount()).isEqualByComparingTo(currentAmount);
+			assertThat(this.getAmount()).isEqualByComparingTo(currentAmount);
+		}
+
+		@DisplayName("Проверка со счётом другого игрока.")
+		@Test
+		public void changeShardedAmountWithNoAccessAccount() {
+			AmountChange actual = accountRepository.changeAmount(1L, ACCOUNT_ID, OperationType.CREDIT, BigDecimal.TEN);
+
+			assertThat(actual.getStatus()).isEqualTo(AmountChangeStatus.NO_ACCESS_ACCOUNT);
+		}
+
+		private BigDecimal getAmount() {
+			return accountRepository.findById(PLAYER_ID, ACCOUNT_ID).orElseThrow().getAmount();
+		}
+	}
+
+	@Nested
+	public class ChangeAmountWithIdempotencyKey {
+		private static final long PLAYER_ID = 3L;
+
+		@DisplayName("Проверка с корректными данными.")
+		@Test
+		public void changeAmountValid() {
+			long accountId = 6L;
+			String key = this.reserve(accountId, OperationType.CREDIT);
+			BigDecimal currentAmount = this.getAmount(accountId);
+
+			AmountChange actual = accountRepository.changeAmount(PLAYER_ID, accountId, OperationType.CREDIT,
+					BigDecimal.TEN, key);
+
+			assertThat(actual.getStatus()).isEqualTo(AmountChangeStatus.SUCCESS);
+			assertThat(actual.getAmount()).isEqualByComparingTo(currentAmount.add(BigDecimal.TEN));
+			assertThat(idempotencyKeyRepository.find(PLAYER_ID, key))
+					.get()
+					.satisfies(idempotencyKey -> {
+						assertThat(idempotencyKey.getOperationId()).isEqualTo(actual.getOperationId());
+						assertThat(idempotencyKey.getAmount()).isEqualByComparingTo(BigDecimal.TEN);
+					});
+		}
+
+		@DisplayName("Проверка с незарезервированным ключом.")
+		@Test
+		public void changeAmountWithReleasedKey() {
+			long accountId = 6L;
+			BigDecimal currentAmount = this.getAmount(accountId);
+
+			AmountChange actual = accountRepository.changeAmount(PLAYER_ID, accountId, OperationType.CREDIT,
+					BigDecimal.TEN, "released-" + System.nanoTime());
+
+			assertThat(actual.getStatus()).isEqualTo(AmountChangeStatus.RELEASED_IDEMPOTENCY_KEY);
+			assertThat(this.getAmount(accountId)).isEqualByComparingTo(currentAmount);
+		}
+
+		@DisplayName("Проверка с завершённым ключом.")
+		@Test
+		public void changeAmountWithCompletedKey() {
+			long accountId = 6L;
+			String key = this.reserve(accountId, OperationType.CREDIT);
+			accountRepository.changeAmount(PLAYER_ID, accountId, OperationType.CREDIT, BigDecimal.ONE, key);
+			BigDecimal currentAmount = this.getAmount(accountId);
+
+			AmountChange actual = accountRepository.changeAmount(PLAYER_ID, accountId, OperationType.CREDIT,
+					BigDecimal.ONE, key);
+
+			assertThat(actual.getStatus()).isEqualTo(AmountChangeStatus.RELEASED_IDEMPOTENCY_KEY);
+			assertThat(this.getAmount(accountId)).isEqualByComparingTo(currentAmount);
+		}
+
+		@DisplayName("Проверка списания с превышением суммы на счету.")
+		@Test
+		public void changeAmountWithOutOfAmount() {
+			long accountId = 6L;
+			String key = this.reserve(accountId, OperationType.DEBIT);
+
+			AmountChange actual = accountRepository.changeAmount(PLAYER_ID, accountId, OperationType.DEBIT,
+					new BigDecimal("1000000.0"), key);
+
+			assertThat(actual.getStatus()).isEqualTo(AmountChangeStatus.OUT_OF_AMOUNT);
+			assertThat(idempotencyKeyRepository.find(PLAYER_ID, key))
+					.get()
+					.satisfies(idempotencyKey -> assertThat(idempotencyKey.getOperationId()).isNull());
+		}
+
+		@DisplayName("Проверка списания из суммы всех частей распределённого счёта.")
+		@Test
+		public void changeAmountShardedDebitSweep() {
+			long accountId = 7L;
+			accountRepository.changeAmount(PLAYER_ID, accountId, OperationType.CREDIT, BigDecimal.TEN);
+			BigDecimal amount = this.getAmount(accountId).subtract(BigDecimal.ONE);
+			String key = this.reserve(accountId, OperationType.DEBIT);
+
+			AmountChange actual = accountRepository.changeAmount(PLAYER_ID, accountId, OperationType.DEBIT, amount,
+					key);
+
+			assertThat(actual.getStatus()).isEqualTo(AmountChangeStatus.SUCCESS);
+			assertThat(actual.getAmount()).isEqualByComparingTo(BigDecimal.ONE);
+			assertThat(this.getAmount(accountId)).isEqualByComparingTo(BigDecimal.ONE);
+			assertThat(accountRepository.changeAmount(PLAYER_ID, accountId, OperationType.DEBIT,
+					new BigDecimal("2.0")).getStatus()).isEqualTo(AmountChangeStatus.OUT_OF_AMOUNT);
+		}
+
+		private String reserve(final long accountId, final OperationType operationType) {
+			String key = "account-" + System.nanoTime();
+			idempotencyKeyRepository.reserve(new IdempotencyKey(PLAYER_ID, key, accountId, operationType, null, null));
+
+			return key;
+		}
+
+		private BigDecimal getAmount(final long accountId) {
+			return accountRepository.findById(PLAYER_ID, accountId).orElseThrow().getAmount();
+		}
+	}
+
+	@Nested
+	public class ChangeAmounts {
+		private static final long PLAYER_ID = 3L;
+
+		@DisplayName("Проверка пакета с корректными данными.")
+		@Test
+		public void changeAmountsValid() {
+			BigDecimal amount = this.getAmount(6L);
+			BigDecimal shardedAmount = this.getAmount(7L);
+			List<Operation> operations = List.of(
+					new Operation(0L, PLAYER_ID, 6L, OperationType.CREDIT, BigDecimal.TEN),
+					new Operation(0L, PLAYER_ID, 7L, OperationType.CREDIT, BigDecimal.ONE),
+					new Operation(0L, PLAYER_ID, 6L, OperationType.DEBIT, BigDecimal.ONE)
+			);
+
+			List<AmountChange> actual = accountRepository.changeAmounts(PLAYER_ID, operations, true);
+
+			assertThat(actual).extracting(AmountChange::getStatus).containsOnly(AmountChangeStatus.SUCCESS);
+			assertThat(actual).extracting(AmountChange::getOperationId).doesNotHaveDuplicates().allMatch(id -> id > 0);
+			assertThat(actual.get(2).getAmount()).isEqualByComparingTo(amount.add(BigDecimal.valueOf(9)));
+			assertThat(this.getAmount(6L)).isEqualByComparingTo(amount.add(BigDecimal.valueOf(9)));
+			assertThat(this.getAmount(7L)).isEqualByComparingTo(shardedAmount.add(BigDecimal.ONE));
+		}
+
+		@DisplayName("Проверка пакета со списанием из суммы всех частей распределённого счёта.")
+		@Test
+		public void changeAmountsShardedDebitSweep() {
+			accountRepository.changeAmount(PLAYER_ID, 7L, OperationType.CREDIT, BigDecimal.TEN);
+			BigDecimal amount = this.getAmount(7L).subtract(BigDecimal.ONE);
+			List<Operation> operations = List.of(
+					new Operation(0L, PLAYER_ID, 7L, OperationType.DEBIT, amount)
+			);
+
+			List<AmountChange> actual = accountRepository.changeAmounts(PLAYER_ID, operations, true);
+
+			assertThat(actual).extracting(AmountChange::getStatus).containsExactly(AmountChangeStatus.SUCCESS);
+			assertThat(this.getAmount(7L)).isEqualByComparingTo(BigDecimal.ONE);
+			assertThat(accountRepository.changeAmount(PLAYER_ID, 7L, OperationType.DEBIT,
+					new BigDecimal("2.0")).getStatus()).isEqualTo(AmountChangeStatus.OUT_OF_AMOUNT);
+		}
+
+		@DisplayName("Проверка пакета с неудачной операцией без отмены остальных.")
+		@Test
+		public void changeAmountsBestEffort() {
+			BigDecimal amount = this.getAmount(6L);
+			List<Operation> operations = List.of(
+					new Operation(0L, PLAYER_ID, 6L, OperationType.CREDIT, BigDecimal.ONE),
+					new Operation(0L, PLAYER_ID, 6L, OperationType.DEBIT, amount.add(BigDecimal.TEN)),
+					new Operation(0L, PLAYER_ID, 1L, OperationType.CREDIT, BigDecimal.ONE),
+					new Operation(0L, PLAYER_ID, 24565464L, OperationType.CREDIT, BigDecimal.ONE)
+			);
+
+			List<AmountChange> actual = accountRepository.changeAmounts(PLAYER_ID, operations, false);
+
+			assertThat(actual).extracting(AmountChange::getStatus).containsExactly(
+					AmountChangeStatus.SUCCESS, AmountChangeStatus.OUT_OF_AMOUNT,
+					AmountChangeStatus.NO_ACCESS_ACCOUNT, AmountChangeStatus.NOT_FOUND_ACCOUNT
+			);
+			assertThat(actual.get(0).getOperationId()).isPositive();
+			assertThat(actual.get(1).getAmount()).isEqualByComparingTo(amount.add(BigDecimal.ONE));
+			assertThat(this.getAmount(6L)).isEqualByComparingTo(amount.add(BigDecimal.ONE));
+		}
+
+		@DisplayName("Проверка пакета с неудачной операцией и отменой остальных.")
+		@Test
+		public void changeAmountsAllOrNothing() {
+			BigDecimal amount = this.getAmount(6L);
+			List<Operation> operations = List.of(
+					new Operation(0L, PLAYER_ID, 6L, OperationType.CREDIT, BigDecimal.ONE),
+					new Operation(0L, PLAYER_ID, 6L, OperationType.DEBIT, amount.add(BigDecimal.TEN))
+			);
+
+			List<AmountChange> actual = accountRepository.changeAmounts(PLAYER_ID, operations, true);
+
+			assertThat(actual).extracting(AmountChange::getStatus).containsExactly(
+					AmountChangeStatus.ROLLED_BACK, AmountChangeStatus.OUT_OF_AMOUNT
+			);
+			assertThat(this.getAmount(6L)).isEqualByComparingTo(amount);
+		}
+
+		@DisplayName("Проверка с null в качестве операций.")
+		@Test
+		public void changeAmountsWithNull() {
+			assertThatExceptionOfType(NullPointerException.class).isThrownBy(() -> {
+				accountRepository.changeAmounts(PLAYER_ID, null, true);
+			});
+		}
+
+		private BigDecimal getAmount(final long accountId) {
+			return accountRepository.findById(PLAYER_ID, accountId).orElseThrow().getAmount();
+		}
+	}
+
+	@Nested
+	public class Transfer {
+		private static final long PLAYER_ID = 1L;
+
+		@DisplayName("Проверка с корректными данными.")
+		@Test
+		public void transferValid() {
+			long fromAccountId = this.addAccount(BigDecimal.valueOf(15));
+			long toAccountId = this.addAccount(BigDecimal.valueOf(5));
+
+			TransferChange actual = accountRepository.transfer(PLAYER_ID, fromAccountId, toAccountId, BigDecimal.TEN);
+
+			assertThat(actual.getStatus()).isEqualTo(AmountChangeStatus.SUCCESS);
+			assertThat(actual.getOutOperationId()).isPositive();
+			assertThat(actual.getInOperationId()).isPositive().isNotEqualTo(actual.getOutOperationId());
+			assertThat(actual.getFromAmount()).isEqualByComparingTo(BigDecimal.valueOf(5));
+			assertThat(actual.getToAmount()).isEqualByComparingTo(BigDecimal.valueOf(15));
+			assertThat(this.getAmount(fromAccountId)).isEqualByComparingTo(BigDecimal.valueOf(5));
+			assertThat(this.getAmount(toAccountId)).isEqualByComparingTo(BigDecimal.valueOf(15));
+		}
+
+		@DisplayName("Проверка встречных переводов из нескольких потоков.")
+		@Test
+		public void transferConcurrent() throws InterruptedException {
+			long firstAccountId = this.addAccount(BigDecimal.valueOf(100));
+			long secondAccountId = this.addAccount(BigDecimal.valueOf(100));
+			ExecutorService executor = Executors.newFixedThreadPool(8);
+
+			for (int thread = 0; thread < 8; thread++) {
+				long fromAccountId = (thread % 2 == 0) ? firstAccountId : secondAccountId;
+				long toAccountId = (thread % 2 == 0) ? secondAccountId : firstAccountId;
+				executor.execute(() -> {
+					for (int iteration = 0; iteration < 25; iteration++) {
+						accountRepository.transfer(PLAYER_ID, fromAccountId, toAccountId, BigDecimal.ONE);
+					}
+				});
+			}
+			executor.shutdown();
+
+			assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+			assertThat(this.getAmount(firstAccountId)).isEqualByComparingTo(BigDecimal.valueOf(100));
+			assertThat(this.getAmount(secondAccountId)).isEqualByComparingTo(BigDecimal.valueOf(100));
+		}
+
+		@DisplayName("Проверка перевода с распределённого счёта.")
+		@Test
+		public void transferFromSharded() {
+			long playerId = 3L;
+			long fromAccountId = 7L;
+			accountRepository.changeAmount(playerId, fromAccountId, OperationType.CREDIT, BigDecimal.TEN);
+			BigDecimal amount = accountRepository.findById(playerId, fromAccountId).orElseThrow().getAmount()
+					.subtract(BigDecimal.ONE);
+			long toAccountId = accountRepository.save(new Account(0L, playerId, BigDecimal.ZERO)).getAccountId();
+
+			TransferChange actual = accountRepository.transfer(playerId, fromAccountId, toAccountId, amount);
+
+			assertThat(actual.getStatus()).isEqualTo(AmountChangeStatus.SUCCESS);
+			assertThat(actual.getFromAmount()).isEqualByComparingTo(BigDecimal.ONE);
+			assertThat(accountRepository.findById(playerId, fromAccountId).orElseThrow().getAmount())
+					.isEqualByComparingTo(BigDecimal.ONE);
+			assertThat(accountRepository.changeAmount(playerId, fromAccountId, OperationType.DEBIT,
+					new BigDecimal("2.0")).getStatus()).isEqualTo(AmountChangeStatus.OUT_OF_AMOUNT);
+		}
+
+		@DisplayName("Проверка с недостаточной суммой.")
+		@Test
+		public void transferWithOutOfAmount() {
+			long fromAccountId = this.addAccount(BigDecimal.ONE);
+			long toAccountId = this.addAccount(BigDecimal.ONE);
+
+			TransferChange actual = accountRepository.transfer(PLAYER_ID, fromAccountId, toAccountId, BigDecimal.TEN);
+
+			assertThat(actual.getStatus()).isEqualTo(AmountChangeStatus.OUT_OF_AMOUNT);
+			assertThat(actual.getFromAmount()).isEqualByComparingTo(BigDecimal.ONE);
+			assertThat(this.getAmount(fromAccountId)).isEqualByComparingTo(BigDecimal.ONE);
+			assertThat(this.getAmount(toAccountId)).isEqualByComparingTo(BigDecimal.ONE);
+		}
+
+		@DisplayName("Проверка с отсутствующим счётом зачисления.")
+		@Test
+		public void transferWithNotFoundAccount() {
+			long fromAccountId = this.addAccount(BigDecimal.TEN);
+
+			TransferChange actual = accountRepository.transfer(PLAYER_ID, fromAccountId, 24565464L, BigDecimal.ONE);
+
+			assertThat(actual.getStatus()).isEqualTo(AmountChangeStatus.NOT_FOUND_ACCOUNT);
+			assertThat(actual.getAccountId()).isEqualTo(24565464L);
+		}
+
+		@DisplayName("Проверка со счётом зачисления другого игрока.")
+		@Test
+		public void transferWithNoAccessAccount() {
+			long fromAccountId = this.addAccount(BigDecimal.TEN);
+
+			TransferChange actual = accountRepository.transfer(PLAYER_ID, fromAccountId, 4L, BigDecimal.ONE);
+
+			assertThat(actual.getStatus()).isEqualTo(AmountChangeStatus.NO_ACCESS_ACCOUNT);
+			assertThat(actual.getAccountId()).isEqualTo(4L);
+			assertThat(this.getAmount(fromAccountId)).isEqualByComparingTo(BigDecimal.TEN);
+		}
+
+		@DisplayName("Проверка с одинаковыми счетами.")
+		@Test
+		public void transferWithSameAccount() {
+			assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> {
+				accountRepository.transfer(PLAYER_ID, 2L, 2L, BigDecimal.ONE);
+			});
+		}
+
+		private long addAccount(final BigDecimal amount) {
+			return accountRepository.save(new Account(0L, PLAYER_ID, amount)).getAccountId();
+		}
+
+		private BigDecimal getAmount(final long accountId) {
+			return accountRepository.findById(PLAYER_ID, accountId).orElseThrow().getAmount();
+		}
+	}
+
 	@Nested
 	public class FindById {
 		@DisplayName("Проверка с корректными данными.")
@@ -0,0 +1,194 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.repository.impl;
+
+import dev.kalenchukov.wallet.WalletApplicationTest;
+import dev.kalenchukov.wallet.entity.Account;
+import dev.kalenchukov.wallet.entity.AccountSnapshot;
+import dev.kalenchukov.wallet.entity.AmountChange;
+import dev.kalenchukov.wallet.repository.AccountRepository;
+import dev.kalenchukov.wallet.repository.AccountSnapshotRepository;
+import dev.kalenchukov.wallet.type.OperationType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(classes = WalletApplicationTest.class)
+public class AccountSnapshotRepositoryImplTest {
+	private static final long PLAYER_ID = 1L;
+
+	@Autowired
+	private AccountRepository accountRepository;
+
+	@Autowired
+	private AccountSnapshotRepository accountSnapshotRepository;
+
+	@Nested
+	public class FindLast {
+		@DisplayName("Проверка со счётом без снимков.")
+		@Test
+		public void findLastWithoutSnapshots() {
+			long accountId = addAccount();
+
+			Optional<AccountSnapshot> actual = accountSnapshotRepository.findLast(accountId);
+
+			assertThat(actual).isEmpty();
+		}
+
+		@DisplayName("Проверка с начальным снимком существующего счёта.")
+		@Test
+		public void findLastWithInitialSnapshot() {
+			Optional<AccountSnapshot> actual = accountSnapshotRepository.findLast(1L);
+
+			assertThat(actual).isPresent();
+		}
+	}
+
+	@Nested
+	public class Replay {
+		@DisplayName("Проверка со счётом без снимков.")
+		@Test
+		public void replayWithoutSnapshots() {
+			long accountId = addAccount();
+			changeAmount(accountId, OperationType.CREDIT, BigDecimal.TEN);
+			long operationId = changeAmount(accountId, OperationType.DEBIT, BigDecimal.valueOf(3));
+
+			AccountSnapshot actual = accountSnapshotRepository.replay(accountId);
+
+			assertThat(actual.getAccountId()).isEqualTo(accountId);
+			assertThat(actual.getOperationId()).isEqualTo(operationId);
+			assertThat(actual.getAmount()).isEqualByComparingTo(BigDecimal.valueOf(7));
+		}
+
+		@DisplayName("Проверка с операциями после снимка.")
+		@Test
+		public void replayAfterSnapshot() {
+			long accountId = addAccount();
+			changeAmount(accountId, OperationType.CREDIT, BigDecimal.TEN);
+			accountSnapshotRepository.snapshot(accountId);
+			long operationId = changeAmount(accountId, OperationType.CREDIT, BigDecimal.valueOf(5));
+
+			AccountSnapshot actual = accountSnapshotRepository.replay(accountId);
+
+			assertThat(actual.getOperationId()).isEqualTo(operationId);
+			assertThat(actual.getAmount()).isEqualByComparingTo(BigDecimal.valueOf(15));
+		}
+
+		@DisplayName("Проверка с переводом между счетами.")
+		@Test
+		public void replayWithTransfer() {
+			long fromAccountId = addAccount();
+			long toAccountId = addAccount();
+			changeAmount(fromAccountId, OperationType.CREDIT, BigDecimal.TEN);
+			accountRepository.transfer(PLAYER_ID, fromAccountId, toAccountId, BigDecimal.valueOf(4));
+
+			AccountSnapshot actualFrom = accountSnapshotRepository.replay(fromAccountId);
+			AccountSnapshot actualTo = accountSnapshotRepository.replay(toAccountId);
+
+			assertThat(actualFrom.getAmount()).isEqualByComparingTo(BigDecimal.valueOf(6));
+			assertThat(actualTo.getAmount()).isEqualByComparingTo(BigDecimal.valueOf(4));
+		}
+
+		@DisplayName("Проверка со счётом без операций.")
+		@Test
+		public void replayWithoutOperations() {
+			long accountId = addAccount();
+
+			AccountSnapshot actual = accountSnapshotRepository.replay(accountId);
+
+			assertThat(actual.getOperationId()).isZero();
+			assertThat(actual.getAmount()).isEqualByComparingTo(BigDecimal.ZERO);
+		}
+	}
+
+	@Nested
+	public class Snapshot {
+		@DisplayName("Проверка с корректными данными.")
+		@Test
+		public void snapshotValid() {
+			long accountId = addAccount();
+			long operationId = changeAmount(accountId, OperationType.CREDIT, BigDecimal.TEN);
+
+			Optional<AccountSnapshot> actual = accountSnapshotRepository.snapshot(accountId);
+
+			assertThat(actual).isPresent();
+			assertThat(actual.get().getOperationId()).isEqualTo(operationId);
+			assertThat(actual.get().getAmount()).isEqualByComparingTo(BigDecimal.TEN);
+			assertThat(accountSnapshotRepository.findLast(accountId)).isPresent()
+					.get().extracting(AccountSnapshot::getOperationId).isEqualTo(operationId);
+		}
+
+		@DisplayName("Проверка без операций после последнего снимка.")
+		@Test
+		public void snapshotWithoutNewOperations() {
+			long accountId = addAccount();
+			changeAmount(accountId, OperationType.CREDIT, BigDecimal.TEN);
+			AccountSnapshot snapshot = accountSnapshotRepository.snapshot(accountId).orElseThrow();
+
+			Optional<AccountSnapshot> actual = accountSnapshotRepository.snapshot(accountId);
+
+			assertThat(actual).contains(snapshot);
+		}
+
+		@DisplayName("Проверка с отсутствующим счётом.")
+		@Test
+		public void snapshotNotFoundAccount() {
+			Optional<AccountSnapshot> actual = accountSnapshotRepository.snapshot(999_999L);
+
+			assertThat(actual).isEmpty();
+		}
+	}
+
+	@Nested
+	public class CountOperations {
+		@DisplayName("Проверка с корректными данными.")
+		@Test
+		public void countOperationsValid() {
+			long accountId = addAccount();
+			long fromOperationId = accountSnapshotRepository.findLastOperationId();
+			changeAmount(accountId, OperationType.CREDIT, BigDecimal.TEN);
+			long toOperationId = changeAmount(accountId, OperationType.DEBIT, BigDecimal.ONE);
+			changeAmount(accountId, OperationType.DEBIT, BigDecimal.ONE);
+
+			Map<Long, Long> actual = accountSnapshotRepository.countOperations(fromOperationId, toOperationId);
+
+			assertThat(actual).containsEntry(accountId, 2L);
+		}
+	}
+
+	@Nested
+	public class FindLastOperationId {
+		@DisplayName("Проверка с корректными данными.")
+		@Test
+		public void findLastOperationIdValid() {
+			long accountId = addAccount();
+			long operationId = changeAmount(accountId, OperationType.CREDIT, BigDecimal.TEN);
+
+			long actual = accountSnapshotRepository.findLastOperationId();
+
+			assertThat(actual).isGreaterThanOrEqualTo(operationId);
+		}
+	}
+
+	private long addAccount() {
+		return accountRepository.save(new Account(0L, PLAYER_ID, BigDecimal.ZERO)).getAccountId();
+	}
+
+	private long changeAmount(final long accountId, final OperationType operationType, final BigDecimal amount) {
+		AmountChange amountChange = accountRepository.changeAmount(PLAYER_ID, accountId, operationType, amount);
+
+		return amountChange.getOperationId();
+	}
+}
\ No newline at end of file
@@ -0,0 +1,193 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.repository.impl;
+
+import dev.kalenchukov.wallet.WalletApplicationTest;
+import dev.kalenchukov.wallet.entity.Account;
+import dev.kalenchukov.wallet.entity.AmountChange;
+import dev.kalenchukov.wallet.repository.AccountRepository;
+import dev.kalenchukov.wallet.repository.AccountSnapshotRepository;
+import dev.kalenchukov.wallet.repository.EventSourcedAccountRepository;
+import dev.kalenchukov.wallet.type.AmountChangeStatus;
+import dev.kalenchukov.wallet.type.OperationType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+@SpringBootTest(classes = WalletApplicationTest.class)
+public class EventSourcedAccountRepositoryImplTest {
+	private static final long PLAYER_ID = 1L;
+
+	@Autowired
+	private EventSourcedAccountRepository eventSourcedAccountRepository;
+
+	@Autowired
+	private AccountRepository accountRepository;
+
+	@Autowired
+	private AccountSnapshotRepository accountSnapshotRepository;
+
+	@Nested
+	public class ChangeAmount {
+		@DisplayName("Проверка с корректными данными.")
+		@Test
+		public void changeAmountValid() {
+			long accountId = addAccount();
+
+			AmountChange actual = eventSourcedAccountRepository.changeAmount(PLAYER_ID, accountId,
+					OperationType.CREDIT, BigDecimal.TEN
+			);
+
+			assertThat(actual.getStatus()).isEqualTo(AmountChangeStatus.SUCCESS);
+			assertThat(actual.getOperationId()).isPositive();
+			assertThat(actual.getAmount()).isEqualByComparingTo(BigDecimal.TEN);
+			assertThat(getStoredAmount(accountId)).isEqualByComparingTo(BigDecimal.ZERO);
+			assertThat(getAmount(accountId)).isEqualByComparingTo(BigDecimal.TEN);
+		}
+
+		@DisplayName("Проверка со снимком суммы счёта.")
+		@Test
+		public void changeAmountWithSnapshot() {
+			long accountId = addAccount();
+			eventSourcedAccountRepository.changeAmount(PLAYER_ID, accountId, OperationType.CREDIT, BigDecimal.TEN);
+			accountSnapshotRepository.snapshot(accountId);
+
+			AmountChange actual = eventSourcedAccountRepository.changeAmount(PLAYER_ID, accountId,
+					OperationType.DEBIT, BigDecimal.valueOf(4)
+			);
+
+			assertThat(actual.getStatus()).isEqualTo(AmountChangeStatus.SUCCESS);
+			assertThat(actual.getAmount()).isEqualByComparingTo(BigDecimal.valueOf(6));
+			assertThat(getAmount(accountId)).isEqualByComparingTo(BigDecimal.valueOf(6));
+		}
+
+		@DisplayName("Проверка списаний из нескольких потоков.")
+		@Test
+		public void changeAmountConcurrent() throws InterruptedException {
+			long accountId = addAccount();
+			eventSourcedAccountRepository.changeAmount(PLAYER_ID, accountId, OperationType.CREDIT, BigDecimal.TEN);
+			AtomicInteger successes = new AtomicInteger();
+			ExecutorService executor = Executors.newFixedThreadPool(8);
+
+			for (int thread = 0; thread < 8; thread++) {
+				executor.execute(() -> {
+					for (int iteration = 0; iteration < 5; iteration++) {
+						AmountChange amountChange = eventSourcedAccountRepository.changeAmount(PLAYER_ID, accountId,
+								OperationType.DEBIT, BigDecimal.ONE
+						);
+						if (amountChange.getStatus() == AmountChangeStatus.SUCCESS) {
+							successes.incrementAndGet();
+						}
+					}
+				});
+			}
+			executor.shutdown();
+
+			assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+			assertThat(successes.get()).isEqualTo(10);
+			assertThat(getAmount(accountId)).isEqualByComparingTo(BigDecimal.ZERO);
+		}
+
+		@DisplayName("Проверка с недостаточной суммой.")
+		@Test
+		public void changeAmountOutOfAmount() {
+			long accountId = addAccount();
+			eventSourcedAccountRepository.changeAmount(PLAYER_ID, accountId, OperationType.CREDIT, BigDecimal.ONE);
+
+			AmountChange actual = eventSourcedAccountRepository.changeAmount(PLAYER_ID, accountId,
+					OperationType.DEBIT, BigDecimal.TEN
+			);
+
+			assertThat(actual.getStatus()).isEqualTo(AmountChangeStatus.OUT_OF_AMOUNT);
+			assertThat(actual.getAmount()).isEqualByComparingTo(BigDecimal.ONE);
+			assertThat(getAmount(accountId)).isEqualByComparingTo(BigDecimal.ONE);
+		}
+
+		@DisplayName("Проверка с отсутствующим счётом.")
+		@Test
+		public void changeAmountNotFoundAccount() {
+			AmountChange actual = eventSourcedAccountRepository.changeAmount(PLAYER_ID, 999_999L,
+					OperationType.CREDIT, BigDecimal.ONE
+			);
+
+			assertThat(actual.getStatus()).isEqualTo(AmountChangeStatus.NOT_FOUND_ACCOUNT);
+		}
+
+		@DisplayName("Проверка со счётом другого игрока.")
+		@Test
+		public void changeAmountNoAccessAccount() {
+			long accountId = addAccount();
+
+			AmountChange actual = eventSourcedAccountRepository.changeAmount(2L, accountId, OperationType.CREDIT,
+					BigDecimal.ONE
+			);
+
+			assertThat(actual.getStatus()).isEqualTo(AmountChangeStatus.NO_ACCESS_ACCOUNT);
+		}
+
+		@DisplayName("Проверка с переводом.")
+		@Test
+		public void changeAmountWithTransfer() {
+			long accountId = addAccount();
+
+			assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> {
+				eventSourcedAccountRepository.changeAmount(PLAYER_ID, accountId, OperationType.TRANSFER_IN,
+						BigDecimal.ONE);
+			});
+		}
+	}
+
+	@Nested
+	public class FindById {
+		@DisplayName("Проверка со счётом другого игрока.")
+		@Test
+		public void findByIdWithOtherPlayer() {
+			long accountId = addAccount();
+
+			assertThat(eventSourcedAccountRepository.findById(2L, accountId)).isEmpty();
+		}
+	}
+
+	@Nested
+	public class Release {
+		@DisplayName("Проверка с корректными данными.")
+		@Test
+		public void releaseValid() {
+			long accountId = addAccount();
+			eventSourcedAccountRepository.changeAmount(PLAYER_ID, accountId, OperationType.CREDIT, BigDecimal.TEN);
+
+			eventSourcedAccountRepository.release(accountId);
+			accountRepository.changeAmount(PLAYER_ID, accountId, OperationType.DEBIT, BigDecimal.ONE);
+
+			assertThat(getStoredAmount(accountId)).isEqualByComparingTo(BigDecimal.valueOf(9));
+			assertThat(getAmount(accountId)).isEqualByComparingTo(BigDecimal.valueOf(9));
+		}
+	}
+
+	private long addAccount() {
+		return accountRepository.save(new Account(0L, PLAYER_ID, BigDecimal.ZERO)).getAccountId();
+	}
+
+	private BigDecimal getAmount(final long accountId) {
+		return eventSourcedAccountRepository.findById(PLAYER_ID, accountId).orElseThrow().getAmount();
+	}
+
+	private BigDecimal getStoredAmount(final long accountId) {
+		return accountRepository.findById(PLAYER_ID, accountId).orElseThrow().getAmount();
+	}
+}
\ No newline at end of file
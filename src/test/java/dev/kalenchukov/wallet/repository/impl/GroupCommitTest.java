@@ -0,0 +1,163 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.repository.impl;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class GroupCommitTest {
+	@Nested
+	public class Constructor {
+		@DisplayName("Проверка с отрицательным временем ожидания.")
+		@Test
+		public void constructorWithNegativeDelay() {
+			assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> {
+				new GroupCommit<Integer, Integer>("test", -1L, 10, values -> values);
+			});
+		}
+
+		@DisplayName("Проверка с нулевым размером группы.")
+		@Test
+		public void constructorWithZeroBatchSize() {
+			assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> {
+				new GroupCommit<Integer, Integer>("test", 0L, 0, values -> values);
+			});
+		}
+	}
+
+	@Nested
+	public class Submit {
+		@DisplayName("Проверка сохранения из нескольких потоков.")
+		@Test
+		public void submitConcurrent() throws Exception {
+			List<Integer> groupSizes = new CopyOnWriteArrayList<>();
+			GroupCommit<Integer, Integer> groupCommit = new GroupCommit<>("test", 5L, 8, values -> {
+				groupSizes.add(values.size());
+				return values.stream().map(value -> value * 2).toList();
+			});
+			ExecutorService executor = Executors.newFixedThreadPool(16);
+			List<Future<Integer>> futures = new ArrayList<>();
+
+			for (int value = 0; value < 64; value++) {
+				int currentValue = value;
+				futures.add(executor.submit(() -> groupCommit.submit(currentValue)));
+			}
+			executor.shutdown();
+
+			for (int value = 0; value < 64; value++) {
+				assertThat(futures.get(value).get(30, TimeUnit.SECONDS)).isEqualTo(value * 2);
+			}
+
+			groupCommit.shutdown();
+
+			assertThat(groupSizes.stream().mapToInt(Integer::intValue).sum()).isEqualTo(64);
+			assertThat(groupSizes).allMatch(size -> size <= 8);
+		}
+
+		@DisplayName("Проверка с ошибкой сохранения группы.")
+		@Test
+		public void submitWithFailure() throws InterruptedException {
+			GroupCommit<Integer, Integer> groupCommit = new GroupCommit<>("test", 0L, 8, values -> {
+				throw new IllegalStateException("Ошибка сохранения.");
+			});
+
+			assertThatExceptionOfType(IllegalStateException.class).isThrownBy(() -> {
+				groupCommit.submit(1);
+			});
+
+			groupCommit.shutdown();
+		}
+
+		@DisplayName("Проверка сохранения после остановки.")
+		@Test
+		public void submitAfterShutdown() throws InterruptedException {
+			List<String> threads = new CopyOnWriteArrayList<>();
+			GroupCommit<Integer, Integer> groupCommit = new GroupCommit<>("test", 0L, 8, values -> {
+				threads.add(Thread.currentThread().getName());
+				return values;
+			});
+
+			groupCommit.shutdown();
+
+			assertThat(groupCommit.submit(7)).isEqualTo(7);
+			assertThat(threads).containsExactly(Thread.currentThread().getName());
+		}
+
+		@DisplayName("Проверка сохранения во время остановки.")
+		@Test
+		public void submitDuringShutdown() throws Exception {
+			for (int attempt = 0; attempt < 50; attempt++) {
+				GroupCommit<Integer, Integer> groupCommit = new GroupCommit<>("test", 0L, 8, values -> values);
+				CountDownLatch start = new CountDownLatch(1);
+				ExecutorService executor = Executors.newFixedThreadPool(4);
+				List<Future<Integer>> futures = new ArrayList<>();
+
+				for (int value = 0; value < 4; value++) {
+					int currentValue = value;
+					futures.add(executor.submit(() -> {
+						start.await();
+						return groupCommit.submit(currentValue);
+					}));
+				}
+				executor.shutdown();
+
+				start.countDown();
+				groupCommit.shutdown();
+
+				for (int value = 0; value < 4; value++) {
+					assertThat(futures.get(value).get(10, TimeUnit.SECONDS)).isEqualTo(value);
+				}
+			}
+		}
+	}
+
+	@Nested
+	public class Shutdown {
+		@DisplayName("Проверка сохранения значений, оставшихся в очереди.")
+		@Test
+		public void shutdownWithPending() throws Exception {
+			CountDownLatch committing = new CountDownLatch(1);
+			CountDownLatch release = new CountDownLatch(1);
+			GroupCommit<Integer, Integer> groupCommit = new GroupCommit<>("test", 0L, 1, values -> {
+				committing.countDown();
+				try {
+					release.await();
+				} catch (InterruptedException exception) {
+					Thread.currentThread().interrupt();
+				}
+
+				return values;
+			});
+			ExecutorService executor = Executors.newFixedThreadPool(2);
+
+			Future<Integer> first = executor.submit(() -> groupCommit.submit(1));
+			assertThat(committing.await(10, TimeUnit.SECONDS)).isTrue();
+			Future<Integer> second = executor.submit(() -> groupCommit.submit(2));
+			executor.shutdown();
+
+			Thread.sleep(50L);
+			release.countDown();
+			groupCommit.shutdown();
+
+			assertThat(first.get(10, TimeUnit.SECONDS)).isEqualTo(1);
+			assertThat(second.get(10, TimeUnit.SECONDS)).isEqualTo(2);
+		}
+	}
+}
\ No newline at end of file
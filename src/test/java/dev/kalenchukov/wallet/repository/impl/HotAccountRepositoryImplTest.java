@@ -0,0 +1,134 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.repository.impl;
+
+import dev.kalenchukov.wallet.WalletApplicationTest;
+import dev.kalenchukov.wallet.entity.AmountChange;
+import dev.kalenchukov.wallet.repository.AccountRepository;
+import dev.kalenchukov.wallet.repository.HotAccountRepository;
+import dev.kalenchukov.wallet.repository.OperationRepository;
+import dev.kalenchukov.wallet.type.AmountChangeStatus;
+import dev.kalenchukov.wallet.type.OperationType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(classes = WalletApplicationTest.class)
+public class HotAccountRepositoryImplTest {
+	@Autowired
+	private HotAccountRepository hotAccountRepository;
+
+	@Autowired
+	private AccountRepository accountRepository;
+
+	@Autowired
+	private OperationRepository operationRepository;
+
+	@Nested
+	public class IsHot {
+		@DisplayName("Проверка с горячим счётом.")
+		@Test
+		public void isHotValid() {
+			assertThat(hotAccountRepository.isHot(5L)).isTrue();
+		}
+
+		@DisplayName("Проверка с обычным счётом.")
+		@Test
+		public void isHotWithRegularAccount() {
+			assertThat(hotAccountRepository.isHot(1L)).isFalse();
+		}
+	}
+
+	@Nested
+	public class Credit {
+		@DisplayName("Проверка с корректными данными.")
+		@Test
+		public void creditValid() {
+			long playerId = 2L;
+			long accountId = 5L;
+			BigDecimal amount = new BigDecimal("7.00");
+			BigDecimal expectedAmount = this.getAmount(playerId, accountId).add(amount);
+
+			AmountChange actualAmountChange = hotAccountRepository.credit(playerId, accountId, amount);
+
+			assertThat(actualAmountChange.getStatus()).isEqualTo(AmountChangeStatus.SUCCESS);
+			assertThat(operationRepository.findById(playerId, accountId, actualAmountChange.getOperationId()))
+					.get()
+					.satisfies(operation -> {
+						assertThat(operation.getOperationType()).isEqualTo(OperationType.CREDIT);
+						assertThat(operation.getAmount()).isEqualByComparingTo(amount);
+					});
+			assertThat(this.getAmount(playerId, accountId)).isEqualByComparingTo(expectedAmount);
+
+			hotAccountRepository.flush(accountId);
+
+			assertThat(this.getAmount(playerId, accountId)).isEqualByComparingTo(expectedAmount);
+		}
+
+		@DisplayName("Проверка с конкурентными пополнениями.")
+		@Test
+		public void creditConcurrent() throws InterruptedException {
+			long playerId = 2L;
+			long accountId = 5L;
+			int threads = 8;
+			int credits = 25;
+			BigDecimal expectedAmount = this.getAmount(playerId, accountId)
+					.add(BigDecimal.ONE.multiply(BigDecimal.valueOf((long) threads * credits)));
+			Set<Long> operationIds = ConcurrentHashMap.newKeySet();
+			ExecutorService executorService = Executors.newFixedThreadPool(threads);
+
+			for (int thread = 0; thread < threads; thread++) {
+				executorService.execute(() -> {
+					for (int credit = 0; credit < credits; credit++) {
+						AmountChange amountChange = hotAccountRepository.credit(playerId, accountId, BigDecimal.ONE);
+						assertThat(amountChange.getStatus()).isEqualTo(AmountChangeStatus.SUCCESS);
+						operationIds.add(amountChange.getOperationId());
+					}
+				});
+			}
+			executorService.shutdown();
+
+			assertThat(executorService.awaitTermination(30L, TimeUnit.SECONDS)).isTrue();
+			assertThat(operationIds).hasSize(threads * credits);
+			assertThat(this.getAmount(playerId, accountId)).isEqualByComparingTo(expectedAmount);
+		}
+
+		@DisplayName("Проверка с отсутствием счёта.")
+		@Test
+		public void creditWithNotFoundAccount() {
+			AmountChange actualAmountChange = hotAccountRepository.credit(2L, 7897894L, BigDecimal.ONE);
+
+			assertThat(actualAmountChange.getStatus()).isEqualTo(AmountChangeStatus.NOT_FOUND_ACCOUNT);
+		}
+
+		@DisplayName("Проверка с отсутствием доступа к счёту.")
+		@Test
+		public void creditWithNoAccessAccount() {
+			BigDecimal expectedAmount = this.getAmount(2L, 5L);
+
+			AmountChange actualAmountChange = hotAccountRepository.credit(1L, 5L, BigDecimal.ONE);
+
+			assertThat(actualAmountChange.getStatus()).isEqualTo(AmountChangeStatus.NO_ACCESS_ACCOUNT);
+			assertThat(this.getAmount(2L, 5L)).isEqualByComparingTo(expectedAmount);
+		}
+
+		private BigDecimal getAmount(final long playerId, final long accountId) {
+			return accountRepository.findById(playerId, accountId).orElseThrow().getAmount();
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,133 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.repository.impl;
+
+import dev.kalenchukov.wallet.WalletApplicationTest;
+import dev.kalenchukov.wallet.entity.IdempotencyKey;
+import dev.kalenchukov.wallet.repository.IdempotencyKeyRepository;
+import dev.kalenchukov.wallet.type.OperationType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(classes = WalletApplicationTest.class)
+public class IdempotencyKeyRepositoryImplTest {
+	@Autowired
+	private IdempotencyKeyRepository idempotencyKeyRepository;
+
+	@Nested
+	public class Reserve {
+		@DisplayName("Проверка с корректными данными.")
+		@Test
+		public void reserveValid() {
+			IdempotencyKey idempotencyKey = new IdempotencyKey(1L, "reserve-valid", 1L, OperationType.CREDIT, null, null);
+
+			boolean actual = idempotencyKeyRepository.reserve(idempotencyKey);
+
+			assertThat(actual).isTrue();
+			assertThat(idempotencyKeyRepository.find(1L, "reserve-valid")).contains(idempotencyKey);
+		}
+
+		@DisplayName("Проверка с существующим ключом.")
+		@Test
+		public void reserveWithExisting() {
+			IdempotencyKey idempotencyKey = new IdempotencyKey(1L, "reserve-existing", 1L, OperationType.CREDIT, null, null);
+			idempotencyKeyRepository.reserve(idempotencyKey);
+
+			boolean actual = idempotencyKeyRepository.reserve(idempotencyKey);
+
+			assertThat(actual).isFalse();
+		}
+	}
+
+	@Nested
+	public class Complete {
+		@DisplayName("Проверка с корректными данными.")
+		@Test
+		public void completeValid() {
+			IdempotencyKey idempotencyKey = new IdempotencyKey(1L, "complete-valid", 1L, OperationType.DEBIT, null, null);
+			idempotencyKeyRepository.reserve(idempotencyKey);
+			idempotencyKey.setOperationId(2L);
+			idempotencyKey.setAmount(new BigDecimal("5.0"));
+
+			idempotencyKeyRepository.complete(idempotencyKey);
+
+			Optional<IdempotencyKey> actual = idempotencyKeyRepository.find(1L, "complete-valid");
+			assertThat(actual).isPresent();
+			assertThat(actual.get().getOperationId()).isEqualTo(2L);
+			assertThat(actual.get().getAmount()).isEqualByComparingTo(new BigDecimal("5.0"));
+		}
+	}
+
+	@Nested
+	public class Release {
+		@DisplayName("Проверка с корректными данными.")
+		@Test
+		public void releaseValid() {
+			idempotencyKeyRepository.reserve(new IdempotencyKey(1L, "release-valid", 1L, OperationType.CREDIT, null, null));
+
+			idempotencyKeyRepository.release(1L, "release-valid");
+
+			assertThat(idempotencyKeyRepository.find(1L, "release-valid")).isEmpty();
+		}
+
+		@DisplayName("Проверка с завершённым ключом.")
+		@Test
+		public void releaseWithCompleted() {
+			IdempotencyKey idempotencyKey = new IdempotencyKey(1L, "release-completed", 1L, OperationType.CREDIT, null, null);
+			idempotencyKeyRepository.reserve(idempotencyKey);
+			idempotencyKey.setOperationId(2L);
+			idempotencyKey.setAmount(BigDecimal.ONE);
+			idempotencyKeyRepository.complete(idempotencyKey);
+
+			idempotencyKeyRepository.release(1L, "release-completed");
+
+			assertThat(idempotencyKeyRepository.find(1L, "release-completed")).isPresent();
+		}
+
+		@DisplayName("Проверка освобождения незавершённых ключей.")
+		@Test
+		public void releaseCreatedBefore() {
+			IdempotencyKey completedKey = new IdempotencyKey(1L, "release-before-completed", 1L, OperationType.CREDIT,
+					null, null);
+			idempotencyKeyRepository.reserve(completedKey);
+			completedKey.setOperationId(2L);
+			completedKey.setAmount(BigDecimal.ONE);
+			idempotencyKeyRepository.complete(completedKey);
+			idempotencyKeyRepository.reserve(
+					new IdempotencyKey(1L, "release-before-processing", 1L, OperationType.CREDIT, null, null));
+
+			int actual = idempotencyKeyRepository.releaseCreatedBefore(Instant.now().plusSeconds(60));
+
+			assertThat(actual).isPositive();
+			assertThat(idempotencyKeyRepository.find(1L, "release-before-processing")).isEmpty();
+			assertThat(idempotencyKeyRepository.find(1L, "release-before-completed")).isPresent();
+		}
+	}
+
+	@Nested
+	public class Remove {
+		@DisplayName("Проверка удаления устаревших ключей.")
+		@Test
+		public void removeCreatedBefore() {
+			idempotencyKeyRepository.reserve(new IdempotencyKey(1L, "remove-expired", 1L, OperationType.CREDIT, null, null));
+
+			int actual = idempotencyKeyRepository.removeCreatedBefore(Instant.now().plusSeconds(60));
+
+			assertThat(actual).isPositive();
+			assertThat(idempotencyKeyRepository.find(1L, "remove-expired")).isEmpty();
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,220 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.repository.impl;
+
+import dev.kalenchukov.wallet.WalletApplicationTest;
+import dev.kalenchukov.wallet.entity.Account;
+import dev.kalenchukov.wallet.entity.AmountChange;
+import dev.kalenchukov.wallet.journal.impl.JournalImpl;
+import dev.kalenchukov.wallet.money.AmountConverter;
+import dev.kalenchukov.wallet.repository.AccountRepository;
+import dev.kalenchukov.wallet.repository.JournalAccountRepository;
+import dev.kalenchukov.wallet.repository.OperationRepository;
+import dev.kalenchukov.wallet.type.AmountChangeStatus;
+import dev.kalenchukov.wallet.type.OperationType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+@SpringBootTest(classes = WalletApplicationTest.class)
+public class JournalAccountRepositoryImplTest {
+	private static final long PLAYER_ID = 1L;
+
+	@Autowired
+	private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+	@Autowired
+	private AmountConverter amountConverter;
+
+	@Autowired
+	private AccountRepository accountRepository;
+
+	@Autowired
+	private OperationRepository operationRepository;
+
+	@TempDir
+	private Path directory;
+
+	@Nested
+	public class ChangeAmount {
+		@DisplayName("Проверка с корректными данными.")
+		@Test
+		public void changeAmountValid() {
+			long accountId = addAccount(BigDecimal.TEN);
+			JournalAccountRepository journalAccountRepository = createRepository(accountId);
+
+			AmountChange actual = journalAccountRepository.changeAmount(PLAYER_ID, accountId, OperationType.DEBIT,
+					BigDecimal.valueOf(4)
+			);
+
+			assertThat(actual.getStatus()).isEqualTo(AmountChangeStatus.SUCCESS);
+			assertThat(actual.getOperationId()).isPositive();
+			assertThat(actual.getAmount()).isEqualByComparingTo(BigDecimal.valueOf(6));
+			assertThat(getAmount(accountId)).isEqualByComparingTo(BigDecimal.TEN);
+			assertThat(journalAccountRepository.findById(PLAYER_ID, accountId)).isPresent()
+					.get().extracting(Account::getAmount).isEqualTo(actual.getAmount());
+		}
+
+		@DisplayName("Проверка с недостаточной суммой.")
+		@Test
+		public void changeAmountOutOfAmount() {
+			long accountId = addAccount(BigDecimal.ONE);
+			JournalAccountRepository journalAccountRepository = createRepository(accountId);
+
+			AmountChange actual = journalAccountRepository.changeAmount(PLAYER_ID, accountId, OperationType.DEBIT,
+					BigDecimal.TEN
+			);
+
+			assertThat(actual.getStatus()).isEqualTo(AmountChangeStatus.OUT_OF_AMOUNT);
+			assertThat(actual.getAmount()).isEqualByComparingTo(BigDecimal.ONE);
+		}
+
+		@DisplayName("Проверка с отсутствующим счётом.")
+		@Test
+		public void changeAmountNotFoundAccount() {
+			JournalAccountRepository journalAccountRepository = createRepository(999_999L);
+
+			AmountChange actual = journalAccountRepository.changeAmount(PLAYER_ID, 999_999L, OperationType.CREDIT,
+					BigDecimal.ONE
+			);
+
+			assertThat(actual.getStatus()).isEqualTo(AmountChangeStatus.NOT_FOUND_ACCOUNT);
+		}
+
+		@DisplayName("Проверка со счётом другого игрока.")
+		@Test
+		public void changeAmountNoAccessAccount() {
+			long accountId = addAccount(BigDecimal.ONE);
+			JournalAccountRepository journalAccountRepository = createRepository(accountId);
+
+			AmountChange actual = journalAccountRepository.changeAmount(2L, accountId, OperationType.CREDIT,
+					BigDecimal.ONE
+			);
+
+			assertThat(actual.getStatus()).isEqualTo(AmountChangeStatus.NO_ACCESS_ACCOUNT);
+		}
+
+		@DisplayName("Проверка с переводом.")
+		@Test
+		public void changeAmountWithTransfer() {
+			long accountId = addAccount(BigDecimal.ONE);
+			JournalAccountRepository journalAccountRepository = createRepository(accountId);
+
+			assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> {
+				journalAccountRepository.changeAmount(PLAYER_ID, accountId, OperationType.TRANSFER_IN, BigDecimal.ONE);
+			});
+		}
+	}
+
+	@Nested
+	public class Drain {
+		@DisplayName("Проверка с корректными данными.")
+		@Test
+		public void drainValid() {
+			long accountId = addAccount(BigDecimal.TEN);
+			JournalAccountRepository journalAccountRepository = createRepository(accountId);
+			AmountChange credit = journalAccountRepository.changeAmount(PLAYER_ID, accountId, OperationType.CREDIT,
+					BigDecimal.valueOf(5)
+			);
+			journalAccountRepository.changeAmount(PLAYER_ID, accountId, OperationType.DEBIT, BigDecimal.valueOf(3));
+
+			journalAccountRepository.drain();
+
+			assertThat(getAmount(accountId)).isEqualByComparingTo(BigDecimal.valueOf(12));
+			assertThat(operationRepository.find(PLAYER_ID, accountId)).hasSize(2);
+			assertThat(operationRepository.findById(PLAYER_ID, accountId, credit.getOperationId())).isPresent();
+			assertThat(findSegments()).hasSize(1);
+		}
+
+		@DisplayName("Проверка с освобождением счёта.")
+		@Test
+		public void drainWithRelease() {
+			long accountId = addAccount(BigDecimal.TEN);
+			JournalAccountRepository journalAccountRepository = createRepository(accountId);
+			journalAccountRepository.changeAmount(PLAYER_ID, accountId, OperationType.CREDIT, BigDecimal.ONE);
+
+			journalAccountRepository.release(accountId);
+			accountRepository.changeAmount(PLAYER_ID, accountId, OperationType.CREDIT, BigDecimal.ONE);
+
+			assertThat(journalAccountRepository.findById(PLAYER_ID, accountId)).isPresent()
+					.get().extracting(Account::getAmount).isEqualTo(getAmount(accountId));
+			assertThat(getAmount(accountId)).isEqualByComparingTo(BigDecimal.valueOf(12));
+		}
+	}
+
+	@Nested
+	public class Recover {
+		@DisplayName("Проверка с операциями, не сохранёнными до остановки.")
+		@Test
+		public void recoverValid() {
+			long accountId = addAccount(BigDecimal.TEN);
+			JournalAccountRepository journalAccountRepository = createRepository(accountId);
+			journalAccountRepository.changeAmount(PLAYER_ID, accountId, OperationType.CREDIT, BigDecimal.valueOf(5));
+			journalAccountRepository.changeAmount(PLAYER_ID, accountId, OperationType.DEBIT, BigDecimal.valueOf(2));
+
+			createRepository(accountId).recover();
+
+			assertThat(getAmount(accountId)).isEqualByComparingTo(BigDecimal.valueOf(13));
+			assertThat(operationRepository.find(PLAYER_ID, accountId)).hasSize(2);
+			assertThat(findSegments()).isEmpty();
+		}
+
+		@DisplayName("Проверка с уже сохранёнными операциями.")
+		@Test
+		public void recoverWithSavedOperations() {
+			long accountId = addAccount(BigDecimal.TEN);
+			JournalAccountRepository journalAccountRepository = createRepository(accountId);
+			journalAccountRepository.changeAmount(PLAYER_ID, accountId, OperationType.CREDIT, BigDecimal.valueOf(5));
+			journalAccountRepository.drain();
+
+			createRepository(accountId).recover();
+
+			assertThat(getAmount(accountId)).isEqualByComparingTo(BigDecimal.valueOf(15));
+			assertThat(operationRepository.find(PLAYER_ID, accountId)).hasSize(1);
+		}
+	}
+
+	private JournalAccountRepositoryImpl createRepository(final long accountId) {
+		return new JournalAccountRepositoryImpl(namedParameterJdbcTemplate,
+				new JournalImpl(directory.toString(), 4096), amountConverter, Set.of(accountId), 10, 100
+		);
+	}
+
+	private long addAccount(final BigDecimal amount) {
+		return accountRepository.save(new Account(0L, PLAYER_ID, amount)).getAccountId();
+	}
+
+	private BigDecimal getAmount(final long accountId) {
+		Optional<Account> account = accountRepository.findById(PLAYER_ID, accountId);
+
+		return account.orElseThrow().getAmount();
+	}
+
+	private List<Path> findSegments() {
+		try (Stream<Path> paths = Files.list(directory)) {
+			return paths.sorted().toList();
+		} catch (IOException exception) {
+			throw new RuntimeException(exception);
+		}
+	}
+}
\ No newline at end of file
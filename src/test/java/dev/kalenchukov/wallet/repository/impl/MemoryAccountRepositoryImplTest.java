@@ -0,0 +1,83 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.repository.impl;
+
+import dev.kalenchukov.starter.fixaction.repository.FixActionRepository;
+import dev.kalenchukov.wallet.WalletApplicationTest;
+import dev.kalenchukov.wallet.entity.Account;
+import dev.kalenchukov.wallet.entity.AmountChange;
+import dev.kalenchukov.wallet.entity.Player;
+import dev.kalenchukov.wallet.repository.AccountRepository;
+import dev.kalenchukov.wallet.repository.PlayerRepository;
+import dev.kalenchukov.wallet.type.AmountChangeStatus;
+import dev.kalenchukov.wallet.type.OperationType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+@SpringBootTest(classes = WalletApplicationTest.class)
+@ActiveProfiles("memory")
+public class MemoryAccountRepositoryImplTest {
+	@Autowired
+	private AccountRepository accountRepository;
+
+	@Autowired
+	private PlayerRepository playerRepository;
+
+	@Autowired
+	private FixActionRepository fixActionRepository;
+
+	@Nested
+	public class Profile {
+		@DisplayName("Проверка выбора хранилищ в памяти.")
+		@Test
+		public void profileValid() {
+			assertThat(accountRepository).isInstanceOf(MemoryAccountRepositoryImpl.class);
+			assertThat(playerRepository).isInstanceOf(MemoryPlayerRepositoryImpl.class);
+			assertThat(fixActionRepository).isInstanceOf(MemoryActionRepositoryImpl.class);
+		}
+	}
+
+	@Nested
+	public class ChangeAmount {
+		@DisplayName("Проверка с корректными данными.")
+		@Test
+		public void changeAmountValid() {
+			Player player = playerRepository.save(new Player(0L, "memory" + System.nanoTime(), "password"));
+			Account account = accountRepository.save(new Account(0L, player.getPlayerId(), BigDecimal.ZERO));
+
+			AmountChange amountChange = accountRepository.changeAmount(player.getPlayerId(), account.getAccountId(),
+					OperationType.CREDIT, BigDecimal.TEN);
+
+			assertThat(amountChange.getStatus()).isEqualTo(AmountChangeStatus.SUCCESS);
+			assertThat(accountRepository.findById(player.getPlayerId(), account.getAccountId()).orElseThrow()
+					.getAmount()).isEqualByComparingTo("10");
+		}
+	}
+
+	@Nested
+	public class Save {
+		@DisplayName("Проверка с занятым именем игрока.")
+		@Test
+		public void saveWithDuplicateName() {
+			Player player = playerRepository.save(new Player(0L, "memory" + System.nanoTime(), "password"));
+
+			assertThatExceptionOfType(DuplicateKeyException.class).isThrownBy(() -> {
+				playerRepository.save(new Player(0L, player.getName(), "other"));
+			});
+		}
+	}
+}
\ No newline at end of file
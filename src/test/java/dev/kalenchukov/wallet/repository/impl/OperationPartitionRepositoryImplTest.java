@@ -0,0 +1,123 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.repository.impl;
+
+import dev.kalenchukov.wallet.WalletApplicationTest;
+import dev.kalenchukov.wallet.entity.Account;
+import dev.kalenchukov.wallet.entity.Operation;
+import dev.kalenchukov.wallet.repository.AccountRepository;
+import dev.kalenchukov.wallet.repository.OperationPartitionRepository;
+import dev.kalenchukov.wallet.repository.OperationRepository;
+import dev.kalenchukov.wallet.type.OperationType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(classes = WalletApplicationTest.class)
+public class OperationPartitionRepositoryImplTest {
+	@Autowired
+	private OperationPartitionRepository operationPartitionRepository;
+
+	@Autowired
+	private OperationRepository operationRepository;
+
+	@Autowired
+	private AccountRepository accountRepository;
+
+	@Nested
+	public class Find {
+		@DisplayName("Проверка наличия секции текущего месяца.")
+		@Test
+		public void findValid() {
+			assertThat(operationPartitionRepository.find()).contains(YearMonth.now(ZoneOffset.UTC));
+		}
+	}
+
+	@Nested
+	public class Create {
+		@DisplayName("Проверка с повторным созданием секции.")
+		@Test
+		public void createTwice() {
+			YearMonth month = YearMonth.of(2999, 1);
+
+			operationPartitionRepository.create(month);
+			operationPartitionRepository.create(month);
+
+			assertThat(operationPartitionRepository.find()).containsOnlyOnce(month);
+			operationPartitionRepository.drop(month);
+		}
+	}
+
+	@Nested
+	public class Export {
+		@DisplayName("Проверка с корректными данными.")
+		@Test
+		public void exportValid() {
+			long accountId = accountRepository.save(new Account(0L, 1L, BigDecimal.ZERO)).getAccountId();
+			Operation operation = operationRepository.save(
+					new Operation(0L, 1L, accountId, OperationType.CREDIT, BigDecimal.TEN));
+			List<Operation> actualOperations = new ArrayList<>();
+			List<Instant> actualCreatedAts = new ArrayList<>();
+
+			operationPartitionRepository.export(YearMonth.now(ZoneOffset.UTC), (exported, createdAt) -> {
+				actualOperations.add(exported);
+				if (exported.getOperationId() == operation.getOperationId()) {
+					actualCreatedAts.add(createdAt);
+				}
+			});
+
+			assertThat(actualOperations).extracting(Operation::getOperationId).contains(operation.getOperationId());
+			assertThat(actualOperations).isSortedAccordingTo((first, second) -> first.getAccountId() != second.getAccountId()
+					? Long.compare(first.getAccountId(), second.getAccountId())
+					: first.getPlayerId() != second.getPlayerId()
+					? Long.compare(first.getPlayerId(), second.getPlayerId())
+					: Long.compare(first.getOperationId(), second.getOperationId()));
+			assertThat(actualCreatedAts).singleElement()
+					.satisfies(createdAt -> assertThat(createdAt).isBefore(Instant.now().plusSeconds(1L)));
+		}
+	}
+
+	@Nested
+	public class FindAccountIds {
+		@DisplayName("Проверка с корректными данными.")
+		@Test
+		public void findAccountIdsValid() {
+			long accountId = accountRepository.save(new Account(0L, 1L, BigDecimal.ZERO)).getAccountId();
+			operationRepository.save(new Operation(0L, 1L, accountId, OperationType.CREDIT, BigDecimal.TEN));
+			operationRepository.save(new Operation(0L, 1L, accountId, OperationType.DEBIT, BigDecimal.ONE));
+
+			List<Long> actualAccountIds = operationPartitionRepository.findAccountIds(YearMonth.now(ZoneOffset.UTC));
+
+			assertThat(actualAccountIds).containsOnlyOnce(accountId).isSorted();
+		}
+	}
+
+	@Nested
+	public class Drop {
+		@DisplayName("Проверка с корректными данными.")
+		@Test
+		public void dropValid() {
+			YearMonth month = YearMonth.of(2999, 2);
+			operationPartitionRepository.create(month);
+
+			operationPartitionRepository.drop(month);
+
+			assertThat(operationPartitionRepository.find()).doesNotContain(month);
+		}
+	}
+}
\ No newline at end of file
@@ -7,18 +7,41 @@
 package dev.kalenchukov.wallet.repository.impl;
 
 import dev.kalenchukov.wallet.WalletApplicationTest;
+import dev.kalenchukov.wallet.archive.OperationArchive;
+import dev.kalenchukov.wallet.archive.impl.OperationArchiveImpl;
+import dev.kalenchukov.wallet.entity.Account;
 import dev.kalenchukov.wallet.entity.Operation;
+import dev.kalenchukov.wallet.entity.OperationSummary;
+import dev.kalenchukov.wallet.money.AmountConverter;
+import dev.kalenchukov.wallet.repository.AccountRepository;
 import dev.kalenchukov.wallet.repository.OperationRepository;
 import dev.kalenchukov.wallet.type.OperationType;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
@@ -30,6 +53,21 @@ public class OperationRepositoryImplTest {
 	@Autowired
 	private OperationRepository operationRepository;
 
+	@Autowired
+	private AccountRepository accountRepository;
+
+	@Autowired
+	private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private AmountConverter amountConverter;
+
+	@TempDir
+	private Path directory;
+
 	@Nested
 	public class Save {
 		@DisplayName("Проверка с корректными данными.")
@@ -56,6 +94,72 @@ public class OperationRepositoryImplTest {
 				operationRepository.save(null);
 			});
 		}
+
+		@DisplayName("Проверка одновременного сохранения из нескольких потоков.")
+		@Test
+		public void saveConcurrent() throws Exception {
+			int threads = 16;
+			ExecutorService executor = Executors.newFixedThreadPool(threads);
+			List<Future<Operation>> futures = new ArrayList<>();
+
+			for (int thread = 0; thread < threads; thread++) {
+				BigDecimal amount = BigDecimal.valueOf(thread + 1);
+				futures.add(executor.submit(() -> operationRepository.save(
+						new Operation(0L, 1L, 1L, OperationType.CREDIT, amount)
+				)));
+			}
+			executor.shutdown();
+
+			Set<Long> operationIds = new HashSet<>();
+			for (int thread = 0; thread < threads; thread++) {
+				Operation actualOperation = futures.get(thread).get(30, TimeUnit.SECONDS);
+
+				assertThat(actualOperation.getAmount()).isEqualTo(BigDecimal.valueOf(thread + 1));
+				assertThat(operationRepository.findById(1L, 1L, actualOperation.getOperationId()))
+						.get()
+						.extracting(Operation::getAmount)
+						.satisfies(amount -> assertThat(amount).isEqualByComparingTo(actualOperation.getAmount()));
+				operationIds.add(actualOperation.getOperationId());
+			}
+
+			assertThat(operationIds).hasSize(threads);
+		}
+	}
+
+	@Nested
+	public class SaveAll {
+		@DisplayName("Проверка с корректными данными.")
+		@Test
+		public void saveAllValid() {
+			List<Operation> operations = List.of(
+					new Operation(0L, 1L, 1L, OperationType.CREDIT, BigDecimal.TEN),
+					new Operation(0L, 1L, 1L, OperationType.DEBIT, BigDecimal.ONE)
+			);
+
+			List<Operation> actualOperations = operationRepository.saveAll(operations);
+
+			assertThat(actualOperations).hasSize(2);
+			assertThat(actualOperations.get(0).getOperationId()).isPositive();
+			assertThat(actualOperations.get(1).getOperationId()).isGreaterThan(actualOperations.get(0).getOperationId());
+			assertThat(actualOperations.get(0).getOperationType()).isEqualTo(OperationType.CREDIT);
+			assertThat(actualOperations.get(1).getOperationType()).isEqualTo(OperationType.DEBIT);
+		}
+
+		@DisplayName("Проверка с пустым списком операций.")
+		@Test
+		public void saveAllWithEmpty() {
+			List<Operation> actualOperations = operationRepository.saveAll(List.of());
+
+			assertThat(actualOperations).isEmpty();
+		}
+
+		@DisplayName("Проверка с null в качестве операций.")
+		@Test
+		public void saveAllWithNull() {
+			assertThatExceptionOfType(NullPointerException.class).isThrownBy(() -> {
+				operationRepository.saveAll(null);
+			});
+		}
 	}
 
 	@Nested
@@ -126,4 +230,245 @@ public class OperationRepositoryImplTest {
 			assertThat(actualSet).isEmpty();
 		}
 	}
+
+	@Nested
+	public class FindBefore {
+		@DisplayName("Проверка с корректными данными.")
+		@Test
+		public void findBeforeValid() {
+			long accountId = accountRepository.save(new Account(0L, 1L, BigDecimal.ZERO)).getAccountId();
+			long firstId = operationRepository.save(
+					new Operation(0L, 1L, accountId, OperationType.CREDIT, BigDecimal.ONE)).getOperationId();
+			long secondId = operationRepository.save(
+					new Operation(0L, 1L, accountId, OperationType.CREDIT, BigDecimal.TEN)).getOperationId();
+			long thirdId = operationRepository.save(
+					new Operation(0L, 1L, accountId, OperationType.DEBIT, BigDecimal.ONE)).getOperationId();
+
+			List<Operation> actualLatest = operationRepository.findBefore(1L, accountId, Long.MAX_VALUE, 2);
+			List<Operation> actualNext = operationRepository.findBefore(1L, accountId, secondId, 2);
+
+			assertThat(actualLatest).extracting(Operation::getOperationId).containsExactly(thirdId, secondId);
+			assertThat(actualNext).extracting(Operation::getOperationId).containsExactly(firstId);
+		}
+
+		@DisplayName("Проверка с операциями другого игрока.")
+		@Test
+		public void findBeforeWithOtherPlayer() {
+			long accountId = accountRepository.save(new Account(0L, 1L, BigDecimal.ZERO)).getAccountId();
+			operationRepository.save(new Operation(0L, 1L, accountId, OperationType.CREDIT, BigDecimal.ONE));
+
+			List<Operation> actualSet = operationRepository.findBefore(2L, accountId, Long.MAX_VALUE, 10);
+
+			assertThat(actualSet).isEmpty();
+		}
+	}
+
+	@Nested
+	public class FindAfter {
+		@DisplayName("Проверка с корректными данными.")
+		@Test
+		public void findAfterValid() {
+			long accountId = accountRepository.save(new Account(0L, 1L, BigDecimal.ZERO)).getAccountId();
+			long firstId = operationRepository.save(
+					new Operation(0L, 1L, accountId, OperationType.CREDIT, BigDecimal.ONE)).getOperationId();
+			long secondId = operationRepository.save(
+					new Operation(0L, 1L, accountId, OperationType.CREDIT, BigDecimal.TEN)).getOperationId();
+			long thirdId = operationRepository.save(
+					new Operation(0L, 1L, accountId, OperationType.DEBIT, BigDecimal.ONE)).getOperationId();
+
+			List<Operation> actualFirst = operationRepository.findAfter(1L, accountId, 0L, 2);
+			List<Operation> actualNext = operationRepository.findAfter(1L, accountId, secondId, 2);
+
+			assertThat(actualFirst).extracting(Operation::getOperationId).containsExactly(firstId, secondId);
+			assertThat(actualNext).extracting(Operation::getOperationId).containsExactly(thirdId);
+		}
+	}
+
+	@Nested
+	public class Export {
+		@DisplayName("Проверка с корректными данными.")
+		@Test
+		public void exportValid() {
+			long accountId = accountRepository.save(new Account(0L, 1L, BigDecimal.ZERO)).getAccountId();
+			long firstId = operationRepository.save(
+					new Operation(0L, 1L, accountId, OperationType.CREDIT, BigDecimal.TEN)).getOperationId();
+			long secondId = operationRepository.save(
+					new Operation(0L, 1L, accountId, OperationType.DEBIT, BigDecimal.ONE)).getOperationId();
+			List<Operation> actualOperations = new ArrayList<>();
+
+			operationRepository.export(1L, accountId, null, null, actualOperations::add);
+
+			assertThat(actualOperations).extracting(Operation::getOperationId).containsExactly(firstId, secondId);
+			assertThat(actualOperations.get(0).getAmount()).isEqualByComparingTo("10");
+		}
+
+		@DisplayName("Проверка с операциями другого игрока.")
+		@Test
+		public void exportWithOtherPlayer() {
+			long accountId = accountRepository.save(new Account(0L, 1L, BigDecimal.ZERO)).getAccountId();
+			operationRepository.save(new Operation(0L, 1L, accountId, OperationType.CREDIT, BigDecimal.ONE));
+			List<Operation> actualOperations = new ArrayList<>();
+
+			operationRepository.export(2L, accountId, null, null, actualOperations::add);
+
+			assertThat(actualOperations).isEmpty();
+		}
+
+		@DisplayName("Проверка с периодом.")
+		@Test
+		public void exportWithPeriod() {
+			long accountId = accountRepository.save(new Account(0L, 1L, BigDecimal.ZERO)).getAccountId();
+			long operationId = operationRepository.save(
+					new Operation(0L, 1L, accountId, OperationType.CREDIT, BigDecimal.ONE)).getOperationId();
+			Instant now = Instant.now();
+			List<Operation> actualCurrent = new ArrayList<>();
+			List<Operation> actualPast = new ArrayList<>();
+
+			operationRepository.export(1L, accountId, now.minus(1L, ChronoUnit.DAYS), now.plus(1L, ChronoUnit.DAYS),
+					actualCurrent::add);
+			operationRepository.export(1L, accountId, null, now.minus(1L, ChronoUnit.DAYS), actualPast::add);
+
+			assertThat(actualCurrent).extracting(Operation::getOperationId).containsExactly(operationId);
+			assertThat(actualPast).isEmpty();
+		}
+	}
+
+	@Nested
+	public class Summarize {
+		@DisplayName("Проверка с корректными данными.")
+		@Test
+		public void summarizeValid() {
+			long accountId = accountRepository.save(new Account(0L, 1L, BigDecimal.ZERO)).getAccountId();
+			operationRepository.saveAll(List.of(
+					new Operation(0L, 1L, accountId, OperationType.CREDIT, BigDecimal.TEN),
+					new Operation(0L, 1L, accountId, OperationType.CREDIT, BigDecimal.ONE)
+			));
+			operationRepository.save(new Operation(0L, 1L, accountId, OperationType.DEBIT, BigDecimal.ONE));
+			LocalDate today = LocalDate.now(ZoneOffset.UTC);
+
+			List<OperationSummary> actualOperationSummaries = operationRepository.summarize(1L, accountId,
+					today.minusDays(1L), today);
+
+			assertThat(actualOperationSummaries).extracting(OperationSummary::getOperationType)
+					.containsExactly(OperationType.CREDIT, OperationType.DEBIT);
+			assertThat(actualOperationSummaries.get(0).getCount()).isEqualTo(2L);
+			assertThat(actualOperationSummaries.get(0).getAmount()).isEqualByComparingTo("11");
+			assertThat(actualOperationSummaries.get(1).getCount()).isEqualTo(1L);
+		}
+
+		@DisplayName("Проверка с операциями из нескольких потоков.")
+		@Test
+		public void summarizeConcurrent() throws InterruptedException {
+			long accountId = accountRepository.save(new Account(0L, 1L, BigDecimal.ZERO)).getAccountId();
+			ExecutorService executor = Executors.newFixedThreadPool(8);
+
+			for (int thread = 0; thread < 8; thread++) {
+				executor.execute(() -> {
+					for (int iteration = 0; iteration < 25; iteration++) {
+						operationRepository.saveAll(List.of(
+								new Operation(0L, 1L, accountId, OperationType.CREDIT, BigDecimal.ONE)
+						));
+					}
+				});
+			}
+			executor.shutdown();
+			LocalDate today = LocalDate.now(ZoneOffset.UTC);
+
+			assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+			assertThat(operationRepository.summarize(1L, accountId, today.minusDays(1L), today))
+					.singleElement()
+					.satisfies(operationSummary -> {
+						assertThat(operationSummary.getCount()).isEqualTo(200L);
+						assertThat(operationSummary.getAmount()).isEqualByComparingTo("200");
+					});
+		}
+
+		@DisplayName("Проверка с периодом без операций и с операциями другого игрока.")
+		@Test
+		public void summarizeWithEmpty() {
+			long accountId = accountRepository.save(new Account(0L, 1L, BigDecimal.ZERO)).getAccountId();
+			operationRepository.save(new Operation(0L, 1L, accountId, OperationType.CREDIT, BigDecimal.ONE));
+			LocalDate today = LocalDate.now(ZoneOffset.UTC);
+
+			assertThat(operationRepository.summarize(1L, accountId, today.minusDays(2L), today.minusDays(1L)))
+					.isEmpty();
+			assertThat(operationRepository.summarize(2L, accountId, today, today)).isEmpty();
+		}
+	}
+
+	@Nested
+	public class Archive {
+		private OperationArchive operationArchive;
+
+		private OperationRepository archiveOperationRepository;
+
+		@BeforeEach
+		public void beforeEach() {
+			this.operationArchive = new OperationArchiveImpl(directory.toString());
+			this.archiveOperationRepository = new OperationRepositoryImpl(namedParameterJdbcTemplate,
+					transactionTemplate, amountConverter, this.operationArchive, false, 0L, 1, 100);
+		}
+
+		@DisplayName("Проверка поиска операции в архиве.")
+		@Test
+		public void findByIdWithArchivedOperation() {
+			long accountId = accountRepository.save(new Account(0L, 1L, BigDecimal.ZERO)).getAccountId();
+			Operation operation = new Operation(3L, 1L, accountId, OperationType.DEBIT, new BigDecimal("2.50"));
+			operationArchive.write(YearMonth.of(2000, 1), consumer ->
+					consumer.accept(operation, Instant.parse("2000-01-15T00:00:00Z"))
+			);
+
+			Optional<Operation> actualOperation = archiveOperationRepository.findById(1L, accountId, 3L);
+
+			assertThat(actualOperation).contains(operation);
+		}
+
+		@DisplayName("Проверка объединения операций таблицы и архива.")
+		@Test
+		public void findBeforeWithArchivedOperations() {
+			long accountId = accountRepository.save(new Account(0L, 1L, BigDecimal.ZERO)).getAccountId();
+			long operationId = archiveOperationRepository.save(
+					new Operation(0L, 1L, accountId, OperationType.CREDIT, BigDecimal.ONE)).getOperationId();
+			operationArchive.write(YearMonth.of(2000, 1), consumer -> {
+				consumer.accept(new Operation(1L, 1L, accountId, OperationType.CREDIT, BigDecimal.TEN),
+						Instant.parse("2000-01-15T00:00:00Z"));
+				consumer.accept(new Operation(2L, 1L, accountId, OperationType.DEBIT, BigDecimal.ONE),
+						Instant.parse("2000-01-16T00:00:00Z"));
+			});
+
+			List<Operation> actualLatest = archiveOperationRepository.findBefore(1L, accountId, Long.MAX_VALUE, 2);
+			List<Operation> actualNext = archiveOperationRepository.findAfter(1L, accountId, 1L, 2);
+			List<Operation> actualAll = archiveOperationRepository.find(1L, accountId);
+
+			assertThat(actualLatest).extracting(Operation::getOperationId).containsExactly(operationId, 2L);
+			assertThat(actualNext).extracting(Operation::getOperationId).containsExactly(2L, operationId);
+			assertThat(actualAll).extracting(Operation::getOperationId).containsExactly(operationId, 2L, 1L);
+		}
+
+		@DisplayName("Проверка выгрузки операции, которая находится и в таблице, и в архиве.")
+		@Test
+		public void exportWithArchivedOperations() {
+			long accountId = accountRepository.save(new Account(0L, 1L, BigDecimal.ZERO)).getAccountId();
+			long firstId = archiveOperationRepository.save(
+					new Operation(0L, 1L, accountId, OperationType.CREDIT, BigDecimal.ONE)).getOperationId();
+			long secondId = archiveOperationRepository.save(
+					new Operation(0L, 1L, accountId, OperationType.DEBIT, BigDecimal.ONE)).getOperationId();
+			operationArchive.write(YearMonth.of(2000, 1), consumer -> {
+				consumer.accept(new Operation(1L, 1L, accountId, OperationType.CREDIT, BigDecimal.TEN),
+						Instant.parse("2000-01-15T00:00:00Z"));
+				consumer.accept(new Operation(firstId, 1L, accountId, OperationType.CREDIT, BigDecimal.ONE),
+						Instant.parse("2000-01-16T00:00:00Z"));
+			});
+			List<Operation> actualOperations = new ArrayList<>();
+			List<Operation> actualPeriod = new ArrayList<>();
+
+			archiveOperationRepository.export(1L, accountId, null, null, actualOperations::add);
+			archiveOperationRepository.export(1L, accountId, null, Instant.parse("2000-02-01T00:00:00Z"),
+					actualPeriod::add);
+
+			assertThat(actualOperations).extracting(Operation::getOperationId)
+					.containsExactly(1L, firstId, secondId);
+			assertThat(actualPeriod).extracting(Operation::getOperationId).containsExactly(1L, firstId);
+		}
+	}
 }
\ No newline at end of file
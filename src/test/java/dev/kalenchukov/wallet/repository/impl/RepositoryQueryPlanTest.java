@@ -0,0 +1,346 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.repository.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.kalenchukov.starter.fixaction.entity.Action;
+import dev.kalenchukov.starter.fixaction.repository.impl.FixActionRepositoryImpl;
+import dev.kalenchukov.starter.fixaction.types.ActionType;
+import dev.kalenchukov.wallet.WalletApplicationTest;
+import dev.kalenchukov.wallet.archive.impl.OperationArchiveImpl;
+import dev.kalenchukov.wallet.entity.Account;
+import dev.kalenchukov.wallet.entity.IdempotencyKey;
+import dev.kalenchukov.wallet.entity.Operation;
+import dev.kalenchukov.wallet.entity.Player;
+import dev.kalenchukov.wallet.journal.impl.JournalImpl;
+import dev.kalenchukov.wallet.money.AmountConverter;
+import dev.kalenchukov.wallet.type.OperationType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Проверяет планы всех запросов хранилищ.
+ * Запросы хранилищ перехватываются на уровне JDBC вместе с параметрами и затем выполняются через {@code EXPLAIN}
+ * на заполненных таблицах в той же транзакции, которая в конце откатывается.
+ * Последовательное чтение и сортировка отключаются настройками планировщика, поэтому в плане они остаются,
+ * только если ни один индекс не подходит к запросу.
+ */
+@SpringBootTest(classes = WalletApplicationTest.class)
+public class RepositoryQueryPlanTest {
+	private static final int ACCOUNTS = 200;
+
+	private static final int OPERATIONS_PER_ACCOUNT = 50;
+
+	private static final int ACTIONS = 5000;
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Autowired
+	private AmountConverter amountConverter;
+
+	@TempDir
+	private Path directory;
+
+	private final Map<String, List<Object[]>> queries = new LinkedHashMap<>();
+
+	private boolean recording;
+
+	@DisplayName("Проверка отсутствия последовательного чтения и сортировки без индекса.")
+	@Test
+	public void queryPlansValid() {
+		DataSource recordingDataSource = (DataSource) record(dataSource, DataSource.class);
+		NamedParameterJdbcTemplate namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(recordingDataSource);
+		TransactionTemplate transactionTemplate =
+				new TransactionTemplate(new DataSourceTransactionManager(recordingDataSource));
+
+		List<String> violations = transactionTemplate.execute(status -> {
+			status.setRollbackOnly();
+
+			List<Long> accountIds = seed(namedParameterJdbcTemplate);
+			recording = true;
+			runQueries(namedParameterJdbcTemplate, transactionTemplate, accountIds);
+			recording = false;
+
+			return explain(DataSourceUtils.getConnection(recordingDataSource));
+		});
+
+		assertThat(queries).hasSizeGreaterThan(30);
+		assertThat(violations).isEmpty();
+	}
+
+	private List<Long> seed(final NamedParameterJdbcTemplate namedParameterJdbcTemplate) {
+		MapSqlParameterSource mapSqlParameterSource = new MapSqlParameterSource();
+		mapSqlParameterSource.addValue("player_id", 1L);
+		mapSqlParameterSource.addValue("accounts", ACCOUNTS);
+		mapSqlParameterSource.addValue("operations", OPERATIONS_PER_ACCOUNT);
+		mapSqlParameterSource.addValue("actions", ACTIONS);
+
+		List<Long> accountIds = namedParameterJdbcTemplate.queryForList("""
+				INSERT INTO accounts (player_id, amount)
+				SELECT :player_id, 1000
+				FROM generate_series(1, :accounts)
+				RETURNING account_id
+				""", mapSqlParameterSource, Long.class);
+		mapSqlParameterSource.addValue("account_ids", accountIds);
+
+		namedParameterJdbcTemplate.update("""
+				INSERT INTO operations (player_id, account_id, type, amount)
+				SELECT :player_id, account_id, 1, 1
+				FROM accounts, generate_series(1, :operations)
+				WHERE account_id IN (:account_ids)
+				""", mapSqlParameterSource);
+		namedParameterJdbcTemplate.update("""
+				INSERT INTO actions (player_id, type, status)
+				SELECT :player_id, 2, 1
+				FROM generate_series(1, :actions)
+				""", mapSqlParameterSource);
+
+		return accountIds;
+	}
+
+	private void runQueries(final NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+							final TransactionTemplate transactionTemplate, final List<Long> accountIds) {
+		long playerId = 1L;
+		long accountId = accountIds.get(0);
+		long otherAccountId = accountIds.get(1);
+		long shardedAccountId = accountIds.get(2);
+		long hotAccountId = accountIds.get(3);
+		long journaledAccountId = accountIds.get(4);
+		String name = "plan" + System.nanoTime();
+
+		PlayerRepositoryImpl playerRepository = new PlayerRepositoryImpl(namedParameterJdbcTemplate);
+		playerRepository.save(new Player(0L, name, "password"));
+		playerRepository.existsByName(name);
+		playerRepository.find(name, "password");
+
+		OperationRepositoryImpl operationRepository = new OperationRepositoryImpl(namedParameterJdbcTemplate,
+				transactionTemplate, amountConverter, new OperationArchiveImpl(directory.resolve("archive").toString()),
+				false, 0L, 1, 100);
+		long operationId = operationRepository.save(
+				new Operation(0L, playerId, accountId, OperationType.CREDIT, BigDecimal.ONE)).getOperationId();
+		operationRepository.saveAll(List.of(
+				new Operation(0L, playerId, accountId, OperationType.CREDIT, BigDecimal.ONE),
+				new Operation(0L, playerId, accountId, OperationType.DEBIT, BigDecimal.ONE)
+		));
+		operationRepository.findById(playerId, accountId, operationId);
+		operationRepository.find(playerId, accountId);
+		operationRepository.findBefore(playerId, accountId, operationId, 10);
+		operationRepository.findAfter(playerId, accountId, 0L, 10);
+		operationRepository.export(playerId, accountId, null, null, operation -> {
+		});
+		operationRepository.export(playerId, accountId, Instant.now().minus(1L, ChronoUnit.DAYS), Instant.now(),
+				operation -> {
+				});
+		operationRepository.summarize(playerId, accountId, LocalDate.now().minusDays(7L), LocalDate.now());
+
+		AccountRepositoryImpl accountRepository = new AccountRepositoryImpl(namedParameterJdbcTemplate,
+				transactionTemplate, operationRepository, amountConverter, Set.of(shardedAccountId), 4, false, 0L, 1);
+		accountRepository.save(new Account(0L, playerId, BigDecimal.ZERO));
+		accountRepository.updateAmount(playerId, accountId, BigDecimal.valueOf(1000));
+		accountRepository.updateAmount(playerId, shardedAccountId, BigDecimal.valueOf(1000));
+		accountRepository.changeAmount(playerId, accountId, OperationType.CREDIT, BigDecimal.ONE);
+		accountRepository.changeAmount(playerId, accountId, OperationType.DEBIT, BigDecimal.ONE);
+		accountRepository.changeAmount(playerId, shardedAccountId, OperationType.CREDIT, BigDecimal.ONE);
+		accountRepository.changeAmount(playerId, shardedAccountId, OperationType.DEBIT, BigDecimal.valueOf(500));
+		accountRepository.changeAmounts(playerId, List.of(
+				new Operation(0L, playerId, accountId, OperationType.CREDIT, BigDecimal.ONE),
+				new Operation(0L, playerId, shardedAccountId, OperationType.DEBIT, BigDecimal.ONE)
+		), true);
+		accountRepository.transfer(playerId, accountId, otherAccountId, BigDecimal.ONE);
+		accountRepository.transfer(playerId, shardedAccountId, otherAccountId, BigDecimal.ONE);
+		accountRepository.findById(playerId, accountId);
+		accountRepository.findById(playerId, shardedAccountId);
+
+		AccountSnapshotRepositoryImpl accountSnapshotRepository = new AccountSnapshotRepositoryImpl(
+				namedParameterJdbcTemplate, transactionTemplate, amountConverter);
+		accountSnapshotRepository.snapshot(accountId);
+		accountSnapshotRepository.findLast(accountId);
+		accountSnapshotRepository.replay(accountId);
+		accountSnapshotRepository.countOperations(0L, accountSnapshotRepository.findLastOperationId());
+
+		FixActionRepositoryImpl fixActionRepository = new FixActionRepositoryImpl(namedParameterJdbcTemplate);
+		fixActionRepository.save(new Action(0L, playerId, ActionType.ACCOUNT, ActionType.Status.SUCCESS));
+		fixActionRepository.saveAll(List.of(
+				new Action(0L, playerId, ActionType.ACCOUNT, ActionType.Status.SUCCESS),
+				new Action(0L, playerId, ActionType.ACTIONS, ActionType.Status.FAIL)
+		));
+		new ActionRepositoryImpl(namedParameterJdbcTemplate).find(playerId);
+
+		HotAccountRepositoryImpl hotAccountRepository = new HotAccountRepositoryImpl(namedParameterJdbcTemplate,
+				transactionTemplate, operationRepository, amountConverter, Set.of(hotAccountId), 0L);
+		hotAccountRepository.credit(playerId, hotAccountId, BigDecimal.ONE);
+		hotAccountRepository.flush(hotAccountId);
+
+		IdempotencyKeyRepositoryImpl idempotencyKeyRepository = new IdempotencyKeyRepositoryImpl(
+				namedParameterJdbcTemplate, amountConverter);
+		idempotencyKeyRepository.reserve(
+				new IdempotencyKey(playerId, name, accountId, OperationType.CREDIT, null, null));
+		idempotencyKeyRepository.complete(
+				new IdempotencyKey(playerId, name, accountId, OperationType.CREDIT, operationId, BigDecimal.ONE));
+		idempotencyKeyRepository.find(playerId, name);
+		idempotencyKeyRepository.release(playerId, name);
+		idempotencyKeyRepository.releaseCreatedBefore(Instant.now().minus(1L, ChronoUnit.DAYS));
+		idempotencyKeyRepository.removeCreatedBefore(Instant.now().minus(1L, ChronoUnit.DAYS));
+		idempotencyKeyRepository.reserve(
+				new IdempotencyKey(playerId, name + "-account", accountId, OperationType.DEBIT, null, null));
+		accountRepository.changeAmount(playerId, accountId, OperationType.DEBIT, BigDecimal.ONE, name + "-account");
+
+		JournalAccountRepositoryImpl journalAccountRepository = new JournalAccountRepositoryImpl(
+				namedParameterJdbcTemplate, new JournalImpl(directory.toString(), 4096), amountConverter,
+				Set.of(journaledAccountId), 10, 100);
+		journalAccountRepository.changeAmount(playerId, journaledAccountId, OperationType.CREDIT, BigDecimal.ONE);
+		journalAccountRepository.findById(playerId, journaledAccountId);
+		journalAccountRepository.drain();
+		journalAccountRepository.release(journaledAccountId);
+	}
+
+	private List<String> explain(final Connection connection) {
+		ObjectMapper objectMapper = new ObjectMapper();
+		List<String> violations = new ArrayList<>();
+
+		try {
+			try (Statement statement = connection.createStatement()) {
+				statement.execute("SET LOCAL enable_seqscan = off");
+				statement.execute("SET LOCAL enable_sort = off");
+			}
+
+			for (Map.Entry<String, List<Object[]>> query : queries.entrySet()) {
+				try (PreparedStatement statement = connection.prepareStatement(
+						"EXPLAIN (FORMAT JSON) " + query.getKey())) {
+					for (Object[] parameter : query.getValue()) {
+						((Method) parameter[0]).invoke(statement, (Object[]) parameter[1]);
+					}
+
+					try (ResultSet resultSet = statement.executeQuery()) {
+						resultSet.next();
+						JsonNode plan = objectMapper.readTree(resultSet.getString(1)).get(0).get("Plan");
+						check(plan, query.getKey(), violations);
+					}
+				}
+			}
+		} catch (Exception exception) {
+			throw new IllegalStateException(exception);
+		}
+
+		return violations;
+	}
+
+	private static boolean check(final JsonNode node, final String query, final List<String> violations) {
+		String nodeType = node.get("Node Type").asText();
+		boolean readsRelation = node.has("Relation Name");
+
+		if (nodeType.equals("Seq Scan") && readsRelation) {
+			violations.add("Последовательное чтение " + node.get("Relation Name").asText() + ":\n" + query);
+		}
+
+		if ((nodeType.equals("Index Scan") || nodeType.equals("Index Only Scan")) && !node.has("Index Cond")) {
+			violations.add("Полное чтение индекса " + node.get("Index Name").asText() + ":\n" + query);
+		}
+
+		if (node.has("Plans")) {
+			for (JsonNode child : node.get("Plans")) {
+				readsRelation |= check(child, query, violations);
+			}
+		}
+
+		if ((nodeType.equals("Sort") || nodeType.equals("Incremental Sort")) && readsRelation) {
+			violations.add("Сортировка без индекса:\n" + query);
+		}
+
+		return readsRelation;
+	}
+
+	private Object record(final Object target, final Class<?> type) {
+		InvocationHandler invocationHandler = (proxy, method, args) -> {
+			Object result;
+			try {
+				result = method.invoke(target, args);
+			} catch (InvocationTargetException exception) {
+				throw exception.getCause();
+			}
+
+			if (result instanceof Connection) {
+				return record(result, Connection.class);
+			}
+
+			if (result instanceof PreparedStatement) {
+				return new RecordingQuery((String) args[0]).wrap((PreparedStatement) result);
+			}
+
+			return result;
+		};
+
+		return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{type}, invocationHandler);
+	}
+
+	private class RecordingQuery {
+		private final String query;
+
+		private final List<Object[]> parameters;
+
+		private RecordingQuery(final String query) {
+			this.query = query;
+			this.parameters = new ArrayList<>();
+		}
+
+		private PreparedStatement wrap(final PreparedStatement statement) {
+			InvocationHandler invocationHandler = (proxy, method, args) -> {
+				if (recording) {
+					if (method.getName().startsWith("set") && args != null && args.length >= 2
+							&& args[0] instanceof Integer) {
+						parameters.add(new Object[]{method, args.clone()});
+					} else if (method.getName().equals("clearParameters")) {
+						parameters.clear();
+					} else if (method.getName().startsWith("execute") || method.getName().equals("addBatch")) {
+						queries.putIfAbsent(query, new ArrayList<>(parameters));
+					}
+				}
+
+				try {
+					return method.invoke(statement, args);
+				} catch (InvocationTargetException exception) {
+					throw exception.getCause();
+				}
+			};
+
+			return (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(),
+					new Class<?>[]{PreparedStatement.class}, invocationHandler);
+		}
+	}
+}
\ No newline at end of file
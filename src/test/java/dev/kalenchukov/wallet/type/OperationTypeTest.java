@@ -0,0 +1,53 @@
+/*
+ * Copyright © 2023 Алексей Каленчуков
+ * GitHub: https://github.com/kalenchukov
+ * E-mail: mailto:aleksey.kalenchukov@yandex.ru
+ */
+
+package dev.kalenchukov.wallet.type;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class OperationTypeTest {
+	@Nested
+	public class GetCode {
+		@DisplayName("Проверка неизменности кодов.")
+		@Test
+		public void getCode() {
+			assertThat(OperationType.CREDIT.getCode()).isEqualTo((short) 1);
+			assertThat(OperationType.DEBIT.getCode()).isEqualTo((short) 2);
+			assertThat(OperationType.TRANSFER_OUT.getCode()).isEqualTo((short) 3);
+			assertThat(OperationType.TRANSFER_IN.getCode()).isEqualTo((short) 4);
+		}
+	}
+
+	@Nested
+	public class FromCode {
+		@DisplayName("Проверка с корректными данными.")
+		@Test
+		public void fromCodeValid() {
+			for (OperationType operationType : OperationType.values()) {
+				assertThat(OperationType.fromCode(operationType.getCode())).isEqualTo(operationType);
+			}
+		}
+
+		@DisplayName("Проверка с неизвестным кодом.")
+		@Test
+		public void fromCodeWithUnknownCode() {
+			assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> {
+				OperationType.fromCode(0);
+			});
+			assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> {
+				OperationType.fromCode(5);
+			});
+			assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> {
+				OperationType.fromCode(-1);
+			});
+		}
+	}
+}
\ No newline at end of file